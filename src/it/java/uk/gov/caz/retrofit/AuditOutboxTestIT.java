@@ -0,0 +1,291 @@
+package uk.gov.caz.retrofit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+import com.google.common.collect.Sets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.repository.AuditOutboxRepository;
+import uk.gov.caz.retrofit.repository.AuditWriteMode;
+import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+import uk.gov.caz.retrofit.service.AuditOutboxDrainer;
+import uk.gov.caz.retrofit.service.RegisterDataVersionService;
+import uk.gov.caz.retrofit.service.RegisterLoadStrategy;
+import uk.gov.caz.retrofit.service.RegisterService;
+import uk.gov.caz.retrofit.service.RetrofitStatusIndex;
+
+@IntegrationTest
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
+class AuditOutboxTestIT {
+
+  private static final UUID UPLOADER_ID = UUID.fromString("6314d1d6-706a-40ce-b392-a0e618ab45b8");
+
+  private static final RetrofittedVehicle VEHICLE_1 = vehicle("OUT1AB", "model-1");
+  private static final RetrofittedVehicle VEHICLE_2 = vehicle("OUT2AB", "model-1");
+  private static final RetrofittedVehicle VEHICLE_3 = vehicle("OUT3AB", "model-1");
+
+  private static final Set<RetrofittedVehicle> INITIAL_VEHICLES = Sets.newHashSet(
+      VEHICLE_1, VEHICLE_2, VEHICLE_3);
+
+  private static final Set<RetrofittedVehicle> UPLOADED_VEHICLES = Sets.newHashSet(
+      VEHICLE_1, vehicle("OUT2AB", "model-2"), vehicle("OUT4AB", "model-1"));
+
+  // ids and timestamps differ between runs, hence they are not compared
+  private static final String SELECT_AUDIT_ENTRIES_SQL = "SELECT action || ' ' "
+      + "|| coalesce((original_data - 'retrofit_id' - 'insert_timestmp')::text, '-') || ' ' "
+      + "|| coalesce((new_data - 'retrofit_id' - 'insert_timestmp')::text, '-') || ' ' "
+      + "|| modifier_id || ' ' || query "
+      + "FROM audit.logged_actions WHERE table_name = 't_vehicle_retrofit' ORDER BY 1";
+
+  private static final String SELECT_LOGGED_VRNS_SQL = "SELECT new_data ->> 'vrn' "
+      + "FROM audit.logged_actions WHERE table_name = 't_vehicle_retrofit' ORDER BY id";
+
+  private static final String INSERT_VEHICLES_IN_ONE_STATEMENT_SQL = "INSERT INTO "
+      + "t_vehicle_retrofit (vrn, vehicle_category, model, date_of_retrofit) "
+      + "SELECT 'OB' || lpad(i::text, 5, '0'), 'Normal Vehicle', 'model-1', '2019-04-13'::date "
+      + "FROM generate_series(1, ?) i ORDER BY i";
+
+  private static final String SELECT_REGISTERED_VEHICLES_SQL = "SELECT vrn || ' ' || model "
+      + "FROM t_vehicle_retrofit ORDER BY 1";
+
+  // NOT VALID skips existing rows, but every new row violates the constraint
+  private static final String ADD_FAILING_OUTBOX_CONSTRAINT_SQL = "ALTER TABLE "
+      + "audit.logged_actions_outbox ADD CONSTRAINT failing_outbox_chk CHECK (false) NOT VALID";
+
+  private static final String DROP_FAILING_OUTBOX_CONSTRAINT_SQL = "ALTER TABLE "
+      + "audit.logged_actions_outbox DROP CONSTRAINT IF EXISTS failing_outbox_chk";
+
+  @Autowired
+  private RetrofittedVehiclePostgresRepository postgresRepository;
+
+  @Autowired
+  private RetrofittedVehicleCopyRepository copyRepository;
+
+  @Autowired
+  private AuditingRepository auditingRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
+  @Autowired
+  private AuditOutboxDrainer auditOutboxDrainer;
+
+  @Autowired
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void shouldLogTheSameEntriesOnceOutboxIsDrained() {
+    for (RegisterLoadStrategy loadStrategy : RegisterLoadStrategy.values()) {
+      // given
+      register(loadStrategy, auditingRepository);
+      List<String> synchronouslyLoggedEntries = auditEntries();
+      clear();
+
+      // when
+      register(loadStrategy, outboxAuditingRepository());
+
+      // then
+      assertThat(auditEntries()).isEmpty();
+      assertThat(countRows("audit.logged_actions_outbox")).isPositive();
+
+      // when
+      int drainedEvents = auditOutboxDrainer.drain();
+
+      // then
+      assertThat(drainedEvents).isPositive();
+      assertThat(auditEntries()).isNotEmpty().isEqualTo(synchronouslyLoggedEntries);
+      assertThat(countRows("audit.logged_actions_outbox")).isZero();
+      assertThat(countRows("audit.logged_actions_outbox_commits")).isZero();
+      clear();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  public void shouldDrainOnlyCommittedEventsInCommitOrder() {
+    // given
+    CountDownLatch firstModified = new CountDownLatch(1);
+    CountDownLatch secondCommitted = new CountDownLatch(1);
+    CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+        transactionTemplate.execute(status -> {
+          insertInOutboxMode(VEHICLE_1, "first-modifier");
+          firstModified.countDown();
+          await(secondCommitted);
+          return null;
+        }));
+    await(firstModified);
+    transactionTemplate.execute(status -> {
+      insertInOutboxMode(VEHICLE_2, "second-modifier");
+      return null;
+    });
+
+    // when
+    auditOutboxDrainer.drain();
+
+    // then
+    assertThat(loggedVrns()).containsExactly(VEHICLE_2.getVrn());
+
+    // when
+    secondCommitted.countDown();
+    first.get(10, TimeUnit.SECONDS);
+    auditOutboxDrainer.drain();
+
+    // then
+    assertThat(loggedVrns()).containsExactly(VEHICLE_2.getVrn(), VEHICLE_1.getVrn());
+    assertThat(jdbcTemplate.queryForList("SELECT modifier_id FROM audit.logged_actions "
+        + "WHERE table_name = 't_vehicle_retrofit' ORDER BY id", String.class))
+        .containsExactly("second-modifier", "first-modifier");
+  }
+
+  @Test
+  public void shouldRecordChangesOfLargeStatementInBoundedEventsAndDrainThemInBoundedBatches() {
+    // given
+    transactionTemplate.execute(status -> {
+      outboxAuditingRepository().tagModificationsInCurrentTransactionBy(UPLOADER_ID);
+      jdbcTemplate.update(INSERT_VEHICLES_IN_ONE_STATEMENT_SQL, 2500);
+      return null;
+    });
+    AuditOutboxDrainer singleBatchDrainer = new AuditOutboxDrainer(auditOutboxRepository,
+        transactionTemplate, 2000, 1);
+
+    // then
+    assertThat(jdbcTemplate.queryForList("SELECT changes_count FROM audit.logged_actions_outbox "
+        + "ORDER BY id", Integer.class)).containsExactly(1000, 1000, 500);
+    assertThat(jdbcTemplate.queryForList("SELECT jsonb_array_length(changes) "
+        + "FROM audit.logged_actions_outbox ORDER BY id", Integer.class))
+        .containsExactly(1000, 1000, 500);
+
+    // when
+    int drainedEvents = singleBatchDrainer.drain();
+
+    // then
+    assertThat(drainedEvents).isEqualTo(2);
+    assertThat(auditEntries()).hasSize(2000);
+
+    // when
+    drainedEvents = singleBatchDrainer.drain();
+
+    // then
+    assertThat(drainedEvents).isEqualTo(1);
+    assertThat(loggedVrns()).containsExactlyElementsOf(IntStream.range(1, 2501)
+        .mapToObj(i -> String.format("OB%05d", i))
+        .collect(Collectors.toList()));
+    assertThat(countRows("audit.logged_actions_outbox")).isZero();
+  }
+
+  @Test
+  public void shouldNotCommitModificationsIfOutboxEventCannotBeWritten() {
+    for (RegisterLoadStrategy loadStrategy : RegisterLoadStrategy.values()) {
+      // given
+      RegisterService registerService = registerService(loadStrategy,
+          outboxAuditingRepository());
+      transactionTemplate.execute(
+          status -> registerService.register(INITIAL_VEHICLES, UPLOADER_ID));
+      List<String> registeredVehicles = registeredVehicles();
+      jdbcTemplate.execute(ADD_FAILING_OUTBOX_CONSTRAINT_SQL);
+
+      try {
+        // when
+        Throwable throwable = catchThrowable(() -> transactionTemplate.execute(
+            status -> registerService.register(UPLOADED_VEHICLES, UPLOADER_ID)));
+
+        // then
+        assertThat(throwable).isInstanceOf(DataAccessException.class);
+        assertThat(registeredVehicles()).isNotEmpty().isEqualTo(registeredVehicles);
+      } finally {
+        jdbcTemplate.execute(DROP_FAILING_OUTBOX_CONSTRAINT_SQL);
+      }
+      clear();
+    }
+  }
+
+  private void register(RegisterLoadStrategy loadStrategy, AuditingRepository auditing) {
+    RegisterService registerService = registerService(loadStrategy, auditing);
+    transactionTemplate.execute(
+        status -> registerService.register(INITIAL_VEHICLES, UPLOADER_ID));
+    transactionTemplate.execute(
+        status -> registerService.register(UPLOADED_VEHICLES, UPLOADER_ID));
+  }
+
+  private RegisterService registerService(RegisterLoadStrategy loadStrategy,
+      AuditingRepository auditing) {
+    return new RegisterService(postgresRepository, copyRepository, auditing, loadStrategy,
+        retrofitStatusIndex, registerDataVersionService);
+  }
+
+  private void insertInOutboxMode(RetrofittedVehicle vehicle, String modifierId) {
+    outboxAuditingRepository().tagModificationsInCurrentTransactionBy(modifierId);
+    postgresRepository.insertOrUpdate(Collections.singleton(vehicle));
+  }
+
+  private AuditingRepository outboxAuditingRepository() {
+    return new AuditingRepository(jdbcTemplate, AuditWriteMode.OUTBOX);
+  }
+
+  private List<String> auditEntries() {
+    return jdbcTemplate.queryForList(SELECT_AUDIT_ENTRIES_SQL, String.class);
+  }
+
+  private List<String> loggedVrns() {
+    return jdbcTemplate.queryForList(SELECT_LOGGED_VRNS_SQL, String.class);
+  }
+
+  private List<String> registeredVehicles() {
+    return jdbcTemplate.queryForList(SELECT_REGISTERED_VEHICLES_SQL, String.class);
+  }
+
+  private int countRows(String table) {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+  }
+
+  private void clear() {
+    jdbcTemplate.execute("TRUNCATE TABLE t_vehicle_retrofit");
+    jdbcTemplate.execute("TRUNCATE TABLE audit.logged_actions");
+  }
+
+  @SneakyThrows
+  private static void await(CountDownLatch latch) {
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static RetrofittedVehicle vehicle(String vrn, String model) {
+    return RetrofittedVehicle.builder()
+        .vrn(vrn)
+        .vehicleCategory("Normal Vehicle")
+        .model(model)
+        .dateOfRetrofitInstallation(LocalDate.parse("2019-04-13"))
+        .build();
+  }
+}
@@ -0,0 +1,226 @@
+package uk.gov.caz.retrofit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+import com.google.common.base.Stopwatch;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+import uk.gov.caz.retrofit.service.RegisterDataVersionService;
+import uk.gov.caz.retrofit.service.RegisterLoadStrategy;
+import uk.gov.caz.retrofit.service.RegisterService;
+import uk.gov.caz.retrofit.service.RetrofitStatusIndex;
+
+/**
+ * Compares the throughput of registering vehicles with the former row-level triggers
+ * ({@code audit.if_modified_func} and {@code retrofit_vehicle_history_func}) with the throughput
+ * of registering them with the statement-level ones ({@code audit.if_modified_statement_func}
+ * and {@code retrofit_vehicle_history_statement_func}) for every load strategy and verifies that
+ * both record the same entries in the audit log and in the history. The statement-level triggers
+ * must not be slower with {@link RegisterLoadStrategy#COPY} which modifies all rows in a few
+ * statements. {@link RegisterLoadStrategy#BATCH} executes a statement per upserted row, so both
+ * kinds of triggers fire the same number of times and only their entries are compared.
+ */
+@Slf4j
+@IntegrationTest
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
+class AuditTriggerThroughputTestIT {
+
+  private static final UUID UPLOADER_ID = UUID.fromString("6314d1d6-706a-40ce-b392-a0e618ab45b8");
+  private static final int VEHICLES_COUNT = 5000;
+  private static final int ROUNDS = 3;
+
+  private static final String[] DROP_TRIGGERS_SQL = {
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_AUDIT ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_AUDIT_INSERT ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_AUDIT_UPDATE ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_AUDIT_DELETE ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY_INSERT ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY_UPDATE ON public.t_vehicle_retrofit",
+      "DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY_DELETE ON public.t_vehicle_retrofit"
+  };
+
+  private static final String[] CREATE_ROW_TRIGGERS_SQL = {
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT "
+          + "AFTER INSERT OR UPDATE OR DELETE ON public.t_vehicle_retrofit "
+          + "FOR EACH ROW EXECUTE PROCEDURE audit.if_modified_func()",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY "
+          + "AFTER INSERT OR UPDATE OR DELETE ON public.t_vehicle_retrofit "
+          + "FOR EACH ROW EXECUTE PROCEDURE public.retrofit_vehicle_history_func()"
+  };
+
+  private static final String[] CREATE_STATEMENT_TRIGGERS_SQL = {
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_INSERT "
+          + "AFTER INSERT ON public.t_vehicle_retrofit "
+          + "REFERENCING NEW TABLE AS new_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id')",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_UPDATE "
+          + "AFTER UPDATE ON public.t_vehicle_retrofit "
+          + "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id')",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_DELETE "
+          + "AFTER DELETE ON public.t_vehicle_retrofit "
+          + "REFERENCING OLD TABLE AS old_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id')",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_INSERT "
+          + "AFTER INSERT ON public.t_vehicle_retrofit "
+          + "REFERENCING NEW TABLE AS new_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func()",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_UPDATE "
+          + "AFTER UPDATE ON public.t_vehicle_retrofit "
+          + "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func()",
+      "CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_DELETE "
+          + "AFTER DELETE ON public.t_vehicle_retrofit "
+          + "REFERENCING OLD TABLE AS old_rows "
+          + "FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func()"
+  };
+
+  // ids and timestamps differ between runs, hence they are not compared
+  private static final String SELECT_AUDIT_ENTRIES_SQL = "SELECT action || ' ' "
+      + "|| coalesce((original_data - 'retrofit_id' - 'insert_timestmp')::text, '-') || ' ' "
+      + "|| coalesce((new_data - 'retrofit_id' - 'insert_timestmp')::text, '-') || ' ' "
+      + "|| modifier_id "
+      + "FROM audit.logged_actions WHERE table_name = 't_vehicle_retrofit' ORDER BY 1";
+
+  private static final String SELECT_HISTORY_ENTRIES_SQL = "SELECT vrn || ' ' || action || ' ' "
+      + "|| coalesce(vehicle_category, '-') || ' ' || coalesce(model, '-') || ' ' "
+      + "|| date_of_retrofit || ' ' || modifier_id "
+      + "FROM t_retrofit_vehicle_history ORDER BY 1";
+
+  private static final Set<RetrofittedVehicle> INITIAL_VEHICLES = vehicles(0, VEHICLES_COUNT,
+      "model-1");
+
+  // a tenth of vehicles is removed, a half of the remaining ones is changed
+  private static final Set<RetrofittedVehicle> UPLOADED_VEHICLES = IntStream
+      .range(VEHICLES_COUNT / 10, VEHICLES_COUNT)
+      .mapToObj(i -> vehicle(i, i % 2 == 0 ? "model-1" : "model-2"))
+      .collect(Collectors.toSet());
+
+  @Autowired
+  private RetrofittedVehiclePostgresRepository postgresRepository;
+
+  @Autowired
+  private RetrofittedVehicleCopyRepository copyRepository;
+
+  @Autowired
+  private AuditingRepository auditingRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  public void restoreStatementLevelTriggers() {
+    installTriggers(CREATE_STATEMENT_TRIGGERS_SQL);
+  }
+
+  @Test
+  public void shouldRecordTheSameEntriesWithStatementLevelTriggers() {
+    for (RegisterLoadStrategy loadStrategy : RegisterLoadStrategy.values()) {
+      // given
+      installTriggers(CREATE_ROW_TRIGGERS_SQL);
+      long rowLevelMillis = bestOf(loadStrategy);
+      List<String> rowLevelAuditEntries = auditEntries();
+      List<String> rowLevelHistoryEntries = historyEntries();
+      installTriggers(CREATE_STATEMENT_TRIGGERS_SQL);
+
+      // when
+      long statementLevelMillis = bestOf(loadStrategy);
+      List<String> statementLevelAuditEntries = auditEntries();
+      List<String> statementLevelHistoryEntries = historyEntries();
+
+      // then
+      log.info("{} register of {} vehicles: {}ms with row-level triggers, {}ms with "
+              + "statement-level triggers", loadStrategy, VEHICLES_COUNT, rowLevelMillis,
+          statementLevelMillis);
+      assertThat(statementLevelAuditEntries).isNotEmpty().isEqualTo(rowLevelAuditEntries);
+      assertThat(statementLevelHistoryEntries).isNotEmpty().isEqualTo(rowLevelHistoryEntries);
+      if (loadStrategy == RegisterLoadStrategy.COPY) {
+        assertThat(statementLevelMillis).isLessThanOrEqualTo(rowLevelMillis);
+      }
+    }
+  }
+
+  private long bestOf(RegisterLoadStrategy loadStrategy) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      clear();
+      best = Math.min(best, register(loadStrategy));
+    }
+    return best;
+  }
+
+  private long register(RegisterLoadStrategy loadStrategy) {
+    RegisterService registerService = new RegisterService(postgresRepository, copyRepository,
+        auditingRepository, loadStrategy, retrofitStatusIndex, registerDataVersionService);
+    Stopwatch timer = Stopwatch.createStarted();
+    transactionTemplate.execute(
+        status -> registerService.register(INITIAL_VEHICLES, UPLOADER_ID));
+    transactionTemplate.execute(
+        status -> registerService.register(UPLOADED_VEHICLES, UPLOADER_ID));
+    return timer.stop().elapsed(TimeUnit.MILLISECONDS);
+  }
+
+  private List<String> auditEntries() {
+    return jdbcTemplate.queryForList(SELECT_AUDIT_ENTRIES_SQL, String.class);
+  }
+
+  private List<String> historyEntries() {
+    return jdbcTemplate.queryForList(SELECT_HISTORY_ENTRIES_SQL, String.class);
+  }
+
+  private void clear() {
+    postgresRepository.deleteAll();
+    jdbcTemplate.execute("TRUNCATE TABLE audit.logged_actions");
+    jdbcTemplate.execute("TRUNCATE TABLE t_retrofit_vehicle_history");
+  }
+
+  private void installTriggers(String[] createTriggersSql) {
+    jdbcTemplate.batchUpdate(DROP_TRIGGERS_SQL);
+    jdbcTemplate.batchUpdate(createTriggersSql);
+  }
+
+  private static Set<RetrofittedVehicle> vehicles(int from, int to, String model) {
+    return IntStream.range(from, to)
+        .mapToObj(i -> vehicle(i, model))
+        .collect(Collectors.toSet());
+  }
+
+  private static RetrofittedVehicle vehicle(int i, String model) {
+    return RetrofittedVehicle.builder()
+        .vrn(String.format("AT%05d", i))
+        .vehicleCategory("Normal Vehicle")
+        .model(model)
+        .dateOfRetrofitInstallation(LocalDate.parse("2019-04-13"))
+        .build();
+  }
+}
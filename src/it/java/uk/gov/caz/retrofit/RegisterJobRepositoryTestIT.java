@@ -24,6 +24,7 @@ import uk.gov.caz.retrofit.model.registerjob.RegisterJob;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobError;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobTrigger;
+import uk.gov.caz.retrofit.repository.RegisterDataVersionRepository;
 import uk.gov.caz.retrofit.repository.RegisterJobRepository;
 
 @IntegrationTest
@@ -31,9 +32,14 @@ import uk.gov.caz.retrofit.repository.RegisterJobRepository;
 @Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = ExecutionPhase.BEFORE_TEST_METHOD)
 public class RegisterJobRepositoryTestIT {
 
+  private static final String CONTENT_DIGEST = "\"9b2cf535f27731c974343645a3985328\"";
+
   @Autowired
   private RegisterJobRepository registerJobRepository;
 
+  @Autowired
+  private RegisterDataVersionRepository registerDataVersionRepository;
+
   @Test
   public void testRegisterJobRepositoryOperations() {
     // Insert
@@ -68,6 +74,37 @@ public class RegisterJobRepositoryTestIT {
     queryForNonExistingRegisterJobByName();
   }
 
+  @Test
+  public void shouldFindContentDigestOfJobWhichRegisteredCurrentData() {
+    // given
+    RegisterJob registerJob = S3_RUNNING_REGISTER_JOB.toBuilder()
+        .contentDigest(CONTENT_DIGEST)
+        .build();
+    int registerJobId = registerJobRepository.insert(registerJob);
+    assertThat(findByIdAndValidateThatItExists(registerJobId)).hasContentDigest(CONTENT_DIGEST);
+    assertThat(registerJobRepository
+        .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER)).isEmpty();
+
+    // when
+    registerJobRepository.updateRegisterDataVersion(registerJobId,
+        registerDataVersionRepository.find().getVersion());
+
+    // then
+    assertThat(registerJobRepository
+        .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER))
+        .contains(CONTENT_DIGEST);
+    assertThat(registerJobRepository
+        .findContentDigestOfCurrentData(RegisterJobTrigger.RETROFIT_DELTA_CSV_FROM_S3))
+        .isEmpty();
+
+    // and when the data is modified afterwards
+    registerDataVersionRepository.increment();
+
+    // then
+    assertThat(registerJobRepository
+        .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER)).isEmpty();
+  }
+
   @Test
   @Sql("classpath:data/sql/register-job-data.sql")
   public void shouldReturnNumberOfActivatedJobs() {
@@ -21,7 +21,8 @@ import uk.gov.caz.retrofit.annotation.MockedMvcIntegrationTest;
 
 @MockedMvcIntegrationTest
 @Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
-@Sql(scripts = "classpath:data/sql/add-sample-audit-data.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/add-sample-history-data.sql",
+    executionPhase = BEFORE_TEST_METHOD)
 @Slf4j
 class HistoricalInfoControllerDroneOnlyIT {
 
@@ -1,5 +1,6 @@
 package uk.gov.caz.retrofit.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
@@ -8,6 +9,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static uk.gov.caz.retrofit.controller.Constants.CORRELATION_ID_HEADER;
 
+import com.jayway.jsonpath.JsonPath;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -27,7 +29,8 @@ import uk.gov.caz.retrofit.annotation.MockedMvcIntegrationTest;
 
 @MockedMvcIntegrationTest
 @Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
-@Sql(scripts = "classpath:data/sql/add-sample-audit-data.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/add-sample-history-data.sql",
+    executionPhase = BEFORE_TEST_METHOD)
 @Slf4j
 class HistoricalInfoControllerIT {
 
@@ -118,6 +121,113 @@ class HistoricalInfoControllerIT {
         .andExpect(jsonPath("$.pageCount").value(0));
   }
 
+  @Test
+  public void shouldFetchSubsequentPagesWithPageToken() throws Exception {
+    // given
+    MockHttpServletRequestBuilder firstPage = historyRequest()
+        .param("pageNumber", PAGE_NUMBER);
+
+    // when
+    String firstPageResponse = contentOf(mockMvc.perform(firstPage)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.page").value(0))
+        .andExpect(jsonPath("$.totalChangesCount").value(3))
+        .andExpect(jsonPath("$.changes[0].modifyDate").value("2020-07-27")));
+    String secondPageResponse = contentOf(mockMvc.perform(historyRequest()
+        .param("pageToken", nextPageTokenOf(firstPageResponse)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.page").value(1))
+        .andExpect(jsonPath("$.totalChangesCount").value(3))
+        .andExpect(jsonPath("$.pageCount").value(3))
+        .andExpect(jsonPath("$.changes[0].modifyDate").value("2020-07-27")));
+    String secondPageByNumberResponse = contentOf(mockMvc.perform(historyRequest()
+        .param("pageNumber", "1")));
+
+    // then
+    assertThat(secondPageResponse).isEqualTo(secondPageByNumberResponse);
+    mockMvc.perform(historyRequest().param("pageToken", nextPageTokenOf(secondPageResponse)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.page").value(2))
+        .andExpect(jsonPath("$.changes[0].modifyDate").value("2020-07-24"))
+        .andExpect(jsonPath("$.changes[0].action").value("Removed"))
+        .andExpect(jsonPath("$.nextPageToken").doesNotExist());
+  }
+
+  @ParameterizedTest
+  @MethodSource("uk.gov.caz.retrofit.controller.HistoricalInfoControllerIT#changedQueryParams")
+  public void shouldReturnBadRequestIfPageTokenIsReusedWithDifferentQuery(String startDate,
+      String endDate, String pageSize) throws Exception {
+    // given
+    String firstPageResponse = contentOf(mockMvc.perform(historyRequest()
+        .param("pageNumber", PAGE_NUMBER))
+        .andExpect(status().isOk()));
+    MockHttpServletRequestBuilder accept = historyRequest(startDate, endDate, pageSize)
+        .param("pageToken", nextPageTokenOf(firstPageResponse));
+
+    // when
+    ResultActions perform = mockMvc.perform(accept);
+
+    // then
+    perform.andExpect(status().isBadRequest());
+  }
+
+  static Stream<Arguments> changedQueryParams() {
+    return Stream.of(
+        Arguments.arguments(START_DATE, END_DATE, "2"),
+        Arguments.arguments("2020-07-02", END_DATE, "1"),
+        Arguments.arguments(START_DATE, "2020-07-29", "1")
+    );
+  }
+
+  @Test
+  public void shouldNotReturnPageTokenOfLastPage() throws Exception {
+    // given
+    MockHttpServletRequestBuilder accept = get(HistoricalInfoController.BASE_PATH, VRN)
+        .header(CORRELATION_ID_HEADER, UUID.randomUUID().toString())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .param("startDate", START_DATE)
+        .param("endDate", END_DATE)
+        .param("pageNumber", PAGE_NUMBER)
+        .param("pageSize", PAGE_SIZE);
+
+    // when
+    ResultActions perform = mockMvc.perform(accept);
+
+    // then
+    perform.andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(3)))
+        .andExpect(jsonPath("$.nextPageToken").doesNotExist());
+  }
+
+  private MockHttpServletRequestBuilder historyRequest() {
+    return historyRequest(START_DATE, END_DATE, "1");
+  }
+
+  private MockHttpServletRequestBuilder historyRequest(String startDate, String endDate,
+      String pageSize) {
+    return get(HistoricalInfoController.BASE_PATH, VRN)
+        .header(CORRELATION_ID_HEADER, UUID.randomUUID().toString())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .param("startDate", startDate)
+        .param("endDate", endDate)
+        .param("pageSize", pageSize);
+  }
+
+  private static String contentOf(ResultActions resultActions) throws Exception {
+    return resultActions.andReturn().getResponse().getContentAsString();
+  }
+
+  private static String nextPageTokenOf(String response) {
+    String nextPageToken = JsonPath.read(response, "$.nextPageToken");
+    assertThat(nextPageToken).isNotNull();
+    return nextPageToken;
+  }
+
   @Test
   public void shouldReturnDataForTheProvidedDateRangeUsingTheirLocalTimeWhenBST() throws Exception {
     String vrn = "BST1235";
@@ -226,6 +336,28 @@ class HistoricalInfoControllerIT {
     );
   }
 
+  @Nested
+  class InvalidPageToken {
+
+    @ParameterizedTest
+    @MethodSource(
+        "uk.gov.caz.retrofit.controller.HistoricalInfoControllerIT#invalidPageTokens")
+    void shouldReturnBadRequestIfPageTokenIsInvalid(String pageToken) throws Exception {
+      //given
+      MockHttpServletRequestBuilder accept = historyRequest().param("pageToken", pageToken);
+
+      //when
+      ResultActions perform = mockMvc.perform(accept);
+
+      //then
+      perform.andExpect(status().isBadRequest());
+    }
+  }
+
+  static Stream<String> invalidPageTokens() {
+    return Stream.of("not a token", "", "MXwyMDIwLTA3LTI3VDE4OjM2OjI1LjE3NTY0NVp8MQ");
+  }
+
   static Stream<Arguments> nullableRequestProperties() {
     return Stream.of(
         Arguments.arguments(VRN, null, END_DATE, PAGE_NUMBER, PAGE_SIZE),
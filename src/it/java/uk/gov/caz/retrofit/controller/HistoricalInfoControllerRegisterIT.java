@@ -0,0 +1,87 @@
+package uk.gov.caz.retrofit.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_MILITARY_VEHICLE_1;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_NORMAL_VEHICLE_1;
+import static uk.gov.caz.retrofit.controller.Constants.CORRELATION_ID_HEADER;
+
+import com.google.common.collect.Sets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import uk.gov.caz.retrofit.annotation.MockedMvcIntegrationTest;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.service.RegisterService;
+
+/**
+ * Verifies the history end to end: the register is modified by {@link RegisterService}, the
+ * history is recorded by the trigger on {@code t_vehicle_retrofit} and read through the API.
+ */
+@MockedMvcIntegrationTest
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
+class HistoricalInfoControllerRegisterIT {
+
+  private static final UUID ANY_UPLOADER_ID = UUID.randomUUID();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private RegisterService registerService;
+
+  @Test
+  public void shouldReturnChangesRecordedByTriggerWhenRegisterIsModified() throws Exception {
+    // given
+    RetrofittedVehicle updatedVehicle = VALID_NORMAL_VEHICLE_1.toBuilder()
+        .model("Skoda Superb")
+        .build();
+    registerService.register(
+        Sets.newHashSet(VALID_MILITARY_VEHICLE_1, VALID_NORMAL_VEHICLE_1), ANY_UPLOADER_ID);
+    registerService.register(
+        Sets.newHashSet(VALID_MILITARY_VEHICLE_1, updatedVehicle), ANY_UPLOADER_ID);
+    registerService.register(Sets.newHashSet(VALID_MILITARY_VEHICLE_1), ANY_UPLOADER_ID);
+    LocalDate today = LocalDate.now(ZoneId.of("Europe/London"));
+
+    // when
+    ResultActions perform = mockMvc.perform(historyRequest(VALID_NORMAL_VEHICLE_1.getVrn(),
+        today.minusDays(1), today.plusDays(1)));
+
+    // then
+    perform.andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(3)))
+        .andExpect(jsonPath("$.totalChangesCount").value(3))
+        .andExpect(jsonPath("$.changes[0].action").value("Removed"))
+        .andExpect(jsonPath("$.changes[0].model").value("Skoda Superb"))
+        .andExpect(jsonPath("$.changes[1].action").value("Updated"))
+        .andExpect(jsonPath("$.changes[1].model").value("Skoda Superb"))
+        .andExpect(jsonPath("$.changes[2].action").value("Created"))
+        .andExpect(jsonPath("$.changes[2].model").value("Skoda Octavia"))
+        .andExpect(jsonPath("$.changes[2].vehicleCategory").value("Normal Vehicle"))
+        .andExpect(jsonPath("$.changes[2].dateOfRetrofit").value("2007-12-03"));
+  }
+
+  private MockHttpServletRequestBuilder historyRequest(String vrn, LocalDate startDate,
+      LocalDate endDate) {
+    return get(HistoricalInfoController.BASE_PATH, vrn)
+        .header(CORRELATION_ID_HEADER, UUID.randomUUID().toString())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .param("startDate", startDate.toString())
+        .param("endDate", endDate.toString())
+        .param("pageNumber", "0")
+        .param("pageSize", "10");
+  }
+}
@@ -1,8 +1,13 @@
 package uk.gov.caz.retrofit.controller;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static uk.gov.caz.correlationid.Constants.X_CORRELATION_ID_HEADER;
@@ -14,11 +19,14 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 import uk.gov.caz.retrofit.annotation.MockedMvcIntegrationTest;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+import uk.gov.caz.retrofit.service.RegisterDataVersionService;
 
 @MockedMvcIntegrationTest
 class RetrofitVehicleControllerTestIT {
@@ -30,6 +38,12 @@ class RetrofitVehicleControllerTestIT {
   @Autowired
   private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
 
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
   @AfterEach
   public void cleanup() {
     retrofittedVehiclePostgresRepository.deleteAll();
@@ -71,6 +85,83 @@ class RetrofitVehicleControllerTestIT {
         .andExpect(jsonPath("$.addedTimestamp", notNullValue()));
   }
 
+  @Test
+  public void shouldGetRetrofitStatusesOfManyVehiclesInRequestedOrder() throws Exception {
+    //given
+    String existingVrn = "CAS222";
+    insertVehicle(existingVrn);
+
+    //then
+    mockMvc.perform(post(BASE_PATH + "/status")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"vrns\": [\"CAS310\", \"" + existingVrn + "\"]}")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.statuses[0].vrn", is("CAS310")))
+        .andExpect(jsonPath("$.statuses[0].retrofitStatus", is(false)))
+        .andExpect(jsonPath("$.statuses[0].addedTimestamp", nullValue()))
+        .andExpect(jsonPath("$.statuses[1].vrn", is(existingVrn)))
+        .andExpect(jsonPath("$.statuses[1].retrofitStatus", is(true)))
+        .andExpect(jsonPath("$.statuses[1].addedTimestamp", notNullValue()));
+  }
+
+  @Test
+  public void shouldGet400WhenNoVrnsAreRequested() throws Exception {
+    mockMvc.perform(post(BASE_PATH + "/status")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"vrns\": []}")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void shouldGet304WhenRegisterHasNotChangedSinceLastLookup() throws Exception {
+    //given
+    String existingVrn = "CAS222";
+    insertVehicle(existingVrn);
+    String eTag = mockMvc.perform(get(BASE_PATH + "/" + existingVrn)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    //then
+    mockMvc.perform(get(BASE_PATH + "/" + existingVrn)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  public void shouldGetRetrofitStatusWhenRegisterHasChangedSinceLastLookup() throws Exception {
+    //given
+    String existingVrn = "CAS222";
+    insertVehicle(existingVrn);
+    String eTag = mockMvc.perform(get(BASE_PATH + "/" + existingVrn)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    transactionTemplate.execute(status -> {
+      registerDataVersionService.increment();
+      return null;
+    });
+
+    //then
+    mockMvc.perform(get(BASE_PATH + "/" + existingVrn)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        .header(X_CORRELATION_ID_HEADER, SOME_CORRELATION_ID))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+        .andExpect(jsonPath("$.retrofitStatus", is(true)));
+  }
+
   private void insertVehicle(String vrn) {
     retrofittedVehiclePostgresRepository.insertOrUpdate(
         Collections.singleton(
@@ -0,0 +1,177 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+
+@IntegrationTest
+class AuditLogPartitionRepositoryTestIT {
+
+  private static final YearMonth MONTH = YearMonth.of(2100, 1);
+
+  @Autowired
+  private AuditLogPartitionRepository auditLogPartitionRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @AfterEach
+  public void cleanup() {
+    if (auditLogPartitionRepository.findPartitions().contains(MONTH)) {
+      auditLogPartitionRepository.detachPartition(MONTH);
+    }
+    auditLogPartitionRepository.dropDetachedPartition(MONTH);
+    jdbcTemplate.update("DELETE FROM audit.logged_actions WHERE table_name = 'test'");
+  }
+
+  @Test
+  public void shouldCreatePartitionOnlyOnce() {
+    //when
+    boolean created = auditLogPartitionRepository.createPartition(MONTH);
+    boolean createdAgain = auditLogPartitionRepository.createPartition(MONTH);
+
+    //then
+    assertThat(created).isTrue();
+    assertThat(createdAgain).isFalse();
+    assertThat(auditLogPartitionRepository.findPartitions()).contains(MONTH);
+  }
+
+  @Test
+  public void shouldCreatePartitionsOfCurrentMonthDuringMigration() {
+    //when
+    List<YearMonth> partitions = auditLogPartitionRepository.findPartitions();
+
+    //then
+    assertThat(partitions).contains(YearMonth.now(ZoneOffset.UTC));
+  }
+
+  @Test
+  public void shouldMoveEntriesLoggedToDefaultPartitionToCreatedPartition() {
+    //given
+    insertAuditEntry(OffsetDateTime.of(2100, 1, 31, 23, 59, 59, 0, ZoneOffset.UTC));
+    insertAuditEntry(OffsetDateTime.of(2100, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+    //when
+    auditLogPartitionRepository.createPartition(MONTH);
+
+    //then
+    assertThat(countRows("audit." + AuditLogPartitionRepository.partitionName(MONTH)))
+        .isEqualTo(1);
+    assertThat(countRows("audit.logged_actions_default")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldMoveEntriesLoggedConcurrentlyWithPartitionCreationToCreatedPartition()
+      throws Exception {
+    //given
+    CountDownLatch entryLogged = new CountDownLatch(1);
+    CountDownLatch partitionCreationWaiting = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      // the entry is not committed before the partition creation starts, so it is not visible
+      // to the move of entries out of the default partition unless the creation waits for it
+      Future<?> logging = executor.submit(() -> transactionTemplate.execute(status -> {
+        insertAuditEntry(OffsetDateTime.of(2100, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC));
+        entryLogged.countDown();
+        Uninterruptibles.awaitUninterruptibly(partitionCreationWaiting, 10, TimeUnit.SECONDS);
+        return null;
+      }));
+      entryLogged.await(10, TimeUnit.SECONDS);
+
+      //when
+      Future<Boolean> creation = executor.submit(
+          () -> auditLogPartitionRepository.createPartition(MONTH));
+      Awaitility.with()
+          .pollInterval(50, TimeUnit.MILLISECONDS)
+          .await("Waiting for the partition creation to wait for the audit log lock")
+          .atMost(5, TimeUnit.SECONDS)
+          .until(this::isPartitionCreationWaitingForLock);
+      partitionCreationWaiting.countDown();
+      logging.get(10, TimeUnit.SECONDS);
+
+      //then
+      assertThat(creation.get(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(countRows("audit." + AuditLogPartitionRepository.partitionName(MONTH)))
+          .isEqualTo(1);
+      assertThat(countRows("audit.logged_actions_default WHERE table_name = 'test'")).isZero();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldDetachAndDropPartition() {
+    //given
+    auditLogPartitionRepository.createPartition(MONTH);
+    insertAuditEntry(OffsetDateTime.of(2100, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC));
+
+    //when
+    auditLogPartitionRepository.detachPartition(MONTH);
+
+    //then
+    assertThat(auditLogPartitionRepository.findPartitions()).doesNotContain(MONTH);
+    assertThat(countRows("audit.logged_actions WHERE table_name = 'test'")).isZero();
+    assertThat(countRows("audit." + AuditLogPartitionRepository.partitionName(MONTH)))
+        .isEqualTo(1);
+
+    //when
+    auditLogPartitionRepository.dropDetachedPartition(MONTH);
+
+    //then
+    assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class,
+        "audit." + AuditLogPartitionRepository.partitionName(MONTH))).isTrue();
+  }
+
+  @Test
+  public void shouldScanOnlyPartitionsOfQueriedMonths() {
+    //given
+    auditLogPartitionRepository.createPartition(MONTH);
+
+    //when
+    String plan = String.join("\n", jdbcTemplate.queryForList(
+        "EXPLAIN SELECT * FROM audit.logged_actions "
+            + "WHERE action_tstamp >= '2100-01-10T00:00:00Z' "
+            + "AND action_tstamp < '2100-01-20T00:00:00Z'", String.class));
+
+    //then
+    assertThat(plan)
+        .contains(AuditLogPartitionRepository.partitionName(MONTH))
+        .doesNotContain("logged_actions_default");
+  }
+
+  private void insertAuditEntry(OffsetDateTime actionTimestamp) {
+    jdbcTemplate.update("INSERT INTO audit.logged_actions "
+        + "(schema_name, table_name, action_tstamp, action) VALUES ('public', 'test', ?, 'I')",
+        actionTimestamp);
+  }
+
+  private boolean isPartitionCreationWaitingForLock() {
+    return jdbcTemplate.queryForObject("SELECT count(*) > 0 FROM pg_catalog.pg_stat_activity "
+        + "WHERE datname = current_database() AND wait_event_type = 'Lock' "
+        + "AND query LIKE '%create_logged_actions_partition%'", Boolean.class);
+  }
+
+  private int countRows(String tableWithCondition) {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM " + tableWithCondition,
+        Integer.class);
+  }
+}
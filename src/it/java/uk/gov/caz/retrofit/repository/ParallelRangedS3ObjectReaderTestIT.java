@@ -0,0 +1,63 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketCannedACL;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+
+@IntegrationTest
+class ParallelRangedS3ObjectReaderTestIT {
+
+  private static final String BUCKET_NAME = "ranged-download-bucket";
+  private static final String FILENAME = "large-file.csv";
+  private static final int PART_SIZE = 64 * 1024;
+
+  @Autowired
+  private S3Client s3Client;
+
+  private byte[] content;
+
+  @BeforeEach
+  void createBucketAndFile() {
+    content = new byte[10 * PART_SIZE + 123];
+    new Random(42).nextBytes(content);
+    s3Client.createBucket(builder -> builder.bucket(BUCKET_NAME).acl(BucketCannedACL.PUBLIC_READ));
+    s3Client.putObject(builder -> builder.bucket(BUCKET_NAME).key(FILENAME),
+        RequestBody.fromBytes(content));
+  }
+
+  @AfterEach
+  void deleteBucketAndFile() {
+    s3Client.deleteObject(builder -> builder.bucket(BUCKET_NAME).key(FILENAME));
+    s3Client.deleteBucket(builder -> builder.bucket(BUCKET_NAME));
+  }
+
+  @Test
+  void shouldDownloadTheSameContentInParts() throws IOException {
+    // given
+    ParallelRangedS3ObjectReader reader = new ParallelRangedS3ObjectReader(s3Client, 4,
+        PART_SIZE);
+    HeadObjectResponse fileMetadata = s3Client
+        .headObject(builder -> builder.bucket(BUCKET_NAME).key(FILENAME));
+
+    // when
+    byte[] downloaded;
+    try (InputStream inputStream = reader.read(BUCKET_NAME, FILENAME, fileMetadata)) {
+      downloaded = ByteStreams.toByteArray(inputStream);
+    }
+
+    // then
+    then(downloaded).isEqualTo(content);
+  }
+}
@@ -0,0 +1,134 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+import uk.gov.caz.retrofit.dto.RetrofitVehicleHistoricalInfo;
+import uk.gov.caz.retrofit.dto.RetrofitVehicleHistory;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+
+@IntegrationTest
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/add-sample-history-data.sql",
+    executionPhase = BEFORE_TEST_METHOD)
+class RetrofitVehicleHistoryPostgresRepositoryTestIT {
+
+  private static final String VRN = "JO32VXX";
+  private static final LocalDateTime START_DATE = LocalDateTime.parse("2020-07-01T00:00:00");
+  private static final LocalDateTime END_DATE = LocalDateTime.parse("2020-07-30T00:00:00");
+  private static final OffsetDateTime AFTER_TIMESTAMP = OffsetDateTime
+      .of(2020, 7, 27, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private RetrofitVehicleHistoryPostgresRepository retrofitVehicleHistoryPostgresRepository;
+
+  @Autowired
+  private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
+
+  @Test
+  public void shouldFindHistoryPageWithVrnIndex() {
+    //when
+    String plan = explain(RetrofitVehicleHistoryPostgresRepository.SELECT_BY_VRN_HISTORY_QUERY,
+        VRN, START_DATE, END_DATE, 10, 0);
+
+    //then
+    assertThatVrnIndexIsUsed(plan);
+  }
+
+  @Test
+  public void shouldFindHistoryPageAfterKeyWithVrnIndex() {
+    //when
+    String plan = explain(RetrofitVehicleHistoryPostgresRepository
+            .SELECT_BY_VRN_HISTORY_AFTER_KEY_QUERY,
+        VRN, START_DATE, END_DATE, AFTER_TIMESTAMP, 1L, 10);
+
+    //then
+    assertThatVrnIndexIsUsed(plan);
+  }
+
+  @Test
+  public void shouldCountHistoryWithVrnIndex() {
+    //when
+    String plan = explain(RetrofitVehicleHistoryPostgresRepository
+            .SELECT_BY_VRN_HISTORY_IN_RANGE_COUNT,
+        VRN, START_DATE, END_DATE);
+
+    //then
+    assertThatVrnIndexIsUsed(plan);
+  }
+
+  @Test
+  public void shouldRecordChangesOfRegisterInHistory() {
+    //given
+    RetrofittedVehicle vehicle = RetrofittedVehicle.builder()
+        .vrn("HIST1AB")
+        .vehicleCategory("Normal Vehicle")
+        .model("Skoda Octavia")
+        .dateOfRetrofitInstallation(LocalDate.parse("2007-12-03"))
+        .build();
+    LocalDateTime start = LocalDateTime.now().minusDays(1);
+
+    //when
+    retrofittedVehiclePostgresRepository.insertOrUpdate(Collections.singleton(vehicle));
+    retrofittedVehiclePostgresRepository.delete(Collections.singleton(vehicle.getVrn()));
+
+    //then
+    RetrofitVehicleHistoricalInfo history = retrofitVehicleHistoryPostgresRepository
+        .findByVrnInRange(vehicle.getVrn(), start, LocalDateTime.now().plusDays(1), 10, 0);
+    assertThat(history.getTotalChangesCount()).isEqualTo(2);
+    assertThat(history.getChanges())
+        .extracting(RetrofitVehicleHistory::getAction)
+        .containsExactly("Removed", "Created");
+    assertThat(history.getChanges())
+        .extracting(RetrofitVehicleHistory::getModel)
+        .containsOnly("Skoda Octavia");
+  }
+
+  private void assertThatVrnIndexIsUsed(String plan) {
+    assertThat(plan).contains("t_retrofit_vehicle_history_vrn_idx");
+  }
+
+  private String explain(String sql, Object... parameters) {
+    List<Object> parametersList = Arrays.asList(parameters);
+    return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+      try (Statement statement = connection.createStatement()) {
+        // the table is tiny, hence sequential scans need to be discouraged to see the indexes
+        statement.execute("SET enable_seqscan = off");
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+          for (int i = 0; i < parametersList.size(); i++) {
+            explain.setObject(i + 1, parametersList.get(i));
+          }
+          StringBuilder planBuilder = new StringBuilder();
+          try (ResultSet resultSet = explain.executeQuery()) {
+            while (resultSet.next()) {
+              planBuilder.append(resultSet.getString(1)).append('\n');
+            }
+          }
+          return planBuilder.toString();
+        } finally {
+          statement.execute("RESET enable_seqscan");
+        }
+      }
+    });
+  }
+}
@@ -3,14 +3,22 @@ package uk.gov.caz.retrofit.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.Sets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import uk.gov.caz.retrofit.annotation.IntegrationTest;
 import uk.gov.caz.retrofit.model.RetrofitStatus;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
@@ -35,6 +43,12 @@ class RetrofittedVehiclePostgresRepositoryTestIT {
   @Autowired
   private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
 
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
   @BeforeEach
   public void setup() {
     retrofittedVehiclePostgresRepository.insertOrUpdate(
@@ -61,6 +75,80 @@ class RetrofittedVehiclePostgresRepositoryTestIT {
         .isEmpty();
   }
 
+  @Test
+  public void shouldDeleteAllVehiclesExceptGivenVrns() {
+    //when
+    retrofittedVehiclePostgresRepository.deleteAllExcept(
+        Sets.newHashSet(NORMAL_VEHICLE_1.getVrn(), "NOTINDB")
+    );
+
+    //then
+    assertThat(retrofittedVehiclePostgresRepository.findAll())
+        .containsExactly(NORMAL_VEHICLE_1);
+  }
+
+  @Test
+  public void shouldDetectDuplicatedUploadedVrnsAndDeleteVehiclesNotUploaded() {
+    //when
+    Boolean hasDuplicatedVrns = transactionTemplate.execute(status -> {
+      retrofittedVehiclePostgresRepository.createUploadedVrnsTable();
+      retrofittedVehiclePostgresRepository.addUploadedVrns(
+          Arrays.asList(NORMAL_VEHICLE_1.getVrn(), "NOTINDB"));
+      retrofittedVehiclePostgresRepository.addUploadedVrns(
+          Collections.singletonList("NOTINDB"));
+      boolean duplicated = retrofittedVehiclePostgresRepository.hasDuplicatedUploadedVrns();
+      retrofittedVehiclePostgresRepository.deleteAllNotUploaded();
+      return duplicated;
+    });
+
+    //then
+    assertThat(hasDuplicatedVrns).isTrue();
+    assertThat(retrofittedVehiclePostgresRepository.findAll())
+        .containsExactly(NORMAL_VEHICLE_1);
+  }
+
+  @Test
+  public void shouldNotReportDuplicatesWhenUploadedVrnsAreUnique() {
+    //when
+    Boolean hasDuplicatedVrns = transactionTemplate.execute(status -> {
+      retrofittedVehiclePostgresRepository.createUploadedVrnsTable();
+      retrofittedVehiclePostgresRepository.addUploadedVrns(
+          Arrays.asList(NORMAL_VEHICLE_1.getVrn(), MILITARY_VEHICLE_1.getVrn()));
+      return retrofittedVehiclePostgresRepository.hasDuplicatedUploadedVrns();
+    });
+
+    //then
+    assertThat(hasDuplicatedVrns).isFalse();
+  }
+
+  @Test
+  public void shouldStoreContentHashComputedTheSameWayAsByMigration() {
+    //when
+    List<Boolean> hashesMatch = jdbcTemplate.queryForList(
+        "SELECT content_hash = md5(concat_ws('|', vrn, coalesce(vehicle_category, ''), "
+            + "coalesce(model, ''), coalesce(to_char(date_of_retrofit, 'YYYY-MM-DD'), ''))) "
+            + "FROM t_vehicle_retrofit", Boolean.class);
+
+    //then
+    assertThat(hashesMatch).hasSize(2).containsOnly(true);
+  }
+
+  @Test
+  public void shouldInsertOnlyNewAndChangedVehicles() {
+    //given
+    RetrofittedVehicle changedVehicle = NORMAL_VEHICLE_1.toBuilder().model("Skoda Superb").build();
+    RetrofittedVehicle newVehicle = MILITARY_VEHICLE_1.toBuilder().vrn("NEW1AB").build();
+
+    //when
+    retrofittedVehiclePostgresRepository.insertOrUpdateChanged(
+        Sets.newHashSet(MILITARY_VEHICLE_1, changedVehicle, newVehicle)
+    );
+
+    //then
+    assertThat(retrofittedVehiclePostgresRepository.findAll())
+        .containsExactlyInAnyOrder(MILITARY_VEHICLE_1, changedVehicle, newVehicle);
+  }
+
   @Test
   public void shouldFetchAllVrns() {
     //when
@@ -92,4 +180,31 @@ class RetrofittedVehiclePostgresRepositoryTestIT {
     assertThat(retrofitStatus.exists()).isEqualTo(false);
     assertThat(retrofitStatus.getInsertTimestamp()).isNull();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldFetchVrnInfoWithIndexPointLookup() {
+    //when
+    String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+      try (Statement statement = connection.createStatement()) {
+        // the table is tiny, hence sequential scans need to be discouraged to see the index
+        statement.execute("SET enable_seqscan = off");
+        try (PreparedStatement explain = connection.prepareStatement(
+            "EXPLAIN " + RetrofittedVehiclePostgresRepository.VRN_INFO_SQL)) {
+          explain.setString(1, NORMAL_VEHICLE_1.getVrn());
+          StringBuilder planBuilder = new StringBuilder();
+          try (ResultSet resultSet = explain.executeQuery()) {
+            while (resultSet.next()) {
+              planBuilder.append(resultSet.getString(1)).append('\n');
+            }
+          }
+          return planBuilder.toString();
+        } finally {
+          statement.execute("RESET enable_seqscan");
+        }
+      }
+    });
+
+    //then
+    assertThat(plan).contains("Index").doesNotContain("Aggregate");
+  }
+}
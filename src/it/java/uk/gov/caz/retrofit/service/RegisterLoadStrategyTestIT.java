@@ -0,0 +1,96 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_MILITARY_VEHICLE_1;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_NORMAL_VEHICLE_1;
+
+import com.google.common.collect.Sets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+
+@IntegrationTest
+class RegisterLoadStrategyTestIT {
+
+  private static final UUID ANY_UPLOADER_ID = UUID.randomUUID();
+
+  private static final RetrofittedVehicle VEHICLE_TO_DELETE = RetrofittedVehicle.builder()
+      .vrn("DL3TE1")
+      .vehicleCategory("Normal Vehicle")
+      .model("Ford Focus")
+      .dateOfRetrofitInstallation(LocalDate.parse("2010-01-01"))
+      .build();
+
+  private static final Set<RetrofittedVehicle> INITIAL_VEHICLES = Sets.newHashSet(
+      VALID_MILITARY_VEHICLE_1, VALID_NORMAL_VEHICLE_1, VEHICLE_TO_DELETE
+  );
+
+  private static final Set<RetrofittedVehicle> UPLOADED_VEHICLES = Sets.newHashSet(
+      VALID_MILITARY_VEHICLE_1,
+      VALID_NORMAL_VEHICLE_1.toBuilder().model("Skoda Superb").build(),
+      RetrofittedVehicle.builder()
+          .vrn("NEW1AB")
+          .vehicleCategory("Bus, \"double-decker\"")
+          .dateOfRetrofitInstallation(LocalDate.parse("2019-04-30"))
+          .build()
+  );
+
+  @Autowired
+  private RetrofittedVehiclePostgresRepository postgresRepository;
+
+  @Autowired
+  private RetrofittedVehicleCopyRepository copyRepository;
+
+  @Autowired
+  private AuditingRepository auditingRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
+  @BeforeEach
+  @AfterEach
+  public void cleanup() {
+    postgresRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldProduceTheSameTableContentsForBothLoadStrategies() {
+    // given
+    List<RetrofittedVehicle> batchResult = registerWith(RegisterLoadStrategy.BATCH);
+    postgresRepository.deleteAll();
+
+    // when
+    List<RetrofittedVehicle> copyResult = registerWith(RegisterLoadStrategy.COPY);
+
+    // then
+    assertThat(batchResult).containsExactlyInAnyOrderElementsOf(UPLOADED_VEHICLES);
+    assertThat(copyResult).containsExactlyInAnyOrderElementsOf(batchResult);
+  }
+
+  private List<RetrofittedVehicle> registerWith(RegisterLoadStrategy loadStrategy) {
+    RegisterService registerService = new RegisterService(postgresRepository, copyRepository,
+        auditingRepository, loadStrategy, retrofitStatusIndex, registerDataVersionService);
+    transactionTemplate.execute(
+        status -> registerService.register(INITIAL_VEHICLES, ANY_UPLOADER_ID));
+    transactionTemplate.execute(
+        status -> registerService.register(UPLOADED_VEHICLES, ANY_UPLOADER_ID));
+    return postgresRepository.findAll();
+  }
+}
@@ -0,0 +1,67 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_MILITARY_VEHICLE_1;
+import static uk.gov.caz.retrofit.TestVehicles.VALID_NORMAL_VEHICLE_1;
+
+import com.google.common.collect.Sets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.annotation.IntegrationTest;
+import uk.gov.caz.retrofit.repository.RegisterDataVersionRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+
+@IntegrationTest
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:data/sql/clear.sql", executionPhase = AFTER_TEST_METHOD)
+class RetrofitStatusIndexTestIT {
+
+  private static final UUID ANY_UPLOADER_ID = UUID.randomUUID();
+
+  @Autowired
+  private RetrofittedVehiclePostgresRepository postgresRepository;
+
+  @Autowired
+  private RegisterDataVersionRepository registerDataVersionRepository;
+
+  @Autowired
+  private RegisterService registerService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  public void shouldSeeVehiclesRegisteredOutsideOfItsProcess() {
+    // given
+    transactionTemplate.execute(status -> registerService.register(
+        Sets.newHashSet(VALID_MILITARY_VEHICLE_1), ANY_UPLOADER_ID));
+    RetrofitStatusIndex index = new RetrofitStatusIndex(postgresRepository,
+        new RegisterDataVersionService(registerDataVersionRepository, 0), true);
+    index.onApplicationReady();
+    assertThat(index.infoByVrn(VALID_NORMAL_VEHICLE_1.getVrn()).get().exists()).isFalse();
+
+    // when
+    // registered in a transaction which does not refresh this index, like a register job run
+    // by another Lambda
+    transactionTemplate.execute(status -> registerService.register(
+        Sets.newHashSet(VALID_MILITARY_VEHICLE_1, VALID_NORMAL_VEHICLE_1), ANY_UPLOADER_ID));
+
+    // then
+    // lookups fall back to the database until the index is reloaded in the background
+    Awaitility.with()
+        .pollInterval(50, TimeUnit.MILLISECONDS)
+        .await("Waiting for the index to be reloaded")
+        .atMost(3, TimeUnit.SECONDS)
+        .until(() -> index.infoByVrn(VALID_NORMAL_VEHICLE_1.getVrn()).isPresent());
+    assertThat(index.infoByVrn(VALID_NORMAL_VEHICLE_1.getVrn()).get().exists()).isTrue();
+    assertThat(index.infoByVrn(VALID_MILITARY_VEHICLE_1.getVrn()).get().exists()).isTrue();
+    index.shutdown();
+  }
+}
@@ -15,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.springframework.transaction.support.TransactionTemplate;
 import uk.gov.caz.retrofit.annotation.IntegrationTest;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
@@ -30,6 +31,15 @@ public class TestFixturesLoaderTestIT {
   @Autowired
   private RetrofittedVehiclePostgresRepository vehicleRepository;
 
+  @Autowired
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
   private RetrofittedVehicle someRandomVehicle() {
     return RetrofittedVehicle.builder()
         .vrn(RandomStringUtils.randomAlphabetic(3))
@@ -42,10 +52,14 @@ public class TestFixturesLoaderTestIT {
     // given
     insertTwoRandomVehiclesAndCheckIt();
     TestFixturesLoader testFixturesLoader = new TestFixturesLoader(vehicleRepository,
-        testFixturesLocation, new ObjectMapper());
+        testFixturesLocation, new ObjectMapper(), retrofitStatusIndex,
+        registerDataVersionService);
 
     // when
-    testFixturesLoader.loadTestData();
+    transactionTemplate.execute(status -> {
+      testFixturesLoader.loadTestData();
+      return null;
+    });
 
     // then
     List<RetrofittedVehicle> vehiclesInDatabaseAfterLoader = vehicleRepository.findAll();
@@ -57,7 +71,8 @@ public class TestFixturesLoaderTestIT {
     // given
     insertTwoRandomVehiclesAndCheckIt();
     TestFixturesLoader testFixturesLoader = new TestFixturesLoader(vehicleRepository,
-        MALFORMED_FIXTURES_LOCATION, new ObjectMapper());
+        MALFORMED_FIXTURES_LOCATION, new ObjectMapper(), retrofitStatusIndex,
+        registerDataVersionService);
 
     // when
     Throwable throwable = catchThrowable(() -> testFixturesLoader.loadTestData());
@@ -1,16 +0,0 @@
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "JO32VXX", "model": null, "retrofit_id": 21, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-13", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-24 19:36:25.175645', 'D', '{"vrn": "JO32VXX", "model": "model", "retrofit_id": 22, "insert_timestmp": "2020-07-24T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-13", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', null, 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "JO32VXX", "model": "model", "retrofit_id": 22, "insert_timestmp": "2020-07-24T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-13", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "DS98UDG", "model": "model-1", "retrofit_id": 22, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-03-11", "vehicle_category": "a & b''c & d", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "D298UDG", "model": "model-1", "retrofit_id": 23, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-03-11", "vehicle_category": "a & b''c & d", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "OI64EFO", "model": "model\",b", "retrofit_id": 24, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-30", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "KL14VXX", "model": null, "retrofit_id": 25, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-19", "vehicle_category": null, "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "NO03KNT", "model": "model-1", "retrofit_id": 26, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-03-12", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "ND84VSX", "model": "model-1", "retrofit_id": 27, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-14", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "II19VXX", "model": "model-1", "retrofit_id": 28, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-18", "vehicle_category": null, "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'I', null, '{"vrn": "ZC62OMB", "model": "model-1", "retrofit_id": 29, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-27", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'D', null, '{"vrn": "ZC62OMA", "model": "model-1", "retrofit_id": 29, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-27", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-27 19:36:25.175645', 'U', null, '{"vrn": "ZC62OMC", "model": "model-1", "retrofit_id": 29, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-27", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
---- Records for timezone verification
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-07-15 23:36:25.175645Z', 'U', null, '{"vrn": "BST1235", "model": "model-1", "retrofit_id": 29, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-27", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
-INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, action, original_data, new_data, query, modifier_id) VALUES ('public', 't_vehicle_retrofit', 'postgres', '2020-12-15 23:36:25.175645Z', 'U', null, '{"vrn": "WNTR123", "model": "model-1", "retrofit_id": 29, "insert_timestmp": "2020-07-27T21:36:25.175645", "retrofit_status": null, "date_of_retrofit": "2019-04-27", "vehicle_category": "category-1", "whitelist_discount_code": "WDC002"}', 'INSERT INTO t_vehicle_retrofit(vrn, vehicle_category, model, date_of_retrofit, insert_timestmp) VALUES ($1, $2, $3, $4, CURRENT_TIMESTAMP)', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
\ No newline at end of file
@@ -0,0 +1,16 @@
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('JO32VXX', 'I', '2020-07-27 19:36:25.175645', 'category-1', null, '2019-04-13', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('JO32VXX', 'D', '2020-07-24 19:36:25.175645', 'category-1', 'model', '2019-04-13', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('JO32VXX', 'I', '2020-07-27 19:36:25.175645', 'category-1', 'model', '2019-04-13', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('DS98UDG', 'I', '2020-07-27 19:36:25.175645', 'a & b''c & d', 'model-1', '2019-03-11', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('D298UDG', 'I', '2020-07-27 19:36:25.175645', 'a & b''c & d', 'model-1', '2019-03-11', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('OI64EFO', 'I', '2020-07-27 19:36:25.175645', 'category-1', 'model",b', '2019-04-30', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('KL14VXX', 'I', '2020-07-27 19:36:25.175645', null, null, '2019-04-19', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('NO03KNT', 'I', '2020-07-27 19:36:25.175645', 'category-1', 'model-1', '2019-03-12', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('ND84VSX', 'I', '2020-07-27 19:36:25.175645', 'category-1', 'model-1', '2019-04-14', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('II19VXX', 'I', '2020-07-27 19:36:25.175645', null, 'model-1', '2019-04-18', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('ZC62OMB', 'I', '2020-07-27 19:36:25.175645', 'category-1', 'model-1', '2019-04-27', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('ZC62OMA', 'D', '2020-07-27 19:36:25.175645', 'category-1', 'model-1', '2019-04-27', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('ZC62OMC', 'U', '2020-07-27 19:36:25.175645', 'category-1', 'model-1', '2019-04-27', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+--- Records for timezone verification
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('BST1235', 'U', '2020-07-15 23:36:25.175645Z', 'category-1', 'model-1', '2019-04-27', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
+INSERT INTO t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit, modifier_id) VALUES ('WNTR123', 'U', '2020-12-15 23:36:25.175645Z', 'category-1', 'model-1', '2019-04-27', '6314d1d6-706a-40ce-b392-a0e618ab45b8');
@@ -1,3 +1,6 @@
 TRUNCATE TABLE T_MD_REGISTER_JOBS CASCADE;
 TRUNCATE TABLE t_vehicle_retrofit CASCADE;
-TRUNCATE TABLE audit.logged_actions CASCADE;
\ No newline at end of file
+TRUNCATE TABLE audit.logged_actions CASCADE;
+TRUNCATE TABLE t_retrofit_vehicle_history;
+TRUNCATE TABLE audit.logged_actions_outbox;
+TRUNCATE TABLE audit.logged_actions_outbox_commits;
\ No newline at end of file
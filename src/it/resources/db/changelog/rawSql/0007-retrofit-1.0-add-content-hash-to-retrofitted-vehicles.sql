@@ -0,0 +1,13 @@
+-- Fingerprint of vrn, vehicle_category, model and date_of_retrofit used to detect changed rows.
+-- It MUST be computed the same way as RetrofittedVehicle#contentHash.
+ALTER TABLE public.t_vehicle_retrofit
+    ADD COLUMN content_hash char(32);
+
+-- Backfill without flooding the audit log with no-op updates
+ALTER TABLE public.t_vehicle_retrofit DISABLE TRIGGER T_VEHICLE_RETROFIT_AUDIT;
+
+UPDATE public.t_vehicle_retrofit
+SET content_hash = md5(concat_ws('|', vrn, coalesce(vehicle_category, ''), coalesce(model, ''),
+                                 coalesce(to_char(date_of_retrofit, 'YYYY-MM-DD'), '')));
+
+ALTER TABLE public.t_vehicle_retrofit ENABLE TRIGGER T_VEHICLE_RETROFIT_AUDIT;
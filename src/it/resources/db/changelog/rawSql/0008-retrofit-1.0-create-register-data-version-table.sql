@@ -0,0 +1,9 @@
+-- A single row whose version is incremented in every transaction which modifies the register.
+-- It drives ETag and Last-Modified headers of retrofit status lookups.
+CREATE TABLE public.t_register_data_version (
+    id smallint PRIMARY KEY CHECK (id = 1),
+    version bigint NOT NULL,
+    last_modified_timestmp timestamptz NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO public.t_register_data_version (id, version) VALUES (1, 0);
@@ -0,0 +1,10 @@
+-- Digest (S3 ETag) of the registered file and the version of the register data
+-- (t_register_data_version.version) committed by a successful job. A job whose digest matches
+-- the job which committed the current version is finished without registering anything.
+ALTER TABLE public.t_md_register_jobs
+    ADD COLUMN content_digest varchar(256),
+    ADD COLUMN register_data_version bigint;
+
+CREATE UNIQUE INDEX t_md_register_jobs_register_data_version_idx
+    ON public.t_md_register_jobs (register_data_version)
+    WHERE register_data_version IS NOT NULL;
@@ -0,0 +1,6 @@
+-- A unique, monotonically increasing id which breaks ties between audit entries logged at the
+-- same time, so that the history of a vehicle can be paged with a (action_tstamp, id) keyset
+ALTER TABLE audit.logged_actions ADD COLUMN IF NOT EXISTS id bigserial;
+
+CREATE INDEX IF NOT EXISTS logged_actions_action_tstamp_id_idx
+    ON audit.logged_actions (action_tstamp, id);
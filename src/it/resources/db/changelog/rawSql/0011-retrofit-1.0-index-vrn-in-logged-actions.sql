@@ -0,0 +1,10 @@
+-- The history of a vehicle is looked up by the VRN in the data after and before a change.
+-- Both expressions are indexed together with the keyset the history is paged with, so that a
+-- page is read with an index range scan instead of parsing every audit entry.
+CREATE INDEX IF NOT EXISTS logged_actions_new_vrn_idx
+    ON audit.logged_actions ((new_data ->> 'vrn'), action_tstamp, id)
+    WHERE table_name = 't_vehicle_retrofit';
+
+CREATE INDEX IF NOT EXISTS logged_actions_original_vrn_idx
+    ON audit.logged_actions ((original_data ->> 'vrn'), action_tstamp, id)
+    WHERE table_name = 't_vehicle_retrofit';
@@ -0,0 +1,72 @@
+-- Narrow, typed projection of the audit trail of t_vehicle_retrofit which serves the history of
+-- a vehicle. It is maintained by a trigger in the transaction which modifies the register, so a
+-- change becomes visible in the history exactly when the transaction commits.
+CREATE TABLE IF NOT EXISTS public.t_retrofit_vehicle_history
+(
+    id               bigserial PRIMARY KEY,
+    vrn              varchar(15)              NOT NULL,
+    action           char(1)                  NOT NULL CHECK (action IN ('I', 'D', 'U')),
+    action_tstamp    TIMESTAMP WITH TIME zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    vehicle_category varchar(40),
+    model            varchar(30),
+    date_of_retrofit date                     NOT NULL,
+    modifier_id      varchar(256)
+);
+
+CREATE INDEX IF NOT EXISTS t_retrofit_vehicle_history_vrn_idx
+    ON public.t_retrofit_vehicle_history (vrn, action_tstamp, id);
+
+-- Removals are recorded with the data before the change, other changes with the data after it.
+CREATE OR REPLACE FUNCTION public.retrofit_vehicle_history_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_modifier_id varchar(256);
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (TG_OP = 'DELETE') THEN
+        INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+            date_of_retrofit, modifier_id)
+        VALUES (OLD.vrn, 'D', OLD.vehicle_category, OLD.model, OLD.date_of_retrofit,
+            v_modifier_id);
+        RETURN OLD;
+    END IF;
+    INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+        date_of_retrofit, modifier_id)
+    VALUES (NEW.vrn, substring(TG_OP, 1, 1), NEW.vehicle_category, NEW.model,
+        NEW.date_of_retrofit, v_modifier_id);
+    IF (TG_OP = 'UPDATE' AND OLD.vrn <> NEW.vrn) THEN
+        INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+            date_of_retrofit, modifier_id)
+        VALUES (OLD.vrn, 'U', NEW.vehicle_category, NEW.model, NEW.date_of_retrofit,
+            v_modifier_id);
+    END IF;
+    RETURN NEW;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, public;
+
+DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY ON public.t_vehicle_retrofit;
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY
+AFTER INSERT OR UPDATE OR DELETE ON public.t_vehicle_retrofit
+FOR EACH ROW EXECUTE PROCEDURE public.retrofit_vehicle_history_func();
+
+-- Backfill the history logged so far
+INSERT INTO public.t_retrofit_vehicle_history (vrn, action, action_tstamp, vehicle_category,
+    model, date_of_retrofit, modifier_id)
+SELECT data ->> 'vrn', a.action, a.action_tstamp, data ->> 'vehicle_category', data ->> 'model',
+    (data ->> 'date_of_retrofit')::date, a.modifier_id
+FROM audit.logged_actions a,
+    LATERAL (SELECT CASE WHEN a.action = 'D'
+        THEN coalesce(a.original_data, a.new_data)
+        ELSE coalesce(a.new_data, a.original_data) END AS data) d
+WHERE a.table_name = 't_vehicle_retrofit'
+  AND data ->> 'vrn' IS NOT NULL
+  AND data ->> 'date_of_retrofit' IS NOT NULL
+ORDER BY a.action_tstamp, a.id;
+
+-- The history is not read from the audit trail any longer
+DROP INDEX IF EXISTS audit.logged_actions_new_vrn_idx;
+DROP INDEX IF EXISTS audit.logged_actions_original_vrn_idx;
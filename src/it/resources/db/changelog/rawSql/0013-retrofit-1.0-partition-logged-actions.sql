@@ -0,0 +1,91 @@
+-- The audit trail is range-partitioned by month (in UTC) of action_tstamp, so that queries by
+-- date range are pruned to the relevant months and expired months can be detached or dropped
+-- instead of being deleted row by row. Partitions are created ahead of time by the maintenance
+-- job, entries logged when a partition is missing go to the default partition.
+ALTER TABLE audit.logged_actions RENAME TO logged_actions_unpartitioned;
+
+ALTER SEQUENCE audit.logged_actions_id_seq OWNED BY NONE;
+
+CREATE TABLE audit.logged_actions
+(
+    schema_name   text                     NOT NULL,
+    TABLE_NAME    text                     NOT NULL,
+    user_name     text,
+    action_tstamp TIMESTAMP WITH TIME zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    action        TEXT                     NOT NULL CHECK (action IN ('I', 'D', 'U')),
+    original_data jsonb,
+    new_data      jsonb,
+    query         text,
+    modifier_id   varchar(256),
+    id            bigint                   NOT NULL DEFAULT nextval('audit.logged_actions_id_seq')
+) PARTITION BY RANGE (action_tstamp);
+
+ALTER SEQUENCE audit.logged_actions_id_seq OWNED BY audit.logged_actions.id;
+
+CREATE TABLE audit.logged_actions_default PARTITION OF audit.logged_actions DEFAULT
+    WITH (fillfactor = 100);
+
+-- Creates the partition of the month of p_month unless it exists and moves entries of that month
+-- from the default partition to it. Returns whether the partition has been created.
+CREATE OR REPLACE FUNCTION audit.create_logged_actions_partition(p_month date)
+    RETURNS boolean AS $body$
+DECLARE
+    v_name text := 'logged_actions_p' || to_char(p_month, 'YYYY_MM');
+    v_from timestamptz := date_trunc('month', p_month::timestamp) AT TIME ZONE 'UTC';
+    v_to   timestamptz := (date_trunc('month', p_month::timestamp) + interval '1 month')
+        AT TIME ZONE 'UTC';
+BEGIN
+    IF to_regclass('audit.' || v_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE audit.%I (LIKE audit.logged_actions INCLUDING DEFAULTS '
+        || 'INCLUDING CONSTRAINTS) WITH (fillfactor = 100)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM audit.logged_actions_default '
+        || 'WHERE action_tstamp >= %L AND action_tstamp < %L RETURNING *) '
+        || 'INSERT INTO audit.%I SELECT * FROM moved', v_from, v_to, v_name);
+    EXECUTE format('ALTER TABLE audit.logged_actions ATTACH PARTITION audit.%I '
+        || 'FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    RETURN true;
+END;
+$body$
+    LANGUAGE plpgsql
+    SET search_path = pg_catalog, audit;
+
+-- Partitions of the months logged so far, of the current month and of the three following ones
+DO $body$
+DECLARE
+    v_month date;
+BEGIN
+    FOR v_month IN
+        SELECT DISTINCT date_trunc('month', action_tstamp AT TIME ZONE 'UTC')::date
+        FROM audit.logged_actions_unpartitioned
+        UNION
+        SELECT (date_trunc('month', now() AT TIME ZONE 'UTC') + n * interval '1 month')::date
+        FROM generate_series(0, 3) n
+    LOOP
+        PERFORM audit.create_logged_actions_partition(v_month);
+    END LOOP;
+END;
+$body$;
+
+INSERT INTO audit.logged_actions (schema_name, TABLE_NAME, user_name, action_tstamp, action,
+    original_data, new_data, query, modifier_id, id)
+SELECT schema_name, TABLE_NAME, user_name, action_tstamp, action, original_data, new_data, query,
+    modifier_id, id
+FROM audit.logged_actions_unpartitioned;
+
+DROP TABLE audit.logged_actions_unpartitioned;
+
+REVOKE ALL ON audit.logged_actions FROM public;
+
+GRANT SELECT ON audit.logged_actions TO public;
+
+-- Indexes of the partitioned table are created on every existing and future partition
+CREATE INDEX IF NOT EXISTS logged_actions_schema_table_idx
+    ON audit.logged_actions (((schema_name || '.' || TABLE_NAME)::TEXT));
+
+CREATE INDEX IF NOT EXISTS logged_actions_action_tstamp_id_idx
+    ON audit.logged_actions (action_tstamp, id);
+
+CREATE INDEX IF NOT EXISTS logged_actions_action_idx
+    ON audit.logged_actions (action);
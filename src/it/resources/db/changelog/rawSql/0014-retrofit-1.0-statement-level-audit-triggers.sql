@@ -0,0 +1,87 @@
+-- Statement-level counterpart of audit.if_modified_func which logs all rows modified by a
+-- statement with a single set-based insert reading the transition tables (old_rows/new_rows)
+-- instead of an insert per row. The logged entries are the same as those of the row-level
+-- trigger. The only argument is the name of the primary key column which pairs the data before
+-- and after an update, hence the primary key must not be updated.
+CREATE OR REPLACE FUNCTION audit.if_modified_statement_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_key_column text := TG_ARGV[0];
+    v_modifier_id varchar(256);
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (TG_OP = 'UPDATE') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+            original_data, new_data, query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'U', o.data,
+            n.data, current_query(), v_modifier_id
+        FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+        JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+            ON n.data -> v_key_column = o.data -> v_key_column;
+    ELSIF (TG_OP = 'DELETE') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+            original_data, query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'D', to_jsonb(r),
+            current_query(), v_modifier_id
+        FROM old_rows r;
+    ELSIF (TG_OP = 'INSERT') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action, new_data,
+            query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'I', to_jsonb(r),
+            current_query(), v_modifier_id
+        FROM new_rows r;
+    ELSE
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - Other action occurred: %, at %',TG_OP,now();
+    END IF;
+    RETURN NULL;
+
+EXCEPTION
+    WHEN data_exception THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [DATA EXCEPTION] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+    WHEN unique_violation THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [UNIQUE] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+    WHEN OTHERS THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [OTHER] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, audit;
+
+-- A trigger with transition tables can handle only one kind of event
+DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_AUDIT ON public.t_vehicle_retrofit;
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_INSERT
+AFTER INSERT ON public.t_vehicle_retrofit
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id');
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_UPDATE
+AFTER UPDATE ON public.t_vehicle_retrofit
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id');
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_AUDIT_DELETE
+AFTER DELETE ON public.t_vehicle_retrofit
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('retrofit_id');
+
+DROP TRIGGER IF EXISTS T_MD_REGISTER_JOBS_AUDIT ON public.t_md_register_jobs;
+
+CREATE TRIGGER T_MD_REGISTER_JOBS_AUDIT_INSERT
+AFTER INSERT ON public.t_md_register_jobs
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('register_job_id');
+
+CREATE TRIGGER T_MD_REGISTER_JOBS_AUDIT_UPDATE
+AFTER UPDATE ON public.t_md_register_jobs
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('register_job_id');
+
+CREATE TRIGGER T_MD_REGISTER_JOBS_AUDIT_DELETE
+AFTER DELETE ON public.t_md_register_jobs
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE audit.if_modified_statement_func('register_job_id');
@@ -0,0 +1,121 @@
+-- Outbox of the audit log. When the 'audit.write_mode' setting of a transaction is 'outbox', the
+-- audit trigger records a single compact event per statement (all modified rows aggregated in
+-- 'changes') instead of writing the entries to audit.logged_actions, and the events are expanded
+-- into audit.logged_actions later on by the drainer of the application.
+CREATE TABLE IF NOT EXISTS audit.logged_actions_outbox
+(
+    id            bigserial PRIMARY KEY,
+    txid          bigint                   NOT NULL DEFAULT txid_current(),
+    schema_name   text                     NOT NULL,
+    table_name    text                     NOT NULL,
+    user_name     text,
+    action_tstamp TIMESTAMP WITH TIME zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    action        TEXT                     NOT NULL CHECK (action IN ('I', 'D', 'U')),
+    changes       jsonb                    NOT NULL,
+    query         text,
+    modifier_id   varchar(256)
+);
+
+-- Transactions which recorded outbox events, numbered in the order they committed
+CREATE TABLE IF NOT EXISTS audit.logged_actions_outbox_commits
+(
+    txid       bigint PRIMARY KEY,
+    commit_seq bigserial NOT NULL UNIQUE
+);
+
+CREATE INDEX IF NOT EXISTS logged_actions_outbox_txid_idx
+    ON audit.logged_actions_outbox (txid, id);
+
+REVOKE ALL ON audit.logged_actions_outbox FROM public;
+
+REVOKE ALL ON audit.logged_actions_outbox_commits FROM public;
+
+-- Fires when the transaction commits. The lock is held until the commit completes, so commits of
+-- transactions which recorded outbox events are numbered in the order they become visible.
+CREATE OR REPLACE FUNCTION audit.logged_actions_outbox_commit_func() RETURNS TRIGGER AS $body$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('audit.logged_actions_outbox_commits'));
+    INSERT INTO audit.logged_actions_outbox_commits (txid) VALUES (txid_current())
+    ON CONFLICT (txid) DO NOTHING;
+    RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, audit;
+
+CREATE CONSTRAINT TRIGGER LOGGED_ACTIONS_OUTBOX_COMMIT
+AFTER INSERT ON audit.logged_actions_outbox
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE PROCEDURE audit.logged_actions_outbox_commit_func();
+
+CREATE OR REPLACE FUNCTION audit.if_modified_statement_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_key_column text := TG_ARGV[0];
+    v_modifier_id varchar(256);
+    v_changes jsonb;
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (current_setting('audit.write_mode', true) = 'outbox') THEN
+        IF (TG_OP = 'UPDATE') THEN
+            SELECT jsonb_agg(jsonb_build_object('original_data', o.data, 'new_data', n.data))
+            INTO v_changes
+            FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+            JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+                ON n.data -> v_key_column = o.data -> v_key_column;
+        ELSIF (TG_OP = 'DELETE') THEN
+            SELECT jsonb_agg(jsonb_build_object('original_data', to_jsonb(r))) INTO v_changes
+            FROM old_rows r;
+        ELSIF (TG_OP = 'INSERT') THEN
+            SELECT jsonb_agg(jsonb_build_object('new_data', to_jsonb(r))) INTO v_changes
+            FROM new_rows r;
+        END IF;
+        IF (v_changes IS NOT NULL) THEN
+            INSERT INTO audit.logged_actions_outbox (schema_name, table_name, user_name, action,
+                changes, query, modifier_id)
+            VALUES (TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT,
+                substring(TG_OP, 1, 1), v_changes, current_query(), v_modifier_id);
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF (TG_OP = 'UPDATE') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+            original_data, new_data, query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'U', o.data,
+            n.data, current_query(), v_modifier_id
+        FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+        JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+            ON n.data -> v_key_column = o.data -> v_key_column;
+    ELSIF (TG_OP = 'DELETE') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+            original_data, query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'D', to_jsonb(r),
+            current_query(), v_modifier_id
+        FROM old_rows r;
+    ELSIF (TG_OP = 'INSERT') THEN
+        INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action, new_data,
+            query, modifier_id)
+        SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'I', to_jsonb(r),
+            current_query(), v_modifier_id
+        FROM new_rows r;
+    ELSE
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - Other action occurred: %, at %',TG_OP,now();
+    END IF;
+    RETURN NULL;
+
+EXCEPTION
+    WHEN data_exception THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [DATA EXCEPTION] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+    WHEN unique_violation THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [UNIQUE] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+    WHEN OTHERS THEN
+        RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [OTHER] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, audit;
@@ -0,0 +1,57 @@
+-- Statement-level counterpart of public.retrofit_vehicle_history_func which records all rows
+-- modified by a statement with a single set-based insert reading the transition tables
+-- (old_rows/new_rows) and looks the modifier up once per statement instead of once per row. The
+-- recorded changes are the same as those of the row-level trigger. The data before and after an
+-- update is paired by the primary key, hence it must not be updated.
+CREATE OR REPLACE FUNCTION public.retrofit_vehicle_history_statement_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_modifier_id varchar(256);
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (TG_OP = 'DELETE') THEN
+        INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+            date_of_retrofit, modifier_id)
+        SELECT o.vrn, 'D', o.vehicle_category, o.model, o.date_of_retrofit, v_modifier_id
+        FROM old_rows o;
+    ELSIF (TG_OP = 'INSERT') THEN
+        INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+            date_of_retrofit, modifier_id)
+        SELECT n.vrn, 'I', n.vehicle_category, n.model, n.date_of_retrofit, v_modifier_id
+        FROM new_rows n;
+    ELSIF (TG_OP = 'UPDATE') THEN
+        -- a change of the VRN is recorded in the history of both the former and the new VRN
+        INSERT INTO public.t_retrofit_vehicle_history (vrn, action, vehicle_category, model,
+            date_of_retrofit, modifier_id)
+        SELECT n.vrn, 'U', n.vehicle_category, n.model, n.date_of_retrofit, v_modifier_id
+        FROM new_rows n
+        UNION ALL
+        SELECT o.vrn, 'U', n.vehicle_category, n.model, n.date_of_retrofit, v_modifier_id
+        FROM old_rows o
+        JOIN new_rows n ON n.retrofit_id = o.retrofit_id
+        WHERE o.vrn <> n.vrn;
+    END IF;
+    RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, public;
+
+-- A trigger with transition tables can handle only one kind of event
+DROP TRIGGER IF EXISTS T_VEHICLE_RETROFIT_HISTORY ON public.t_vehicle_retrofit;
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_INSERT
+AFTER INSERT ON public.t_vehicle_retrofit
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func();
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_UPDATE
+AFTER UPDATE ON public.t_vehicle_retrofit
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func();
+
+CREATE TRIGGER T_VEHICLE_RETROFIT_HISTORY_DELETE
+AFTER DELETE ON public.t_vehicle_retrofit
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE PROCEDURE public.retrofit_vehicle_history_statement_func();
@@ -0,0 +1,73 @@
+-- Errors of the outbox branch of audit.if_modified_statement_func are no longer swallowed: the
+-- modification of the audited table must not commit without its outbox event, as nothing else
+-- records it, hence a failed outbox write rolls the transaction back. Errors of writes straight to
+-- audit.logged_actions are still only reported as warnings. Besides, the outbox branch does not
+-- pay for the subtransaction of the exception block any longer.
+CREATE OR REPLACE FUNCTION audit.if_modified_statement_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_key_column text := TG_ARGV[0];
+    v_modifier_id varchar(256);
+    v_changes jsonb;
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (current_setting('audit.write_mode', true) = 'outbox') THEN
+        IF (TG_OP = 'UPDATE') THEN
+            SELECT jsonb_agg(jsonb_build_object('original_data', o.data, 'new_data', n.data))
+            INTO v_changes
+            FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+            JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+                ON n.data -> v_key_column = o.data -> v_key_column;
+        ELSIF (TG_OP = 'DELETE') THEN
+            SELECT jsonb_agg(jsonb_build_object('original_data', to_jsonb(r))) INTO v_changes
+            FROM old_rows r;
+        ELSIF (TG_OP = 'INSERT') THEN
+            SELECT jsonb_agg(jsonb_build_object('new_data', to_jsonb(r))) INTO v_changes
+            FROM new_rows r;
+        END IF;
+        IF (v_changes IS NOT NULL) THEN
+            INSERT INTO audit.logged_actions_outbox (schema_name, table_name, user_name, action,
+                changes, query, modifier_id)
+            VALUES (TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT,
+                substring(TG_OP, 1, 1), v_changes, current_query(), v_modifier_id);
+        END IF;
+        RETURN NULL;
+    END IF;
+    BEGIN
+        IF (TG_OP = 'UPDATE') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                original_data, new_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'U', o.data,
+                n.data, current_query(), v_modifier_id
+            FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+            JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+                ON n.data -> v_key_column = o.data -> v_key_column;
+        ELSIF (TG_OP = 'DELETE') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                original_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'D',
+                to_jsonb(r), current_query(), v_modifier_id
+            FROM old_rows r;
+        ELSIF (TG_OP = 'INSERT') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                new_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'I',
+                to_jsonb(r), current_query(), v_modifier_id
+            FROM new_rows r;
+        ELSE
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - Other action occurred: %, at %',TG_OP,now();
+        END IF;
+    EXCEPTION
+        WHEN data_exception THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [DATA EXCEPTION] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        WHEN unique_violation THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [UNIQUE] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        WHEN OTHERS THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [OTHER] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+    END;
+    RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, audit;
@@ -0,0 +1,95 @@
+-- Events of the outbox of the audit log hold at most 1000 changes each, a statement which
+-- modifies more rows records an event per chunk of its changes. An event of a statement which
+-- modifies the whole register would otherwise be built in memory at once and could exceed the
+-- size limit of a jsonb value, which rolls the modification back. The number of changes of an
+-- event is kept in 'changes_count', so that the drainer can bound the number of entries it
+-- expands in one transaction.
+ALTER TABLE audit.logged_actions_outbox ADD COLUMN IF NOT EXISTS changes_count integer;
+
+UPDATE audit.logged_actions_outbox SET changes_count = jsonb_array_length(changes)
+WHERE changes_count IS NULL;
+
+ALTER TABLE audit.logged_actions_outbox ALTER COLUMN changes_count SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION audit.if_modified_statement_func() RETURNS TRIGGER AS $body$
+DECLARE
+    v_key_column text := TG_ARGV[0];
+    v_chunk_size CONSTANT integer := 1000;
+    v_modifier_id varchar(256);
+BEGIN
+    SELECT ttm.modifier_id INTO v_modifier_id FROM audit.transaction_to_modifier AS ttm
+    WHERE ttm.transaction_id = txid_current();
+    IF (current_setting('audit.write_mode', true) = 'outbox') THEN
+        IF (TG_OP = 'UPDATE') THEN
+            INSERT INTO audit.logged_actions_outbox (schema_name, table_name, user_name, action,
+                changes, changes_count, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'U',
+                jsonb_agg(c.change ORDER BY c.n), count(*), current_query(), v_modifier_id
+            FROM (SELECT jsonb_build_object('original_data', o.data, 'new_data', n.data) AS change,
+                    row_number() OVER () AS n
+                FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+                JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+                    ON n.data -> v_key_column = o.data -> v_key_column) c
+            GROUP BY (c.n - 1) / v_chunk_size
+            ORDER BY (c.n - 1) / v_chunk_size;
+        ELSIF (TG_OP = 'DELETE') THEN
+            INSERT INTO audit.logged_actions_outbox (schema_name, table_name, user_name, action,
+                changes, changes_count, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'D',
+                jsonb_agg(c.change ORDER BY c.n), count(*), current_query(), v_modifier_id
+            FROM (SELECT jsonb_build_object('original_data', to_jsonb(r)) AS change,
+                    row_number() OVER () AS n
+                FROM old_rows r) c
+            GROUP BY (c.n - 1) / v_chunk_size
+            ORDER BY (c.n - 1) / v_chunk_size;
+        ELSIF (TG_OP = 'INSERT') THEN
+            INSERT INTO audit.logged_actions_outbox (schema_name, table_name, user_name, action,
+                changes, changes_count, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'I',
+                jsonb_agg(c.change ORDER BY c.n), count(*), current_query(), v_modifier_id
+            FROM (SELECT jsonb_build_object('new_data', to_jsonb(r)) AS change,
+                    row_number() OVER () AS n
+                FROM new_rows r) c
+            GROUP BY (c.n - 1) / v_chunk_size
+            ORDER BY (c.n - 1) / v_chunk_size;
+        END IF;
+        RETURN NULL;
+    END IF;
+    BEGIN
+        IF (TG_OP = 'UPDATE') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                original_data, new_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'U', o.data,
+                n.data, current_query(), v_modifier_id
+            FROM (SELECT to_jsonb(r) AS data FROM old_rows r) o
+            JOIN (SELECT to_jsonb(r) AS data FROM new_rows r) n
+                ON n.data -> v_key_column = o.data -> v_key_column;
+        ELSIF (TG_OP = 'DELETE') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                original_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'D',
+                to_jsonb(r), current_query(), v_modifier_id
+            FROM old_rows r;
+        ELSIF (TG_OP = 'INSERT') THEN
+            INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action,
+                new_data, query, modifier_id)
+            SELECT TG_TABLE_SCHEMA::TEXT, TG_TABLE_NAME::TEXT, session_user::TEXT, 'I',
+                to_jsonb(r), current_query(), v_modifier_id
+            FROM new_rows r;
+        ELSE
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - Other action occurred: %, at %',TG_OP,now();
+        END IF;
+    EXCEPTION
+        WHEN data_exception THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [DATA EXCEPTION] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        WHEN unique_violation THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [UNIQUE] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+        WHEN OTHERS THEN
+            RAISE WARNING '[audit.IF_MODIFIED_STATEMENT_FUNC] - UDF ERROR [OTHER] - SQLSTATE: %, SQLERRM: %',SQLSTATE,SQLERRM;
+    END;
+    RETURN NULL;
+END;
+$body$
+    LANGUAGE plpgsql
+    SECURITY DEFINER
+    SET search_path = pg_catalog, audit;
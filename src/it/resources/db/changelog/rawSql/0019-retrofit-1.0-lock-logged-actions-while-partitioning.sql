@@ -0,0 +1,30 @@
+-- audit.create_logged_actions_partition locks the audit log before moving entries out of the
+-- default partition. Otherwise an entry of the month being partitioned, logged by a transaction
+-- committed after the move, stays in the default partition and ATTACH fails on it. The parent is
+-- locked (rather than the default partition alone) as inserts lock it first and ATTACH needs the
+-- same lock anyway, so that both acquire the locks in the same order and cannot deadlock. The
+-- partition is looked up once the lock is held, so that concurrent calls create it only once.
+CREATE OR REPLACE FUNCTION audit.create_logged_actions_partition(p_month date)
+    RETURNS boolean AS $body$
+DECLARE
+    v_name text := 'logged_actions_p' || to_char(p_month, 'YYYY_MM');
+    v_from timestamptz := date_trunc('month', p_month::timestamp) AT TIME ZONE 'UTC';
+    v_to   timestamptz := (date_trunc('month', p_month::timestamp) + interval '1 month')
+        AT TIME ZONE 'UTC';
+BEGIN
+    LOCK TABLE audit.logged_actions IN ACCESS EXCLUSIVE MODE;
+    IF to_regclass('audit.' || v_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE audit.%I (LIKE audit.logged_actions INCLUDING DEFAULTS '
+        || 'INCLUDING CONSTRAINTS) WITH (fillfactor = 100)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM audit.logged_actions_default '
+        || 'WHERE action_tstamp >= %L AND action_tstamp < %L RETURNING *) '
+        || 'INSERT INTO audit.%I SELECT * FROM moved', v_from, v_to, v_name);
+    EXECUTE format('ALTER TABLE audit.logged_actions ATTACH PARTITION audit.%I '
+        || 'FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    RETURN true;
+END;
+$body$
+    LANGUAGE plpgsql
+    SET search_path = pg_catalog, audit;
@@ -0,0 +1,118 @@
+package uk.gov.caz.retrofit.amazonaws;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+
+/**
+ * Compares the cost of starting a register job with a {@link LambdaClient} built for every job
+ * (the former behaviour of {@link AsyncLambdaBackgroundJobStarter}) with the cost of starting it
+ * with a single, long-lived client backed by a pooled HTTP client. Lambda is stubbed by a local
+ * HTTP server which accepts every invocation, so the results show the overhead of the client
+ * construction and of opening a new connection (the TLS handshake, which the former approach
+ * additionally pays for against the real endpoint, is not included).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LambdaJobStartBenchmark {
+
+  private static final String LAMBDA_NAME = "RetrofitRegisterCsvFromS3Function";
+
+  private static final InvokeRequest INVOKE_REQUEST = InvokeRequest.builder()
+      .invocationType(InvocationType.EVENT)
+      .functionName(LAMBDA_NAME)
+      .payload(SdkBytes.fromUtf8String("{\"registerJobId\":1,\"s3Bucket\":\"bucket\","
+          + "\"fileName\":\"file.csv\",\"correlationId\":\"correlation-id\"}"))
+      .build();
+
+  /**
+   * Runs the stub of Lambda and holds the long-lived client.
+   */
+  @State(Scope.Benchmark)
+  public static class Lambda {
+
+    private HttpServer server;
+    private SdkHttpClient httpClient;
+    private LambdaClient sharedClient;
+
+    /**
+     * Starts the stub and creates the long-lived client.
+     */
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.createContext("/", exchange -> {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+          ByteStreams.exhaust(requestBody);
+        }
+        exchange.sendResponseHeaders(202, -1);
+        exchange.close();
+      });
+      server.setExecutor(Executors.newCachedThreadPool());
+      server.start();
+      httpClient = ApacheHttpClient.builder().build();
+      sharedClient = clientBuilder().httpClient(httpClient).build();
+    }
+
+    /**
+     * Closes the long-lived client and stops the stub.
+     */
+    @TearDown(Level.Trial)
+    public void stop() {
+      sharedClient.close();
+      httpClient.close();
+      server.stop(0);
+    }
+
+    private LambdaClientBuilder clientBuilder() {
+      return LambdaClient.builder()
+          .region(Region.EU_WEST_2)
+          .endpointOverride(URI.create("http://localhost:" + server.getAddress().getPort()))
+          .credentialsProvider(StaticCredentialsProvider.create(
+              AwsBasicCredentials.create("dummy", "dummy")));
+    }
+  }
+
+  @Benchmark
+  public InvokeResponse clientPerJob(Lambda lambda) {
+    try (LambdaClient lambdaClient = lambda.clientBuilder().build()) {
+      return lambdaClient.invoke(INVOKE_REQUEST);
+    }
+  }
+
+  @Benchmark
+  public InvokeResponse sharedClient(Lambda lambda) {
+    return lambda.sharedClient.invoke(INVOKE_REQUEST);
+  }
+}
@@ -0,0 +1,190 @@
+package uk.gov.caz.retrofit.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the latency of fetching a page of the history of a vehicle together with the total
+ * number of its changes with two queries (the page and a separate count, the former approach)
+ * and with the single query which counts the changes with a window function (used by {@link
+ * RetrofitVehicleHistoryPostgresRepository#findByVrnInRange}). Both are run against a dedicated
+ * table (indexed in the same way as {@code t_retrofit_vehicle_history}) which is created in a
+ * database given by {@code -Djmh.jdbc.url} (the database started by {@code make local-db-up} by
+ * default) and dropped afterwards.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class HistoryPageQueryBenchmark {
+
+  private static final String JDBC_URL = System.getProperty("jmh.jdbc.url",
+      "jdbc:postgresql://localhost:5432/caz_vcc");
+  private static final String JDBC_USER = System.getProperty("jmh.jdbc.user", "postgres");
+  private static final String JDBC_PASSWORD = System.getProperty("jmh.jdbc.password", "postgres");
+
+  private static final String TABLE = "jmh_retrofit_vehicle_history";
+
+  private static final LocalDateTime START_DATE = LocalDateTime.parse("2020-01-01T00:00:00");
+  private static final LocalDateTime END_DATE = LocalDateTime.parse("2021-01-01T00:00:00");
+  private static final int PAGE_SIZE = 10;
+
+  private static final String SINGLE_QUERY_SQL = RetrofitVehicleHistoryPostgresRepository
+      .SELECT_BY_VRN_HISTORY_QUERY
+      .replace("t_retrofit_vehicle_history", TABLE);
+
+  private static final String PAGE_SQL = SINGLE_QUERY_SQL
+      .replace("count(*) OVER () AS total_count", "0 AS total_count");
+
+  private static final String COUNT_SQL = RetrofitVehicleHistoryPostgresRepository
+      .SELECT_BY_VRN_HISTORY_IN_RANGE_COUNT
+      .replace("t_retrofit_vehicle_history", TABLE);
+
+  /**
+   * Creates and populates the table shared by all threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Table {
+
+    @Param({"1000"})
+    public int vehiclesCount;
+
+    @Param({"100"})
+    public int changesPerVehicle;
+
+    @Param({"0", "5"})
+    public int pageNumber;
+
+    /**
+     * Creates and populates the table, every tenth change is a removal.
+     */
+    @Setup(Level.Trial)
+    public void create() throws SQLException {
+      try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        statement.execute("CREATE TABLE " + TABLE + " (id bigserial PRIMARY KEY, "
+            + "vrn varchar(15) NOT NULL, action char(1) NOT NULL, "
+            + "action_tstamp timestamp with time zone NOT NULL, vehicle_category varchar(40), "
+            + "model varchar(30), date_of_retrofit date NOT NULL, modifier_id varchar(256))");
+        statement.execute("INSERT INTO " + TABLE
+            + " (vrn, action, action_tstamp, vehicle_category, model, date_of_retrofit) "
+            + "SELECT 'VRN' || i % " + vehiclesCount + ", "
+            + "CASE WHEN i % 10 = 0 THEN 'D' ELSE 'I' END, "
+            + "'2020-06-01'::timestamptz + i * interval '1 second', "
+            + "'category-1', 'model-1', '2019-04-13' "
+            + "FROM generate_series(0, " + (vehiclesCount * changesPerVehicle - 1) + ") i");
+        statement.execute("CREATE INDEX ON " + TABLE + " (vrn, action_tstamp, id)");
+        statement.execute("ANALYZE " + TABLE);
+      }
+    }
+
+    /**
+     * Drops the table.
+     */
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+      try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE IF EXISTS " + TABLE);
+      }
+    }
+  }
+
+  /**
+   * A connection and prepared statements of a single benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class Session {
+
+    private Connection connection;
+    private PreparedStatement page;
+    private PreparedStatement count;
+    private PreparedStatement singleQuery;
+
+    /**
+     * Opens the connection and prepares statements.
+     */
+    @Setup(Level.Trial)
+    public void open(Table table) throws SQLException {
+      connection = connect();
+      page = connection.prepareStatement(PAGE_SQL);
+      count = connection.prepareStatement(COUNT_SQL);
+      singleQuery = connection.prepareStatement(SINGLE_QUERY_SQL);
+    }
+
+    /**
+     * Closes the connection.
+     */
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+      connection.close();
+    }
+  }
+
+  @Benchmark
+  public long twoQueries(Table table, Session session) throws SQLException {
+    String vrn = randomVrn(table);
+    long rows = readPage(session.page, vrn, table.pageNumber);
+    setRangeParameters(session.count, vrn);
+    try (ResultSet resultSet = session.count.executeQuery()) {
+      resultSet.next();
+      return rows + resultSet.getLong(1);
+    }
+  }
+
+  @Benchmark
+  public long singleQuery(Table table, Session session) throws SQLException {
+    return readPage(session.singleQuery, randomVrn(table), table.pageNumber);
+  }
+
+  private static long readPage(PreparedStatement statement, String vrn, int pageNumber)
+      throws SQLException {
+    setRangeParameters(statement, vrn);
+    statement.setInt(4, PAGE_SIZE);
+    statement.setInt(5, pageNumber * PAGE_SIZE);
+    long result = 0;
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        result += resultSet.getLong("id") + resultSet.getLong("total_count");
+      }
+    }
+    return result;
+  }
+
+  private static void setRangeParameters(PreparedStatement statement, String vrn)
+      throws SQLException {
+    statement.setString(1, vrn);
+    statement.setObject(2, START_DATE);
+    statement.setObject(3, END_DATE);
+  }
+
+  private static String randomVrn(Table table) {
+    return "VRN" + ThreadLocalRandom.current().nextInt(table.vehiclesCount);
+  }
+
+  private static Connection connect() throws SQLException {
+    return DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+  }
+}
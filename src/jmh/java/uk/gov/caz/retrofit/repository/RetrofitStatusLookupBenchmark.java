@@ -0,0 +1,145 @@
+package uk.gov.caz.retrofit.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the latency of the former aggregate ({@code count(*)}/{@code MAX}) retrofit status
+ * query with the point lookup used by {@link
+ * RetrofittedVehiclePostgresRepository#infoByVrn(String)} under concurrent load. Both queries are
+ * run against a dedicated table with a unique VRN which is created in a database given by {@code
+ * -Djmh.jdbc.url} (the database started by {@code make local-db-up} by default) and dropped
+ * afterwards.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class RetrofitStatusLookupBenchmark {
+
+  private static final String JDBC_URL = System.getProperty("jmh.jdbc.url",
+      "jdbc:postgresql://localhost:5432/caz_vcc");
+  private static final String JDBC_USER = System.getProperty("jmh.jdbc.user", "postgres");
+  private static final String JDBC_PASSWORD = System.getProperty("jmh.jdbc.password", "postgres");
+
+  private static final String TABLE = "jmh_vehicle_retrofit";
+
+  private static final String AGGREGATE_SQL =
+      "SELECT count(*) rowcount, MAX(insert_timestmp) insert_timestamp FROM " + TABLE
+          + " WHERE vrn = ?";
+
+  private static final String POINT_LOOKUP_SQL = RetrofittedVehiclePostgresRepository.VRN_INFO_SQL
+      .replace("t_vehicle_retrofit", TABLE);
+
+  /**
+   * Creates and populates the table shared by all threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Table {
+
+    @Param({"100000"})
+    public int rowsCount;
+
+    /**
+     * Creates and populates the table.
+     */
+    @Setup(Level.Trial)
+    public void create() throws SQLException {
+      try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        statement.execute("CREATE TABLE " + TABLE + " (vrn varchar(15) UNIQUE NOT NULL, "
+            + "insert_timestmp timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        statement.execute("INSERT INTO " + TABLE + " (vrn) "
+            + "SELECT 'VRN' || i FROM generate_series(0, " + (rowsCount - 1) + ") i");
+        statement.execute("ANALYZE " + TABLE);
+      }
+    }
+
+    /**
+     * Drops the table.
+     */
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+      try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE IF EXISTS " + TABLE);
+      }
+    }
+  }
+
+  /**
+   * A connection and prepared statements of a single benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class Session {
+
+    private Connection connection;
+    private PreparedStatement aggregate;
+    private PreparedStatement pointLookup;
+
+    /**
+     * Opens the connection and prepares statements.
+     */
+    @Setup(Level.Trial)
+    public void open(Table table) throws SQLException {
+      connection = connect();
+      aggregate = connection.prepareStatement(AGGREGATE_SQL);
+      pointLookup = connection.prepareStatement(POINT_LOOKUP_SQL);
+    }
+
+    /**
+     * Closes the connection.
+     */
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+      connection.close();
+    }
+  }
+
+  @Benchmark
+  public boolean aggregate(Table table, Session session) throws SQLException {
+    session.aggregate.setString(1, randomVrn(table));
+    try (ResultSet resultSet = session.aggregate.executeQuery()) {
+      resultSet.next();
+      return resultSet.getInt("rowcount") > 0 && resultSet.getTimestamp("insert_timestamp") != null;
+    }
+  }
+
+  @Benchmark
+  public boolean pointLookup(Table table, Session session) throws SQLException {
+    session.pointLookup.setString(1, randomVrn(table));
+    try (ResultSet resultSet = session.pointLookup.executeQuery()) {
+      return resultSet.next() && resultSet.getTimestamp("insert_timestmp") != null;
+    }
+  }
+
+  private static String randomVrn(Table table) {
+    // every other VRN is missing from the table
+    return "VRN" + ThreadLocalRandom.current().nextInt(table.rowsCount * 2);
+  }
+
+  private static Connection connect() throws SQLException {
+    return DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+  }
+}
@@ -0,0 +1,88 @@
+package uk.gov.caz.retrofit.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.ConversionResults;
+import uk.gov.caz.retrofit.model.CsvParseResult;
+import uk.gov.caz.retrofit.service.validation.CsvAwareValidationMessageModifier;
+
+/**
+ * Measures the CSV ingest path: parsing ({@link CsvObjectMapper}), validation ({@link
+ * RetrofittedVehicleDto#validate()}) and conversion ({@link
+ * RetrofittedVehicleDtoToModelConverter}) of generated files. Run with {@code -prof gc} (the
+ * default of {@code make benchmark}) to get the allocation rate alongside the time.
+ *
+ * <p>The maximum number of parse errors is not limited, so that files with invalid lines are
+ * parsed as a whole.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CsvIngestBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int rowsCount;
+
+  @Param({"0", "5"})
+  public int invalidRowsPercentage;
+
+  /**
+   * The parallelism of {@link RetrofittedVehicleDtoToModelConverter}, 0 stands for the number of
+   * available processors.
+   */
+  @Param({"1", "0"})
+  public int conversionParallelism;
+
+  private byte[] csv;
+
+  private CsvObjectMapper csvObjectMapper;
+
+  private RetrofittedVehicleDtoToModelConverter converter;
+
+  /**
+   * Generates the CSV file and creates the tested components.
+   */
+  @Setup
+  public void setup() {
+    csv = RetrofitCsvGenerator.generate(rowsCount, invalidRowsPercentage);
+    csvObjectMapper = new CsvObjectMapper(new CsvAwareValidationMessageModifier(),
+        Integer.MAX_VALUE);
+    converter = new RetrofittedVehicleDtoToModelConverter(conversionParallelism, 10_000);
+  }
+
+  @Benchmark
+  public CsvParseResult parse() throws IOException {
+    return csvObjectMapper.read(new ByteArrayInputStream(csv));
+  }
+
+  @Benchmark
+  public void parseAndValidate(Blackhole blackhole) throws IOException {
+    List<RetrofittedVehicleDto> vehicles = parse().getRetrofittedVehicles();
+    for (RetrofittedVehicleDto vehicle : vehicles) {
+      blackhole.consume(vehicle.validate());
+    }
+  }
+
+  @Benchmark
+  public ConversionResults parseValidateAndConvert() throws IOException {
+    return converter.convert(parse().getRetrofittedVehicles());
+  }
+}
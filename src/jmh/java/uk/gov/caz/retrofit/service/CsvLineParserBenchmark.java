@@ -0,0 +1,71 @@
+package uk.gov.caz.retrofit.service;
+
+import com.opencsv.CSVParser;
+import com.opencsv.ICSVParser;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link CsvRetrofittedVehicleTokenizer} with the regex and OpenCSV based {@link
+ * CsvRetrofittedVehicleParser} on a batch of lines of which {@code invalidLinesPercentage}
+ * percent are rejected.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvLineParserBenchmark {
+
+  private static final int LINES_COUNT = 10_000;
+
+  @Param({"0", "10"})
+  public int invalidLinesPercentage;
+
+  private String[] lines;
+
+  /**
+   * Generates lines which are parsed in every invocation.
+   */
+  @Setup
+  public void setup() {
+    lines = new String[LINES_COUNT];
+    for (int i = 0; i < LINES_COUNT; i++) {
+      String line = String.format("AB%05d,Category %d,Model (%d),2019-%02d-%02d", i, i % 7,
+          i % 13, i % 12 + 1, i % 28 + 1);
+      lines[i] = i % 100 < invalidLinesPercentage ? line + ",extra$" : line;
+    }
+  }
+
+  @Benchmark
+  public void regexAndOpenCsvParser(Blackhole blackhole) {
+    parseAll(new CsvRetrofittedVehicleParser(new CSVParser()), blackhole);
+  }
+
+  @Benchmark
+  public void singlePassTokenizer(Blackhole blackhole) {
+    parseAll(new CsvRetrofittedVehicleTokenizer(), blackhole);
+  }
+
+  private void parseAll(ICSVParser parser, Blackhole blackhole) {
+    for (String line : lines) {
+      try {
+        blackhole.consume(parser.parseLineMulti(line));
+      } catch (Exception e) {
+        blackhole.consume(e);
+      }
+    }
+  }
+}
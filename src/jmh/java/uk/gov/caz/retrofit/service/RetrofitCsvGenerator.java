@@ -0,0 +1,65 @@
+package uk.gov.caz.retrofit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates realistic retrofit CSV files for benchmarks. A given share of lines is invalid:
+ * every other invalid line contains a character which is rejected by the parser and the rest
+ * contain a date which is rejected by the validation.
+ */
+final class RetrofitCsvGenerator {
+
+  private static final String[] CATEGORIES = {"Normal Vehicle", "Military Vehicle",
+      "Bus", "Coach", "Heavy Goods Vehicle", "Light Goods Vehicle"};
+  private static final String[] MODELS = {"Skoda Octavia", "Ford Focus", "Volvo B9TL",
+      "Alexander Dennis Enviro400", "Mercedes-Benz Sprinter", "T-34/85 Rudy 102"};
+
+  private RetrofitCsvGenerator() {
+  }
+
+  /**
+   * Generates a UTF-8 encoded CSV file with {@code rowsCount} rows out of which {@code
+   * invalidRowsPercentage} percent are invalid.
+   */
+  static byte[] generate(int rowsCount, int invalidRowsPercentage) {
+    Random random = new Random(rowsCount);
+    StringBuilder csv = new StringBuilder(rowsCount * 48);
+    int invalidRows = 0;
+    for (int i = 0; i < rowsCount; i++) {
+      boolean invalid = random.nextInt(100) < invalidRowsPercentage;
+      if (invalid) {
+        invalidRows += 1;
+      }
+      boolean parseError = invalid && invalidRows % 2 == 1;
+      boolean businessError = invalid && !parseError;
+      csv.append(vrn(i))
+          .append(',')
+          .append(CATEGORIES[random.nextInt(CATEGORIES.length)])
+          .append(',')
+          .append(MODELS[random.nextInt(MODELS.length)])
+          .append(',')
+          .append(businessError ? "2019-13-45" : String.format("20%02d-%02d-%02d",
+              10 + random.nextInt(10), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+      if (parseError) {
+        csv.append('$');
+      }
+      csv.append('\n');
+    }
+    return csv.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a unique VRN in the 'AB12CDE' format for {@code index} lower than 67,600,000.
+   */
+  private static String vrn(int index) {
+    return new StringBuilder(7)
+        .append((char) ('A' + index % 26))
+        .append((char) ('A' + index / 26 % 26))
+        .append(String.format("%02d", index / 676 % 100))
+        .append((char) ('A' + index / 67_600 % 26))
+        .append((char) ('A' + index / 1_757_600 % 26))
+        .append((char) ('A' + index / 45_697_600 % 26))
+        .toString();
+  }
+}
@@ -10,6 +10,7 @@ import uk.gov.caz.retrofit.configuration.SwaggerConfiguration;
 import uk.gov.caz.retrofit.configuration.properties.SwaggerApiInfo;
 import uk.gov.caz.retrofit.controller.RegisterCsvFromS3Controller;
 import uk.gov.caz.retrofit.repository.RegisterJobRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
 import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 import uk.gov.caz.retrofit.service.AsyncJavaBackgroundJobStarter;
@@ -23,6 +24,7 @@ import uk.gov.caz.retrofit.service.RegisterService;
 import uk.gov.caz.retrofit.service.RegisterServicesContext;
 import uk.gov.caz.retrofit.service.RetrofittedVehicleDtoToModelConverter;
 import uk.gov.caz.retrofit.service.SourceAwareRegisterService;
+import uk.gov.caz.retrofit.service.StreamingRegisterService;
 import uk.gov.caz.retrofit.service.validation.CsvAwareValidationMessageModifier;
 
 @Import({
@@ -35,7 +37,8 @@ import uk.gov.caz.retrofit.service.validation.CsvAwareValidationMessageModifier;
     AsyncJavaBackgroundJobStarter.class, RegisterServicesContext.class,
     RegisterFromCsvExceptionResolver.class, RetrofittedVehicleDtoToModelConverter.class,
     RegisterJobRepository.class, RetrofittedVehicleDtoCsvRepository.class,
-    RetrofittedVehiclePostgresRepository.class
+    RetrofittedVehiclePostgresRepository.class, StreamingRegisterService.class,
+    RetrofittedVehicleCopyRepository.class
 })
 @SpringBootApplication
 public class Application {
@@ -8,11 +8,11 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.lambda.LambdaClient;
-import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
 import software.amazon.awssdk.services.lambda.model.InvocationType;
 import software.amazon.awssdk.services.lambda.model.InvokeRequest;
 import software.amazon.awssdk.services.lambda.model.InvokeResponse;
 import uk.gov.caz.retrofit.dto.RegisterCsvFromS3LambdaInput;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.service.AsyncBackgroundJobStarter;
 
 @Component
@@ -21,32 +21,31 @@ import uk.gov.caz.retrofit.service.AsyncBackgroundJobStarter;
 public class AsyncLambdaBackgroundJobStarter implements AsyncBackgroundJobStarter {
 
   private final ObjectMapper objectMapper;
-  private final LambdaClientBuilder lambdaClientBuilder;
+  private final LambdaClient lambdaClient;
   private final String lambdaName;
 
   /**
    * Constructs new instance of {@link AsyncLambdaBackgroundJobStarter} class.
    *
    * @param objectMapper Jackson mapper.
-   * @param lambdaClientBuilder An implementation of {@link LambdaClientBuilder} interface that
-   *     will be used to get instance of {@link LambdaClient}.
+   * @param lambdaClient A long-lived {@link LambdaClient} which is used to invoke the Lambda.
    * @param lambdaName Name of Lambda function that should be invoked.
    */
   public AsyncLambdaBackgroundJobStarter(ObjectMapper objectMapper,
-      LambdaClientBuilder lambdaClientBuilder,
+      LambdaClient lambdaClient,
       @Value("${registerjob.lambda.name}") String lambdaName) {
     this.objectMapper = objectMapper;
-    this.lambdaClientBuilder = lambdaClientBuilder;
+    this.lambdaClient = lambdaClient;
     this.lambdaName = lambdaName;
   }
 
   @Override
   public void fireAndForgetRegisterCsvFromS3Job(int registerJobId, String s3Bucket, String fileName,
-      String correlationId) {
+      String correlationId, CsvMetadata csvMetadata) {
     logCallDetails(registerJobId, s3Bucket, fileName, correlationId);
     try {
       String lambdaJsonPayload = prepareLambdaJsonPayload(registerJobId, s3Bucket, fileName,
-          correlationId);
+          correlationId, csvMetadata);
       InvokeRequest invokeRequest = prepareInvokeRequestForFunction(lambdaName,
           lambdaJsonPayload);
       invokeLambda(invokeRequest);
@@ -65,11 +64,12 @@ public class AsyncLambdaBackgroundJobStarter implements AsyncBackgroundJobStarte
   }
 
   private String prepareLambdaJsonPayload(int registerJobId, String s3Bucket, String fileName,
-      String correlationId)
+      String correlationId, CsvMetadata csvMetadata)
       throws JsonProcessingException {
     RegisterCsvFromS3LambdaInput input = RegisterCsvFromS3LambdaInput.builder()
         .registerJobId(registerJobId).s3Bucket(s3Bucket)
-        .fileName(fileName).correlationId(correlationId).build();
+        .fileName(fileName).correlationId(correlationId)
+        .csvMetadata(csvMetadata).build();
     return objectMapper.writeValueAsString(input);
   }
 
@@ -84,12 +84,10 @@ public class AsyncLambdaBackgroundJobStarter implements AsyncBackgroundJobStarte
   }
 
   private void invokeLambda(InvokeRequest invokeRequest) {
-    try (LambdaClient lambdaClient = lambdaClientBuilder.build()) {
-      InvokeResponse invokeResponse = lambdaClient.invoke(invokeRequest);
-      log.info(
-          "Successfully invoked (asynchronously) '{}' Lambda. "
-              + "InvokeResponse: {}",
-          lambdaName, invokeResponse.toString());
-    }
+    InvokeResponse invokeResponse = lambdaClient.invoke(invokeRequest);
+    log.info(
+        "Successfully invoked (asynchronously) '{}' Lambda. "
+            + "InvokeResponse: {}",
+        lambdaName, invokeResponse.toString());
   }
 }
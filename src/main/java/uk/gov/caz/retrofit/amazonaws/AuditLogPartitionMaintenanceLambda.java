@@ -0,0 +1,45 @@
+package uk.gov.caz.retrofit.amazonaws;
+
+import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
+import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
+import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.google.common.base.Stopwatch;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import uk.gov.caz.awslambda.AwsHelpers;
+import uk.gov.caz.retrofit.Application;
+import uk.gov.caz.retrofit.service.AuditLogPartitionMaintenanceService;
+
+/**
+ * Lambda function which maintains monthly partitions of the audit log, invoked on a schedule.
+ */
+@Slf4j
+public class AuditLogPartitionMaintenanceLambda implements RequestHandler<ScheduledEvent, String> {
+
+  private SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
+  private AuditLogPartitionMaintenanceService auditLogPartitionMaintenanceService;
+
+  @Override
+  public String handleRequest(ScheduledEvent scheduledEvent, Context context) {
+    Stopwatch timer = Stopwatch.createStarted();
+    initializeHandlerAndService();
+    log.info("Handler initialization took {}ms", timer.elapsed(TimeUnit.MILLISECONDS));
+    auditLogPartitionMaintenanceService.maintain();
+    log.info("Audit log partitions maintenance took {}ms",
+        timer.stop().elapsed(TimeUnit.MILLISECONDS));
+    return "OK";
+  }
+
+  private void initializeHandlerAndService() {
+    if (handler == null) {
+      handler = AwsHelpers.initSpringBootHandler(Application.class);
+      auditLogPartitionMaintenanceService = WebApplicationContextUtils
+          .getWebApplicationContext(handler.getServletContext())
+          .getBean(AuditLogPartitionMaintenanceService.class);
+    }
+  }
+}
@@ -55,7 +55,8 @@ public class RetrofitRegisterCsvFromS3Lambda implements
           registerCsvFromS3LambdaInput.getS3Bucket(),
           registerCsvFromS3LambdaInput.getFileName(),
           registerCsvFromS3LambdaInput.getRegisterJobId(),
-          registerCsvFromS3LambdaInput.getCorrelationId());
+          registerCsvFromS3LambdaInput.getCorrelationId(),
+          registerCsvFromS3LambdaInput.toCsvMetadata());
       registerResult = String.valueOf(result.isSuccess());
       log.info("Register method took {}", timer.stop().elapsed(TimeUnit.MILLISECONDS));
     } catch (OutOfMemoryError error) {
@@ -2,15 +2,17 @@ package uk.gov.caz.retrofit.configuration;
 
 import com.google.common.base.Strings;
 import java.net.URI;
+import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.lambda.LambdaClient;
-import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import uk.gov.caz.awslambda.AwsHelpers;
@@ -20,14 +22,46 @@ import uk.gov.caz.awslambda.AwsHelpers;
 public class AwsConfiguration {
 
   /**
-   * Returns and instance of {@link LambdaClientBuilder} interface that is being used to create AWS
-   * Lambda clients. In current implementation it is DefaultLambdaClientBuilder.
+   * Returns an instance of {@link SdkHttpClient} which is shared by all AWS clients, so that
+   * connections (and their TLS sessions) are pooled and kept alive between S3 requests and job
+   * starts instead of being established for every one of them. The pool must be larger than
+   * {@code application.register.s3-download.parallelism}.
    *
-   * @return An instance of {@link LambdaClientBuilder}.
+   * @param maxConnections The maximum number of open connections per host
+   * @param connectionTimeout The timeout (in ms) of establishing a connection
+   * @param socketTimeout The timeout (in ms) of waiting for data on an open connection
+   * @param connectionMaxIdleTime The time (in ms) after which an idle connection is closed
+   * @return An instance of {@link SdkHttpClient}
    */
   @Bean
-  public LambdaClientBuilder lambdaClientBuilder() {
-    return LambdaClient.builder();
+  public SdkHttpClient awsHttpClient(
+      @Value("${aws.http-client.max-connections:50}") int maxConnections,
+      @Value("${aws.http-client.connection-timeout:2000}") long connectionTimeout,
+      @Value("${aws.http-client.socket-timeout:30000}") long socketTimeout,
+      @Value("${aws.http-client.connection-max-idle-time:60000}") long connectionMaxIdleTime) {
+    return ApacheHttpClient.builder()
+        .maxConnections(maxConnections)
+        .connectionTimeout(Duration.ofMillis(connectionTimeout))
+        .socketTimeout(Duration.ofMillis(socketTimeout))
+        .connectionMaxIdleTime(Duration.ofMillis(connectionMaxIdleTime))
+        .useIdleConnectionReaper(true)
+        .build();
+  }
+
+  /**
+   * Returns an instance of {@link LambdaClient} which is used to start register jobs. The client
+   * is created once and reused for every job. All configuration MUST be specified by environment
+   * variables.
+   *
+   * @param awsHttpClient The HTTP client shared by all AWS clients
+   * @return An instance of {@link LambdaClient}
+   */
+  @Bean
+  @Profile("!development & !integration-tests")
+  public LambdaClient lambdaClient(SdkHttpClient awsHttpClient) {
+    return LambdaClient.builder()
+        .httpClient(awsHttpClient)
+        .build();
   }
 
   /**
@@ -35,12 +69,14 @@ public class AwsConfiguration {
    * Localstack.
    *
    * @param s3Endpoint An endpoint of mocked S3. Cannot be empty or {@code null}
+   * @param awsHttpClient The HTTP client shared by all AWS clients
    * @return An instance of {@link S3Client}
    * @throws IllegalStateException if {@code s3Endpoint} is null or empty
    */
   @Profile({"integration-tests", "localstack"})
   @Bean
-  public S3Client s3LocalstackClient(@Value("${aws.s3.endpoint:}") String s3Endpoint) {
+  public S3Client s3LocalstackClient(@Value("${aws.s3.endpoint:}") String s3Endpoint,
+      SdkHttpClient awsHttpClient) {
     log.info("Running Spring-Boot app locally using Localstack. "
         + "Using 'dummy' AWS credentials and 'eu-west-2' region.");
 
@@ -54,6 +90,7 @@ public class AwsConfiguration {
     return S3Client.builder()
         .region(Region.EU_WEST_2)
         .endpointOverride(URI.create(s3Endpoint))
+        .httpClient(awsHttpClient)
 
         // unfortunately there is a checksum error when uploading a file to localstack
         // so the check must be disabled
@@ -66,18 +103,21 @@ public class AwsConfiguration {
    * Returns an instance of {@link S3Client} which is used to retrieve CSV files from S3. All
    * configuration MUST be specified by environment variables.
    *
+   * @param awsHttpClient The HTTP client shared by all AWS clients
    * @return An instance of {@link S3Client}
    */
   @Bean
   @Profile("!integration-tests & !localstack")
-  public S3Client s3Client() {
+  public S3Client s3Client(SdkHttpClient awsHttpClient) {
     if (AwsHelpers.areWeRunningLocallyUsingSam()) {
       log.info("Running Lambda locally using SAM Local");
     }
 
     logAwsVariables();
 
-    return S3Client.create();
+    return S3Client.builder()
+        .httpClient(awsHttpClient)
+        .build();
   }
 
   private void logAwsVariables() {
@@ -28,7 +28,7 @@ public class HistoricalInfoController implements HistoricalInfoControllerApiSpec
         .findByVrnInRange(vrn, request);
 
     RetrofitInfoHistoricalResponse response = RetrofitInfoHistoricalResponse.builder()
-        .page(request.getPageNumber())
+        .page(vehicleHistorical.getPage())
         .pageCount(
             calculatePageCount(vehicleHistorical.getTotalChangesCount(), request.getPageSize()))
         .perPage(request.getPageSize())
@@ -36,6 +36,7 @@ public class HistoricalInfoController implements HistoricalInfoControllerApiSpec
         .changes(vehicleHistorical.getChanges().stream()
             .map(Change::from)
             .collect(Collectors.toList()))
+        .nextPageToken(vehicleHistorical.getNextPageToken())
         .build();
     return ResponseEntity.ok(response);
   }
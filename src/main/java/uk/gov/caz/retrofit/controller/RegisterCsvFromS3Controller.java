@@ -15,12 +15,12 @@ import uk.gov.caz.retrofit.dto.RegisterJobStatusDto;
 import uk.gov.caz.retrofit.dto.StartRegisterCsvFromS3JobCommand;
 import uk.gov.caz.retrofit.dto.StatusOfRegisterCsvFromS3JobQueryResult;
 import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJob;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobName;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobTrigger;
 import uk.gov.caz.retrofit.service.AsyncBackgroundJobStarter;
 import uk.gov.caz.retrofit.service.CsvFileOnS3MetadataExtractor;
-import uk.gov.caz.retrofit.service.CsvFileOnS3MetadataExtractor.CsvMetadata;
 import uk.gov.caz.retrofit.service.RegisterJobSupervisor;
 import uk.gov.caz.retrofit.service.RegisterJobSupervisor.StartParams;
 import uk.gov.caz.retrofit.service.exception.ActiveJobsCountExceededException;
@@ -43,7 +43,8 @@ public class RegisterCsvFromS3Controller implements RegisterCsvFromS3ControllerA
    *     interface.
    * @param registerJobSupervisor {@link RegisterJobSupervisor} that supervises whole job run.
    * @param csvFileOnS3MetadataExtractor {@link CsvFileOnS3MetadataExtractor} that allows to get
-   *     'uploader-id' and 'csv-content-type' metadata from CSV file.
+   *     'uploader-id' and 'csv-content-type' metadata from CSV file (alongside its size and
+   *     {@code ETag} which are passed to the job).
    */
   public RegisterCsvFromS3Controller(
       AsyncBackgroundJobStarter asyncBackgroundJobStarter,
@@ -94,7 +95,8 @@ public class RegisterCsvFromS3Controller implements RegisterCsvFromS3ControllerA
         .correlationId(correlationId)
         .uploaderId(csvMetadata.getUploaderId())
         .registerJobInvoker(
-            asyncRegisterJobInvoker(correlationId, startRegisterCsvFromS3JobCommand))
+            asyncRegisterJobInvoker(correlationId, startRegisterCsvFromS3JobCommand, csvMetadata))
+        .contentDigest(csvMetadata.getFileETag())
         .build();
   }
 
@@ -114,12 +116,13 @@ public class RegisterCsvFromS3Controller implements RegisterCsvFromS3ControllerA
   }
 
   private RegisterJobSupervisor.RegisterJobInvoker asyncRegisterJobInvoker(String correlationId,
-      StartRegisterCsvFromS3JobCommand startRegisterCsvFromS3JobCommand) {
+      StartRegisterCsvFromS3JobCommand startRegisterCsvFromS3JobCommand, CsvMetadata csvMetadata) {
     return registerJobId -> asyncBackgroundJobStarter.fireAndForgetRegisterCsvFromS3Job(
         registerJobId,
         startRegisterCsvFromS3JobCommand.getS3Bucket(),
         startRegisterCsvFromS3JobCommand.getFilename(),
-        correlationId
+        correlationId,
+        csvMetadata
     );
   }
 
@@ -1,11 +1,17 @@
 package uk.gov.caz.retrofit.controller;
 
+import java.util.LinkedHashSet;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import uk.gov.caz.retrofit.dto.RetrofitStatusResponse;
+import uk.gov.caz.retrofit.dto.RetrofitStatusesRequest;
+import uk.gov.caz.retrofit.dto.RetrofitStatusesResponse;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
 import uk.gov.caz.retrofit.model.RetrofitStatus;
+import uk.gov.caz.retrofit.service.RegisterDataVersionService;
 import uk.gov.caz.retrofit.service.RetrofitVehicleService;
 
 @RestController
@@ -16,9 +22,18 @@ public class RetrofitVehicleController implements RetrofitVehicleControllerApiSp
   @Autowired
   private RetrofitVehicleService retrofitVehicleService;
 
+  @Autowired
+  private RegisterDataVersionService registerDataVersionService;
+
   @Override
   public ResponseEntity<RetrofitStatusResponse> fetchRetrofitStatus(String correlationId,
-      String vrn) {
+      String vrn, WebRequest webRequest) {
+    RegisterDataVersion dataVersion = registerDataVersionService.current();
+    // sets ETag and Last-Modified headers and 304 status if the client's version is up to date
+    if (webRequest.checkNotModified(dataVersion.toEntityTag(),
+        dataVersion.getLastModified().toEpochMilli())) {
+      return null;
+    }
     RetrofitStatus retrofitStatus = retrofitVehicleService.infoByVrn(vrn);
     if (retrofitStatus.exists()) {
       return ResponseEntity.ok(new RetrofitStatusResponse(true,
@@ -26,4 +41,12 @@ public class RetrofitVehicleController implements RetrofitVehicleControllerApiSp
     }
     return ResponseEntity.notFound().build();
   }
+
+  @Override
+  public ResponseEntity<RetrofitStatusesResponse> fetchRetrofitStatuses(String correlationId,
+      RetrofitStatusesRequest request) {
+    request.validate();
+    return ResponseEntity.ok(RetrofitStatusesResponse.from(
+        retrofitVehicleService.infoByVrns(new LinkedHashSet<>(request.getVrns()))));
+  }
 }
@@ -7,15 +7,22 @@ import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 import uk.gov.caz.retrofit.dto.RetrofitStatusResponse;
+import uk.gov.caz.retrofit.dto.RetrofitStatusesRequest;
+import uk.gov.caz.retrofit.dto.RetrofitStatusesResponse;
 
 @RequestMapping(
     value = RetrofitVehicleController.BASE_PATH,
@@ -34,6 +41,8 @@ public interface RetrofitVehicleControllerApiSpec {
       @ApiResponse(code = 500, message = "Internal Server Error / No message available"),
       @ApiResponse(code = 400, message = "Correlation Id missing"),
       @ApiResponse(code = 404, message = "Vehicle for given VRN doesn't exist"),
+      @ApiResponse(code = 304, message = "Register has not changed since the version given in "
+          + "If-None-Match or If-Modified-Since header"),
       @ApiResponse(code = 202, message = "Vehicle found, status in the response"),
   })
   @ApiImplicitParams({
@@ -41,6 +50,9 @@ public interface RetrofitVehicleControllerApiSpec {
           required = true,
           value = "CorrelationID to track the request from the API gateway through"
               + " the Enquiries stack",
+          paramType = "header"),
+      @ApiImplicitParam(name = HttpHeaders.IF_NONE_MATCH,
+          value = "ETag of the register data version returned by a previous call",
           paramType = "header")
   })
   @GetMapping(
@@ -50,5 +62,34 @@ public interface RetrofitVehicleControllerApiSpec {
   @ResponseStatus(value = HttpStatus.CREATED)
   ResponseEntity<RetrofitStatusResponse> fetchRetrofitStatus(
       @RequestHeader(CORRELATION_ID_HEADER) String correlationId,
-      @PathVariable String vrn);
+      @PathVariable String vrn,
+      @ApiIgnore WebRequest webRequest);
+
+  /**
+   * Endpoint that fetches retrofit statuses of many vehicles at once.
+   */
+  @ApiOperation(
+      value = "Fetches retrofit statuses of many vehicles",
+      response = RetrofitStatusesResponse.class
+  )
+  @ApiResponses({
+      @ApiResponse(code = 500, message = "Internal Server Error / No message available"),
+      @ApiResponse(code = 400, message = "Correlation Id missing / invalid list of VRNs"),
+      @ApiResponse(code = 200, message = "Statuses of all requested vehicles"),
+  })
+  @ApiImplicitParams({
+      @ApiImplicitParam(name = CORRELATION_ID_HEADER,
+          required = true,
+          value = "CorrelationID to track the request from the API gateway through"
+              + " the Enquiries stack",
+          paramType = "header")
+  })
+  @PostMapping(
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      value = "/status"
+  )
+  ResponseEntity<RetrofitStatusesResponse> fetchRetrofitStatuses(
+      @RequestHeader(CORRELATION_ID_HEADER) String correlationId,
+      @RequestBody RetrofitStatusesRequest request);
 }
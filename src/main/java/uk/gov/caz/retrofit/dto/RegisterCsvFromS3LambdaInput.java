@@ -1,9 +1,12 @@
 package uk.gov.caz.retrofit.dto;
 
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 
 @Data
 @NoArgsConstructor
@@ -16,4 +19,39 @@ public class RegisterCsvFromS3LambdaInput {
   String fileName;
   String correlationId;
   String action;
+  String uploaderId;
+  String csvContentType;
+  Long fileSize;
+  String fileETag;
+
+  /**
+   * Recreates the metadata of CSV file obtained when the job was started.
+   *
+   * @return {@link CsvMetadata} of the file or {@code null} if the input does not contain it
+   *     (e.g. it was sent by a previous version of the application).
+   */
+  public CsvMetadata toCsvMetadata() {
+    if (uploaderId == null || csvContentType == null) {
+      return null;
+    }
+    return new CsvMetadata(UUID.fromString(uploaderId), CsvContentType.valueOf(csvContentType),
+        fileSize, fileETag);
+  }
+
+  public static class RegisterCsvFromS3LambdaInputBuilder {
+
+    /**
+     * Sets the metadata of CSV file obtained when the job was started, {@code null} leaves it
+     * unset.
+     */
+    public RegisterCsvFromS3LambdaInputBuilder csvMetadata(CsvMetadata csvMetadata) {
+      if (csvMetadata != null) {
+        this.uploaderId = csvMetadata.getUploaderId().toString();
+        this.csvContentType = csvMetadata.getCsvContentType().name();
+        this.fileSize = csvMetadata.getFileSize();
+        this.fileETag = csvMetadata.getFileETag();
+      }
+      return this;
+    }
+  }
 }
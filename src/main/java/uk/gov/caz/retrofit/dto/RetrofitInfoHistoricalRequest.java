@@ -30,7 +30,7 @@ public class RetrofitInfoHistoricalRequest {
           .put(startDateNotNull(), "'startDate' cannot be null")
           .put(endDateNotNull(), "'endDate' cannot be null")
           .put(startNotAfterEndDate(), "'startDate' need to be before 'endDate'")
-          .put(pageNumberPositiveValue(), "'pageNumber' cannot be null")
+          .put(pageNumberPositiveValueOrPageToken(), "'pageNumber' cannot be null")
           .put(pageSizePositiveValue(), "'pageSize' cannot be null")
           .build();
 
@@ -52,6 +52,9 @@ public class RetrofitInfoHistoricalRequest {
       "${swagger.model.descriptions.retrofit-info-historical-request.page-size}")
   Integer pageSize;
 
+  @ApiModelProperty(value =
+      "${swagger.model.descriptions.retrofit-info-historical-request.page-token}")
+  String pageToken;
 
   /**
    * Public method that validates given object and throws exceptions if validation doesn't pass.
@@ -107,10 +110,12 @@ public class RetrofitInfoHistoricalRequest {
   }
 
   /**
-   * Returns a lambda that verifies if 'page number' is not null.
+   * Returns a lambda that verifies if 'page number' is not null unless 'page token' is given.
    */
-  private static Function<RetrofitInfoHistoricalRequest, Boolean> pageNumberPositiveValue() {
-    return request -> Objects.nonNull(request.getPageNumber()) && request.getPageNumber() >= 0;
+  private static Function<RetrofitInfoHistoricalRequest, Boolean>
+      pageNumberPositiveValueOrPageToken() {
+    return request -> Objects.nonNull(request.getPageToken())
+        || (Objects.nonNull(request.getPageNumber()) && request.getPageNumber() >= 0);
   }
 
   /**
@@ -38,6 +38,12 @@ public class RetrofitInfoHistoricalResponse {
    */
   List<Change> changes;
 
+  /**
+   * Opaque token which fetches the next page when passed as 'pageToken', {@code null} if this is
+   * the last page.
+   */
+  String nextPageToken;
+
   @Value
   @Builder
   public static class Change {
@@ -0,0 +1,38 @@
+package uk.gov.caz.retrofit.dto;
+
+import com.google.common.base.Strings;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import lombok.Value;
+import uk.gov.caz.retrofit.controller.exception.InvalidRequestPayloadException;
+
+/**
+ * DTO class that holds VRNs whose retrofit statuses are to be fetched at once.
+ */
+@Value
+public class RetrofitStatusesRequest {
+
+  /**
+   * The maximum number of VRNs in a single request.
+   */
+  public static final int MAX_VRNS_COUNT = 5000;
+
+  @ApiModelProperty(value = "${swagger.model.descriptions.retrofit-statuses-request.vrns}")
+  List<String> vrns;
+
+  /**
+   * Public method that validates given object and throws exceptions if validation doesn't pass.
+   */
+  public void validate() {
+    if (vrns == null || vrns.isEmpty()) {
+      throw new InvalidRequestPayloadException("'vrns' cannot be empty");
+    }
+    if (vrns.size() > MAX_VRNS_COUNT) {
+      throw new InvalidRequestPayloadException(
+          "'vrns' cannot contain more than " + MAX_VRNS_COUNT + " elements");
+    }
+    if (vrns.stream().anyMatch(Strings::isNullOrEmpty)) {
+      throw new InvalidRequestPayloadException("'vrns' cannot contain empty elements");
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package uk.gov.caz.retrofit.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Value;
+import uk.gov.caz.retrofit.model.RetrofitStatus;
+
+/**
+ * Class that represents response holding retrofit statuses of many vehicles.
+ */
+@Value
+public class RetrofitStatusesResponse {
+
+  /**
+   * Retrofit statuses in the order of VRNs in the request.
+   */
+  List<VehicleRetrofitStatus> statuses;
+
+  /**
+   * Maps retrofit statuses keyed by VRN to {@link RetrofitStatusesResponse}.
+   */
+  public static RetrofitStatusesResponse from(Map<String, RetrofitStatus> statusesByVrn) {
+    return new RetrofitStatusesResponse(statusesByVrn.entrySet().stream()
+        .map(entry -> VehicleRetrofitStatus.from(entry.getKey(), entry.getValue()))
+        .collect(Collectors.toList()));
+  }
+
+  @Value
+  public static class VehicleRetrofitStatus {
+
+    /**
+     * VRN of the vehicle.
+     */
+    String vrn;
+
+    /**
+     * Indicates whether vehicles exists in DB.
+     */
+    boolean retrofitStatus;
+
+    /**
+     * Insert timestamp of value.
+     */
+    @JsonFormat(shape = Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime addedTimestamp;
+
+    /**
+     * Maps {@link RetrofitStatus} of {@code vrn} to {@link VehicleRetrofitStatus}.
+     */
+    public static VehicleRetrofitStatus from(String vrn, RetrofitStatus retrofitStatus) {
+      return new VehicleRetrofitStatus(vrn, retrofitStatus.exists(),
+          retrofitStatus.getInsertTimestamp());
+    }
+  }
+}
@@ -11,6 +11,11 @@ import lombok.Value;
 @Builder
 public class RetrofitVehicleHistoricalInfo {
 
+  /**
+   * Page that has been retrieved.
+   */
+  int page;
+
   /**
    * The total number of history changes associated with this vehicle.
    */
@@ -20,4 +25,9 @@ public class RetrofitVehicleHistoricalInfo {
    * A list of history changes associated with this vehicle.
    */
   List<RetrofitVehicleHistory> changes;
+
+  /**
+   * Token which points at the next page, {@code null} if this is the last one.
+   */
+  String nextPageToken;
 }
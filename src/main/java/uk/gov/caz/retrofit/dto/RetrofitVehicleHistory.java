@@ -38,4 +38,9 @@ public class RetrofitVehicleHistory implements Serializable {
    * A date when retrofit happened for this vehicle.
    */
   LocalDate dateOfRetrofit;
+
+  /**
+   * Position of the change in the history, used to fetch the next page after it.
+   */
+  RetrofitVehicleHistoryKey key;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package uk.gov.caz.retrofit.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Position of a change in the history of a vehicle which uniquely identifies it in the order the
+ * history is returned in, so that the next page can be fetched by seeking past it.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RetrofitVehicleHistoryKey implements Serializable {
+
+  private static final long serialVersionUID = 4839410259112578317L;
+
+  /**
+   * When the change was logged.
+   */
+  Instant actionTimestamp;
+
+  /**
+   * Id of the change, unique among changes logged at the same time.
+   */
+  long id;
+}
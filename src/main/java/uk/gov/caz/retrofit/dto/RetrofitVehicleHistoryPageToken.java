@@ -0,0 +1,117 @@
+package uk.gov.caz.retrofit.dto;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import lombok.Value;
+import uk.gov.caz.retrofit.controller.exception.InvalidRequestPayloadException;
+
+/**
+ * Opaque continuation token of the history of a vehicle which points at the next page and the
+ * last change before it. It also carries the total number of changes counted along with the
+ * first page, so that subsequent pages do not need to count them again.
+ *
+ * <p>The token is bound to the query it was issued for (the VRN, the date range and the page
+ * size) by a checksum of the query and the token content, so that a token reused with different
+ * parameters or edited by hand is rejected instead of returning an inconsistent page. The
+ * checksum is a consistency check, not a signature.</p>
+ */
+@Value
+public class RetrofitVehicleHistoryPageToken {
+
+  private static final String SEPARATOR = "|";
+  private static final int PARTS_COUNT = 5;
+  private static final int CHECKSUM_LENGTH = 16;
+
+  /**
+   * Number of the page the token points at.
+   */
+  int page;
+
+  /**
+   * The total number of changes in the history.
+   */
+  int totalChangesCount;
+
+  /**
+   * The last change on the previous page.
+   */
+  RetrofitVehicleHistoryKey after;
+
+  /**
+   * Encodes this token as a URL-safe string bound to {@code query}.
+   *
+   * @param query The query the token is issued for, see {@link #query(String,
+   *     RetrofitInfoHistoricalRequest)}
+   */
+  public String encode(String query) {
+    String content = page + SEPARATOR
+        + totalChangesCount + SEPARATOR
+        + after.getActionTimestamp() + SEPARATOR
+        + after.getId();
+    String token = content + SEPARATOR + checksum(query, content);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token previously created by {@link #encode(String)}.
+   *
+   * @param token A token returned by the API
+   * @param query The query the token is used with, see {@link #query(String,
+   *     RetrofitInfoHistoricalRequest)}
+   * @return {@link RetrofitVehicleHistoryPageToken} decoded from {@code token}
+   * @throws InvalidRequestPayloadException if {@code token} is malformed or it was issued for
+   *     a different query
+   */
+  public static RetrofitVehicleHistoryPageToken decode(String token, String query) {
+    try {
+      List<String> parts = Splitter.on(SEPARATOR).splitToList(
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      if (parts.size() != PARTS_COUNT) {
+        throw new IllegalArgumentException("Invalid number of parts: " + parts.size());
+      }
+      String content = Joiner.on(SEPARATOR).join(parts.subList(0, PARTS_COUNT - 1));
+      if (!checksum(query, content).equals(parts.get(PARTS_COUNT - 1))) {
+        throw new IllegalArgumentException("Invalid checksum");
+      }
+      int page = Integer.parseInt(parts.get(0));
+      if (page < 1) {
+        throw new IllegalArgumentException("Invalid page: " + page);
+      }
+      int totalChangesCount = Integer.parseInt(parts.get(1));
+      if (totalChangesCount < 0) {
+        throw new IllegalArgumentException("Invalid total changes count: " + totalChangesCount);
+      }
+      return new RetrofitVehicleHistoryPageToken(page, totalChangesCount,
+          RetrofitVehicleHistoryKey.builder()
+              .actionTimestamp(Instant.parse(parts.get(2)))
+              .id(Long.parseLong(parts.get(3)))
+              .build());
+    } catch (RuntimeException e) {
+      throw new InvalidRequestPayloadException("'pageToken' is invalid");
+    }
+  }
+
+  /**
+   * Returns the canonical form of the parameters of the history query which a page token is
+   * bound to.
+   */
+  public static String query(String vrn, RetrofitInfoHistoricalRequest request) {
+    return vrn + SEPARATOR
+        + request.getStartDate() + SEPARATOR
+        + request.getEndDate() + SEPARATOR
+        + request.getPageSize();
+  }
+
+  private static String checksum(String query, String content) {
+    return Hashing.sha256()
+        .hashString(query + SEPARATOR + content, StandardCharsets.UTF_8)
+        .toString()
+        .substring(0, CHECKSUM_LENGTH);
+  }
+}
@@ -23,6 +23,8 @@ public class RetrofittedVehicleDto {
       new DateOfRetrofitInstallationValidator()
   );
 
+  private static final RetrofittedVehicleValidator VRN_VALIDATOR = new VrnValidator();
+
   String vrn;
 
   String vehicleCategory;
@@ -45,4 +47,14 @@ public class RetrofittedVehicleDto {
         .flatMap(List::stream)
         .collect(Collectors.toList());
   }
+
+  /**
+   * Validates the VRN of this instance only, e.g. when the vehicle is to be deleted.
+   *
+   * @return a list of validation errors if there are any. An empty list is returned if validation
+   *     succeeds.
+   */
+  public List<ValidationError> validateVrn() {
+    return VRN_VALIDATOR.validate(this);
+  }
 }
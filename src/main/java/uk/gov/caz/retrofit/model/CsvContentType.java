@@ -3,5 +3,6 @@ package uk.gov.caz.retrofit.model;
 public enum CsvContentType {
   RETROFIT_LIST,
   MOD_GREEN_LIST,
-  MOD_WHITE_LIST
+  MOD_WHITE_LIST,
+  RETROFIT_DELTA_LIST
 }
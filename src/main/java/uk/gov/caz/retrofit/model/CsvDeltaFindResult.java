@@ -0,0 +1,15 @@
+package uk.gov.caz.retrofit.model;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.Value;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+
+@Value
+public class CsvDeltaFindResult {
+
+  UUID uploaderId;
+  List<RetrofittedVehicleDto> vehiclesToUpsert;
+  List<RetrofittedVehicleDto> vehiclesToDelete;
+  List<ValidationError> validationErrors;
+}
@@ -0,0 +1,12 @@
+package uk.gov.caz.retrofit.model;
+
+import java.util.List;
+import lombok.Value;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+
+@Value
+public class CsvDeltaParseResult {
+  List<RetrofittedVehicleDto> vehiclesToUpsert;
+  List<RetrofittedVehicleDto> vehiclesToDelete;
+  List<ValidationError> validationErrors;
+}
@@ -0,0 +1,27 @@
+package uk.gov.caz.retrofit.model;
+
+import java.util.UUID;
+import lombok.Value;
+
+/**
+ * Metadata of a CSV file located at S3 which is obtained once, when a register job is started,
+ * and carried through the job, so that the file is not inspected again by the job.
+ */
+@Value
+public class CsvMetadata {
+
+  UUID uploaderId;
+
+  CsvContentType csvContentType;
+
+  /**
+   * The size of the file in bytes, {@code null} if unknown.
+   */
+  Long fileSize;
+
+  /**
+   * The {@code ETag} of the file which identifies the validated version of its content, {@code
+   * null} if unknown.
+   */
+  String fileETag;
+}
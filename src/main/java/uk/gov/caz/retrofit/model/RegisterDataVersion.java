@@ -0,0 +1,29 @@
+package uk.gov.caz.retrofit.model;
+
+import java.time.Instant;
+import lombok.Value;
+
+/**
+ * Version of the data in the register which changes only when a modification of the register is
+ * committed.
+ */
+@Value
+public class RegisterDataVersion {
+
+  /**
+   * Monotonically increasing number of the version.
+   */
+  long version;
+
+  /**
+   * The moment when the version was changed.
+   */
+  Instant lastModified;
+
+  /**
+   * Returns an entity tag which represents this version.
+   */
+  public String toEntityTag() {
+    return "\"" + version + "\"";
+  }
+}
@@ -1,12 +1,18 @@
 package uk.gov.caz.retrofit.model;
 
+import com.google.common.base.Strings;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import lombok.Builder;
 import lombok.Value;
+import org.springframework.util.DigestUtils;
 
 @Value
 @Builder(toBuilder = true)
 public class RetrofittedVehicle {
+
+  private static final String CONTENT_HASH_SEPARATOR = "|";
+
   String vrn;
 
   String vehicleCategory;
@@ -14,4 +20,19 @@ public class RetrofittedVehicle {
   String model;
 
   LocalDate dateOfRetrofitInstallation;
+
+  /**
+   * Returns the MD5 fingerprint (as a lowercase hex string) of the content of this vehicle. It is
+   * stored in {@code content_hash} column of {@code t_vehicle_retrofit} table, so that unchanged
+   * vehicles can be detected without comparing every attribute. *MUST* be kept in sync with the
+   * way the column is computed by the database migrations.
+   */
+  public String contentHash() {
+    String content = String.join(CONTENT_HASH_SEPARATOR,
+        vrn,
+        Strings.nullToEmpty(vehicleCategory),
+        Strings.nullToEmpty(model),
+        dateOfRetrofitInstallation == null ? "" : dateOfRetrofitInstallation.toString());
+    return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+  }
 }
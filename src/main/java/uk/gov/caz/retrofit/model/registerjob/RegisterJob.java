@@ -31,4 +31,9 @@ public class RegisterJob {
 
   @NonNull
   String correlationId;
+
+  /**
+   * Digest of the registered content (the ETag of the uploaded file), {@code null} if unknown.
+   */
+  String contentDigest;
 }
@@ -10,6 +10,7 @@ public enum RegisterJobStatus {
   STARTUP_FAILURE_NO_UPLOADER_ID,
   STARTUP_FAILURE_INVALID_UPLOADER_ID,
   STARTUP_FAILURE_TOO_LARGE_FILE,
+  STARTUP_FAILURE_MODIFIED_FILE,
   RUNNING,
   FINISHED_SUCCESS,
   FINISHED_FAILURE_VALIDATION_ERRORS,
@@ -7,13 +7,15 @@ import uk.gov.caz.retrofit.model.CsvContentType;
 public enum RegisterJobTrigger {
   RETROFIT_CSV_FROM_S3,
   GREEN_MOD_CSV_FROM_S3,
-  WHITE_MOD_CSV_FROM_S3;
+  WHITE_MOD_CSV_FROM_S3,
+  RETROFIT_DELTA_CSV_FROM_S3;
 
   private static final Map<CsvContentType, RegisterJobTrigger> FROM_CSV_CONTENT_TYPE_MAPPING =
       ImmutableMap.of(
           CsvContentType.RETROFIT_LIST, RETROFIT_CSV_FROM_S3,
           CsvContentType.MOD_GREEN_LIST, GREEN_MOD_CSV_FROM_S3,
-          CsvContentType.MOD_WHITE_LIST, WHITE_MOD_CSV_FROM_S3
+          CsvContentType.MOD_WHITE_LIST, WHITE_MOD_CSV_FROM_S3,
+          CsvContentType.RETROFIT_DELTA_LIST, RETROFIT_DELTA_CSV_FROM_S3
       );
 
   /**
@@ -31,4 +33,12 @@ public enum RegisterJobTrigger {
     }
     return result;
   }
+
+  /**
+   * Returns a boolean indicating whether the job registers a delta file, i.e. a file which
+   * contains explicit upsert and delete rows instead of the whole register.
+   */
+  public boolean isDelta() {
+    return this == RETROFIT_DELTA_CSV_FROM_S3;
+  }
 }
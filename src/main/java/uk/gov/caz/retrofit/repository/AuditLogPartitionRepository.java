@@ -0,0 +1,83 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A class that manages monthly partitions of the audit log ({@code audit.logged_actions}). Each
+ * partition holds the entries logged in a single month (in UTC) and is named after it, e.g.
+ * {@code logged_actions_p2020_07}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogPartitionRepository {
+
+  private static final String SCHEMA = "audit";
+
+  private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter
+      .ofPattern("'logged_actions_p'yyyy_MM");
+
+  private static final String SELECT_PARTITION_NAMES_SQL = "SELECT c.relname "
+      + "FROM pg_catalog.pg_inherits i "
+      + "JOIN pg_catalog.pg_class c ON c.oid = i.inhrelid "
+      + "WHERE i.inhparent = 'audit.logged_actions'::regclass "
+      + "AND c.relname ~ '^logged_actions_p[0-9]{4}_[0-9]{2}$' "
+      + "ORDER BY c.relname";
+
+  private static final String CREATE_PARTITION_SQL =
+      "SELECT audit.create_logged_actions_partition(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Finds months for which partitions are attached to the audit log.
+   *
+   * @return {@link List} of months in ascending order.
+   */
+  public List<YearMonth> findPartitions() {
+    return jdbcTemplate.query(SELECT_PARTITION_NAMES_SQL,
+        (rs, i) -> YearMonth.parse(rs.getString(1), PARTITION_NAME_FORMATTER));
+  }
+
+  /**
+   * Creates a partition for {@code month} unless it exists. Entries of that month which have
+   * already been logged to the default partition are moved to the created one. The audit log is
+   * locked until the end of the transaction, so entries are not logged meanwhile.
+   *
+   * @return true if the partition has been created, false if it existed.
+   */
+  public boolean createPartition(YearMonth month) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(CREATE_PARTITION_SQL, Boolean.class, month.atDay(1)));
+  }
+
+  /**
+   * Detaches the partition of {@code month} from the audit log. The detached table is kept in
+   * the {@code audit} schema under the same name, so that it can be archived.
+   */
+  public void detachPartition(YearMonth month) {
+    jdbcTemplate.execute("ALTER TABLE " + SCHEMA + ".logged_actions DETACH PARTITION "
+        + qualifiedPartitionName(month));
+  }
+
+  /**
+   * Drops the table of a previously detached partition of {@code month}.
+   */
+  public void dropDetachedPartition(YearMonth month) {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS " + qualifiedPartitionName(month));
+  }
+
+  @VisibleForTesting
+  static String partitionName(YearMonth month) {
+    return PARTITION_NAME_FORMATTER.format(month);
+  }
+
+  private static String qualifiedPartitionName(YearMonth month) {
+    return SCHEMA + "." + partitionName(month);
+  }
+}
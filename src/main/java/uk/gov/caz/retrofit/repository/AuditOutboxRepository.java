@@ -0,0 +1,83 @@
+package uk.gov.caz.retrofit.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A class that expands events recorded in the outbox of the audit log ({@code
+ * audit.logged_actions_outbox}, see {@link AuditWriteMode#OUTBOX}) into {@code
+ * audit.logged_actions}. Events are drained in the order their transactions committed, and the
+ * entries of an event are logged in the order the event recorded them. An event holds a chunk of
+ * at most 1000 changes of a statement (see {@code changes_count}), hence the number of entries
+ * expanded in one transaction is bounded.
+ *
+ * <p>All methods *MUST* be called within one transaction.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditOutboxRepository {
+
+  private static final String TRY_LOCK_SQL =
+      "SELECT pg_try_advisory_xact_lock(hashtext('audit.logged_actions_outbox'))";
+
+  // events are taken while the total number of their changes does not exceed the limit, but at
+  // least one event is taken; every event has at least one change, so the number of events to
+  // consider is bounded by the limit too
+  private static final String DRAIN_SQL = "WITH batch AS ("
+      + "SELECT t.id FROM ("
+      + "SELECT e.id, row_number() OVER w AS n, sum(e.changes_count) OVER w AS entries "
+      + "FROM audit.logged_actions_outbox e "
+      + "JOIN audit.logged_actions_outbox_commits c ON c.txid = e.txid "
+      + "WINDOW w AS (ORDER BY c.commit_seq, e.id) "
+      + "ORDER BY c.commit_seq, e.id "
+      + "LIMIT ?) t "
+      + "WHERE t.n = 1 OR t.entries <= ?), "
+      + "drained AS ("
+      + "DELETE FROM audit.logged_actions_outbox e "
+      + "USING batch b, audit.logged_actions_outbox_commits c "
+      + "WHERE e.id = b.id AND c.txid = e.txid "
+      + "RETURNING e.*, c.commit_seq), "
+      + "logged AS ("
+      + "INSERT INTO audit.logged_actions (schema_name, table_name, user_name, action_tstamp, "
+      + "action, original_data, new_data, query, modifier_id) "
+      + "SELECT d.schema_name, d.table_name, d.user_name, d.action_tstamp, d.action, "
+      + "nullif(ch.change -> 'original_data', 'null'), nullif(ch.change -> 'new_data', 'null'), "
+      + "d.query, d.modifier_id "
+      + "FROM drained d "
+      + "CROSS JOIN LATERAL jsonb_array_elements(d.changes) WITH ORDINALITY AS ch(change, n) "
+      + "ORDER BY d.commit_seq, d.id, ch.n) "
+      + "SELECT count(*) FROM drained";
+
+  private static final String DELETE_DRAINED_COMMITS_SQL =
+      "DELETE FROM audit.logged_actions_outbox_commits c "
+          + "WHERE NOT EXISTS ("
+          + "SELECT 1 FROM audit.logged_actions_outbox e WHERE e.txid = c.txid)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Takes the lock which prevents concurrent draining of the outbox until the end of the current
+   * transaction.
+   *
+   * @return true if the lock has been taken, false if the outbox is being drained by another
+   *     transaction.
+   */
+  public boolean tryLockForDraining() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class));
+  }
+
+  /**
+   * Expands committed events into {@code audit.logged_actions} and removes them from the outbox.
+   * The events are expanded into at most {@code maxEntries} entries, unless the first event alone
+   * holds more changes, in which case only that event is drained.
+   *
+   * @return The number of drained events.
+   */
+  public int drain(int maxEntries) {
+    int drainedEvents = jdbcTemplate.queryForObject(DRAIN_SQL, (rs, i) -> rs.getInt(1),
+        maxEntries, maxEntries);
+    jdbcTemplate.update(DELETE_DRAINED_COMMITS_SQL);
+    return drainedEvents;
+  }
+}
@@ -0,0 +1,21 @@
+package uk.gov.caz.retrofit.repository;
+
+/**
+ * A way in which audit entries of modifications tagged by {@link
+ * AuditingRepository#tagModificationsInCurrentTransactionBy(String)} are written, set in {@code
+ * application.audit.write-mode} application property.
+ */
+public enum AuditWriteMode {
+  /**
+   * Audit entries are written to {@code audit.logged_actions} by the modifying transaction.
+   */
+  SYNC,
+
+  /**
+   * The modifying transaction records a compact event per statement in {@code
+   * audit.logged_actions_outbox}, which is expanded into {@code audit.logged_actions} in the
+   * background (see {@link AuditOutboxRepository}). The modifying transaction fails if the
+   * event cannot be recorded.
+   */
+  OUTBOX
+}
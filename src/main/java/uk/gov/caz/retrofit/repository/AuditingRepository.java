@@ -1,7 +1,7 @@
 package uk.gov.caz.retrofit.repository;
 
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -9,10 +9,24 @@ import org.springframework.stereotype.Repository;
  * A class that provides operations on audit log infrastructure.
  */
 @Repository
-@RequiredArgsConstructor
 public class AuditingRepository {
 
+  private static final String ENABLE_OUTBOX_SQL =
+      "SELECT set_config('audit.write_mode', 'outbox', true)";
+
   private final JdbcTemplate jdbcTemplate;
+  private final AuditWriteMode writeMode;
+
+  /**
+   * Creates an instance of {@link AuditingRepository}.
+   *
+   * @param writeMode The way in which audit entries of tagged modifications are written.
+   */
+  public AuditingRepository(JdbcTemplate jdbcTemplate,
+      @Value("${application.audit.write-mode:SYNC}") AuditWriteMode writeMode) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.writeMode = writeMode;
+  }
 
   public void tagModificationsInCurrentTransactionBy(UUID modifierId) {
     tagModificationsInCurrentTransactionBy(modifierId.toString());
@@ -20,12 +34,16 @@ public class AuditingRepository {
 
   /**
    * Populates auditing table with modifier ID that will then by 
-   * pulled into the auditing actions table. 
+   * pulled into the auditing actions table. In {@link AuditWriteMode#OUTBOX} mode also makes
+   * the audit trigger record modifications of the current transaction in the outbox.
    * @param modifierId - CognitoID of user who initialised upload.
    */
   public void tagModificationsInCurrentTransactionBy(String modifierId) {  
     jdbcTemplate.update(
         "INSERT INTO audit.transaction_to_modifier(modifier_id) VALUES (?)",
         modifierId);
+    if (writeMode == AuditWriteMode.OUTBOX) {
+      jdbcTemplate.queryForObject(ENABLE_OUTBOX_SQL, String.class);
+    }
   }
 }
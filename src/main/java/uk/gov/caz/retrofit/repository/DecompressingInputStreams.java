@@ -0,0 +1,126 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
+
+/**
+ * Recognises gzip- and zstd-compressed content by its magic bytes (regardless of the {@code
+ * Content-Encoding} the file was uploaded with) and decompresses it on the fly, so that a
+ * compressed register CSV is parsed in the same way as a plain one.
+ */
+final class DecompressingInputStreams {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+  private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+  private static final int MAGIC_LENGTH = 4;
+
+  private DecompressingInputStreams() {
+  }
+
+  /**
+   * Returns a stream over the decompressed content of {@code inputStream} if it is compressed
+   * with gzip or zstd, otherwise a stream over the content as is (the same instance if it
+   * supports {@link InputStream#mark(int)}).
+   *
+   * @param inputStream A stream over the (possibly compressed) content of a file
+   * @param maxDecompressedSize The maximum number of bytes of the decompressed content
+   * @return {@link InputStream} which throws {@link S3MaxFileSizeExceededException} when more than
+   *     {@code maxDecompressedSize} bytes are decompressed
+   */
+  static InputStream decompressIfNeeded(InputStream inputStream, long maxDecompressedSize)
+      throws IOException {
+    InputStream markable = inputStream.markSupported()
+        ? inputStream
+        : new BufferedInputStream(inputStream, BUFFER_SIZE);
+    byte[] magic = peek(markable);
+    if (startsWith(magic, GZIP_MAGIC)) {
+      return new SizeLimitedInputStream(new GZIPInputStream(markable, BUFFER_SIZE),
+          maxDecompressedSize);
+    }
+    if (startsWith(magic, ZSTD_MAGIC)) {
+      return new SizeLimitedInputStream(new BufferedInputStream(new ZstdInputStream(markable),
+          BUFFER_SIZE), maxDecompressedSize);
+    }
+    return markable;
+  }
+
+  private static byte[] peek(InputStream inputStream) throws IOException {
+    byte[] magic = new byte[MAGIC_LENGTH];
+    inputStream.mark(MAGIC_LENGTH);
+    int read = ByteStreams.read(inputStream, magic, 0, MAGIC_LENGTH);
+    inputStream.reset();
+    return read == MAGIC_LENGTH ? magic : new byte[0];
+  }
+
+  private static boolean startsWith(byte[] bytes, byte[] prefix) {
+    if (bytes.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (bytes[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Fails with {@link S3MaxFileSizeExceededException} as soon as more than {@code maxSize} bytes
+   * are read, so that a small compressed file cannot be expanded beyond the limit applicable to
+   * plain files.
+   */
+  private static class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long readSoFar;
+
+    private SizeLimitedInputStream(InputStream inputStream, long maxSize) {
+      super(inputStream);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1) {
+        count(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void count(long bytes) {
+      readSoFar += bytes;
+      if (readSoFar > maxSize) {
+        throw new S3MaxFileSizeExceededException();
+      }
+    }
+  }
+}
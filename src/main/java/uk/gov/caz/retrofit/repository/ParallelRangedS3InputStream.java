@@ -0,0 +1,174 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+/**
+ * An {@link InputStream} over a S3 object which is downloaded as consecutive byte ranges (parts)
+ * fetched concurrently by ranged {@code GetObject} requests and returned in order.
+ *
+ * <p>The stream owns a fixed number of part-sized buffers. Each buffer is handed to a download
+ * of the next part and, once the part is fully read, reused for the next part which has not been
+ * requested yet, so at most {@code bufferCount} parts are held in memory and {@code bufferCount -
+ * 1} of them are downloaded while the current one is read. Every part is requested with the
+ * {@code ETag} of the object (if known), so that an object replaced during the download is not
+ * stitched together from two versions.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+class ParallelRangedS3InputStream extends InputStream {
+
+  private final S3Client s3Client;
+  private final ExecutorService executor;
+  private final String bucket;
+  private final String key;
+  private final String eTag;
+  private final long contentLength;
+  private final int partSize;
+
+  private final Deque<Part> pendingParts = new ArrayDeque<>();
+
+  private long nextPartOffset;
+  private byte[] currentPart;
+  private int currentPartLength;
+  private int currentPartPosition;
+  private boolean closed;
+
+  /**
+   * Creates an instance of {@link ParallelRangedS3InputStream} and starts downloading first {@code
+   * bufferCount} parts of the object.
+   */
+  ParallelRangedS3InputStream(S3Client s3Client, ExecutorService executor, String bucket,
+      String key, String eTag, long contentLength, int partSize, int bufferCount) {
+    this.s3Client = s3Client;
+    this.executor = executor;
+    this.bucket = bucket;
+    this.key = key;
+    this.eTag = eTag;
+    this.contentLength = contentLength;
+    this.partSize = partSize;
+    for (int i = 0; i < bufferCount && nextPartOffset < contentLength; i++) {
+      requestNextPart(new byte[partSize]);
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensurePartAvailable()) {
+      return -1;
+    }
+    return currentPart[currentPartPosition++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!ensurePartAvailable()) {
+      return -1;
+    }
+    int count = Math.min(length, currentPartLength - currentPartPosition);
+    System.arraycopy(currentPart, currentPartPosition, buffer, offset, count);
+    currentPartPosition += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return currentPart == null ? 0 : currentPartLength - currentPartPosition;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    pendingParts.forEach(part -> part.length.cancel(true));
+    pendingParts.clear();
+    currentPart = null;
+  }
+
+  private boolean ensurePartAvailable() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    while (currentPart == null || currentPartPosition == currentPartLength) {
+      if (currentPart != null) {
+        requestNextPart(currentPart);
+        currentPart = null;
+      }
+      Part part = pendingParts.poll();
+      if (part == null) {
+        return false;
+      }
+      currentPartLength = await(part);
+      currentPart = part.buffer;
+      currentPartPosition = 0;
+    }
+    return true;
+  }
+
+  private void requestNextPart(byte[] buffer) {
+    if (nextPartOffset >= contentLength) {
+      return;
+    }
+    long offset = nextPartOffset;
+    int length = (int) Math.min(partSize, contentLength - offset);
+    nextPartOffset += length;
+    pendingParts.add(new Part(buffer, executor.submit(() -> download(offset, buffer, length))));
+  }
+
+  private int download(long offset, byte[] buffer, int length) throws IOException {
+    GetObjectRequest request = GetObjectRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .range("bytes=" + offset + "-" + (offset + length - 1))
+        .ifMatch(eTag)
+        .build();
+    try (InputStream inputStream = s3Client.getObject(request)) {
+      int read = ByteStreams.read(inputStream, buffer, 0, length);
+      if (read != length) {
+        throw new IOException("Unexpected end of " + bucket + "/" + key + " at byte "
+            + (offset + read) + ", expected " + contentLength + " bytes");
+      }
+      return length;
+    }
+  }
+
+  private static int await(Part part) throws IOException {
+    try {
+      return part.length.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a part of S3 object");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static class Part {
+
+    private final byte[] buffer;
+    private final Future<Integer> length;
+
+    private Part(byte[] buffer, Future<Integer> length) {
+      this.buffer = buffer;
+      this.length = length;
+    }
+  }
+}
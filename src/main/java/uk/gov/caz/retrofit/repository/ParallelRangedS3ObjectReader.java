@@ -0,0 +1,98 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+/**
+ * Reads S3 objects larger than {@code application.register.s3-download.part-size} bytes with
+ * {@code application.register.s3-download.parallelism} concurrent ranged {@code GetObject}
+ * requests, so that the download of a large register CSV is not limited by the throughput of a
+ * single connection. The parallel download is disabled when the parallelism is not greater than
+ * one (the default).
+ */
+@Component
+@Slf4j
+public class ParallelRangedS3ObjectReader {
+
+  private static final int SEQUENTIAL = 1;
+
+  private final S3Client s3Client;
+  private final int parallelism;
+  private final int partSize;
+  private final ExecutorService downloadExecutor;
+
+  /**
+   * Creates an instance of {@link ParallelRangedS3ObjectReader}.
+   *
+   * @param s3Client A client for AWS S3
+   * @param parallelism The number of parts downloaded at once
+   * @param partSize The size of a part in bytes
+   */
+  public ParallelRangedS3ObjectReader(S3Client s3Client,
+      @Value("${application.register.s3-download.parallelism:1}") int parallelism,
+      @Value("${application.register.s3-download.part-size:8388608}") int partSize) {
+    Preconditions.checkArgument(partSize > 0, "Part size must be positive");
+    this.s3Client = s3Client;
+    this.parallelism = parallelism;
+    this.partSize = partSize;
+    this.downloadExecutor = parallelism > SEQUENTIAL
+        ? Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+            .setNameFormat("s3-download-%d")
+            .setDaemon(true)
+            .build())
+        : null;
+  }
+
+  /**
+   * Checks whether objects can be downloaded in parts at all, i.e. the parallelism is greater
+   * than one and the reader has not been shut down.
+   */
+  public boolean isEnabled() {
+    return downloadExecutor != null && !downloadExecutor.isShutdown();
+  }
+
+  /**
+   * Shuts down the download threads (if any) when the application context is closed.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (downloadExecutor != null) {
+      downloadExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Checks whether the object described by {@code fileMetadata} should be downloaded in parts.
+   */
+  public boolean shouldReadInParts(HeadObjectResponse fileMetadata) {
+    Long contentLength = fileMetadata.contentLength();
+    return isEnabled() && contentLength != null && contentLength > partSize;
+  }
+
+  /**
+   * Opens a stream over the content of the object which is downloaded in parts. Parts which are
+   * ahead of the reader are buffered in memory, at most {@code parallelism + 1} parts at once.
+   *
+   * @param bucket The name of a S3 bucket
+   * @param filename The name (key) of a file within a given bucket
+   * @param fileMetadata The result of {@code HeadObject} request for the file
+   * @return {@link InputStream} which returns the content of the file in order
+   */
+  public InputStream read(String bucket, String filename, HeadObjectResponse fileMetadata) {
+    Preconditions.checkState(shouldReadInParts(fileMetadata),
+        "The file is not supposed to be downloaded in parts");
+    log.info("Downloading file {}/{} ({} bytes) in parts of {} bytes, {} at once", bucket,
+        filename, fileMetadata.contentLength(), partSize, parallelism);
+    return new ParallelRangedS3InputStream(s3Client, downloadExecutor, bucket, filename,
+        fileMetadata.eTag(), fileMetadata.contentLength(), partSize, parallelism + 1);
+  }
+}
@@ -0,0 +1,51 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
+
+/**
+ * Repository of the single row of {@code t_register_data_version} table.
+ */
+@Repository
+public class RegisterDataVersionRepository {
+
+  @VisibleForTesting
+  static final String SELECT_SQL = "SELECT version, last_modified_timestmp "
+      + "FROM t_register_data_version WHERE id = 1";
+
+  @VisibleForTesting
+  static final String INCREMENT_SQL = "UPDATE t_register_data_version "
+      + "SET version = version + 1, last_modified_timestmp = CURRENT_TIMESTAMP "
+      + "WHERE id = 1 "
+      + "RETURNING version";
+
+  private static final RowMapper<RegisterDataVersion> MAPPER = (resultSet, rowNum) ->
+      new RegisterDataVersion(resultSet.getLong("version"),
+          resultSet.getTimestamp("last_modified_timestmp").toInstant());
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public RegisterDataVersionRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Finds the current version of the register data.
+   */
+  public RegisterDataVersion find() {
+    return jdbcTemplate.queryForObject(SELECT_SQL, MAPPER);
+  }
+
+  /**
+   * Increments the version of the register data. The row stays locked until the current
+   * transaction ends, hence concurrent modifications of the register are serialized.
+   *
+   * @return The incremented version.
+   */
+  public long increment() {
+    return jdbcTemplate.queryForObject(INCREMENT_SQL, Long.class);
+  }
+}
@@ -42,6 +42,8 @@ public class RegisterJobRepository {
   public static final String COL_STATUS = "status";
   public static final String COL_ERRORS = "errors";
   public static final String COL_CORRELATION_ID = "correlation_id";
+  public static final String COL_CONTENT_DIGEST = "content_digest";
+  public static final String COL_REGISTER_DATA_VERSION = "register_data_version";
 
   private static String selectAllColumns() {
     return "SELECT rj." + COL_REGISTER_JOB_ID + ", "
@@ -50,7 +52,8 @@ public class RegisterJobRepository {
         + "rj." + COL_UPLOADER_ID + ", "
         + "rj." + COL_STATUS + ", "
         + "rj." + COL_ERRORS + ", "
-        + "rj." + COL_CORRELATION_ID + " "
+        + "rj." + COL_CORRELATION_ID + ", "
+        + "rj." + COL_CONTENT_DIGEST + " "
         + "FROM t_md_register_jobs rj ";
   }
 
@@ -65,6 +68,12 @@ public class RegisterJobRepository {
           + "AND (" + COL_STATUS + " = \'" + RegisterJobStatus.STARTING
           + "\' OR " + COL_STATUS + " = \'" + RegisterJobStatus.RUNNING + "\')";
 
+  private static final String SELECT_CONTENT_DIGEST_OF_CURRENT_DATA_BY_TRIGGER =
+      "SELECT rj." + COL_CONTENT_DIGEST + " FROM t_md_register_jobs rj "
+          + "JOIN t_register_data_version v "
+          + "ON v.id = 1 AND rj." + COL_REGISTER_DATA_VERSION + " = v.version "
+          + "WHERE rj." + COL_TRIGGER + " = ? AND rj." + COL_CONTENT_DIGEST + " IS NOT NULL";
+
   private static final String UPDATE_STATUS_SQL = "UPDATE t_md_register_jobs "
       + "SET "
       + COL_STATUS + " = ?, "
@@ -77,6 +86,12 @@ public class RegisterJobRepository {
       + "last_modified_timestmp = CURRENT_TIMESTAMP "
       + "WHERE " + COL_REGISTER_JOB_ID + " = ?";
 
+  private static final String UPDATE_REGISTER_DATA_VERSION_SQL = "UPDATE t_md_register_jobs "
+      + "SET "
+      + COL_REGISTER_DATA_VERSION + " = ?, "
+      + "last_modified_timestmp = CURRENT_TIMESTAMP "
+      + "WHERE " + COL_REGISTER_JOB_ID + " = ?";
+
   private final RegisterJobRowMapper rowMapper;
   private final JdbcTemplate jdbcTemplate;
   private final SimpleJdbcInsert jdbcInsert;
@@ -98,7 +113,7 @@ public class RegisterJobRepository {
         .withTableName("t_md_register_jobs")
         .usingGeneratedKeyColumns(COL_REGISTER_JOB_ID)
         .usingColumns(COL_TRIGGER, COL_JOB_NAME, COL_UPLOADER_ID, COL_STATUS, COL_ERRORS,
-            COL_CORRELATION_ID);
+            COL_CORRELATION_ID, COL_CONTENT_DIGEST);
     this.objectMapper = objectMapper;
     this.rowMapper = new RegisterJobRowMapper(objectMapper);
     this.maxErrorsCount = maxErrorsCount;
@@ -148,6 +163,20 @@ public class RegisterJobRepository {
         .queryForObject(SELECT_COUNT_BY_TRIGGER_AND_STATUS, Integer.class, triggeredBy.name());
   }
 
+  /**
+   * Finds the content digest of the job triggered by {@code trigger} which committed the current
+   * version of the register data, i.e. the job which the data has not been modified since.
+   *
+   * @param trigger {@link RegisterJobTrigger} of the job.
+   * @return An {@link Optional} of the digest or without any value if the current data has been
+   *     committed by a job with a different trigger, a job with unknown digest or not by a job.
+   */
+  public Optional<String> findContentDigestOfCurrentData(RegisterJobTrigger trigger) {
+    List<String> digests = jdbcTemplate.queryForList(
+        SELECT_CONTENT_DIGEST_OF_CURRENT_DATA_BY_TRIGGER, String.class, trigger.name());
+    return digests.stream().findFirst();
+  }
+
   /**
    * Inserts passed {@code RegisterJob} in the database.
    *
@@ -165,6 +194,9 @@ public class RegisterJobRepository {
     if (errorsValue != null) {
       params.put(COL_ERRORS, errorsValue);
     }
+    if (registerJob.getContentDigest() != null) {
+      params.put(COL_CONTENT_DIGEST, registerJob.getContentDigest());
+    }
     Number id = jdbcInsert.executeAndReturnKey(params);
     return (int) id;
   }
@@ -189,6 +221,16 @@ public class RegisterJobRepository {
     jdbcTemplate.update(UPDATE_STATUS_SQL, newStatus.name(), registerJobId);
   }
 
+  /**
+   * Records the version of the register data committed by an existing job.
+   *
+   * @param registerJobId ID of register job.
+   * @param registerDataVersion The version committed by the job.
+   */
+  public void updateRegisterDataVersion(int registerJobId, long registerDataVersion) {
+    jdbcTemplate.update(UPDATE_REGISTER_DATA_VERSION_SQL, registerDataVersion, registerJobId);
+  }
+
   /**
    * Updates errors of existing job.
    *
@@ -241,6 +283,7 @@ public class RegisterJobRepository {
           .status(RegisterJobStatus.valueOf(rs.getString(COL_STATUS)))
           .errors(errors == null ? Collections.emptyList() : convertFromJson(errors))
           .correlationId(rs.getString(COL_CORRELATION_ID))
+          .contentDigest(rs.getString(COL_CONTENT_DIGEST))
           .build();
     }
 
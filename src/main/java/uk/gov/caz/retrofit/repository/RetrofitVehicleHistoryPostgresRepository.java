@@ -4,23 +4,29 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import uk.gov.caz.retrofit.dto.RetrofitVehicleHistoricalInfo;
 import uk.gov.caz.retrofit.dto.RetrofitVehicleHistory;
+import uk.gov.caz.retrofit.dto.RetrofitVehicleHistoryKey;
 
 /**
  * A class that is responsible for managing vehicle's licences historical data ({@link
- * uk.gov.caz.retrofit.dto.RetrofitVehicleHistoricalInfo} entities) in the postgres database.
+ * uk.gov.caz.retrofit.dto.RetrofitVehicleHistoricalInfo} entities) in the postgres database. The
+ * history is read from {@code t_retrofit_vehicle_history}, a typed projection of the audit trail
+ * of {@code t_vehicle_retrofit} which is maintained by a trigger on that table.
  */
 @Slf4j
 @Repository
@@ -29,6 +35,8 @@ public class RetrofitVehicleHistoryPostgresRepository {
 
   private static final ZoneId LONDON_ZONE_ID = ZoneId.of("Europe/London");
   private static final VehicleHistoryRowMapper MAPPER = new VehicleHistoryRowMapper();
+  private static final ResultSetExtractor<RetrofitVehicleHistoricalInfo> PAGE_EXTRACTOR =
+      RetrofitVehicleHistoryPostgresRepository::extractPage;
 
   @VisibleForTesting
   protected static final ImmutableMap<String, String> EXPECTED_ACTION_VALUES =
@@ -39,67 +47,88 @@ public class RetrofitVehicleHistoryPostgresRepository {
           .build();
 
   private static final String SELECT_FIELDS = "SELECT "
-      + "a.action as action, "
-      + "a.action_tstamp as action_tstamp, "
-      + "a.new_data::json ->> 'vrn' as new_vrn, "
-      + "a.new_data::json ->> 'vehicle_category' as new_vehicle_category, "
-      + "a.new_data::json ->> 'model' as new_model, "
-      + "a.new_data::json ->> 'date_of_retrofit' as new_date_of_retrofit, "
-      + "a.original_data::json ->> 'vrn' as original_vrn, "
-      + "a.original_data::json ->> 'vehicle_category' as original_category, "
-      + "a.original_data::json ->> 'model' as original_model, "
-      + "a.original_data::json ->> 'date_of_retrofit' as original_date_of_retrofit ";
-
-  private static final String NEW_DATA_QUERY_SUFFIX = "FROM audit.logged_actions a "
-      + "WHERE (a.new_data::json ->> 'vrn' = ?) "
-      + "AND a.action_tstamp >= ? "
-      + "AND a.action_tstamp <= ? "
-      + "AND table_name = 't_vehicle_retrofit' ";
-
-  private static final String ORIGINAL_DATA_QUERY_SUFFIX = "FROM audit.logged_actions a "
-      + "WHERE (a.original_data::json ->> 'vrn' = ?) "
-      + "AND a.action_tstamp >= ? "
-      + "AND a.action_tstamp <= ? "
-      + "AND table_name = 't_vehicle_retrofit' ";
-
-  private static final String PAGING_SUFFIX = "ORDER BY action_tstamp DESC "
+      + "h.id as id, "
+      + "h.action as action, "
+      + "h.action_tstamp as action_tstamp, "
+      + "h.vehicle_category as vehicle_category, "
+      + "h.model as model, "
+      + "h.date_of_retrofit as date_of_retrofit ";
+
+  private static final String QUERY_SUFFIX = "FROM t_retrofit_vehicle_history h "
+      + "WHERE h.vrn = ? "
+      + "AND h.action_tstamp >= ? "
+      + "AND h.action_tstamp <= ? ";
+
+  private static final String ORDER_BY_KEY = "ORDER BY h.action_tstamp DESC, h.id DESC ";
+
+  // the window is computed before the page is cut out of the result, hence it counts all changes
+  // and spares a separate count query
+  @VisibleForTesting
+  static final String SELECT_BY_VRN_HISTORY_QUERY = SELECT_FIELDS
+      + ", count(*) OVER () AS total_count "
+      + QUERY_SUFFIX
+      + ORDER_BY_KEY
       + "LIMIT ? "
       + "OFFSET ? ";
 
-  private static final String SELECT_BY_VRN_HISTORY_UNION_QUERY =
-      "(" + SELECT_FIELDS + NEW_DATA_QUERY_SUFFIX + ")"
-          + " UNION ALL "
-          + "(" + SELECT_FIELDS + ORIGINAL_DATA_QUERY_SUFFIX + ") "
-          + PAGING_SUFFIX;
+  @VisibleForTesting
+  static final String SELECT_BY_VRN_HISTORY_AFTER_KEY_QUERY = SELECT_FIELDS
+      + QUERY_SUFFIX
+      + "AND (h.action_tstamp, h.id) < (?, ?) "
+      + ORDER_BY_KEY
+      + "LIMIT ? ";
 
-  static final String SELECT_BY_VRN_HISTORY_IN_RANGE_COUNT = "SELECT COUNT(action_tstamp) FROM ( "
-      + "(SELECT a.action_tstamp " + NEW_DATA_QUERY_SUFFIX + ")"
-      + " UNION ALL "
-      + "(SELECT a.action_tstamp " + ORIGINAL_DATA_QUERY_SUFFIX + ") "
-      + ") as compound_result";
+  static final String SELECT_BY_VRN_HISTORY_IN_RANGE_COUNT = "SELECT COUNT(*) " + QUERY_SUFFIX;
 
   private final JdbcTemplate jdbcTemplate;
 
   /**
-   * Finds all {@link RetrofitVehicleHistoricalInfo} entities for a given vrn and date range.
+   * Finds a page of {@link RetrofitVehicleHistory} entities for a given vrn and date range
+   * together with the total number of them in a single query.
    *
    * @param vrn for which all matching licences are returned
-   * @return {@link List} of all {@link RetrofitVehicleHistory}.
+   * @return {@link RetrofitVehicleHistoricalInfo} with the page of {@link RetrofitVehicleHistory}
+   *     and the total number of them, which is zero if the page is empty.
    */
-  public List<RetrofitVehicleHistory> findByVrnInRange(String vrn, LocalDateTime startDate,
+  public RetrofitVehicleHistoricalInfo findByVrnInRange(String vrn, LocalDateTime startDate,
       LocalDateTime endDate, long pageSize, long pageNumber) {
     return jdbcTemplate.query(
-        SELECT_BY_VRN_HISTORY_UNION_QUERY,
+        SELECT_BY_VRN_HISTORY_QUERY,
         preparedStatement -> {
           int i = 0;
           preparedStatement.setString(++i, vrn);
           preparedStatement.setObject(++i, startDate);
           preparedStatement.setObject(++i, endDate);
+          preparedStatement.setObject(++i, pageSize);
+          preparedStatement.setObject(++i, pageNumber * pageSize);
+        },
+        PAGE_EXTRACTOR
+    );
+  }
+
+  /**
+   * Finds at most {@code pageSize} {@link RetrofitVehicleHistory} entities for a given vrn and
+   * date range which follow the change identified by {@code after}. Unlike {@link
+   * #findByVrnInRange(String, LocalDateTime, LocalDateTime, long, long)} the cost of the query
+   * does not depend on the number of preceding changes.
+   *
+   * @param vrn for which all matching licences are returned
+   * @param after The key of the last change on the previous page
+   * @return {@link List} of {@link RetrofitVehicleHistory}.
+   */
+  public List<RetrofitVehicleHistory> findByVrnInRangeAfter(String vrn, LocalDateTime startDate,
+      LocalDateTime endDate, long pageSize, RetrofitVehicleHistoryKey after) {
+    OffsetDateTime afterTimestamp = after.getActionTimestamp().atOffset(ZoneOffset.UTC);
+    return jdbcTemplate.query(
+        SELECT_BY_VRN_HISTORY_AFTER_KEY_QUERY,
+        preparedStatement -> {
+          int i = 0;
           preparedStatement.setString(++i, vrn);
           preparedStatement.setObject(++i, startDate);
           preparedStatement.setObject(++i, endDate);
+          preparedStatement.setObject(++i, afterTimestamp);
+          preparedStatement.setLong(++i, after.getId());
           preparedStatement.setObject(++i, pageSize);
-          preparedStatement.setObject(++i, pageNumber * pageSize);
         },
         MAPPER
     );
@@ -112,7 +141,7 @@ public class RetrofitVehicleHistoryPostgresRepository {
    * @return {@link Long} of all histories which matches passed vrn and date range.
    */
   public Long count(String vrn, LocalDateTime startDate, LocalDateTime endDate) {
-    List<Object> ts = Arrays.asList(vrn, startDate, endDate, vrn, startDate, endDate);
+    List<Object> ts = Arrays.asList(vrn, startDate, endDate);
     return jdbcTemplate.queryForObject(
         SELECT_BY_VRN_HISTORY_IN_RANGE_COUNT,
         ts.toArray(),
@@ -120,30 +149,35 @@ public class RetrofitVehicleHistoryPostgresRepository {
     );
   }
 
+  private static RetrofitVehicleHistoricalInfo extractPage(ResultSet rs) throws SQLException {
+    List<RetrofitVehicleHistory> changes = new ArrayList<>();
+    int totalChangesCount = 0;
+    while (rs.next()) {
+      totalChangesCount = rs.getInt("total_count");
+      changes.add(MAPPER.mapRow(rs, changes.size()));
+    }
+    return RetrofitVehicleHistoricalInfo.builder()
+        .changes(changes)
+        .totalChangesCount(totalChangesCount)
+        .build();
+  }
+
   @VisibleForTesting
   static class VehicleHistoryRowMapper implements RowMapper<RetrofitVehicleHistory> {
 
-    private static final String DELETE_ACTION = "D";
-
     @Override
     public RetrofitVehicleHistory mapRow(ResultSet rs, int i) throws SQLException {
-      String action = rs.getString("action");
-      boolean isRemoved = DELETE_ACTION.equals(action);
+      OffsetDateTime actionTimestamp = rs.getObject("action_tstamp", OffsetDateTime.class);
       return RetrofitVehicleHistory.builder()
-          .modifyDate(Optional.ofNullable(rs.getObject("action_tstamp", OffsetDateTime.class))
-              .map(offsetDateTime -> offsetDateTime.atZoneSameInstant(LONDON_ZONE_ID).toLocalDate())
-              .orElse(null))
-          .action(mapAction(action))
-          .vehicleCategory(
-              rs.getString(isRemoved ? "original_category" : "new_vehicle_category"))
-          .model(
-              rs.getString(isRemoved ? "original_model" : "new_model"))
-          .dateOfRetrofit(
-              Optional.ofNullable(
-                  rs.getDate(isRemoved
-                      ? "original_date_of_retrofit"
-                      : "new_date_of_retrofit").toLocalDate()
-              ).orElse(null))
+          .modifyDate(actionTimestamp.atZoneSameInstant(LONDON_ZONE_ID).toLocalDate())
+          .action(mapAction(rs.getString("action")))
+          .vehicleCategory(rs.getString("vehicle_category"))
+          .model(rs.getString("model"))
+          .dateOfRetrofit(rs.getObject("date_of_retrofit", LocalDate.class))
+          .key(RetrofitVehicleHistoryKey.builder()
+              .actionTimestamp(actionTimestamp.toInstant())
+              .id(rs.getLong("id"))
+              .build())
           .build();
     }
 
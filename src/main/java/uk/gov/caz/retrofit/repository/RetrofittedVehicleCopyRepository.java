@@ -0,0 +1,160 @@
+package uk.gov.caz.retrofit.repository;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+
+/**
+ * A bulk-load alternative to {@link RetrofittedVehiclePostgresRepository#insertOrUpdate(
+ * java.util.Set)}. Vehicles are streamed to a temporary staging table with PostgreSQL {@code COPY
+ * FROM STDIN} and then merged into {@code t_vehicle_retrofit} with set-based statements. Staged
+ * vehicles whose content hash matches the stored one are skipped by the merge.
+ *
+ * <p>The staging table is dropped when the current transaction ends, hence all methods *MUST*
+ * be called within one transaction.</p>
+ */
+@Slf4j
+@Repository
+public class RetrofittedVehicleCopyRepository {
+
+  @VisibleForTesting
+  static final String CREATE_STAGING_TABLE_SQL =
+      "CREATE TEMP TABLE IF NOT EXISTS t_vehicle_retrofit_staging ("
+          + "vrn varchar(15) NOT NULL, "
+          + "vehicle_category varchar(40), "
+          + "model varchar(30), "
+          + "date_of_retrofit date, "
+          + "content_hash char(32) NOT NULL) "
+          + "ON COMMIT DROP";
+
+  @VisibleForTesting
+  static final String COPY_INTO_STAGING_TABLE_SQL = "COPY t_vehicle_retrofit_staging ("
+      + "vrn, "
+      + "vehicle_category, "
+      + "model, "
+      + "date_of_retrofit, "
+      + "content_hash) "
+      + "FROM STDIN WITH (FORMAT csv)";
+
+  @VisibleForTesting
+  static final String ANALYZE_STAGING_TABLE_SQL = "ANALYZE t_vehicle_retrofit_staging";
+
+  @VisibleForTesting
+  static final String DELETE_MISSING_FROM_STAGING_TABLE_SQL =
+      "DELETE FROM t_vehicle_retrofit d "
+          + "WHERE NOT EXISTS ("
+          + "SELECT 1 FROM t_vehicle_retrofit_staging s WHERE s.vrn = d.vrn)";
+
+  @VisibleForTesting
+  static final String MERGE_STAGING_TABLE_SQL = "INSERT INTO t_vehicle_retrofit as d ("
+      + "vrn, "
+      + "vehicle_category, "
+      + "model, "
+      + "date_of_retrofit, "
+      + "content_hash, "
+      + "insert_timestmp) "
+      + "SELECT vrn, vehicle_category, model, date_of_retrofit, content_hash, CURRENT_TIMESTAMP "
+      + "FROM t_vehicle_retrofit_staging s "
+      + "WHERE NOT EXISTS ("
+      + "SELECT 1 FROM t_vehicle_retrofit e "
+      + "WHERE e.vrn = s.vrn AND e.content_hash = s.content_hash) "
+      + "ON CONFLICT (vrn) "
+      + "DO UPDATE SET "
+      + "vehicle_category = excluded.vehicle_category, "
+      + "model = excluded.model, "
+      + "date_of_retrofit = excluded.date_of_retrofit, "
+      + "content_hash = excluded.content_hash "
+      + "where d.content_hash is distinct from excluded.content_hash";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public RetrofittedVehicleCopyRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Replaces the content of {@code t_vehicle_retrofit} with {@code retrofittedVehicles}: the
+   * vehicles are staged, vehicles missing from the staging table are deleted and the staged ones
+   * are upserted.
+   *
+   * @param retrofittedVehicles A collection of vehicles which are to be registered.
+   */
+  public void replaceAll(Collection<RetrofittedVehicle> retrofittedVehicles) {
+    createStagingTable();
+    copyToStagingTable(retrofittedVehicles);
+    mergeStagingTable();
+  }
+
+  /**
+   * Creates the (transaction scoped) staging table.
+   */
+  public void createStagingTable() {
+    jdbcTemplate.execute(CREATE_STAGING_TABLE_SQL);
+  }
+
+  /**
+   * Streams {@code retrofittedVehicles} to the staging table with {@code COPY FROM STDIN}. May be
+   * called many times within one transaction.
+   *
+   * @param retrofittedVehicles A collection of vehicles which are to be staged.
+   */
+  public void copyToStagingTable(Collection<RetrofittedVehicle> retrofittedVehicles) {
+    Long copiedRows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+      CopyIn copyIn = copyManager.copyIn(COPY_INTO_STAGING_TABLE_SQL);
+      try {
+        for (RetrofittedVehicle retrofittedVehicle : retrofittedVehicles) {
+          byte[] row = toCopyRow(retrofittedVehicle).getBytes(StandardCharsets.UTF_8);
+          copyIn.writeToCopy(row, 0, row.length);
+        }
+        return copyIn.endCopy();
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    });
+    log.debug("Copied {} vehicle(s) to the staging table", copiedRows);
+  }
+
+  /**
+   * Deletes vehicles which are not present in the staging table and upserts the staged ones.
+   */
+  public void mergeStagingTable() {
+    jdbcTemplate.execute(ANALYZE_STAGING_TABLE_SQL);
+    int deletedCount = jdbcTemplate.update(DELETE_MISSING_FROM_STAGING_TABLE_SQL);
+    int upsertedCount = jdbcTemplate.update(MERGE_STAGING_TABLE_SQL);
+    log.info("Merged the staging table: {} vehicle(s) deleted, {} inserted or updated",
+        deletedCount, upsertedCount);
+  }
+
+  /**
+   * Maps {@code retrofittedVehicle} to a line of CSV accepted by {@code COPY}. Non-null values are
+   * always quoted, so that an empty string is not confused with {@code NULL}.
+   */
+  @VisibleForTesting
+  static String toCopyRow(RetrofittedVehicle retrofittedVehicle) {
+    return quote(retrofittedVehicle.getVrn())
+        + ',' + quote(retrofittedVehicle.getVehicleCategory())
+        + ',' + quote(retrofittedVehicle.getModel())
+        + ',' + (retrofittedVehicle.getDateOfRetrofitInstallation() == null
+        ? "" : retrofittedVehicle.getDateOfRetrofitInstallation().toString())
+        + ',' + retrofittedVehicle.contentHash()
+        + '\n';
+  }
+
+  private static String quote(String value) {
+    if (value == null) {
+      return "";
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
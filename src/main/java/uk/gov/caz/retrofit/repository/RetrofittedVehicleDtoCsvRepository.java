@@ -5,8 +5,12 @@ import com.google.common.base.Strings;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
@@ -15,15 +19,23 @@ import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.CsvDeltaFindResult;
+import uk.gov.caz.retrofit.model.CsvDeltaParseResult;
 import uk.gov.caz.retrofit.model.CsvFindResult;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.CsvParseResult;
+import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.service.CsvObjectMapper;
+import uk.gov.caz.retrofit.service.exception.S3FileModifiedException;
 import uk.gov.caz.retrofit.service.exception.S3InvalidUploaderIdFormatException;
 import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
 import uk.gov.caz.retrofit.service.exception.S3MetadataException;
 
 /**
- * A class that is responsible for managing vehicle data located at S3.
+ * A class that is responsible for managing vehicle data located at S3. Files may be uploaded as
+ * plain text or compressed with gzip or zstd.
  */
 @Repository
 @Slf4j
@@ -34,17 +46,20 @@ public class RetrofittedVehicleDtoCsvRepository {
 
   private final S3Client s3Client;
   private final CsvObjectMapper csvObjectMapper;
+  private final ParallelRangedS3ObjectReader parallelRangedS3ObjectReader;
 
   /**
    * Creates an instance of {@link RetrofittedVehicleDtoCsvRepository}.
    *
    * @param s3Client A client for AWS S3
    * @param csvObjectMapper An instance of {@link CsvObjectMapper}
+   * @param parallelRangedS3ObjectReader Reader of large files downloaded in parts
    */
   public RetrofittedVehicleDtoCsvRepository(S3Client s3Client,
-      CsvObjectMapper csvObjectMapper) {
+      CsvObjectMapper csvObjectMapper, ParallelRangedS3ObjectReader parallelRangedS3ObjectReader) {
     this.s3Client = s3Client;
     this.csvObjectMapper = csvObjectMapper;
+    this.parallelRangedS3ObjectReader = parallelRangedS3ObjectReader;
   }
 
   /**
@@ -54,32 +69,133 @@ public class RetrofittedVehicleDtoCsvRepository {
    *
    * @param bucket The name of a S3 bucket
    * @param filename The name (key) of a file within a given bucket
+   * @param csvMetadata Metadata of the file obtained when the job was started, if {@code null}
+   *     it is fetched from S3
    * @return {@link CsvParseResult} value object which contains the set with parsed vehicles data
    *     and the uploader id
    * @throws NullPointerException if {@code bucket} or {@code filename} is null or empty
    * @throws RuntimeException with {@link IOException} as a cause when {@link IOException}
    *     occurs
    * @throws NoSuchKeyException when the file's does not exist at S3
+   * @throws S3MaxFileSizeExceededException when the file or its decompressed content is too
+   *     big
    * @throws S3MetadataException when the file's content type (set as a metadata) is {@code
    *     null} or not equal to 'text/csv
+   * @throws S3FileModifiedException when the file has been modified since {@code csvMetadata}
+   *     was obtained
    */
-  public CsvFindResult findAll(String bucket, String filename) {
-    Preconditions
-        .checkArgument(!Strings.isNullOrEmpty(bucket), "Bucket %s cannot be null or empty");
-    Preconditions
-        .checkArgument(!Strings.isNullOrEmpty(filename), "Filename %s cannot be null or empty");
-
-    HeadObjectResponse fileMetadata = getFileMetadata(bucket, filename);
-    checkMaxFileSizePrecondition(fileMetadata);
-
+  public CsvFindResult findAll(String bucket, String filename, CsvMetadata csvMetadata) {
+    HeadObjectResponse fileMetadata = findValidFileMetadata(bucket, filename, csvMetadata);
     UUID uploaderId = getUploaderId(fileMetadata);
-    try (InputStream inputStream = getS3FileInputStream(bucket, filename)) {
+    try (InputStream inputStream = decompressIfNeeded(
+        getS3FileInputStream(bucket, filename, fileMetadata))) {
       CsvParseResult result = csvObjectMapper.read(inputStream);
       return new CsvFindResult(uploaderId, result.getRetrofittedVehicles(),
           result.getValidationErrors());
     } catch (IOException e) {
       log.error("IOException while reading file {}/{}", bucket, filename);
       throw new UncheckedIOException(e);
+    } catch (S3Exception e) {
+      throw translateS3Exception(e, bucket, filename);
+    }
+  }
+
+  /**
+   * Reads the content of a UTF-8-encoded delta file located at S3 and maps it to {@link
+   * CsvDeltaFindResult} which contains vehicles to upsert, vehicles to delete and the {@code
+   * uploaderId} which represents an entity which uploaded the file.
+   *
+   * @param bucket The name of a S3 bucket
+   * @param filename The name (key) of a file within a given bucket
+   * @param csvMetadata Metadata of the file obtained when the job was started, if {@code null}
+   *     it is fetched from S3
+   * @return {@link CsvDeltaFindResult} value object which contains the parsed delta
+   * @throws IllegalArgumentException if {@code bucket} or {@code filename} is null or empty
+   * @throws RuntimeException with {@link IOException} as a cause when {@link IOException}
+   *     occurs
+   * @throws NoSuchKeyException when the file's does not exist at S3
+   * @throws S3MaxFileSizeExceededException when the file or its decompressed content is too
+   *     big
+   * @throws S3MetadataException when the file does not contain the uploader id metadata
+   * @throws S3FileModifiedException when the file has been modified since {@code csvMetadata}
+   *     was obtained
+   */
+  public CsvDeltaFindResult findDelta(String bucket, String filename, CsvMetadata csvMetadata) {
+    HeadObjectResponse fileMetadata = findValidFileMetadata(bucket, filename, csvMetadata);
+    UUID uploaderId = getUploaderId(fileMetadata);
+    try (InputStream inputStream = decompressIfNeeded(
+        getS3FileInputStream(bucket, filename, fileMetadata))) {
+      CsvDeltaParseResult result = csvObjectMapper.readDelta(inputStream);
+      return new CsvDeltaFindResult(uploaderId, result.getVehiclesToUpsert(),
+          result.getVehiclesToDelete(), result.getValidationErrors());
+    } catch (IOException e) {
+      log.error("IOException while reading file {}/{}", bucket, filename);
+      throw new UncheckedIOException(e);
+    } catch (S3Exception e) {
+      throw translateS3Exception(e, bucket, filename);
+    }
+  }
+
+  /**
+   * Validates the metadata of a file located at S3 (its size and the uploader id) without
+   * downloading its content.
+   *
+   * @param bucket The name of a S3 bucket
+   * @param filename The name (key) of a file within a given bucket
+   * @param csvMetadata Metadata of the file obtained when the job was started, if {@code null}
+   *     it is fetched from S3 with a single {@code HeadObject} request
+   * @return {@code csvMetadata} or the fetched metadata (whose content type is not inspected and
+   *     is {@code null}), which is to be passed to {@link
+   *     RetrofittedVehicleDtoCsvRepository#forEach(String, String, CsvMetadata, Consumer)}
+   * @throws IllegalArgumentException if {@code bucket} or {@code filename} is null or empty
+   * @throws NoSuchKeyException when the file's does not exist at S3
+   * @throws S3MetadataException when the file does not contain the uploader id metadata
+   * @throws S3MaxFileSizeExceededException when the file is too big
+   * @throws S3InvalidUploaderIdFormatException when the uploader id is not a valid UUID
+   */
+  public CsvMetadata findValidMetadata(String bucket, String filename, CsvMetadata csvMetadata) {
+    HeadObjectResponse fileMetadata = findValidFileMetadata(bucket, filename, csvMetadata);
+    UUID uploaderId = getUploaderId(fileMetadata);
+    return csvMetadata == null
+        ? new CsvMetadata(uploaderId, null, fileMetadata.contentLength(), fileMetadata.eTag())
+        : csvMetadata;
+  }
+
+  /**
+   * Streams the content of a UTF-8-encoded file located at S3 row by row to {@code
+   * vehicleConsumer}. Contrary to {@link RetrofittedVehicleDtoCsvRepository#findAll(String,
+   * String, CsvMetadata)} neither the file nor the parsed vehicles are held in memory. The file's
+   * metadata is expected to be validated beforehand by {@link
+   * RetrofittedVehicleDtoCsvRepository#findValidMetadata(String, String, CsvMetadata)}, the file
+   * is read only if it has not been modified since then. A large file is downloaded in parts if
+   * {@link ParallelRangedS3ObjectReader} is enabled.
+   *
+   * @param bucket The name of a S3 bucket
+   * @param filename The name (key) of a file within a given bucket
+   * @param csvMetadata Validated metadata of the file
+   * @param vehicleConsumer A callback which receives parsed rows in the order of occurrence
+   * @return A list of parse validation errors
+   * @throws NullPointerException if {@code csvMetadata} is null
+   * @throws RuntimeException with {@link IOException} as a cause when {@link IOException}
+   *     occurs
+   * @throws NoSuchKeyException when the file's does not exist at S3
+   * @throws S3MaxFileSizeExceededException when the file or its decompressed content is too
+   *     big
+   * @throws S3FileModifiedException when the file has been modified since {@code csvMetadata}
+   *     was obtained
+   */
+  public List<ValidationError> forEach(String bucket, String filename, CsvMetadata csvMetadata,
+      Consumer<RetrofittedVehicleDto> vehicleConsumer) {
+    Preconditions.checkNotNull(csvMetadata, "csvMetadata cannot be null");
+    HeadObjectResponse fileMetadata = toFileMetadata(csvMetadata);
+    try (InputStream inputStream = decompressIfNeeded(
+        openS3FileStreamingInputStream(bucket, filename, fileMetadata))) {
+      return csvObjectMapper.read(inputStream, vehicleConsumer);
+    } catch (IOException e) {
+      log.error("IOException while reading file {}/{}", bucket, filename);
+      throw new UncheckedIOException(e);
+    } catch (S3Exception e) {
+      throw translateS3Exception(e, bucket, filename);
     }
   }
 
@@ -103,6 +219,57 @@ public class RetrofittedVehicleDtoCsvRepository {
     }
   }
 
+  private HeadObjectResponse findValidFileMetadata(String bucket, String filename,
+      CsvMetadata csvMetadata) {
+    Preconditions
+        .checkArgument(!Strings.isNullOrEmpty(bucket), "Bucket %s cannot be null or empty");
+    Preconditions
+        .checkArgument(!Strings.isNullOrEmpty(filename), "Filename %s cannot be null or empty");
+
+    HeadObjectResponse fileMetadata = csvMetadata == null
+        ? getFileMetadata(bucket, filename)
+        : toFileMetadata(csvMetadata);
+    checkMaxFileSizePrecondition(fileMetadata);
+    return fileMetadata;
+  }
+
+  /**
+   * Represents metadata obtained when the job was started as if it was returned by {@code
+   * HeadObject} request, so that it is validated and used in the same way.
+   */
+  private static HeadObjectResponse toFileMetadata(CsvMetadata csvMetadata) {
+    return HeadObjectResponse.builder()
+        .contentLength(csvMetadata.getFileSize())
+        .eTag(csvMetadata.getFileETag())
+        .metadata(Collections.singletonMap(UPLOADER_ID_METADATA_KEY,
+            csvMetadata.getUploaderId().toString()))
+        .build();
+  }
+
+  /**
+   * Decompresses gzip or zstd content on the fly. The size limit which is checked against the
+   * (compressed) size of the file before it is downloaded applies to the decompressed content
+   * too.
+   */
+  private static InputStream decompressIfNeeded(InputStream inputStream) throws IOException {
+    try {
+      return DecompressingInputStreams.decompressIfNeeded(inputStream, MAX_FILE_SIZE_IN_BYTES);
+    } catch (IOException | RuntimeException e) {
+      inputStream.close();
+      throw e;
+    }
+  }
+
+  private static RuntimeException translateS3Exception(S3Exception e, String bucket,
+      String filename) {
+    if (e.statusCode() == HttpStatus.PRECONDITION_FAILED.value()) {
+      log.error("File {}/{} has been modified since the register job was started", bucket,
+          filename);
+      return new S3FileModifiedException();
+    }
+    return e;
+  }
+
   private void checkMaxFileSizePrecondition(HeadObjectResponse fileMetadata) {
     Long fileSizeInBytes = fileMetadata.contentLength();
     if (fileSizeInBytes != null && fileSizeInBytes > MAX_FILE_SIZE_IN_BYTES) {
@@ -142,11 +309,40 @@ public class RetrofittedVehicleDtoCsvRepository {
     }
   }
 
-  private InputStream getS3FileInputStream(String bucket, String filename) {
+  private InputStream openS3FileStreamingInputStream(String bucket, String filename,
+      HeadObjectResponse fileMetadata) {
+    if (parallelRangedS3ObjectReader.shouldReadInParts(fileMetadata)) {
+      return parallelRangedS3ObjectReader.read(bucket, filename, fileMetadata);
+    }
+    return getS3FileStreamingInputStream(bucket, filename, fileMetadata.eTag());
+  }
+
+  private InputStream getS3FileStreamingInputStream(String bucket, String filename,
+      String eTag) {
+    try {
+      GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+          .bucket(bucket)
+          .key(filename)
+          .ifMatch(eTag)
+          .build();
+      return s3Client.getObject(getObjectRequest);
+    } catch (NoSuchKeyException | NoSuchBucketException e) {
+      log.error("Exception while getting file {}/{} - bucket/file does not exist", bucket,
+          filename);
+      throw e;
+    }
+  }
+
+  private InputStream getS3FileInputStream(String bucket, String filename,
+      HeadObjectResponse fileMetadata) {
+    if (parallelRangedS3ObjectReader.shouldReadInParts(fileMetadata)) {
+      return parallelRangedS3ObjectReader.read(bucket, filename, fileMetadata);
+    }
     try {
       GetObjectRequest getObjectRequest = GetObjectRequest.builder()
           .bucket(bucket)
           .key(filename)
+          .ifMatch(fileMetadata.eTag())
           .build();
       return s3Client.getObjectAsBytes(getObjectRequest).asInputStream();
     } catch (NoSuchKeyException | NoSuchBucketException e) {
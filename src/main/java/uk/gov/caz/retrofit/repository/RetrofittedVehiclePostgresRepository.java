@@ -1,17 +1,27 @@
 package uk.gov.caz.retrofit.repository;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 import uk.gov.caz.retrofit.model.RetrofitStatus;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
@@ -24,9 +34,28 @@ public class RetrofittedVehiclePostgresRepository {
 
   private static final String FIND_ALL_VRNS_SQL = "SELECT vrn FROM t_vehicle_retrofit";
 
-  private static final String VRN_INFO_SQL =
-      "SELECT count(*) rowcount, MAX(insert_timestmp) insert_timestamp "
-          + "FROM t_vehicle_retrofit WHERE vrn = ?";
+  private static final String FIND_ALL_VRNS_WITH_INSERT_TIMESTAMPS_SQL =
+      "SELECT vrn, insert_timestmp FROM t_vehicle_retrofit";
+
+  /**
+   * VRN is unique, hence at most one row matches and the query is a point lookup on the index of
+   * the unique constraint.
+   */
+  @VisibleForTesting
+  static final String VRN_INFO_SQL = "SELECT insert_timestmp "
+      + "FROM t_vehicle_retrofit WHERE vrn = ?";
+
+  private static final ResultSetExtractor<RetrofitStatus> VRN_INFO_EXTRACTOR =
+      resultSet -> resultSet.next()
+          ? RetrofitStatus.builder()
+              .rowCount(1)
+              .insertTimestamp(resultSet.getTimestamp("insert_timestmp"))
+              .build()
+          : RetrofitStatus.builder().rowCount(0).build();
+
+  @VisibleForTesting
+  static final String VRNS_INFO_SQL = "SELECT vrn, insert_timestmp "
+      + "FROM t_vehicle_retrofit WHERE vrn = ANY(?)";
 
   @VisibleForTesting
   static final String DELETE_ALL_SQL = "DELETE FROM t_vehicle_retrofit";
@@ -37,16 +66,26 @@ public class RetrofittedVehiclePostgresRepository {
       + "vehicle_category, "
       + "model, "
       + "date_of_retrofit, "
+      + "content_hash, "
       + "insert_timestmp) "
-      + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) "
+      + "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP) "
       + "ON CONFLICT (vrn) "
       + "DO UPDATE SET "
       + "vehicle_category = excluded.vehicle_category, "
       + "model = excluded.model, "
-      + "date_of_retrofit = excluded.date_of_retrofit "
-      + "where d.vehicle_category != excluded.vehicle_category "
-      + "or d.model != excluded.model "
-      + "or d.date_of_retrofit != excluded.date_of_retrofit";
+      + "date_of_retrofit = excluded.date_of_retrofit, "
+      + "content_hash = excluded.content_hash "
+      + "where d.content_hash is distinct from excluded.content_hash";
+
+  /**
+   * Returns VRNs (out of the passed ones) whose stored content hash differs from the passed one,
+   * i.e. which are either new or changed.
+   */
+  @VisibleForTesting
+  static final String FIND_CHANGED_VRNS_SQL = "SELECT u.vrn "
+      + "FROM unnest(?, ?) AS u(vrn, content_hash) "
+      + "LEFT JOIN t_vehicle_retrofit d ON d.vrn = u.vrn "
+      + "WHERE d.content_hash IS DISTINCT FROM u.content_hash";
 
   static final String CREATE_TEMP_TABLE =
       "CREATE TEMP TABLE IF NOT EXISTS vrns_to_delete_tmp (id varchar(15))";
@@ -55,16 +94,46 @@ public class RetrofittedVehiclePostgresRepository {
       "DELETE FROM t_vehicle_retrofit WHERE vrn IN (SELECT id FROM vrns_to_delete_tmp)";
   static final String DROP_TEMP_TABLE = "DROP TABLE vrns_to_delete_tmp";
 
+  static final String CREATE_VRNS_TO_KEEP_TEMP_TABLE =
+      "CREATE TEMP TABLE IF NOT EXISTS vrns_to_keep_tmp (id varchar(15))";
+  static final String INSERT_VRNS_INTO_VRNS_TO_KEEP_TEMP_TABLE =
+      "INSERT INTO vrns_to_keep_tmp VALUES(?)";
+  static final String ANALYZE_VRNS_TO_KEEP_TEMP_TABLE = "ANALYZE vrns_to_keep_tmp";
+  static final String DELETE_VRNS_MISSING_FROM_VRNS_TO_KEEP_TEMP_TABLE =
+      "DELETE FROM t_vehicle_retrofit d "
+          + "WHERE NOT EXISTS (SELECT 1 FROM vrns_to_keep_tmp k WHERE k.id = d.vrn)";
+  static final String DROP_VRNS_TO_KEEP_TEMP_TABLE = "DROP TABLE vrns_to_keep_tmp";
+
+  static final String CREATE_UPLOADED_VRNS_TEMP_TABLE =
+      "CREATE TEMP TABLE IF NOT EXISTS uploaded_vrns_tmp (id text) ON COMMIT DROP";
+  static final String INSERT_VRNS_INTO_UPLOADED_VRNS_TEMP_TABLE =
+      "INSERT INTO uploaded_vrns_tmp VALUES(?)";
+  static final String ANALYZE_UPLOADED_VRNS_TEMP_TABLE = "ANALYZE uploaded_vrns_tmp";
+  static final String HAS_DUPLICATED_UPLOADED_VRNS_SQL = "SELECT EXISTS ("
+      + "SELECT 1 FROM uploaded_vrns_tmp GROUP BY id HAVING count(*) > 1)";
+  static final String DELETE_VRNS_MISSING_FROM_UPLOADED_VRNS_TEMP_TABLE =
+      "DELETE FROM t_vehicle_retrofit d "
+          + "WHERE NOT EXISTS (SELECT 1 FROM uploaded_vrns_tmp u WHERE u.id = d.vrn)";
+
   private final JdbcTemplate jdbcTemplate;
   private final int updateBatchSize;
+  private final int changeDetectionBatchSize;
 
   /**
    * Public constructor that is used by Spring to initialize this class.
+   *
+   * @param changeDetectionBatchSize The number of vehicles whose content hashes are compared
+   *     with the stored ones in a single query.
    */
   public RetrofittedVehiclePostgresRepository(JdbcTemplate jdbcTemplate,
-      @Value("${application.jdbc.updateBatchSize:100}") int updateBatchSize) {
+      @Value("${application.jdbc.updateBatchSize:100}") int updateBatchSize,
+      @Value("${application.register.change-detection.batch-size:5000}")
+          int changeDetectionBatchSize) {
+    Preconditions.checkArgument(changeDetectionBatchSize > 0,
+        "Change detection batch size must be positive");
     this.jdbcTemplate = jdbcTemplate;
     this.updateBatchSize = updateBatchSize;
+    this.changeDetectionBatchSize = changeDetectionBatchSize;
   }
 
   /**
@@ -81,6 +150,48 @@ public class RetrofittedVehiclePostgresRepository {
     }
   }
 
+  /**
+   * Inserts or updates only those vehicles from the passed set which are new or whose content has
+   * changed. Vehicles are compared by their content hashes (see {@link
+   * RetrofittedVehicle#contentHash()}) in bulk, so that unchanged vehicles are never sent to the
+   * database. The size of a single comparison sits in {@code
+   * application.register.change-detection.batch-size} application property.
+   *
+   * @param retrofittedVehicles A set of vehicles that will be inserted in the database.
+   */
+  public void insertOrUpdateChanged(Set<RetrofittedVehicle> retrofittedVehicles) {
+    int changedCount = 0;
+    for (List<RetrofittedVehicle> batch : Iterables
+        .partition(retrofittedVehicles, changeDetectionBatchSize)) {
+      Set<String> changedVrns = findChangedVrns(batch);
+      List<RetrofittedVehicle> changedVehicles = batch.stream()
+          .filter(vehicle -> changedVrns.contains(vehicle.getVrn()))
+          .collect(Collectors.toList());
+      for (List<RetrofittedVehicle> changedBatch : Lists
+          .partition(changedVehicles, updateBatchSize)) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new InsertBatchPreparedStatementSetter(changedBatch));
+      }
+      changedCount += changedVehicles.size();
+    }
+    log.info("Inserted or updated {} out of {} vehicle(s), the rest is unchanged", changedCount,
+        retrofittedVehicles.size());
+  }
+
+  private Set<String> findChangedVrns(List<RetrofittedVehicle> vehicles) {
+    String[] vrns = vehicles.stream().map(RetrofittedVehicle::getVrn).toArray(String[]::new);
+    String[] contentHashes = vehicles.stream().map(RetrofittedVehicle::contentHash)
+        .toArray(String[]::new);
+    List<String> changedVrns = jdbcTemplate.query(
+        connection -> {
+          PreparedStatement preparedStatement = connection.prepareStatement(FIND_CHANGED_VRNS_SQL);
+          preparedStatement.setArray(1, connection.createArrayOf("varchar", vrns));
+          preparedStatement.setArray(2, connection.createArrayOf("varchar", contentHashes));
+          return preparedStatement;
+        },
+        (rs, rowNum) -> rs.getString("vrn"));
+    return new HashSet<>(changedVrns);
+  }
+
   /**
    * Deletes all records from {@code t_vehicle_retrofit} table.
    */
@@ -108,15 +219,94 @@ public class RetrofittedVehiclePostgresRepository {
     jdbcTemplate.execute(DROP_TEMP_TABLE);
   }
 
+  /**
+   * Deletes records from {@code t_vehicle_retrofit} table whose VRN is not present in {@code
+   * vrnsToKeep}. The passed VRNs are staged in a temporary table and the difference is computed
+   * by the database, so that the VRNs stored in the table are never loaded into memory.
+   */
+  public void deleteAllExcept(Set<String> vrnsToKeep) {
+    log.info("Deleting retroffited vehicles which are not among {} uploaded VRN(s)",
+        vrnsToKeep.size());
+
+    jdbcTemplate.execute(CREATE_VRNS_TO_KEEP_TEMP_TABLE);
+    for (List<String> batch : Iterables.partition(vrnsToKeep, updateBatchSize)) {
+      List<Object[]> vrnsList = batch.stream().map(vrn -> new Object[]{vrn})
+          .collect(Collectors.toList());
+      jdbcTemplate.batchUpdate(INSERT_VRNS_INTO_VRNS_TO_KEEP_TEMP_TABLE, vrnsList);
+    }
+    jdbcTemplate.execute(ANALYZE_VRNS_TO_KEEP_TEMP_TABLE);
+    int deletedCount = jdbcTemplate.update(DELETE_VRNS_MISSING_FROM_VRNS_TO_KEEP_TEMP_TABLE);
+    jdbcTemplate.execute(DROP_VRNS_TO_KEEP_TEMP_TABLE);
+
+    log.info("Deleted {} retroffited vehicle(s)", deletedCount);
+  }
+
+  /**
+   * Creates the (transaction scoped) temporary table of uploaded VRNs which is used to detect
+   * duplicated VRNs and vehicles to delete without keeping uploaded VRNs in memory. This method
+   * and the methods which use the table *MUST* be called within one transaction.
+   */
+  public void createUploadedVrnsTable() {
+    jdbcTemplate.execute(CREATE_UPLOADED_VRNS_TEMP_TABLE);
+  }
+
+  /**
+   * Adds {@code vrns} to the table of uploaded VRNs. May be called many times within one
+   * transaction.
+   */
+  public void addUploadedVrns(Collection<String> vrns) {
+    List<Object[]> vrnsList = vrns.stream().map(vrn -> new Object[]{vrn})
+        .collect(Collectors.toList());
+    jdbcTemplate.batchUpdate(INSERT_VRNS_INTO_UPLOADED_VRNS_TEMP_TABLE, vrnsList);
+  }
+
+  /**
+   * Returns a boolean indicating whether any VRN has been added to the table of uploaded VRNs
+   * more than once.
+   */
+  public boolean hasDuplicatedUploadedVrns() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(HAS_DUPLICATED_UPLOADED_VRNS_SQL, Boolean.class));
+  }
+
+  /**
+   * Deletes records from {@code t_vehicle_retrofit} table whose VRN is not present in the table
+   * of uploaded VRNs.
+   */
+  public void deleteAllNotUploaded() {
+    jdbcTemplate.execute(ANALYZE_UPLOADED_VRNS_TEMP_TABLE);
+    int deletedCount = jdbcTemplate.update(DELETE_VRNS_MISSING_FROM_UPLOADED_VRNS_TEMP_TABLE);
+    log.info("Deleted {} retroffited vehicle(s) which have not been uploaded", deletedCount);
+  }
+
   /**
    * Finds info about VRN.
    */
   public RetrofitStatus infoByVrn(String vrn) {
-    return jdbcTemplate
-        .queryForObject(VRN_INFO_SQL, new Object[] {vrn}, (rs, rowNum) -> RetrofitStatus.builder()
-            .rowCount(rs.getInt("rowcount"))
-            .insertTimestamp(rs.getTimestamp("insert_timestamp"))
-            .build());
+    return jdbcTemplate.query(VRN_INFO_SQL, VRN_INFO_EXTRACTOR, vrn);
+  }
+
+  /**
+   * Finds info about many VRNs in a single query.
+   *
+   * @return {@link RetrofitStatus} of every VRN (out of the passed ones) which is present in
+   *     {@code t_vehicle_retrofit} table keyed by the VRN.
+   */
+  public Map<String, RetrofitStatus> infoByVrns(Collection<String> vrns) {
+    String[] vrnsArray = vrns.toArray(new String[0]);
+    Map<String, RetrofitStatus> statuses = new HashMap<>();
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement preparedStatement = connection.prepareStatement(VRNS_INFO_SQL);
+          preparedStatement.setArray(1, connection.createArrayOf("varchar", vrnsArray));
+          return preparedStatement;
+        },
+        (RowCallbackHandler) resultSet -> statuses.put(resultSet.getString("vrn"),
+            RetrofitStatus.builder()
+                .rowCount(1)
+                .insertTimestamp(resultSet.getTimestamp("insert_timestmp"))
+                .build()));
+    return statuses;
   }
 
   /**
@@ -127,6 +317,16 @@ public class RetrofittedVehiclePostgresRepository {
         (resultSet, i) -> resultSet.getString("vrn"));
   }
 
+  /**
+   * Passes VRN and insert timestamp of every vehicle stored in {@code t_vehicle_retrofit} table to
+   * {@code consumer}.
+   */
+  public void forEachVrnWithInsertTimestamp(BiConsumer<String, Timestamp> consumer) {
+    jdbcTemplate.query(FIND_ALL_VRNS_WITH_INSERT_TIMESTAMPS_SQL,
+        (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getString("vrn"),
+            resultSet.getTimestamp("insert_timestmp")));
+  }
+
   /**
    * Finds all vehicles in the database.
    *
@@ -169,6 +369,7 @@ public class RetrofittedVehiclePostgresRepository {
       preparedStatement.setString(++i, retrofittedVehicle.getVehicleCategory());
       preparedStatement.setString(++i, retrofittedVehicle.getModel());
       preparedStatement.setObject(++i, retrofittedVehicle.getDateOfRetrofitInstallation());
+      preparedStatement.setString(++i, retrofittedVehicle.contentHash());
       return i;
     }
   }
@@ -1,16 +1,16 @@
 package uk.gov.caz.retrofit.service;
 
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
 import uk.gov.caz.retrofit.model.ConversionResults;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
+import uk.gov.caz.retrofit.service.validation.FirstValidationErrors;
 
 /**
  * Abstract class which is responsible for registering vehicles. It is not aware of underlying
@@ -22,8 +22,10 @@ public abstract class AbstractRegisterCommand {
   private final int registerJobId;
   private final String correlationId;
   private final int maxValidationErrorCount;
+  private final boolean streamingRegisterEnabled;
 
   private final RegisterService registerService;
+  private final StreamingRegisterService streamingRegisterService;
   private final RegisterFromCsvExceptionResolver exceptionResolver;
   private final RegisterJobSupervisor registerJobSupervisor;
   private final RetrofittedVehicleDtoToModelConverter vehiclesConverter;
@@ -34,10 +36,12 @@ public abstract class AbstractRegisterCommand {
   public AbstractRegisterCommand(RegisterServicesContext registerServicesContext, int registerJobId,
       String correlationId) {
     this.registerService = registerServicesContext.getRegisterService();
+    this.streamingRegisterService = registerServicesContext.getStreamingRegisterService();
     this.exceptionResolver = registerServicesContext.getExceptionResolver();
     this.registerJobSupervisor = registerServicesContext.getRegisterJobSupervisor();
     this.vehiclesConverter = registerServicesContext.getDtoToModelConverter();
     this.maxValidationErrorCount = registerServicesContext.getMaxValidationErrorCount();
+    this.streamingRegisterEnabled = registerServicesContext.isStreamingRegisterEnabled();
     this.registerJobId = registerJobId;
     this.correlationId = correlationId;
   }
@@ -55,6 +59,19 @@ public abstract class AbstractRegisterCommand {
 
   abstract List<ValidationError> getParseValidationErrors();
 
+  /**
+   * Passes every vehicle to register to {@code vehicleConsumer}. Used only when the streaming
+   * registration is enabled. By default vehicles returned by {@link #getVehiclesToRegister()} are
+   * passed, commands which can read vehicles without keeping them in memory should override it.
+   *
+   * @return A list of parse validation errors.
+   */
+  List<ValidationError> streamVehiclesToRegister(
+      Consumer<RetrofittedVehicleDto> vehicleConsumer) {
+    getVehiclesToRegister().forEach(vehicleConsumer);
+    return getParseValidationErrors();
+  }
+
   /**
    * Returns a boolean indicating whether the job should be marked as failed.
    */
@@ -78,20 +95,10 @@ public abstract class AbstractRegisterCommand {
 
       beforeExecute();
 
-      ConversionResults conversionResults = vehiclesConverter.convert(getVehiclesToRegister());
-
-      if (conversionResults.hasValidationErrors() || hasParseValidationErrors()) {
-        return prepareFailureResult(conversionResults);
+      if (isStreamingRegisterEnabled()) {
+        return registerStreamedVehicles();
       }
-
-      RegisterResult result = registerService.register(
-          conversionResults.getRetrofittedVehicles(),
-          getUploaderId()
-      );
-
-      postProcessRegistrationResult(result);
-
-      return result;
+      return registerVehicles();
     } catch (Exception e) {
       RegisterResult result = exceptionResolver.resolve(e);
       markJobFailed(exceptionResolver.resolveToRegisterJobFailureStatus(e),
@@ -102,25 +109,75 @@ public abstract class AbstractRegisterCommand {
     }
   }
 
+  /**
+   * Returns a boolean indicating whether vehicles should be streamed to the database in batches
+   * instead of being loaded into memory at once.
+   */
+  boolean isStreamingRegisterEnabled() {
+    return streamingRegisterEnabled;
+  }
+
+  /**
+   * Persists successfully converted vehicles. By default the whole register is replaced with
+   * {@code retrofittedVehicles}.
+   *
+   * @return {@link RegisterResult} register result of given vehicles.
+   */
+  RegisterResult register(Set<RetrofittedVehicle> retrofittedVehicles, UUID uploaderId) {
+    return registerService.register(retrofittedVehicles, uploaderId);
+  }
+
+  private RegisterResult registerVehicles() {
+    ConversionResults conversionResults = vehiclesConverter.convert(getVehiclesToRegister(),
+        maxValidationErrorCount);
+
+    if (conversionResults.hasValidationErrors() || hasParseValidationErrors()) {
+      return prepareFailureResult(conversionResults.getValidationErrors(),
+          getParseValidationErrors());
+    }
+
+    RegisterResult result = register(
+        conversionResults.getRetrofittedVehicles(),
+        getUploaderId()
+    );
+
+    postProcessRegistrationResult(result);
+
+    return result;
+  }
+
+  private RegisterResult registerStreamedVehicles() {
+    StreamingRegisterResult streamingResult = streamingRegisterService.register(
+        getUploaderId(),
+        this::streamVehiclesToRegister,
+        maxValidationErrorCount
+    );
+
+    if (streamingResult.hasValidationErrors()) {
+      return prepareFailureResult(streamingResult.getBusinessErrors(),
+          streamingResult.getParseErrors());
+    }
+
+    RegisterResult result = RegisterResult.success();
+    postProcessRegistrationResult(result);
+    return result;
+  }
+
   /**
    * Prepares a failure result for the registration process.
-   * @param conversionResults business conversion results.
+   * @param businessErrors business validation errors.
+   * @param parseErrors parse validation errors.
    * @return failure register result.
    */
-  private RegisterResult prepareFailureResult(ConversionResults conversionResults) {
-    List<ValidationError> businessErrors = conversionResults.getValidationErrors();
-    List<ValidationError> parseErrors = getParseValidationErrors();
+  private RegisterResult prepareFailureResult(List<ValidationError> businessErrors,
+      List<ValidationError> parseErrors) {
     log.info("There was total of {} business and {} parse errors",
         businessErrors.size(), parseErrors.size());
 
-    List<ValidationError> initialErrorList = mergeBusinessAndParseErrors(
-        businessErrors, parseErrors
-    );
-    List<ValidationError> errors = initialErrorList.stream()
-        .sorted(Comparator.comparing(
-            validationError -> validationError.getLineNumber().orElse(0)))
-        .limit(maxValidationErrorCount)
-        .collect(Collectors.toList());
+    FirstValidationErrors firstErrors = new FirstValidationErrors(maxValidationErrorCount);
+    firstErrors.addAll(businessErrors);
+    firstErrors.addAll(parseErrors);
+    List<ValidationError> errors = firstErrors.toList();
     markJobFailed(RegisterJobStatus.FINISHED_FAILURE_VALIDATION_ERRORS, errors);
 
     return RegisterResult.failure(errors);
@@ -130,12 +187,6 @@ public abstract class AbstractRegisterCommand {
     return !getParseValidationErrors().isEmpty();
   }
 
-  private List<ValidationError> mergeBusinessAndParseErrors(
-      List<ValidationError> businessErrors, List<ValidationError> parseErrors) {
-    return Stream.of(businessErrors, parseErrors).flatMap(Collection::stream)
-        .collect(Collectors.toList());
-  }
-
   private void postProcessRegistrationResult(RegisterResult result) {
     if (result.isSuccess()) {
       markJobFinished();
@@ -146,7 +197,7 @@ public abstract class AbstractRegisterCommand {
   }
 
   private void markJobFinished() {
-    registerJobSupervisor.updateStatus(getRegisterJobId(), RegisterJobStatus.FINISHED_SUCCESS);
+    registerJobSupervisor.markSuccess(getRegisterJobId());
     log.info("Marked job '{}' as finished", getRegisterJobId());
   }
 
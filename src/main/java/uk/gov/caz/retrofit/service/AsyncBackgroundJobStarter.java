@@ -1,5 +1,7 @@
 package uk.gov.caz.retrofit.service;
 
+import uk.gov.caz.retrofit.model.CsvMetadata;
+
 /**
  * Starts arbitrary background tasks.
  */
@@ -20,7 +22,9 @@ public interface AsyncBackgroundJobStarter {
    * @param fileName Name of CSV file.
    * @param correlationId UUID formatted string to track the request through the enquiries
    *     stack.
+   * @param csvMetadata Metadata of CSV file obtained when the job was started, the job must not
+   *     fetch it again.
    */
   void fireAndForgetRegisterCsvFromS3Job(int registerJobId, String s3Bucket, String fileName,
-      String correlationId);
+      String correlationId, CsvMetadata csvMetadata);
 }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.util.function.MdcAwareSupplier;
 
 @AllArgsConstructor
@@ -17,10 +18,11 @@ public class AsyncJavaBackgroundJobStarter implements AsyncBackgroundJobStarter
 
   @Override
   public void fireAndForgetRegisterCsvFromS3Job(int registerJobId, String s3Bucket, String fileName,
-      String correlationId) {
+      String correlationId, CsvMetadata csvMetadata) {
     logCallDetails(registerJobId, s3Bucket, fileName, correlationId);
     CompletableFuture.supplyAsync(MdcAwareSupplier.from(
-        () -> registerService.register(s3Bucket, fileName, registerJobId, correlationId)));
+        () -> registerService.register(s3Bucket, fileName, registerJobId, correlationId,
+            csvMetadata)));
   }
 
   private void logCallDetails(int registerJobId, String s3Bucket, String fileName,
@@ -0,0 +1,83 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.caz.retrofit.repository.AuditLogPartitionRepository;
+
+/**
+ * Maintains monthly partitions of the audit log. Partitions of the current month and of
+ * {@code application.audit.partitions.months-ahead} following ones are created ahead of time,
+ * partitions of months older than {@code application.audit.partitions.retention-months} are
+ * detached (and dropped if {@code application.audit.partitions.drop-expired} is set).
+ */
+@Slf4j
+@Service
+public class AuditLogPartitionMaintenanceService {
+
+  private final AuditLogPartitionRepository auditLogPartitionRepository;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private final boolean dropExpired;
+
+  /**
+   * Creates an instance of {@link AuditLogPartitionMaintenanceService}.
+   *
+   * @param monthsAhead The number of months following the current one whose partitions are
+   *     created ahead of time.
+   * @param retentionMonths The number of months preceding the current one whose partitions are
+   *     kept attached.
+   * @param dropExpired Whether detached partitions are dropped rather than left for archiving.
+   */
+  public AuditLogPartitionMaintenanceService(
+      AuditLogPartitionRepository auditLogPartitionRepository,
+      @Value("${application.audit.partitions.months-ahead:3}") int monthsAhead,
+      @Value("${application.audit.partitions.retention-months:24}") int retentionMonths,
+      @Value("${application.audit.partitions.drop-expired:false}") boolean dropExpired) {
+    Preconditions.checkArgument(monthsAhead >= 0, "monthsAhead cannot be negative");
+    Preconditions.checkArgument(retentionMonths >= 0, "retentionMonths cannot be negative");
+    this.auditLogPartitionRepository = auditLogPartitionRepository;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.dropExpired = dropExpired;
+  }
+
+  /**
+   * Creates missing partitions and detaches expired ones relative to the current month in UTC.
+   */
+  public void maintain() {
+    maintain(YearMonth.now(ZoneOffset.UTC));
+  }
+
+  @VisibleForTesting
+  void maintain(YearMonth currentMonth) {
+    for (int i = 0; i <= monthsAhead; i++) {
+      YearMonth month = currentMonth.plusMonths(i);
+      if (auditLogPartitionRepository.createPartition(month)) {
+        log.info("Created partition of the audit log for {}", month);
+      }
+    }
+    YearMonth oldestRetainedMonth = currentMonth.minusMonths(retentionMonths);
+    List<YearMonth> partitions = auditLogPartitionRepository.findPartitions();
+    for (YearMonth month : partitions) {
+      if (month.isBefore(oldestRetainedMonth)) {
+        expire(month);
+      }
+    }
+  }
+
+  private void expire(YearMonth month) {
+    auditLogPartitionRepository.detachPartition(month);
+    if (dropExpired) {
+      auditLogPartitionRepository.dropDetachedPartition(month);
+      log.info("Dropped expired partition of the audit log for {}", month);
+    } else {
+      log.info("Detached expired partition of the audit log for {}", month);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.repository.AuditOutboxRepository;
+
+/**
+ * Drains the outbox of the audit log (see {@link
+ * uk.gov.caz.retrofit.repository.AuditWriteMode#OUTBOX}) in batches of events which expand into
+ * at most {@code application.audit.outbox.batch-size} audit entries, each batch in a separate
+ * transaction. Only one
+ * drainer works at a time, a drainer which finds the outbox locked by another one exits.
+ */
+@Slf4j
+@Service
+public class AuditOutboxDrainer {
+
+  private final AuditOutboxRepository auditOutboxRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final int maxBatches;
+
+  /**
+   * Creates an instance of {@link AuditOutboxDrainer}.
+   *
+   * @param batchSize The maximum number of audit entries drained in one transaction.
+   * @param maxBatches The maximum number of batches drained by one call of {@link #drain()}.
+   */
+  public AuditOutboxDrainer(AuditOutboxRepository auditOutboxRepository,
+      TransactionTemplate transactionTemplate,
+      @Value("${application.audit.outbox.batch-size:10000}") int batchSize,
+      @Value("${application.audit.outbox.max-batches:100}") int maxBatches) {
+    Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
+    Preconditions.checkArgument(maxBatches > 0, "maxBatches must be positive");
+    this.auditOutboxRepository = auditOutboxRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+  }
+
+  /**
+   * Drains committed events until the outbox is empty, it is locked by another drainer or
+   * {@code application.audit.outbox.max-batches} batches have been drained.
+   *
+   * @return The number of drained events.
+   */
+  public int drain() {
+    int drainedEvents = 0;
+    for (int i = 0; i < maxBatches; i++) {
+      Integer drainedInBatch = transactionTemplate.execute(status ->
+          auditOutboxRepository.tryLockForDraining() ? auditOutboxRepository.drain(batchSize) : 0);
+      if (drainedInBatch == null || drainedInBatch == 0) {
+        break;
+      }
+      drainedEvents += drainedInBatch;
+    }
+    log.info("Drained {} event(s) from the outbox of the audit log", drainedEvents);
+    return drainedEvents;
+  }
+}
@@ -2,7 +2,6 @@ package uk.gov.caz.retrofit.service;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.UUID;
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -10,10 +9,12 @@ import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.service.exception.FatalErrorWithCsvFileMetadataException;
 
 /**
- * Tries to get 'uploader-id' and 'csv-content-type' metadata from file on S3.
+ * Tries to get 'uploader-id' and 'csv-content-type' metadata, the size and the {@code ETag} of
+ * file on S3.
  */
 @Slf4j
 @Service
@@ -36,21 +37,15 @@ public class CsvFileOnS3MetadataExtractor {
     this.s3Client = s3Client;
   }
 
-  @Value
-  public static class CsvMetadata {
-
-    UUID uploaderId;
-
-    CsvContentType csvContentType;
-  }
-
   /**
-   * Tries to get 'uploader-id' and 'csv-content-type' metadata from file on S3 bucket.
+   * Tries to get 'uploader-id' and 'csv-content-type' metadata, the size and the {@code ETag} of
+   * file on S3 bucket with a single {@code HeadObject} request.
    *
    * @param s3Bucket The name of the bucket at S3 where files with vehicles data is stored.
    * @param filename The name of the key at S3 where vehicles data is stored.
-   * @return {@link CsvMetadata} with {@link UUID} that contains uploader id and {@link
-   *     CsvContentType} that contains type of data inside CSV.
+   * @return {@link CsvMetadata} with {@link UUID} that contains uploader id, {@link
+   *     CsvContentType} that contains type of data inside CSV, the size and the {@code ETag} of the
+   *     file.
    * @throws FatalErrorWithCsvFileMetadataException if CSV file is unreachable, or has no
    *     metadata or metadata has invalid format.
    */
@@ -58,7 +53,8 @@ public class CsvFileOnS3MetadataExtractor {
     try {
       HeadObjectResponse headObjectResponse = getFileMetadata(s3Bucket, filename);
       return new CsvMetadata(getUploaderId(headObjectResponse),
-          getCsvContentType(headObjectResponse));
+          getCsvContentType(headObjectResponse), headObjectResponse.contentLength(),
+          headObjectResponse.eTag());
     } catch (NoSuchKeyException e) {
       String error = String
           .format("Exception while getting file's %s/%s metadata - bucket or file does not exist",
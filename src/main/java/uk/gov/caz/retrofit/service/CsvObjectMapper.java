@@ -3,25 +3,30 @@ package uk.gov.caz.retrofit.service;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.opencsv.CSVParser;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
+import com.opencsv.ICSVParser;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.CsvDeltaParseResult;
 import uk.gov.caz.retrofit.model.CsvParseResult;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.service.exception.CsvInvalidCharacterParseException;
+import uk.gov.caz.retrofit.service.exception.CsvInvalidDeltaActionException;
 import uk.gov.caz.retrofit.service.exception.CsvInvalidFieldsCountException;
 import uk.gov.caz.retrofit.service.exception.CsvMaxLineLengthExceededException;
 import uk.gov.caz.retrofit.service.validation.CsvAwareValidationMessageModifier;
@@ -40,6 +45,10 @@ public class CsvObjectMapper {
       + "character(s), is empty or has trailing comma character.";
   private static final String LINE_INVALID_FIELDS_COUNT_MESSAGE_TEMPLATE = "Line contains "
       + "invalid number of fields (actual value: %d, allowable value: %d).";
+  private static final String LINE_INVALID_DELTA_ACTION_MESSAGE_TEMPLATE = "Line contains "
+      + "invalid action (actual value: '%s', allowable values: '"
+      + CsvRetrofittedVehicleDeltaParser.UPSERT_ACTION + "', '"
+      + CsvRetrofittedVehicleDeltaParser.DELETE_ACTION + "').";
 
   private final CsvAwareValidationMessageModifier messageModifier;
   private final int maxErrorsCount;
@@ -60,8 +69,80 @@ public class CsvObjectMapper {
    */
   public CsvParseResult read(InputStream inputStream) throws IOException {
     ImmutableList.Builder<RetrofittedVehicleDto> vehiclesBuilder = ImmutableList.builder();
+    LinkedList<ValidationError> errors = parse(inputStream, vehiclesBuilder::add);
+    ImmutableList<RetrofittedVehicleDto> retrofittedVehicles = vehiclesBuilder.build();
+
+    addDuplicatedVrnsErrorIfApplicable(retrofittedVehicles, errors);
+
+    return new CsvParseResult(retrofittedVehicles, Collections.unmodifiableList(errors));
+  }
+
+  /**
+   * Reads data from {@code inputStream} and passes every successfully parsed row to {@code
+   * vehicleConsumer} as soon as it is read, so that the whole file is never held in memory. The
+   * {@code inputStream} *MUST* contain data in CSV format. The {@code inputStream} *MUST* be closed
+   * by the client code to avoid memory leaks.
+   *
+   * <p>Contrary to {@link CsvObjectMapper#read(InputStream)} this method does not check
+   * whether VRNs are unique - it is up to the client code to do so.</p>
+   *
+   * @param inputStream A stream which contains data in CSV format
+   * @param vehicleConsumer A callback which receives parsed rows in the order of occurrence
+   * @return A list of parse validation errors
+   */
+  public List<ValidationError> read(InputStream inputStream,
+      Consumer<RetrofittedVehicleDto> vehicleConsumer) throws IOException {
+    return Collections.unmodifiableList(parse(inputStream, vehicleConsumer));
+  }
+
+  /**
+   * Reads a delta file from {@code inputStream} and maps it to a {@link CsvDeltaParseResult}.
+   * Every line of the file starts with an action: {@code U} (upsert) followed by the vehicle's
+   * fields or {@code D} (delete) followed by the vehicle's VRN (see {@link
+   * CsvRetrofittedVehicleDeltaParser}). The {@code inputStream} *MUST* be closed by the client code
+   * to avoid memory leaks.
+   *
+   * @param inputStream A stream which contains the delta in CSV format
+   * @return {@link CsvDeltaParseResult}
+   */
+  public CsvDeltaParseResult readDelta(InputStream inputStream) throws IOException {
+    ImmutableList.Builder<RetrofittedVehicleDto> vehiclesToUpsertBuilder = ImmutableList.builder();
+    ImmutableList.Builder<RetrofittedVehicleDto> vehiclesToDeleteBuilder = ImmutableList.builder();
+    LinkedList<ValidationError> errors = parse(inputStream,
+        new CsvRetrofittedVehicleDeltaParser(),
+        (fields, lineNo) -> {
+          if (CsvRetrofittedVehicleDeltaParser.isDeleteRow(fields)) {
+            vehiclesToDeleteBuilder.add(createVehicleToDelete(fields, lineNo));
+          } else {
+            vehiclesToUpsertBuilder.add(
+                createRetrofittedVehicle(Arrays.copyOfRange(fields, 1, fields.length), lineNo));
+          }
+        });
+    ImmutableList<RetrofittedVehicleDto> vehiclesToUpsert = vehiclesToUpsertBuilder.build();
+    ImmutableList<RetrofittedVehicleDto> vehiclesToDelete = vehiclesToDeleteBuilder.build();
+
+    addDuplicatedVrnsErrorIfApplicable(
+        ImmutableList.<RetrofittedVehicleDto>builder()
+            .addAll(vehiclesToUpsert)
+            .addAll(vehiclesToDelete)
+            .build(),
+        errors
+    );
+
+    return new CsvDeltaParseResult(vehiclesToUpsert, vehiclesToDelete,
+        Collections.unmodifiableList(errors));
+  }
+
+  private LinkedList<ValidationError> parse(InputStream inputStream,
+      Consumer<RetrofittedVehicleDto> vehicleConsumer) throws IOException {
+    return parse(inputStream, new CsvRetrofittedVehicleTokenizer(),
+        (fields, lineNo) -> vehicleConsumer.accept(createRetrofittedVehicle(fields, lineNo)));
+  }
+
+  private LinkedList<ValidationError> parse(InputStream inputStream, ICSVParser csvParser,
+      ObjIntConsumer<String[]> rowConsumer) throws IOException {
     LinkedList<ValidationError> errors = Lists.newLinkedList();
-    CSVReader reader = createReader(inputStream);
+    CSVReader reader = createReader(inputStream, csvParser);
 
     String[] fields;
     int lineNo = 1;
@@ -69,19 +150,15 @@ public class CsvObjectMapper {
       if (fields.length == 0) {
         log.trace("Validation error on line {}, skipping it", lineNo);
       } else {
-        RetrofittedVehicleDto retrofittedVehicleDto = createRetrofittedVehicle(fields, lineNo);
-        vehiclesBuilder.add(retrofittedVehicleDto);
+        rowConsumer.accept(fields, lineNo);
         log.debug("Retrofitted vehicle read");
       }
       lineNo += 1;
     }
-    ImmutableList<RetrofittedVehicleDto> retrofittedVehicles = vehiclesBuilder.build();
 
     logParsingEndReason(errors);
     addTrailingRowErrorInfoIfApplicable(reader, errors, lineNo - 1);
-    addDuplicatedVrnsErrorIfApplicable(retrofittedVehicles, errors);
-
-    return new CsvParseResult(retrofittedVehicles, Collections.unmodifiableList(errors));
+    return errors;
   }
 
   private void addDuplicatedVrnsErrorIfApplicable(List<RetrofittedVehicleDto> vehicles,
@@ -136,9 +213,9 @@ public class CsvObjectMapper {
     return lastError.getLineNumber().map(lineNo -> lineNo == numberOfLines).orElse(Boolean.FALSE);
   }
 
-  private CSVReader createReader(InputStream inputStream) {
+  private CSVReader createReader(InputStream inputStream, ICSVParser csvParser) {
     CSVReaderBuilder csvReaderBuilder = new CSVReaderBuilder(new InputStreamReader(inputStream));
-    csvReaderBuilder.withCSVParser(new CsvRetrofittedVehicleParser(new CSVParser()));
+    csvReaderBuilder.withCSVParser(csvParser);
     return csvReaderBuilder.build();
   }
 
@@ -152,6 +229,13 @@ public class CsvObjectMapper {
         .build();
   }
 
+  private RetrofittedVehicleDto createVehicleToDelete(String[] fields, int lineNo) {
+    return RetrofittedVehicleDto.builder()
+        .vrn(StringUtils.deleteWhitespace(fields[1]))
+        .lineNumber(lineNo)
+        .build();
+  }
+
   private ValidationError createInvalidFieldsCountError(int lineNo,
       CsvInvalidFieldsCountException e) {
     return ValidationError.valueError(
@@ -164,6 +248,13 @@ public class CsvObjectMapper {
         modifyErrorMessage(lineNo, maximumLineLengthErrorDetail(e)), lineNo);
   }
 
+  private ValidationError createInvalidDeltaActionError(int lineNo,
+      CsvInvalidDeltaActionException e) {
+    return ValidationError.valueError(
+        modifyErrorMessage(lineNo,
+            String.format(LINE_INVALID_DELTA_ACTION_MESSAGE_TEMPLATE, e.getAction())), lineNo);
+  }
+
   private ValidationError createParseValidationError(int lineNo) {
     return ValidationError.valueError(
         modifyErrorMessage(lineNo, LINE_INVALID_FORMAT_MESSAGE), lineNo);
@@ -171,12 +262,12 @@ public class CsvObjectMapper {
 
   private String invalidFieldsCountErrorDetail(CsvInvalidFieldsCountException e) {
     return String.format(LINE_INVALID_FIELDS_COUNT_MESSAGE_TEMPLATE, e.getFieldsCount(),
-        CsvRetrofittedVehicleParser.EXPECTED_FIELDS_CNT);
+        e.getExpectedFieldsCount());
   }
 
   private String maximumLineLengthErrorDetail(CsvMaxLineLengthExceededException e) {
     return String.format(LINE_TOO_LONG_MESSAGE_TEMPLATE, e.getLineLength(),
-        CsvRetrofittedVehicleParser.MAX_LINE_LENGTH);
+        CsvRetrofittedVehicleTokenizer.MAX_LINE_LENGTH);
   }
 
   /**
@@ -193,6 +284,9 @@ public class CsvObjectMapper {
     } catch (CsvMaxLineLengthExceededException e) {
       log.debug("Maximum line length exceeded: {}", e.getMessage());
       errors.add(createMaximumLineLengthExceededError(lineNo, e));
+    } catch (CsvInvalidDeltaActionException e) {
+      log.debug("Invalid delta action detected: {}", e.getMessage());
+      errors.add(createInvalidDeltaActionError(lineNo, e));
     } catch (CsvInvalidCharacterParseException e) {
       log.debug("Error while parsing line {}: {}", lineNo, e.getMessage());
       errors.add(createParseValidationError(lineNo));
@@ -0,0 +1,47 @@
+package uk.gov.caz.retrofit.service;
+
+import uk.gov.caz.retrofit.service.exception.CsvInvalidDeltaActionException;
+
+/**
+ * A parser of delta files, i.e. files which contain only changes to the register. Every line
+ * starts with an action: {@code U} (upsert) followed by the same fields as in the full register
+ * file or {@code D} (delete) followed by the VRN only, e.g.
+ * <pre>
+ * U,ND84VSX,category-1,model-1,2019-04-30
+ * D,ZC62OMB
+ * </pre>
+ */
+public class CsvRetrofittedVehicleDeltaParser extends CsvRetrofittedVehicleTokenizer {
+
+  static final String UPSERT_ACTION = "U";
+  static final String DELETE_ACTION = "D";
+
+  static final int EXPECTED_UPSERT_FIELDS_CNT =
+      CsvRetrofittedVehicleTokenizer.EXPECTED_FIELDS_CNT + 1;
+  static final int EXPECTED_DELETE_FIELDS_CNT = 2;
+
+  private static final String INVALID_ACTION_MESSAGE_TEMPLATE =
+      "Line contains invalid action '%s', it should be either '" + UPSERT_ACTION + "' or '"
+          + DELETE_ACTION + "'.";
+
+  /**
+   * Returns a boolean indicating whether {@code fields} (of a line successfully parsed by this
+   * parser) represent a vehicle which is to be deleted.
+   */
+  static boolean isDeleteRow(String[] fields) {
+    return DELETE_ACTION.equals(fields[0].trim());
+  }
+
+  @Override
+  void checkFieldsCountPostcondition(String[] result) {
+    String action = result[0].trim();
+    if (UPSERT_ACTION.equals(action)) {
+      checkFieldsCount(result, EXPECTED_UPSERT_FIELDS_CNT);
+    } else if (DELETE_ACTION.equals(action)) {
+      checkFieldsCount(result, EXPECTED_DELETE_FIELDS_CNT);
+    } else {
+      throw new CsvInvalidDeltaActionException(action,
+          String.format(INVALID_ACTION_MESSAGE_TEMPLATE, action));
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package uk.gov.caz.retrofit.service;
+
+import com.opencsv.CSVParser;
+import com.opencsv.ICSVParser;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import java.io.IOException;
+import java.util.Locale;
+import uk.gov.caz.retrofit.service.exception.CsvInvalidCharacterParseException;
+import uk.gov.caz.retrofit.service.exception.CsvInvalidFieldsCountException;
+import uk.gov.caz.retrofit.service.exception.CsvMaxLineLengthExceededException;
+
+/**
+ * A single-pass tokenizer of lines of the retrofit CSV format. It is a drop-in replacement of the
+ * parser which validated a line with a regular expression before passing it to OpenCSV's {@link
+ * CSVParser} (kept in tests as the reference implementation): it accepts and rejects the same
+ * lines with the same exceptions and returns the same fields, but allowable characters are
+ * checked against a lookup table and fields are split in the same scan instead of matching a
+ * regular expression, trimming the line and parsing it again.
+ *
+ * <p>Lines which contain a quote character (or which continue a multi-line quoted field) are
+ * passed to {@link CSVParser} as they need the full quoting semantics. They are extremely rare
+ * in practice.</p>
+ *
+ * <p>This class keeps the state of multi-line quoted fields, hence it is not thread-safe and
+ * a new instance *MUST* be used for every parsed file.</p>
+ */
+public class CsvRetrofittedVehicleTokenizer implements ICSVParser {
+
+  static final int MAX_LINE_LENGTH = 100;
+  static final int EXPECTED_FIELDS_CNT = 4;
+
+  private static final char SEPARATOR = ICSVParser.DEFAULT_SEPARATOR;
+  private static final char QUOTE_CHARACTER = ICSVParser.DEFAULT_QUOTE_CHARACTER;
+  private static final char SPACE = ' ';
+
+  private static final String MAX_LENGTH_MESSAGE_TEMPLATE =
+      "Line is too long (max :" + MAX_LINE_LENGTH + ", current: %d).";
+  private static final String LINE_INVALID_FIELDS_CNT_MESSAGE_TEMPLATE =
+      "Line contains %d fields whereas it should %d.";
+
+  /**
+   * The same set of characters as {@code [\w &,'"\-().*\/%!+:;=?@\[\]^{}~]} (with {@code \w}
+   * being {@code [a-zA-Z_0-9]}) which is accepted by the reference parser.
+   */
+  private static final boolean[] ALLOWABLE_CHARACTERS = allowableCharacters(
+      "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_0123456789"
+          + " &,'\"-().*/%!+:;=?@[]^{}~");
+
+  private final CSVParser quotedLinesParser = new CSVParser();
+
+  @Override
+  public char getSeparator() {
+    return SEPARATOR;
+  }
+
+  @Override
+  public char getQuotechar() {
+    return QUOTE_CHARACTER;
+  }
+
+  @Override
+  public boolean isPending() {
+    return quotedLinesParser.isPending();
+  }
+
+  @Override
+  public String[] parseLineMulti(String nextLine) throws IOException {
+    int length = nextLine.length();
+    checkMaxLineLengthPrecondition(length);
+    if (length == 0) {
+      throw new CsvInvalidCharacterParseException();
+    }
+
+    int separatorsCount = 0;
+    boolean quoted = false;
+    char lastNonSpaceCharacter = SPACE;
+    for (int i = 0; i < length; i++) {
+      char c = nextLine.charAt(i);
+      if (c >= ALLOWABLE_CHARACTERS.length || !ALLOWABLE_CHARACTERS[c]) {
+        throw new CsvInvalidCharacterParseException();
+      }
+      if (c == SEPARATOR) {
+        separatorsCount += 1;
+      } else if (c == QUOTE_CHARACTER) {
+        quoted = true;
+      }
+      if (c != SPACE) {
+        lastNonSpaceCharacter = c;
+      }
+    }
+    if (lastNonSpaceCharacter == SEPARATOR) {
+      throw new CsvInvalidCharacterParseException();
+    }
+
+    String[] result = quoted || quotedLinesParser.isPending()
+        ? quotedLinesParser.parseLineMulti(nextLine)
+        : split(nextLine, separatorsCount + 1);
+
+    checkFieldsCountPostcondition(result);
+    return result;
+  }
+
+  @Override
+  public String[] parseLine(String nextLine) throws IOException {
+    return quotedLinesParser.parseLine(nextLine);
+  }
+
+  @Override
+  public String parseToLine(String[] values, boolean applyQuotesToAll) {
+    return quotedLinesParser.parseToLine(values, applyQuotesToAll);
+  }
+
+  @Override
+  public CSVReaderNullFieldIndicator nullFieldIndicator() {
+    return quotedLinesParser.nullFieldIndicator();
+  }
+
+  @Override
+  public String getPendingText() {
+    return quotedLinesParser.getPendingText();
+  }
+
+  @Override
+  public void setErrorLocale(Locale locale) {
+    quotedLinesParser.setErrorLocale(locale);
+  }
+
+  /**
+   * Verifies that the parsed line contains the expected number of fields.
+   *
+   * @throws CsvInvalidFieldsCountException if the number of fields is invalid.
+   */
+  void checkFieldsCountPostcondition(String[] result) {
+    checkFieldsCount(result, EXPECTED_FIELDS_CNT);
+  }
+
+  static void checkFieldsCount(String[] result, int expectedFieldsCount) {
+    if (result.length != expectedFieldsCount) {
+      throw new CsvInvalidFieldsCountException(
+          result.length,
+          expectedFieldsCount,
+          String.format(LINE_INVALID_FIELDS_CNT_MESSAGE_TEMPLATE, result.length,
+              expectedFieldsCount)
+      );
+    }
+  }
+
+  private void checkMaxLineLengthPrecondition(int length) {
+    if (length > MAX_LINE_LENGTH) {
+      throw new CsvMaxLineLengthExceededException(
+          String.format(MAX_LENGTH_MESSAGE_TEMPLATE, length),
+          length
+      );
+    }
+  }
+
+  private static String[] split(String line, int fieldsCount) {
+    String[] fields = new String[fieldsCount];
+    int fieldStart = 0;
+    for (int i = 0; i < fieldsCount - 1; i++) {
+      int separatorIndex = line.indexOf(SEPARATOR, fieldStart);
+      fields[i] = line.substring(fieldStart, separatorIndex);
+      fieldStart = separatorIndex + 1;
+    }
+    fields[fieldsCount - 1] = line.substring(fieldStart);
+    return fields;
+  }
+
+  private static boolean[] allowableCharacters(String characters) {
+    boolean[] result = new boolean[128];
+    for (int i = 0; i < characters.length(); i++) {
+      result[characters.charAt(i)] = true;
+    }
+    return result;
+  }
+}
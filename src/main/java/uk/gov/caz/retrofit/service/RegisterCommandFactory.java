@@ -1,6 +1,7 @@
 package uk.gov.caz.retrofit.service;
 
 import org.springframework.stereotype.Component;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 
 @Component
 public class RegisterCommandFactory {
@@ -12,8 +13,14 @@ public class RegisterCommandFactory {
   }
 
   public RegisterFromCsvCommand createRegisterFromCsvCommand(String bucket, String filename,
-      int registerJobId, String correlationId) {
+      int registerJobId, String correlationId, CsvMetadata csvMetadata) {
     return new RegisterFromCsvCommand(registerServicesContext, registerJobId, correlationId, bucket,
-        filename);
+        filename, csvMetadata);
+  }
+
+  public RegisterDeltaFromCsvCommand createRegisterDeltaFromCsvCommand(String bucket,
+      String filename, int registerJobId, String correlationId, CsvMetadata csvMetadata) {
+    return new RegisterDeltaFromCsvCommand(registerServicesContext, registerJobId, correlationId,
+        bucket, filename, csvMetadata);
   }
 }
@@ -0,0 +1,99 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
+import uk.gov.caz.retrofit.repository.RegisterDataVersionRepository;
+
+/**
+ * Manages {@link RegisterDataVersion}. The version is incremented in the same transaction which
+ * modifies the register and is cached for {@code application.register.data-version.cache-ttl}
+ * milliseconds, so that conditional requests can be answered without querying the database. The
+ * cache is invalidated as soon as a modification made by this instance of the application commits,
+ * modifications made by other instances are seen once the cached version expires.
+ *
+ * <p>The version committed by the most recent modification made by a thread is remembered until
+ * it is taken by {@link RegisterDataVersionService#takeVersionCommittedByCurrentThread()}, so that
+ * a register job can record which version of the data it has produced.</p>
+ */
+@Service
+public class RegisterDataVersionService {
+
+  private final RegisterDataVersionRepository registerDataVersionRepository;
+  private final long cacheTtl;
+
+  private final ThreadLocal<Long> versionCommittedByCurrentThread = new ThreadLocal<>();
+
+  private volatile Supplier<RegisterDataVersion> cachedVersion;
+
+  /**
+   * Creates an instance of {@link RegisterDataVersionService}.
+   *
+   * @param cacheTtl The number of milliseconds for which the version is cached, non-positive
+   *     value disables the cache.
+   */
+  public RegisterDataVersionService(RegisterDataVersionRepository registerDataVersionRepository,
+      @Value("${application.register.data-version.cache-ttl:5000}") long cacheTtl) {
+    this.registerDataVersionRepository = registerDataVersionRepository;
+    this.cacheTtl = cacheTtl;
+    this.cachedVersion = newCachedVersion();
+  }
+
+  /**
+   * Returns the current version of the register data.
+   */
+  public RegisterDataVersion current() {
+    return cachedVersion.get();
+  }
+
+  /**
+   * Increments the version of the register data in the current transaction.
+   *
+   * @throws IllegalStateException if there is no active transaction, as the version would be
+   *     remembered by the current thread before it is known to be committed.
+   */
+  public void increment() {
+    Preconditions.checkState(TransactionSynchronizationManager.isSynchronizationActive(),
+        "The version can only be incremented in a transaction");
+    long version = registerDataVersionRepository.increment();
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        onCommitted(version);
+      }
+    });
+  }
+
+  /**
+   * Returns the version committed by the most recent modification of the register made by the
+   * current thread and forgets it.
+   *
+   * @return The committed version or {@link OptionalLong#empty()} if the current thread has not
+   *     committed any modification since the version was taken last time.
+   */
+  public OptionalLong takeVersionCommittedByCurrentThread() {
+    Long version = versionCommittedByCurrentThread.get();
+    versionCommittedByCurrentThread.remove();
+    return version == null ? OptionalLong.empty() : OptionalLong.of(version);
+  }
+
+  private void onCommitted(long version) {
+    cachedVersion = newCachedVersion();
+    versionCommittedByCurrentThread.set(version);
+  }
+
+  private Supplier<RegisterDataVersion> newCachedVersion() {
+    if (cacheTtl <= 0) {
+      return registerDataVersionRepository::find;
+    }
+    return Suppliers.memoizeWithExpiration(registerDataVersionRepository::find, cacheTtl,
+        TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,121 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.CsvDeltaFindResult;
+import uk.gov.caz.retrofit.model.CsvMetadata;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.model.ValidationError;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
+
+/**
+ * Class which is responsible for registering a delta of vehicles whose data is located at S3.
+ * Contrary to {@link RegisterFromCsvCommand} only the vehicles mentioned in the file are upserted
+ * or deleted, the rest of the register is left intact.
+ */
+public class RegisterDeltaFromCsvCommand extends AbstractRegisterCommand {
+
+  private final String bucket;
+  private final String filename;
+  private final CsvMetadata csvMetadata;
+
+  private final RetrofittedVehicleDtoCsvRepository csvRepository;
+  private final RegisterService registerService;
+
+  private CsvDeltaFindResult csvDeltaFindResult;
+
+  private List<ValidationError> parseValidationErrors;
+
+  private boolean shouldPurgeFileFromS3;
+
+  /**
+   * Creates an instance of {@link RegisterDeltaFromCsvCommand}. If {@code csvMetadata} is {@code
+   * null}, it is fetched from S3.
+   */
+  public RegisterDeltaFromCsvCommand(RegisterServicesContext registerServicesContext,
+      int registerJobId, String correlationId, String bucket, String filename,
+      CsvMetadata csvMetadata) {
+    super(registerServicesContext, registerJobId, correlationId);
+    this.bucket = bucket;
+    this.filename = filename;
+    this.csvMetadata = csvMetadata;
+    this.csvRepository = registerServicesContext.getCsvRepository();
+    this.registerService = registerServicesContext.getRegisterService();
+  }
+
+  @Override
+  public void beforeExecute() {
+    csvDeltaFindResult = csvRepository.findDelta(bucket, filename, csvMetadata);
+    parseValidationErrors = ImmutableList.<ValidationError>builder()
+        .addAll(csvDeltaFindResult.getValidationErrors())
+        .addAll(vrnValidationErrorsOfVehiclesToDelete())
+        .build();
+  }
+
+  @Override
+  public List<RetrofittedVehicleDto> getVehiclesToRegister() {
+    checkCsvParseResultsPresentPrecondition();
+    return csvDeltaFindResult.getVehiclesToUpsert();
+  }
+
+  @Override
+  List<ValidationError> getParseValidationErrors() {
+    checkCsvParseResultsPresentPrecondition();
+    return parseValidationErrors;
+  }
+
+  /**
+   * Deltas are expected to be small and the streaming registration replaces the whole register,
+   * hence they are never streamed.
+   */
+  @Override
+  boolean isStreamingRegisterEnabled() {
+    return false;
+  }
+
+  @Override
+  RegisterResult register(Set<RetrofittedVehicle> retrofittedVehicles, UUID uploaderId) {
+    return registerService.registerDelta(retrofittedVehicles, vrnsToDelete(), uploaderId);
+  }
+
+  @Override
+  boolean shouldMarkJobFailed() {
+    return shouldPurgeFileFromS3;
+  }
+
+  @Override
+  void onBeforeMarkJobFailed() {
+    shouldPurgeFileFromS3 = csvRepository.purgeFile(bucket, filename);
+  }
+
+  @Override
+  UUID getUploaderId() {
+    checkCsvParseResultsPresentPrecondition();
+    return csvDeltaFindResult.getUploaderId();
+  }
+
+  private List<ValidationError> vrnValidationErrorsOfVehiclesToDelete() {
+    return csvDeltaFindResult.getVehiclesToDelete()
+        .stream()
+        .map(RetrofittedVehicleDto::validateVrn)
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  private Set<String> vrnsToDelete() {
+    return csvDeltaFindResult.getVehiclesToDelete()
+        .stream()
+        .map(RetrofittedVehicleDto::getVrn)
+        .collect(Collectors.toSet());
+  }
+
+  private void checkCsvParseResultsPresentPrecondition() {
+    Preconditions.checkState(csvDeltaFindResult != null,
+        "CSV parse results need to obtained first");
+  }
+}
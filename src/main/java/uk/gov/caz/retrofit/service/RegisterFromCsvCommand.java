@@ -3,9 +3,10 @@ package uk.gov.caz.retrofit.service;
 import com.google.common.base.Preconditions;
 import java.util.List;
 import java.util.UUID;
-
+import java.util.function.Consumer;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
 import uk.gov.caz.retrofit.model.CsvFindResult;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
 
@@ -16,27 +17,36 @@ public class RegisterFromCsvCommand extends AbstractRegisterCommand {
 
   private final String bucket;
   private final String filename;
+  private final CsvMetadata csvMetadata;
 
   private final RetrofittedVehicleDtoCsvRepository csvRepository;
 
   private CsvFindResult csvFindResult;
 
+  private CsvMetadata streamedFileMetadata;
+
   private boolean shouldPurgeFileFromS3;
 
   /**
-   * Creates an instance of {@link RegisterFromCsvCommand}.
+   * Creates an instance of {@link RegisterFromCsvCommand}. If {@code csvMetadata} is {@code null},
+   * it is fetched from S3.
    */
   public RegisterFromCsvCommand(RegisterServicesContext registerServicesContext, int registerJobId,
-      String correlationId, String bucket, String filename) {
+      String correlationId, String bucket, String filename, CsvMetadata csvMetadata) {
     super(registerServicesContext, registerJobId, correlationId);
     this.bucket = bucket;
     this.filename = filename;
+    this.csvMetadata = csvMetadata;
     this.csvRepository = registerServicesContext.getCsvRepository();
   }
 
   @Override
   public void beforeExecute() {
-    csvFindResult = csvRepository.findAll(bucket, filename);
+    if (isStreamingRegisterEnabled()) {
+      streamedFileMetadata = csvRepository.findValidMetadata(bucket, filename, csvMetadata);
+    } else {
+      csvFindResult = csvRepository.findAll(bucket, filename, csvMetadata);
+    }
   }
 
   @Override
@@ -51,6 +61,12 @@ public class RegisterFromCsvCommand extends AbstractRegisterCommand {
     return csvFindResult.getValidationErrors();
   }
 
+  @Override
+  List<ValidationError> streamVehiclesToRegister(Consumer<RetrofittedVehicleDto> vehicleConsumer) {
+    checkStreamedFileMetadataPresentPrecondition();
+    return csvRepository.forEach(bucket, filename, streamedFileMetadata, vehicleConsumer);
+  }
+
   @Override
   boolean shouldMarkJobFailed() {
     return shouldPurgeFileFromS3;
@@ -64,9 +80,18 @@ public class RegisterFromCsvCommand extends AbstractRegisterCommand {
   private void checkCsvParseResultsPresentPrecondition() {
     Preconditions.checkState(csvFindResult != null, "CSV parse results need to obtained first");
   }
+
+  private void checkStreamedFileMetadataPresentPrecondition() {
+    Preconditions.checkState(streamedFileMetadata != null,
+        "CSV file metadata need to obtained first");
+  }
   
   @Override
   UUID getUploaderId() {
+    if (isStreamingRegisterEnabled()) {
+      checkStreamedFileMetadataPresentPrecondition();
+      return streamedFileMetadata.getUploaderId();
+    }
     return csvFindResult.getUploaderId();
   }
 }
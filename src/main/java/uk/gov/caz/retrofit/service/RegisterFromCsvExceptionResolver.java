@@ -8,6 +8,7 @@ import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
 import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
+import uk.gov.caz.retrofit.service.exception.S3FileModifiedException;
 import uk.gov.caz.retrofit.service.exception.S3InvalidUploaderIdFormatException;
 import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
 import uk.gov.caz.retrofit.service.exception.S3MetadataException;
@@ -26,6 +27,8 @@ public class RegisterFromCsvExceptionResolver {
   private static final RegisterResult MAX_FILE_SIZE_EXCEEDED = RegisterResult.failure(
       ValidationError.s3Error("Uploaded file is too large. Maximum allowed: "
           + RetrofittedVehicleDtoCsvRepository.MAX_FILE_SIZE_IN_BYTES + " bytes"));
+  private static final RegisterResult FILE_MODIFIED = RegisterResult.failure(
+      ValidationError.s3Error("Uploaded file has been modified after the register job started"));
   /**
    * These will be displayed to the end user.
    */
@@ -34,7 +37,8 @@ public class RegisterFromCsvExceptionResolver {
       NoSuchKeyException.class, BUCKET_OR_FILE_NOT_EXISTS,
       S3MetadataException.class, ABSENT_UPLOADER_ID,
       S3InvalidUploaderIdFormatException.class, MALFORMED_UPLOADER_ID,
-      S3MaxFileSizeExceededException.class, MAX_FILE_SIZE_EXCEEDED
+      S3MaxFileSizeExceededException.class, MAX_FILE_SIZE_EXCEEDED,
+      S3FileModifiedException.class, FILE_MODIFIED
   );
 
   /**
@@ -47,6 +51,7 @@ public class RegisterFromCsvExceptionResolver {
       .put(S3InvalidUploaderIdFormatException.class,
           RegisterJobStatus.STARTUP_FAILURE_INVALID_UPLOADER_ID)
       .put(S3MaxFileSizeExceededException.class, RegisterJobStatus.STARTUP_FAILURE_TOO_LARGE_FILE)
+      .put(S3FileModifiedException.class, RegisterJobStatus.STARTUP_FAILURE_MODIFIED_FILE)
       .build();
 
   private static final RegisterResult UNKNOWN = RegisterResult.failure(ValidationError.unknown());
@@ -36,7 +36,7 @@ public class RegisterJobSupervisor {
    * Parameters required to start register job.
    */
   @Value
-  @Builder
+  @Builder(toBuilder = true)
   public static class StartParams {
 
     /**
@@ -63,16 +63,28 @@ public class RegisterJobSupervisor {
      * Implementation of {@link RegisterJobInvoker} that will start register job.
      */
     RegisterJobInvoker registerJobInvoker;
+
+    /**
+     * Digest of the content to register (the ETag of the uploaded file), {@code null} if unknown.
+     */
+    String contentDigest;
   }
 
   private final RegisterJobRepository registerJobRepository;
 
   private final RegisterJobNameGenerator registerJobNameGenerator;
 
+  private final RegisterDataVersionService registerDataVersionService;
+
+  /**
+   * Creates an instance of {@link RegisterJobSupervisor}.
+   */
   public RegisterJobSupervisor(RegisterJobRepository registerJobRepository,
-      RegisterJobNameGenerator registerJobNameGenerator) {
+      RegisterJobNameGenerator registerJobNameGenerator,
+      RegisterDataVersionService registerDataVersionService) {
     this.registerJobRepository = registerJobRepository;
     this.registerJobNameGenerator = registerJobNameGenerator;
+    this.registerDataVersionService = registerDataVersionService;
   }
 
   /**
@@ -80,6 +92,10 @@ public class RegisterJobSupervisor {
    * and supervises it. It will create proper Register Job database entries and provide name as a
    * handle for future interactions with supervisor.
    *
+   * <p>If the content of the job is the same as the content registered by the job which the
+   * register data has not been modified since, the job is finished successfully at once without
+   * being invoked, as registering the content again would not change anything.</p>
+   *
    * @param params {@link StartParams} with parameters required to start register job.
    * @return Name of started Register Job. Clients can use to to poll or query for status of
    *     Register Job. Useful for debugging and logging purposes as well.
@@ -88,7 +104,15 @@ public class RegisterJobSupervisor {
     RegisterJobName jobName = registerJobNameGenerator
         .generate(params.registerJobNameSuffix, params.registerJobTrigger);
     RegisterJob registerJob = createNewRegisterJob(params.registerJobTrigger, params.correlationId,
-        jobName, params.uploaderId);
+        jobName, params.uploaderId, params.contentDigest);
+
+    if (isAlreadyRegistered(params)) {
+      registerJob.setStatus(RegisterJobStatus.FINISHED_SUCCESS);
+      int registerJobId = registerJobRepository.insert(registerJob);
+      log.info("Content of register job with id '{}' and name '{}' has already been registered, "
+          + "finished it without invoking", registerJobId, jobName.getValue());
+      return jobName;
+    }
 
     int registerJobId = registerJobRepository.insert(registerJob);
     registerJob.setId(registerJobId);
@@ -104,14 +128,22 @@ public class RegisterJobSupervisor {
     return count != null && count > 0;
   }
 
+  private boolean isAlreadyRegistered(StartParams params) {
+    return params.contentDigest != null && registerJobRepository
+        .findContentDigestOfCurrentData(params.registerJobTrigger)
+        .filter(params.contentDigest::equals)
+        .isPresent();
+  }
+
   private RegisterJob createNewRegisterJob(RegisterJobTrigger registerJobTrigger,
-      String correlationId, RegisterJobName jobName, UUID uploaderId) {
+      String correlationId, RegisterJobName jobName, UUID uploaderId, String contentDigest) {
     return RegisterJob.builder()
         .trigger(registerJobTrigger)
         .uploaderId(uploaderId)
         .status(RegisterJobStatus.STARTING)
         .jobName(jobName)
         .correlationId(correlationId)
+        .contentDigest(contentDigest)
         .build();
   }
 
@@ -126,6 +158,17 @@ public class RegisterJobSupervisor {
     return registerJobRepository.findByName(registerJobName.getValue());
   }
 
+  /**
+   * Will try to find {@link RegisterJob} with id passed in parameter.
+   *
+   * @param registerJobId Id of {@link RegisterJob} that will be fetched.
+   * @return {@link Optional} of {@link RegisterJob} - if RegisterJob with specified id exists it
+   *     will returned in the Optional otherwise it will return empty one.
+   */
+  public Optional<RegisterJob> findJobWithId(int registerJobId) {
+    return registerJobRepository.findById(registerJobId);
+  }
+
   /**
    * Updates status of existing job.
    *
@@ -136,6 +179,18 @@ public class RegisterJobSupervisor {
     registerJobRepository.updateStatus(registerJobId, newStatus);
   }
 
+  /**
+   * Marks an existing job as finished successfully and records the version of the register data
+   * committed by the job (if the job has committed any in the current thread).
+   *
+   * @param registerJobId ID of register job.
+   */
+  public void markSuccess(int registerJobId) {
+    updateStatus(registerJobId, RegisterJobStatus.FINISHED_SUCCESS);
+    registerDataVersionService.takeVersionCommittedByCurrentThread().ifPresent(
+        version -> registerJobRepository.updateRegisterDataVersion(registerJobId, version));
+  }
+
   /**
    * Updates errors of existing job.
    *
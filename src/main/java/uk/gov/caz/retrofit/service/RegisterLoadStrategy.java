@@ -0,0 +1,18 @@
+package uk.gov.caz.retrofit.service;
+
+/**
+ * A way in which registered vehicles are written to the database, set in {@code
+ * application.register.load-strategy} application property.
+ */
+public enum RegisterLoadStrategy {
+  /**
+   * Vehicles are upserted with batched {@code INSERT ... ON CONFLICT} statements.
+   */
+  BATCH,
+
+  /**
+   * Vehicles are bulk-loaded to a staging table with {@code COPY} and merged with set-based
+   * statements.
+   */
+  COPY
+}
@@ -1,16 +1,16 @@
 package uk.gov.caz.retrofit.service;
 
 import com.google.common.base.Preconditions;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 
 /**
@@ -18,14 +18,39 @@ import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
  * ones.
  */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class RegisterService {
 
   private final RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
 
+  private final RetrofittedVehicleCopyRepository retrofittedVehicleCopyRepository;
+
   private final AuditingRepository auditingRepository;
 
+  private final RegisterLoadStrategy loadStrategy;
+
+  private final RetrofitStatusIndex retrofitStatusIndex;
+
+  private final RegisterDataVersionService registerDataVersionService;
+
+  /**
+   * Creates an instance of {@link RegisterService}.
+   */
+  public RegisterService(
+      RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository,
+      RetrofittedVehicleCopyRepository retrofittedVehicleCopyRepository,
+      AuditingRepository auditingRepository,
+      @Value("${application.register.load-strategy:BATCH}") RegisterLoadStrategy loadStrategy,
+      RetrofitStatusIndex retrofitStatusIndex,
+      RegisterDataVersionService registerDataVersionService) {
+    this.retrofittedVehiclePostgresRepository = retrofittedVehiclePostgresRepository;
+    this.retrofittedVehicleCopyRepository = retrofittedVehicleCopyRepository;
+    this.auditingRepository = auditingRepository;
+    this.loadStrategy = loadStrategy;
+    this.retrofitStatusIndex = retrofitStatusIndex;
+    this.registerDataVersionService = registerDataVersionService;
+  }
+
   /**
    * Registers the passed set of {@link RetrofittedVehicle}.
    *
@@ -42,25 +67,63 @@ public class RegisterService {
     auditingRepository.tagModificationsInCurrentTransactionBy(uploaderId);
     log.info("Transaction associated with {} in the audit table.", uploaderId);
 
-    retrofittedVehiclePostgresRepository.delete(vehiclesToDelete(retrofittedVehicles));
-    retrofittedVehiclePostgresRepository.insertOrUpdate(retrofittedVehicles);
+    if (loadStrategy == RegisterLoadStrategy.COPY) {
+      retrofittedVehicleCopyRepository.replaceAll(retrofittedVehicles);
+    } else {
+      retrofittedVehiclePostgresRepository.deleteAllExcept(uploadedVrns(retrofittedVehicles));
+      retrofittedVehiclePostgresRepository.insertOrUpdateChanged(retrofittedVehicles);
+    }
+    registerDataVersionService.increment();
+    retrofitStatusIndex.refreshAfterCommit();
 
     log.info("Registering {} vehicle(s) : finish", retrofittedVehicles.size());
     return RegisterResult.success();
   }
 
   /**
-   * Method that calculates which VRNs should be deleted from DB.
+   * Registers a delta of the register: {@code vehiclesToUpsert} are inserted or updated and
+   * vehicles whose VRN is in {@code vrnsToDelete} are deleted. Contrary to {@link
+   * RegisterService#register(Set, UUID)} vehicles which are not mentioned in the delta are left
+   * intact. Deltas are expected to be small, hence they are always written with the {@link
+   * RegisterLoadStrategy#BATCH} load strategy.
+   *
+   * @param vehiclesToUpsert A set of {@link RetrofittedVehicle} that is to be upserted.
+   * @param vrnsToDelete A set of VRNs of vehicles that are to be deleted.
+   * @return An instance of {@link RegisterResult} that represents the result of the operation.
    */
-  public Set<String> vehiclesToDelete(Set<RetrofittedVehicle> retrofittedVehicles) {
-    Set<String> uploadedVrns = retrofittedVehicles.stream().map(RetrofittedVehicle::getVrn)
-        .collect(Collectors.toSet());
+  @Transactional
+  public RegisterResult registerDelta(Set<RetrofittedVehicle> vehiclesToUpsert,
+      Set<String> vrnsToDelete, UUID uploaderId) {
+    Preconditions.checkNotNull(vehiclesToUpsert, "vehiclesToUpsert cannot be null");
+    Preconditions.checkNotNull(vrnsToDelete, "vrnsToDelete cannot be null");
+    Preconditions.checkNotNull(uploaderId, "uploaderId cannot be null");
+
+    log.info("Registering a delta of {} vehicle(s) to upsert and {} to delete : start",
+        vehiclesToUpsert.size(), vrnsToDelete.size());
+
+    auditingRepository.tagModificationsInCurrentTransactionBy(uploaderId);
+    log.info("Transaction associated with {} in the audit table.", uploaderId);
+
+    retrofittedVehiclePostgresRepository.delete(vrnsToDelete);
+    retrofittedVehiclePostgresRepository.insertOrUpdateChanged(vehiclesToUpsert);
+    registerDataVersionService.increment();
+    retrofitStatusIndex.refreshAfterCommit();
 
-    HashSet<String> existingVrns =
-        new HashSet<>(retrofittedVehiclePostgresRepository.findAllVrns());
+    log.info("Registering a delta of {} vehicle(s) to upsert and {} to delete : finish",
+        vehiclesToUpsert.size(), vrnsToDelete.size());
+    return RegisterResult.success();
+  }
+
+  /**
+   * Returns the way in which registered vehicles are written to the database.
+   */
+  public RegisterLoadStrategy getLoadStrategy() {
+    return loadStrategy;
+  }
 
-    return existingVrns.stream()
-        .filter(existingVrn -> !uploadedVrns.contains(existingVrn))
+  private Set<String> uploadedVrns(Set<RetrofittedVehicle> retrofittedVehicles) {
+    return retrofittedVehicles.stream()
+        .map(RetrofittedVehicle::getVrn)
         .collect(Collectors.toSet());
   }
 }
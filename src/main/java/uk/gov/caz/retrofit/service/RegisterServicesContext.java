@@ -8,26 +8,32 @@ import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
 @lombok.Value
 public class RegisterServicesContext {
   RegisterService registerService;
+  StreamingRegisterService streamingRegisterService;
   RegisterFromCsvExceptionResolver exceptionResolver;
   RegisterJobSupervisor registerJobSupervisor;
   RetrofittedVehicleDtoToModelConverter dtoToModelConverter;
   RetrofittedVehicleDtoCsvRepository csvRepository;
   int maxValidationErrorCount;
+  boolean streamingRegisterEnabled;
 
   /**
    * Creates an instance of {@link RegisterServicesContext}.
    */
   public RegisterServicesContext(RegisterService registerService,
+      StreamingRegisterService streamingRegisterService,
       RegisterFromCsvExceptionResolver exceptionResolver,
       RegisterJobSupervisor registerJobSupervisor,
       RetrofittedVehicleDtoToModelConverter dtoToModelConverter,
       RetrofittedVehicleDtoCsvRepository csvRepository,
-      @Value("${application.validation.max-errors-count}") int maxValidationErrorCount) {
+      @Value("${application.validation.max-errors-count}") int maxValidationErrorCount,
+      @Value("${application.register.streaming.enabled:false}") boolean streamingRegisterEnabled) {
     this.registerService = registerService;
+    this.streamingRegisterService = streamingRegisterService;
     this.exceptionResolver = exceptionResolver;
     this.registerJobSupervisor = registerJobSupervisor;
     this.dtoToModelConverter = dtoToModelConverter;
     this.csvRepository = csvRepository;
     this.maxValidationErrorCount = maxValidationErrorCount;
+    this.streamingRegisterEnabled = streamingRegisterEnabled;
   }
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import uk.gov.caz.retrofit.dto.RetrofitInfoHistoricalRequest;
 import uk.gov.caz.retrofit.dto.RetrofitVehicleHistoricalInfo;
 import uk.gov.caz.retrofit.dto.RetrofitVehicleHistory;
+import uk.gov.caz.retrofit.dto.RetrofitVehicleHistoryPageToken;
 import uk.gov.caz.retrofit.repository.RetrofitVehicleHistoryPostgresRepository;
 
 /**
@@ -21,30 +22,66 @@ public class RetrofitHistoricalInfoService {
   private final RetrofitVehicleHistoryPostgresRepository retrofitVehicleHistoryPostgresRepository;
 
   /**
-   * Finds all {@link RetrofitVehicleHistoricalInfo} entities for a given vrm and date range.
+   * Finds all {@link RetrofitVehicleHistoricalInfo} entities for a given vrm and date range. The
+   * page is identified by 'pageToken' if it is present (which makes the cost of fetching it
+   * independent of its number) or by 'pageNumber' otherwise.
    *
    * @param request {@link RetrofitInfoHistoricalRequest}
    * @return {@link RetrofitVehicleHistoricalInfo} .
    */
   public RetrofitVehicleHistoricalInfo findByVrnInRange(String vrn,
       RetrofitInfoHistoricalRequest request) {
-    List<RetrofitVehicleHistory> changes = retrofitVehicleHistoryPostgresRepository
-        .findByVrnInRange(vrn, request.getLocalStartDate(), request.getLocalEndDate(),
-            request.getPageSize(), request.getPageNumber());
+    int page;
+    List<RetrofitVehicleHistory> changes;
+    int totalChangesCount;
+    if (request.getPageToken() == null) {
+      page = request.getPageNumber();
+      RetrofitVehicleHistoricalInfo pageWithCount = retrofitVehicleHistoryPostgresRepository
+          .findByVrnInRange(vrn, request.getLocalStartDate(), request.getLocalEndDate(),
+              request.getPageSize(), page);
+      changes = pageWithCount.getChanges();
+      totalChangesCount = getTotalChangesCount(vrn, request, page, pageWithCount);
+    } else {
+      RetrofitVehicleHistoryPageToken pageToken = RetrofitVehicleHistoryPageToken
+          .decode(request.getPageToken(), RetrofitVehicleHistoryPageToken.query(vrn, request));
+      page = pageToken.getPage();
+      changes = retrofitVehicleHistoryPostgresRepository
+          .findByVrnInRangeAfter(vrn, request.getLocalStartDate(), request.getLocalEndDate(),
+              request.getPageSize(), pageToken.getAfter());
+      totalChangesCount = pageToken.getTotalChangesCount();
+    }
     return RetrofitVehicleHistoricalInfo.builder()
+        .page(page)
         .changes(changes)
-        .totalChangesCount(getTotalChangesCount(vrn, request, changes))
+        .totalChangesCount(totalChangesCount)
+        .nextPageToken(nextPageToken(vrn, request, page, totalChangesCount, changes))
         .build();
   }
 
   /**
-   * Helper method to provide total count.
+   * Helper method to provide total count. It is counted along with the page unless the page is
+   * past the last one (and hence empty).
    */
-  private int getTotalChangesCount(String vrn, RetrofitInfoHistoricalRequest request,
-      List<RetrofitVehicleHistory> changes) {
-    return request.getPageNumber() == 0 && changes.size() < request.getPageSize()
-        ? changes.size()
+  private int getTotalChangesCount(String vrn, RetrofitInfoHistoricalRequest request, int page,
+      RetrofitVehicleHistoricalInfo pageWithCount) {
+    return page == 0 || !pageWithCount.getChanges().isEmpty()
+        ? pageWithCount.getTotalChangesCount()
         : retrofitVehicleHistoryPostgresRepository
             .count(vrn, request.getLocalStartDate(), request.getLocalEndDate()).intValue();
   }
+
+  /**
+   * Helper method to provide the token of the next page bound to the query, {@code null} if
+   * there is none.
+   */
+  private String nextPageToken(String vrn, RetrofitInfoHistoricalRequest request, int page,
+      int totalChangesCount, List<RetrofitVehicleHistory> changes) {
+    int pageSize = request.getPageSize();
+    if (changes.size() < pageSize || (long) (page + 1) * pageSize >= totalChangesCount) {
+      return null;
+    }
+    RetrofitVehicleHistory last = changes.get(changes.size() - 1);
+    return new RetrofitVehicleHistoryPageToken(page + 1, totalChangesCount, last.getKey())
+        .encode(RetrofitVehicleHistoryPageToken.query(vrn, request));
+  }
 }
@@ -0,0 +1,301 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.caz.retrofit.model.RetrofitStatus;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+
+/**
+ * An optional in-memory index of VRNs and insert timestamps of all retrofitted vehicles which
+ * allows to serve {@link RetrofitVehicleService#infoByVrn(String)} without querying the database.
+ * It is enabled by {@code application.retrofit-status-index.enabled} and loaded once the
+ * application is ready, then reloaded after every committed registration performed by this
+ * instance of the application. Registrations performed by other processes (e.g. a register job
+ * run by another Lambda) are detected by comparing the {@link RegisterDataVersionService register
+ * data version} the index was loaded at with the current one before every lookup, so the index
+ * is at most {@code application.register.data-version.cache-ttl} milliseconds behind the
+ * database. Once the index is found out of date, it is reloaded by a single background thread
+ * and lookups fall back to the database until the reloaded index is published, so that no
+ * lookup waits for the reload.
+ *
+ * <p>VRNs are kept in a sorted array alongside an array of primitive timestamps, so that a lookup
+ * is a binary search which does not allocate anything but the result.</p>
+ */
+@Component
+@Slf4j
+public class RetrofitStatusIndex {
+
+  private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+  private static final long MICROS_PER_SECOND = 1_000_000L;
+  private static final int NANOS_PER_MICRO = 1_000;
+
+  private final RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
+  private final RegisterDataVersionService registerDataVersionService;
+  private final boolean enabled;
+  private final ExecutorService reloadExecutor;
+  private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Creates an instance of {@link RetrofitStatusIndex}.
+   */
+  @Autowired
+  public RetrofitStatusIndex(
+      RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository,
+      RegisterDataVersionService registerDataVersionService,
+      @Value("${application.retrofit-status-index.enabled:false}") boolean enabled) {
+    // the thread is started only once the first reload is scheduled
+    this(retrofittedVehiclePostgresRepository, registerDataVersionService, enabled,
+        Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("retrofit-status-index-%d")
+            .setDaemon(true)
+            .build()));
+  }
+
+  /**
+   * Creates an instance of {@link RetrofitStatusIndex} which reloads the index with {@code
+   * reloadExecutor} once it is found out of date.
+   */
+  @VisibleForTesting
+  RetrofitStatusIndex(
+      RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository,
+      RegisterDataVersionService registerDataVersionService, boolean enabled,
+      ExecutorService reloadExecutor) {
+    this.retrofittedVehiclePostgresRepository = retrofittedVehiclePostgresRepository;
+    this.registerDataVersionService = registerDataVersionService;
+    this.enabled = enabled;
+    this.reloadExecutor = reloadExecutor;
+  }
+
+  /**
+   * Finds info about VRN in the index.
+   *
+   * @return {@link RetrofitStatus} of {@code vrn} or {@link Optional#empty()} if the index is
+   *     disabled or not loaded.
+   */
+  public Optional<RetrofitStatus> infoByVrn(String vrn) {
+    Snapshot currentSnapshot = currentSnapshot();
+    if (currentSnapshot == null) {
+      return Optional.empty();
+    }
+    return Optional.of(currentSnapshot.infoByVrn(vrn));
+  }
+
+  /**
+   * Finds info about many VRNs in the index, all of them are looked up in the same version of the
+   * index.
+   *
+   * @return {@link RetrofitStatus} of every VRN keyed by the VRN (in the order of {@code vrns}) or
+   *     {@link Optional#empty()} if the index is disabled or not loaded.
+   */
+  public Optional<Map<String, RetrofitStatus>> infoByVrns(Collection<String> vrns) {
+    Snapshot currentSnapshot = currentSnapshot();
+    if (currentSnapshot == null) {
+      return Optional.empty();
+    }
+    Map<String, RetrofitStatus> statuses = new LinkedHashMap<>();
+    for (String vrn : vrns) {
+      statuses.put(vrn, currentSnapshot.infoByVrn(vrn));
+    }
+    return Optional.of(statuses);
+  }
+
+  /**
+   * Loads the index once the application is ready to serve requests.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (enabled) {
+      refresh();
+    }
+  }
+
+  /**
+   * Stops the background reloads when the application context is closed.
+   */
+  @PreDestroy
+  public void shutdown() {
+    reloadExecutor.shutdown();
+  }
+
+  /**
+   * Reloads the index once the current transaction commits (or immediately if there is no
+   * transaction). Does nothing if the index is disabled.
+   */
+  public void refreshAfterCommit() {
+    if (!enabled) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          refresh();
+        }
+      });
+    } else {
+      refresh();
+    }
+  }
+
+  /**
+   * Reloads the index from {@code t_vehicle_retrofit} table. If the reload fails, the index is
+   * cleared so that lookups fall back to the database instead of returning stale data.
+   */
+  @VisibleForTesting
+  synchronized void refresh() {
+    try {
+      log.info("Loading retrofit status index : start");
+      snapshot = loadSnapshot();
+      log.info("Loading retrofit status index : finish, {} vehicle(s)", snapshot.size());
+    } catch (RuntimeException e) {
+      snapshot = null;
+      log.error("Cannot load retrofit status index, lookups fall back to the database", e);
+    }
+  }
+
+  /**
+   * Returns the loaded snapshot if it is up to date. Otherwise schedules its reload and returns
+   * {@code null}, so that the lookup falls back to the database instead of waiting for the reload
+   * or returning data which is known to be stale.
+   */
+  private Snapshot currentSnapshot() {
+    Snapshot currentSnapshot = snapshot;
+    if (currentSnapshot == null) {
+      return null;
+    }
+    long currentDataVersion = registerDataVersionService.current().getVersion();
+    if (currentSnapshot.dataVersion >= currentDataVersion) {
+      return currentSnapshot;
+    }
+    scheduleReload(currentDataVersion);
+    // the reload might have been published in the meantime
+    currentSnapshot = snapshot;
+    return currentSnapshot != null && currentSnapshot.dataVersion >= currentDataVersion
+        ? currentSnapshot
+        : null;
+  }
+
+  /**
+   * Schedules a reload of the index unless one is already scheduled or running.
+   */
+  private void scheduleReload(long dataVersion) {
+    if (!reloadScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    log.info("Register data version changed to {}, reloading retrofit status index",
+        dataVersion);
+    try {
+      reloadExecutor.execute(() -> {
+        try {
+          refresh();
+        } finally {
+          reloadScheduled.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      reloadScheduled.set(false);
+      log.warn("Cannot schedule a reload of retrofit status index", e);
+    }
+  }
+
+  private Snapshot loadSnapshot() {
+    // the version is read first, so that the index is never considered newer than its content
+    long dataVersion = registerDataVersionService.current().getVersion();
+    List<Entry> entries = new ArrayList<>();
+    retrofittedVehiclePostgresRepository.forEachVrnWithInsertTimestamp(
+        (vrn, insertTimestamp) -> entries.add(new Entry(vrn, toMicros(insertTimestamp))));
+    entries.sort(Comparator.comparing(entry -> entry.vrn));
+
+    String[] vrns = new String[entries.size()];
+    long[] insertTimestamps = new long[entries.size()];
+    for (int i = 0; i < vrns.length; i++) {
+      vrns[i] = entries.get(i).vrn;
+      insertTimestamps[i] = entries.get(i).insertTimestamp;
+    }
+    return new Snapshot(dataVersion, vrns, insertTimestamps);
+  }
+
+  private static long toMicros(Timestamp timestamp) {
+    if (timestamp == null) {
+      return NO_TIMESTAMP;
+    }
+    LocalDateTime localDateTime = timestamp.toLocalDateTime();
+    return localDateTime.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND
+        + localDateTime.getNano() / NANOS_PER_MICRO;
+  }
+
+  private static Timestamp fromMicros(long micros) {
+    if (micros == NO_TIMESTAMP) {
+      return null;
+    }
+    return Timestamp.valueOf(LocalDateTime.ofEpochSecond(
+        Math.floorDiv(micros, MICROS_PER_SECOND),
+        (int) Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO,
+        ZoneOffset.UTC));
+  }
+
+  private static class Entry {
+
+    private final String vrn;
+    private final long insertTimestamp;
+
+    private Entry(String vrn, long insertTimestamp) {
+      this.vrn = vrn;
+      this.insertTimestamp = insertTimestamp;
+    }
+  }
+
+  private static class Snapshot {
+
+    private final long dataVersion;
+    private final String[] vrns;
+    private final long[] insertTimestamps;
+
+    private Snapshot(long dataVersion, String[] vrns, long[] insertTimestamps) {
+      this.dataVersion = dataVersion;
+      this.vrns = vrns;
+      this.insertTimestamps = insertTimestamps;
+    }
+
+    private RetrofitStatus infoByVrn(String vrn) {
+      int index = Arrays.binarySearch(vrns, vrn);
+      if (index < 0) {
+        return RetrofitStatus.builder().rowCount(0).build();
+      }
+      return RetrofitStatus.builder()
+          .rowCount(1)
+          .insertTimestamp(fromMicros(insertTimestamps[index]))
+          .build();
+    }
+
+    private int size() {
+      return vrns.length;
+    }
+  }
+}
@@ -2,6 +2,9 @@ package uk.gov.caz.retrofit.service;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import uk.gov.caz.retrofit.model.RetrofitStatus;
@@ -14,10 +17,42 @@ import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 @AllArgsConstructor
 public class RetrofitVehicleService {
 
+  private static final RetrofitStatus NOT_FOUND = RetrofitStatus.builder().rowCount(0).build();
+
   private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
 
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  /**
+   * Finds info about VRN, using {@link RetrofitStatusIndex} if it is enabled and loaded.
+   */
   public RetrofitStatus infoByVrn(String vrn) {
     Preconditions.checkArgument(!Strings.isNullOrEmpty(vrn), "VRN cannot be empty");
-    return retrofittedVehiclePostgresRepository.infoByVrn(vrn);
+    return retrofitStatusIndex.infoByVrn(vrn)
+        .orElseGet(() -> retrofittedVehiclePostgresRepository.infoByVrn(vrn));
+  }
+
+  /**
+   * Finds info about many VRNs at once, using {@link RetrofitStatusIndex} if it is enabled and
+   * loaded or a single database query otherwise.
+   *
+   * @return {@link RetrofitStatus} of every VRN keyed by the VRN (in the order of {@code vrns}).
+   */
+  public Map<String, RetrofitStatus> infoByVrns(Set<String> vrns) {
+    Preconditions.checkNotNull(vrns, "VRNs cannot be null");
+    Preconditions.checkArgument(vrns.stream().noneMatch(Strings::isNullOrEmpty),
+        "VRN cannot be empty");
+    return retrofitStatusIndex.infoByVrns(vrns)
+        .orElseGet(() -> findInDatabase(vrns));
+  }
+
+  private Map<String, RetrofitStatus> findInDatabase(Set<String> vrns) {
+    Map<String, RetrofitStatus> storedStatuses = retrofittedVehiclePostgresRepository
+        .infoByVrns(vrns);
+    Map<String, RetrofitStatus> statuses = new LinkedHashMap<>();
+    for (String vrn : vrns) {
+      statuses.put(vrn, storedStatuses.getOrDefault(vrn, NOT_FOUND));
+    }
+    return statuses;
   }
 }
@@ -1,9 +1,19 @@
 package uk.gov.caz.retrofit.service;
 
-import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
 import uk.gov.caz.retrofit.model.ConversionResult;
@@ -11,11 +21,61 @@ import uk.gov.caz.retrofit.model.ConversionResults;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.model.ValidationError;
 
+/**
+ * Validates {@link RetrofittedVehicleDto}s and converts them to {@link RetrofittedVehicle}s. Lists
+ * longer than {@code application.register.conversion.chunk-size} are split into chunks which are
+ * converted in parallel by a dedicated {@link ForkJoinPool} of {@code
+ * application.register.conversion.parallelism} threads (the number of available processors by
+ * default).
+ *
+ * <p>When the maximum number of validation errors is given, the conversion stops as soon as that
+ * many errors preceding all not yet converted vehicles are found, as any further error would not
+ * be reported anyway.</p>
+ */
 @Component
+@Slf4j
 public class RetrofittedVehicleDtoToModelConverter {
 
+  private static final int SEQUENTIAL = 1;
+  private static final int DEFAULT_CHUNK_SIZE = 10_000;
+  private static final int UNLIMITED_ERROR_COUNT = Integer.MAX_VALUE;
+
+  private final int chunkSize;
+  private final ForkJoinPool conversionPool;
+
+  /**
+   * Creates an instance of {@link RetrofittedVehicleDtoToModelConverter} which converts vehicles
+   * sequentially.
+   */
+  public RetrofittedVehicleDtoToModelConverter() {
+    this(SEQUENTIAL, DEFAULT_CHUNK_SIZE);
+  }
+
   /**
-   * Converts the passed list of {@link RetrofittedVehicleDto}s to {@link ConversionResults}.
+   * Creates an instance of {@link RetrofittedVehicleDtoToModelConverter}.
+   *
+   * @param parallelism The number of threads converting vehicles, non-positive value means
+   *     the number of available processors.
+   * @param chunkSize The number of vehicles converted by a thread at once.
+   */
+  @Autowired
+  public RetrofittedVehicleDtoToModelConverter(
+      @Value("${application.register.conversion.parallelism:0}") int parallelism,
+      @Value("${application.register.conversion.chunk-size:10000}") int chunkSize) {
+    Preconditions.checkArgument(chunkSize > 0, "Chunk size must be positive");
+    int effectiveParallelism = parallelism > 0
+        ? parallelism
+        : Runtime.getRuntime().availableProcessors();
+    this.chunkSize = chunkSize;
+    this.conversionPool = effectiveParallelism > SEQUENTIAL
+        ? new ForkJoinPool(effectiveParallelism)
+        : null;
+  }
+
+  /**
+   * Converts the passed list of {@link RetrofittedVehicleDto}s to {@link ConversionResults}. The
+   * order of validation errors matches the order of {@code vehicles}, regardless of whether they
+   * are converted sequentially or in parallel.
    *
    * @param vehicles A list of {@link RetrofittedVehicleDto} which are to be mapped to a list of
    *     {@link RetrofittedVehicle} wrapped in {@link ConversionResults}.
@@ -23,17 +83,49 @@ public class RetrofittedVehicleDtoToModelConverter {
    *     into vehicles
    */
   public ConversionResults convert(List<RetrofittedVehicleDto> vehicles) {
-    List<ConversionResult> conversionResults = vehicles.stream()
-        .map(this::toRetrofittedVehicle)
-        .collect(Collectors.toList());
-    return ConversionResults.from(conversionResults);
+    return convert(vehicles, UNLIMITED_ERROR_COUNT);
+  }
+
+  /**
+   * Converts the passed list of {@link RetrofittedVehicleDto}s to {@link ConversionResults},
+   * stopping once {@code maxValidationErrorCount} validation errors are found. The returned
+   * results contain (at least) the first {@code maxValidationErrorCount} validation errors of
+   * {@code vehicles}, but the list of converted vehicles may be incomplete if any error is
+   * returned.
+   *
+   * @param vehicles A list of {@link RetrofittedVehicleDto} which are to be mapped to a list of
+   *     {@link RetrofittedVehicle} wrapped in {@link ConversionResults}.
+   * @param maxValidationErrorCount The maximum number of reported validation errors,
+   *     non-positive value means no limit.
+   * @return An instance of {@link ConversionResults} which contains a list of converted vehicles
+   *     into vehicles
+   */
+  public ConversionResults convert(List<RetrofittedVehicleDto> vehicles,
+      int maxValidationErrorCount) {
+    int errorsLimit = maxValidationErrorCount > 0
+        ? maxValidationErrorCount
+        : UNLIMITED_ERROR_COUNT;
+    if (conversionPool == null || conversionPool.isShutdown() || vehicles.size() <= chunkSize) {
+      return ConversionResults.from(convertChunk(vehicles, errorsLimit));
+    }
+    return ConversionResults.from(convertInParallel(vehicles, errorsLimit));
+  }
+
+  /**
+   * Shuts down the dedicated pool of conversion threads (if any) when the application context is
+   * closed. Vehicles are converted sequentially afterwards.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (conversionPool != null && conversionPool != ForkJoinPool.commonPool()) {
+      conversionPool.shutdown();
+    }
   }
 
   /**
    * Converts the passed instance of {@link RetrofittedVehicleDto} to {@link ConversionResult}.
    */
-  @VisibleForTesting
-  ConversionResult toRetrofittedVehicle(RetrofittedVehicleDto vehicleDto) {
+  public ConversionResult toRetrofittedVehicle(RetrofittedVehicleDto vehicleDto) {
     List<ValidationError> validationResult = vehicleDto.validate();
     if (validationResult.isEmpty()) {
       RetrofittedVehicle retrofittedVehicle = RetrofittedVehicle.builder()
@@ -46,4 +138,55 @@ public class RetrofittedVehicleDtoToModelConverter {
     }
     return ConversionResult.failure(validationResult);
   }
-}
\ No newline at end of file
+
+  private List<ConversionResult> convertInParallel(List<RetrofittedVehicleDto> vehicles,
+      int errorsLimit) {
+    List<List<RetrofittedVehicleDto>> chunks = Lists.partition(vehicles, chunkSize);
+    log.info("Converting {} vehicle(s) in {} chunk(s) using {} thread(s)", vehicles.size(),
+        chunks.size(), conversionPool.getParallelism());
+    // errors of a chunk which reached the limit precede errors of all subsequent chunks, hence
+    // these chunks need not be converted
+    AtomicInteger firstExhaustedChunk = new AtomicInteger(Integer.MAX_VALUE);
+    // the encounter order of chunks is preserved by collecting an ordered parallel stream
+    return conversionPool.submit(() -> IntStream.range(0, chunks.size())
+        .parallel()
+        .mapToObj(index -> convertChunk(chunks.get(index), index, errorsLimit,
+            firstExhaustedChunk))
+        .flatMap(List::stream)
+        .collect(Collectors.toList())
+    ).join();
+  }
+
+  private List<ConversionResult> convertChunk(List<RetrofittedVehicleDto> chunk, int index,
+      int errorsLimit, AtomicInteger firstExhaustedChunk) {
+    if (index > firstExhaustedChunk.get()) {
+      return Collections.emptyList();
+    }
+    List<ConversionResult> results = convertChunk(chunk, errorsLimit);
+    if (countErrors(results) >= errorsLimit) {
+      firstExhaustedChunk.accumulateAndGet(index, Math::min);
+    }
+    return results;
+  }
+
+  private List<ConversionResult> convertChunk(List<RetrofittedVehicleDto> vehicles,
+      int errorsLimit) {
+    List<ConversionResult> results = new ArrayList<>(vehicles.size());
+    int errorsCount = 0;
+    for (RetrofittedVehicleDto vehicle : vehicles) {
+      ConversionResult result = toRetrofittedVehicle(vehicle);
+      results.add(result);
+      errorsCount += result.getValidationErrors().size();
+      if (errorsCount >= errorsLimit) {
+        break;
+      }
+    }
+    return results;
+  }
+
+  private int countErrors(List<ConversionResult> results) {
+    return results.stream()
+        .mapToInt(result -> result.getValidationErrors().size())
+        .sum();
+  }
+}
@@ -1,30 +1,53 @@
 package uk.gov.caz.retrofit.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import uk.gov.caz.retrofit.model.CsvMetadata;
+import uk.gov.caz.retrofit.model.registerjob.RegisterJob;
+import uk.gov.caz.retrofit.model.registerjob.RegisterJobTrigger;
 
 @Service
+@Slf4j
 public class SourceAwareRegisterService {
 
   private final RegisterCommandFactory registerCommandFactory;
 
+  private final RegisterJobSupervisor registerJobSupervisor;
 
-  public SourceAwareRegisterService(RegisterCommandFactory registerCommandFactory) {
+  public SourceAwareRegisterService(RegisterCommandFactory registerCommandFactory,
+      RegisterJobSupervisor registerJobSupervisor) {
     this.registerCommandFactory = registerCommandFactory;
+    this.registerJobSupervisor = registerJobSupervisor;
   }
 
   /**
    * Registers vehicles whose data is located at S3 in bucket {@code bucket} and key {@code
-   * filename}.
+   * filename}. The file is treated as a delta if the job has been triggered by a delta upload,
+   * otherwise it replaces the whole register.
    *
    * @param bucket The name of the bucket at S3 where files with vehicles data is stored
    * @param filename The name of the key at S3 where vehicles data is stored
    * @param registerJobId Uniquely identifies Register Job
    * @param correlationId Identifier of one particular request flow
+   * @param csvMetadata Metadata of the file obtained when the job was started or {@code null} if
+   *     it is unknown and needs to be fetched from S3
    */
   public RegisterResult register(String bucket, String filename, int registerJobId,
-      String correlationId) {
-    RegisterFromCsvCommand command = registerCommandFactory
-        .createRegisterFromCsvCommand(bucket, filename, registerJobId, correlationId);
+      String correlationId, CsvMetadata csvMetadata) {
+    AbstractRegisterCommand command = isDeltaJob(registerJobId)
+        ? registerCommandFactory.createRegisterDeltaFromCsvCommand(bucket, filename,
+        registerJobId, correlationId, csvMetadata)
+        : registerCommandFactory.createRegisterFromCsvCommand(bucket, filename, registerJobId,
+            correlationId, csvMetadata);
     return command.execute();
   }
+
+  private boolean isDeltaJob(int registerJobId) {
+    boolean deltaJob = registerJobSupervisor.findJobWithId(registerJobId)
+        .map(RegisterJob::getTrigger)
+        .map(RegisterJobTrigger::isDelta)
+        .orElse(Boolean.FALSE);
+    log.info("Register job '{}' is a {} job", registerJobId, deltaJob ? "delta" : "full");
+    return deltaJob;
+  }
 }
@@ -0,0 +1,22 @@
+package uk.gov.caz.retrofit.service;
+
+import java.util.List;
+import lombok.Value;
+import uk.gov.caz.retrofit.model.ValidationError;
+
+/**
+ * Value object that holds the outcome of {@link StreamingRegisterService#register}. Business and
+ * parse errors are kept apart, so that the caller can report them the same way as for the
+ * in-memory registration.
+ */
+@Value
+public class StreamingRegisterResult {
+
+  List<ValidationError> businessErrors;
+
+  List<ValidationError> parseErrors;
+
+  public boolean hasValidationErrors() {
+    return !businessErrors.isEmpty() || !parseErrors.isEmpty();
+  }
+}
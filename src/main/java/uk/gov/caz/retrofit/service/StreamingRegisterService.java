@@ -0,0 +1,238 @@
+package uk.gov.caz.retrofit.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.ConversionResult;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.model.ValidationError;
+import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+
+/**
+ * Class which is responsible for registering vehicles which are streamed row by row from their
+ * source. Every row is validated and converted as soon as it is read and valid vehicles are
+ * persisted in batches of {@code application.register.streaming.batch-size} elements. VRNs of
+ * all rows are staged in a temporary table in batches of the same size, so that duplicated VRNs
+ * and vehicles to delete are found by the database, hence the memory usage does not depend on
+ * the size of the source. All batches are written in one transaction which is rolled back if any
+ * validation error is found. Once the maximum number of validation errors is found, remaining rows
+ * are neither converted nor validated, only their VRNs are staged to report duplicates.
+ */
+@Service
+@Slf4j
+public class StreamingRegisterService {
+
+  private final RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
+  private final RetrofittedVehicleCopyRepository retrofittedVehicleCopyRepository;
+  private final AuditingRepository auditingRepository;
+  private final RegisterService registerService;
+  private final RetrofittedVehicleDtoToModelConverter vehiclesConverter;
+  private final TransactionTemplate transactionTemplate;
+  private final RetrofitStatusIndex retrofitStatusIndex;
+  private final RegisterDataVersionService registerDataVersionService;
+  private final int batchSize;
+
+  /**
+   * Creates an instance of {@link StreamingRegisterService}.
+   */
+  public StreamingRegisterService(
+      RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository,
+      RetrofittedVehicleCopyRepository retrofittedVehicleCopyRepository,
+      AuditingRepository auditingRepository,
+      RegisterService registerService,
+      RetrofittedVehicleDtoToModelConverter vehiclesConverter,
+      TransactionTemplate transactionTemplate,
+      RetrofitStatusIndex retrofitStatusIndex,
+      RegisterDataVersionService registerDataVersionService,
+      @Value("${application.register.streaming.batch-size:1000}") int batchSize) {
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+    this.retrofittedVehiclePostgresRepository = retrofittedVehiclePostgresRepository;
+    this.retrofittedVehicleCopyRepository = retrofittedVehicleCopyRepository;
+    this.auditingRepository = auditingRepository;
+    this.registerService = registerService;
+    this.vehiclesConverter = vehiclesConverter;
+    this.transactionTemplate = transactionTemplate;
+    this.retrofitStatusIndex = retrofitStatusIndex;
+    this.registerDataVersionService = registerDataVersionService;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Registers vehicles provided by {@code vehicleSource}. Vehicles which are not present in the
+   * source are deleted from the database.
+   *
+   * @param uploaderId An identifier of the entity which uploaded the vehicles.
+   * @param vehicleSource A source which streams vehicles to the passed callback.
+   * @param maxValidationErrorCount The maximum number of reported business validation errors,
+   *     non-positive value means no limit.
+   * @return An instance of {@link StreamingRegisterResult} with business and parse errors (if
+   *     any).
+   */
+  public StreamingRegisterResult register(UUID uploaderId, VehicleSource vehicleSource,
+      int maxValidationErrorCount) {
+    Preconditions.checkNotNull(uploaderId, "uploaderId cannot be null");
+    Preconditions.checkNotNull(vehicleSource, "vehicleSource cannot be null");
+    int errorsLimit = maxValidationErrorCount > 0 ? maxValidationErrorCount : Integer.MAX_VALUE;
+
+    return transactionTemplate.execute(status -> {
+      StreamingRegisterResult result = registerInCurrentTransaction(uploaderId, vehicleSource,
+          errorsLimit);
+      if (result.hasValidationErrors()) {
+        log.info("Rolling back the registration due to validation errors");
+        status.setRollbackOnly();
+      }
+      return result;
+    });
+  }
+
+  private StreamingRegisterResult registerInCurrentTransaction(UUID uploaderId,
+      VehicleSource vehicleSource, int errorsLimit) {
+    log.info("Registering streamed vehicles : start");
+
+    auditingRepository.tagModificationsInCurrentTransactionBy(uploaderId);
+    log.info("Transaction associated with {} in the audit table.", uploaderId);
+
+    boolean copyLoadStrategy = registerService.getLoadStrategy() == RegisterLoadStrategy.COPY;
+    if (copyLoadStrategy) {
+      retrofittedVehicleCopyRepository.createStagingTable();
+    }
+
+    retrofittedVehiclePostgresRepository.createUploadedVrnsTable();
+
+    BatchingVehicleWriter writer = new BatchingVehicleWriter(copyLoadStrategy, errorsLimit);
+    List<ValidationError> parseErrors = vehicleSource.forEach(writer);
+    writer.flush();
+    writer.flushUploadedVrns();
+
+    StreamingRegisterResult result = new StreamingRegisterResult(
+        writer.getBusinessErrors(), withDuplicatedVrnsError(parseErrors, writer));
+    if (!result.hasValidationErrors()) {
+      completeRegistration(copyLoadStrategy);
+    }
+
+    log.info("Registering {} streamed vehicle(s) : finish", writer.getUploadedCount());
+    return result;
+  }
+
+  private void completeRegistration(boolean copyLoadStrategy) {
+    if (copyLoadStrategy) {
+      retrofittedVehicleCopyRepository.mergeStagingTable();
+    } else {
+      retrofittedVehiclePostgresRepository.deleteAllNotUploaded();
+    }
+    registerDataVersionService.increment();
+    retrofitStatusIndex.refreshAfterCommit();
+  }
+
+  private List<ValidationError> withDuplicatedVrnsError(List<ValidationError> parseErrors,
+      BatchingVehicleWriter writer) {
+    if (writer.getUploadedCount() == 0
+        || !retrofittedVehiclePostgresRepository.hasDuplicatedUploadedVrns()) {
+      return parseErrors;
+    }
+    return ImmutableList.<ValidationError>builder()
+        .addAll(parseErrors)
+        .add(ValidationError.valueError("There are multiple entries with the same VRN"))
+        .build();
+  }
+
+  /**
+   * A source of vehicles which passes every read vehicle to the given callback.
+   */
+  @FunctionalInterface
+  public interface VehicleSource {
+
+    /**
+     * Passes every read vehicle to {@code vehicleConsumer} and returns parse validation errors.
+     */
+    List<ValidationError> forEach(Consumer<RetrofittedVehicleDto> vehicleConsumer);
+  }
+
+  /**
+   * Validates and converts streamed vehicles and writes them to the database (or to the staging
+   * table for {@link RegisterLoadStrategy#COPY}) in batches. No vehicle is written once a
+   * validation error has been found as the transaction is going to be rolled back anyway, and
+   * no row is converted once {@code errorsLimit} errors have been found, but VRNs of all rows are
+   * still staged to detect duplicates.
+   */
+  private class BatchingVehicleWriter implements Consumer<RetrofittedVehicleDto> {
+
+    private final boolean copyLoadStrategy;
+    private final int errorsLimit;
+
+    private final List<String> uploadedVrns = new ArrayList<>();
+    private final Set<RetrofittedVehicle> batch = new HashSet<>();
+    private final List<ValidationError> businessErrors = new ArrayList<>();
+    private long uploadedCount;
+
+    BatchingVehicleWriter(boolean copyLoadStrategy, int errorsLimit) {
+      this.copyLoadStrategy = copyLoadStrategy;
+      this.errorsLimit = errorsLimit;
+    }
+
+    @Override
+    public void accept(RetrofittedVehicleDto vehicleDto) {
+      uploadedCount++;
+      uploadedVrns.add(vehicleDto.getVrn());
+      if (uploadedVrns.size() >= batchSize) {
+        flushUploadedVrns();
+      }
+      if (businessErrors.size() >= errorsLimit) {
+        return;
+      }
+      ConversionResult conversionResult = vehiclesConverter.toRetrofittedVehicle(vehicleDto);
+      if (conversionResult.isFailure()) {
+        businessErrors.addAll(conversionResult.getValidationErrors());
+        batch.clear();
+        return;
+      }
+      if (businessErrors.isEmpty()) {
+        batch.add(conversionResult.getRetrofittedVehicle());
+        if (batch.size() >= batchSize) {
+          flush();
+        }
+      }
+    }
+
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      log.debug("Writing a batch of {} vehicle(s)", batch.size());
+      if (copyLoadStrategy) {
+        retrofittedVehicleCopyRepository.copyToStagingTable(batch);
+      } else {
+        retrofittedVehiclePostgresRepository.insertOrUpdateChanged(batch);
+      }
+      batch.clear();
+    }
+
+    void flushUploadedVrns() {
+      if (uploadedVrns.isEmpty()) {
+        return;
+      }
+      retrofittedVehiclePostgresRepository.addUploadedVrns(uploadedVrns);
+      uploadedVrns.clear();
+    }
+
+    long getUploadedCount() {
+      return uploadedCount;
+    }
+
+    List<ValidationError> getBusinessErrors() {
+      return businessErrors;
+    }
+  }
+}
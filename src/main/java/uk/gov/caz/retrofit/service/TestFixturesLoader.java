@@ -15,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 
@@ -25,8 +26,12 @@ public class TestFixturesLoader {
   TestFixturesLoader(
       RetrofittedVehiclePostgresRepository repository,
       @Value("${application.test-fixtures-location}") String fixturesLocation,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      RetrofitStatusIndex retrofitStatusIndex,
+      RegisterDataVersionService registerDataVersionService) {
     this.repository = repository;
+    this.retrofitStatusIndex = retrofitStatusIndex;
+    this.registerDataVersionService = registerDataVersionService;
     this.fixturesLocation = fixturesLocation;
     this.objectMapper = createEnhancedObjectMapper(objectMapper);
   }
@@ -38,9 +43,14 @@ public class TestFixturesLoader {
 
   private final ObjectMapper objectMapper;
 
+  private final RetrofitStatusIndex retrofitStatusIndex;
+
+  private final RegisterDataVersionService registerDataVersionService;
+
   /**
    * Deletes all vehicles from the database and imports predefined from a JSON file.
    */
+  @Transactional
   public void loadTestData() {
 
     Set<RetrofittedVehicle> vehicleSet = testVehiclesFromFile();
@@ -49,6 +59,9 @@ public class TestFixturesLoader {
 
     repository.insertOrUpdate(vehicleSet);
 
+    registerDataVersionService.increment();
+    retrofitStatusIndex.refreshAfterCommit();
+
   }
 
   /**
@@ -0,0 +1,15 @@
+package uk.gov.caz.retrofit.service.exception;
+
+public class CsvInvalidDeltaActionException extends IllegalArgumentException {
+
+  private final String action;
+
+  public CsvInvalidDeltaActionException(String action, String message) {
+    super(message);
+    this.action = action;
+  }
+
+  public String getAction() {
+    return action;
+  }
+}
@@ -3,13 +3,20 @@ package uk.gov.caz.retrofit.service.exception;
 public class CsvInvalidFieldsCountException extends IllegalArgumentException {
 
   private final int fieldsCount;
+  private final int expectedFieldsCount;
 
-  public CsvInvalidFieldsCountException(int fieldsCount, String message) {
+  public CsvInvalidFieldsCountException(int fieldsCount, int expectedFieldsCount,
+      String message) {
     super(message);
     this.fieldsCount = fieldsCount;
+    this.expectedFieldsCount = expectedFieldsCount;
   }
 
   public int getFieldsCount() {
     return fieldsCount;
   }
+
+  public int getExpectedFieldsCount() {
+    return expectedFieldsCount;
+  }
 }
@@ -0,0 +1,4 @@
+package uk.gov.caz.retrofit.service.exception;
+
+public class S3FileModifiedException extends RuntimeException {
+}
@@ -0,0 +1,85 @@
+package uk.gov.caz.retrofit.service.validation;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import uk.gov.caz.retrofit.model.ValidationError;
+
+/**
+ * Keeps at most {@code limit} validation errors with the lowest line numbers (errors without a
+ * line number come first). Errors with the same line number are kept in the order in which they
+ * were added, hence {@link FirstValidationErrors#toList()} returns the same errors as a stable
+ * sort by the line number followed by {@code limit(limit)}, but without holding and sorting all
+ * errors.
+ */
+public class FirstValidationErrors {
+
+  private static final Comparator<Entry> BY_LINE_NUMBER_AND_SEQUENCE = Comparator
+      .comparingInt((Entry entry) -> entry.lineNumber)
+      .thenComparingLong(entry -> entry.sequence);
+
+  private final int limit;
+  private final PriorityQueue<Entry> lastEntryFirst;
+  private long sequence;
+
+  /**
+   * Creates an instance of {@link FirstValidationErrors}.
+   *
+   * @param limit The maximum number of kept errors.
+   */
+  public FirstValidationErrors(int limit) {
+    Preconditions.checkArgument(limit >= 0, "Limit cannot be negative");
+    this.limit = limit;
+    this.lastEntryFirst = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)),
+        BY_LINE_NUMBER_AND_SEQUENCE.reversed());
+  }
+
+  /**
+   * Adds {@code validationError} if it is among the first {@code limit} errors added so far.
+   */
+  public void add(ValidationError validationError) {
+    Entry entry = new Entry(validationError, sequence++);
+    if (lastEntryFirst.size() < limit) {
+      lastEntryFirst.add(entry);
+    } else if (limit > 0 && BY_LINE_NUMBER_AND_SEQUENCE.compare(entry, lastEntryFirst.peek()) < 0) {
+      lastEntryFirst.poll();
+      lastEntryFirst.add(entry);
+    }
+  }
+
+  /**
+   * Adds every error from {@code validationErrors}.
+   */
+  public void addAll(Collection<ValidationError> validationErrors) {
+    validationErrors.forEach(this::add);
+  }
+
+  /**
+   * Returns kept errors sorted by the line number.
+   */
+  public List<ValidationError> toList() {
+    List<Entry> entries = new ArrayList<>(lastEntryFirst);
+    entries.sort(BY_LINE_NUMBER_AND_SEQUENCE);
+    return Collections.unmodifiableList(entries.stream()
+        .map(entry -> entry.validationError)
+        .collect(Collectors.toList()));
+  }
+
+  private static class Entry {
+
+    private final ValidationError validationError;
+    private final int lineNumber;
+    private final long sequence;
+
+    private Entry(ValidationError validationError, long sequence) {
+      this.validationError = validationError;
+      this.lineNumber = validationError.getLineNumber().orElse(0);
+      this.sequence = sequence;
+    }
+  }
+}
@@ -3,9 +3,9 @@ package uk.gov.caz.retrofit.amazonaws;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verifyZeroInteractions;
 import static uk.gov.caz.testutils.TestObjects.S3_REGISTER_JOB_ID;
 import static uk.gov.caz.testutils.TestObjects.TYPICAL_CORRELATION_ID;
+import static uk.gov.caz.testutils.TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,28 +15,31 @@ import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.lambda.LambdaClient;
-import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
 import software.amazon.awssdk.services.lambda.model.InvocationType;
 import software.amazon.awssdk.services.lambda.model.InvokeRequest;
 import software.amazon.awssdk.services.lambda.model.InvokeResponse;
 import uk.gov.caz.retrofit.dto.RegisterCsvFromS3LambdaInput;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 
 class AsyncLambdaBackgroundJobStarterTest {
 
   private static final String S3_BUCKET = "s3Bucket";
   private static final String CSV_FILE = "fileName";
   private static final String LAMBDA_NAME = "RegisterCsvFromS3Function";
+  private static final CsvMetadata CSV_METADATA = new CsvMetadata(
+      TYPICAL_REGISTER_JOB_UPLOADER_ID, CsvContentType.RETROFIT_LIST, 1024L, "\"etag\"");
 
   private ObjectMapper mockedObjectMapper;
-  private LambdaClientBuilder mockedLambdaClientBuilder;
+  private MockedLambdaClient mockedLambdaClient;
   private AsyncLambdaBackgroundJobStarter lambdaJobStarter;
 
   @BeforeEach
   public void init() {
     mockedObjectMapper = mock(ObjectMapper.class);
-    mockedLambdaClientBuilder = mock(LambdaClientBuilder.class);
+    mockedLambdaClient = new MockedLambdaClient();
     lambdaJobStarter = new AsyncLambdaBackgroundJobStarter(mockedObjectMapper,
-        mockedLambdaClientBuilder, LAMBDA_NAME);
+        mockedLambdaClient, LAMBDA_NAME);
   }
 
   @Test
@@ -46,13 +49,10 @@ class AsyncLambdaBackgroundJobStarterTest {
     RegisterCsvFromS3LambdaInput input = inputObject();
     given(mockedObjectMapper.writeValueAsString(input)).willReturn("payload");
 
-    MockedLambdaClient mockedLambdaClient = new MockedLambdaClient();
-    given(mockedLambdaClientBuilder.build()).willReturn(mockedLambdaClient);
-
     // when
     lambdaJobStarter
         .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, S3_BUCKET, CSV_FILE,
-            TYPICAL_CORRELATION_ID);
+            TYPICAL_CORRELATION_ID, CSV_METADATA);
 
     // then
     InvokeRequest capturedInvokeRequest = mockedLambdaClient.getCapturedInvokeRequest();
@@ -60,6 +60,25 @@ class AsyncLambdaBackgroundJobStarterTest {
     assertThat(capturedInvokeRequest.functionName()).isEqualTo("RegisterCsvFromS3Function");
     assertThat(capturedInvokeRequest.invocationType()).isEqualByComparingTo(InvocationType.EVENT);
     assertThat(capturedInvokeRequest.payload().asString(Charsets.UTF_8)).isEqualTo("payload");
+    assertThat(mockedLambdaClient.isClosed()).isFalse();
+  }
+
+  @Test
+  public void shouldReuseLambdaClientForSubsequentJobs() throws JsonProcessingException {
+    // given
+    given(mockedObjectMapper.writeValueAsString(inputObject())).willReturn("payload");
+
+    // when
+    lambdaJobStarter
+        .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, S3_BUCKET, CSV_FILE,
+            TYPICAL_CORRELATION_ID, CSV_METADATA);
+    lambdaJobStarter
+        .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, S3_BUCKET, CSV_FILE,
+            TYPICAL_CORRELATION_ID, CSV_METADATA);
+
+    // then
+    assertThat(mockedLambdaClient.getInvocationsCount()).isEqualTo(2);
+    assertThat(mockedLambdaClient.isClosed()).isFalse();
   }
 
   @Test
@@ -73,26 +92,32 @@ class AsyncLambdaBackgroundJobStarterTest {
     // when
     lambdaJobStarter
         .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, S3_BUCKET, CSV_FILE,
-            TYPICAL_CORRELATION_ID);
+            TYPICAL_CORRELATION_ID, CSV_METADATA);
 
     // then
-    verifyZeroInteractions(mockedLambdaClientBuilder);
+    assertThat(mockedLambdaClient.getCapturedInvokeRequest()).isNull();
   }
 
   private RegisterCsvFromS3LambdaInput inputObject() {
     return RegisterCsvFromS3LambdaInput.builder().s3Bucket(S3_BUCKET)
         .registerJobId(S3_REGISTER_JOB_ID)
-        .fileName(CSV_FILE).correlationId(TYPICAL_CORRELATION_ID).build();
+        .fileName(CSV_FILE).correlationId(TYPICAL_CORRELATION_ID)
+        .uploaderId(TYPICAL_REGISTER_JOB_UPLOADER_ID.toString())
+        .csvContentType(CsvContentType.RETROFIT_LIST.name())
+        .fileSize(1024L).fileETag("\"etag\"").build();
   }
 
   private static class MockedLambdaClient implements LambdaClient {
 
     private InvokeRequest capturedInvokeRequest;
+    private int invocationsCount;
+    private boolean closed;
 
     @Override
     public InvokeResponse invoke(InvokeRequest invokeRequest)
         throws AwsServiceException, SdkClientException {
       capturedInvokeRequest = invokeRequest;
+      invocationsCount++;
       return InvokeResponse.builder().build();
     }
 
@@ -103,11 +128,20 @@ class AsyncLambdaBackgroundJobStarterTest {
 
     @Override
     public void close() {
+      closed = true;
     }
 
     public InvokeRequest getCapturedInvokeRequest() {
       return capturedInvokeRequest;
     }
+
+    public int getInvocationsCount() {
+      return invocationsCount;
+    }
+
+    public boolean isClosed() {
+      return closed;
+    }
   }
 
   private static class MockedJsonProcessingException extends JsonProcessingException {
@@ -39,12 +39,12 @@ import uk.gov.caz.GlobalExceptionHandlerConfiguration;
 import uk.gov.caz.correlationid.Configuration;
 import uk.gov.caz.retrofit.dto.StartRegisterCsvFromS3JobCommand;
 import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobName;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobTrigger;
 import uk.gov.caz.retrofit.service.AsyncBackgroundJobStarter;
 import uk.gov.caz.retrofit.service.CsvFileOnS3MetadataExtractor;
-import uk.gov.caz.retrofit.service.CsvFileOnS3MetadataExtractor.CsvMetadata;
 import uk.gov.caz.retrofit.service.RegisterJobSupervisor;
 import uk.gov.caz.retrofit.service.RegisterJobSupervisor.StartParams;
 import uk.gov.caz.retrofit.service.exception.FatalErrorWithCsvFileMetadataException;
@@ -57,6 +57,8 @@ class RegisterCsvFromS3ControllerTest {
   private static final String S3_BUCKET = "s3Bucket";
   private static final String CSV_FILE = "fileName.csv";
   private static final String CSV_FILE_UPPERCASE = "FILENAME.CSV";
+  private static final long CSV_FILE_SIZE = 1024L;
+  private static final String CSV_FILE_ETAG = "\"etag\"";
 
   @MockBean
   private AsyncBackgroundJobStarter mockedAsyncBackgroundJobStarter;
@@ -101,7 +103,9 @@ class RegisterCsvFromS3ControllerTest {
         .hasCorrelationId(TYPICAL_CORRELATION_ID)
         .hasJobNameSuffix(expectedJobSuffix)
         .wasUploadedBy(TYPICAL_REGISTER_JOB_UPLOADER_ID)
-        .invokedJob(mockedAsyncBackgroundJobStarter, S3_BUCKET, csvFileName);
+        .hasContentDigest(CSV_FILE_ETAG)
+        .invokedJob(mockedAsyncBackgroundJobStarter, S3_BUCKET, csvFileName,
+            csvMetadata(csvContentType));
   }
 
   @Test
@@ -191,8 +195,12 @@ class RegisterCsvFromS3ControllerTest {
   private void mockCsvFileOnS3MetadataExtractorForSuccess(String csvFileName,
       CsvContentType csvContentType) {
     given(mockedCsvFileOnS3MetadataExtractor.getRequiredMetadata(S3_BUCKET, csvFileName))
-        .willReturn(new CsvMetadata(TYPICAL_REGISTER_JOB_UPLOADER_ID,
-            csvContentType));
+        .willReturn(csvMetadata(csvContentType));
+  }
+
+  private CsvMetadata csvMetadata(CsvContentType csvContentType) {
+    return new CsvMetadata(TYPICAL_REGISTER_JOB_UPLOADER_ID, csvContentType, CSV_FILE_SIZE,
+        CSV_FILE_ETAG);
   }
 
   private void mockCsvFileOnS3MetadataExtractorForError() {
@@ -270,7 +278,9 @@ class RegisterCsvFromS3ControllerTest {
         Arguments.of(CsvContentType.MOD_GREEN_LIST,
             RegisterJobTrigger.GREEN_MOD_CSV_FROM_S3, CSV_FILE, "fileName"),
         Arguments.of(CsvContentType.MOD_WHITE_LIST,
-            RegisterJobTrigger.WHITE_MOD_CSV_FROM_S3, CSV_FILE_UPPERCASE, "FILENAME")
+            RegisterJobTrigger.WHITE_MOD_CSV_FROM_S3, CSV_FILE_UPPERCASE, "FILENAME"),
+        Arguments.of(CsvContentType.RETROFIT_DELTA_LIST,
+            RegisterJobTrigger.RETROFIT_DELTA_CSV_FROM_S3, CSV_FILE, "fileName")
     );
   }
 }
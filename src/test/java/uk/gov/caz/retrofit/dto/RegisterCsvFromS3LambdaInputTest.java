@@ -0,0 +1,56 @@
+package uk.gov.caz.retrofit.dto;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static uk.gov.caz.testutils.TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
+
+class RegisterCsvFromS3LambdaInputTest {
+
+  private static final CsvMetadata CSV_METADATA = new CsvMetadata(
+      TYPICAL_REGISTER_JOB_UPLOADER_ID, CsvContentType.RETROFIT_DELTA_LIST, 1024L, "\"etag\"");
+
+  @Test
+  public void shouldCarryCsvMetadata() {
+    // given
+    RegisterCsvFromS3LambdaInput input = RegisterCsvFromS3LambdaInput.builder()
+        .csvMetadata(CSV_METADATA)
+        .build();
+
+    // when
+    CsvMetadata csvMetadata = input.toCsvMetadata();
+
+    // then
+    then(csvMetadata).isEqualTo(CSV_METADATA);
+  }
+
+  @Test
+  public void shouldNotContainCsvMetadataWhenNotSet() {
+    // given
+    RegisterCsvFromS3LambdaInput input = RegisterCsvFromS3LambdaInput.builder()
+        .csvMetadata(null)
+        .build();
+
+    // when
+    CsvMetadata csvMetadata = input.toCsvMetadata();
+
+    // then
+    then(csvMetadata).isNull();
+  }
+
+  @Test
+  public void shouldNotContainCsvMetadataWithoutContentType() {
+    // given
+    RegisterCsvFromS3LambdaInput input = RegisterCsvFromS3LambdaInput.builder()
+        .uploaderId(TYPICAL_REGISTER_JOB_UPLOADER_ID.toString())
+        .build();
+
+    // when
+    CsvMetadata csvMetadata = input.toCsvMetadata();
+
+    // then
+    then(csvMetadata).isNull();
+  }
+}
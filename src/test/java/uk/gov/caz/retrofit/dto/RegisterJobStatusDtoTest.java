@@ -27,6 +27,8 @@ class RegisterJobStatusDtoTest {
             RegisterJobStatusDto.FAILURE),
         Arguments.arguments(RegisterJobStatus.STARTUP_FAILURE_TOO_LARGE_FILE,
             RegisterJobStatusDto.FAILURE),
+        Arguments.arguments(RegisterJobStatus.STARTUP_FAILURE_MODIFIED_FILE,
+            RegisterJobStatusDto.FAILURE),
         Arguments.arguments(RegisterJobStatus.UNKNOWN_FAILURE, RegisterJobStatusDto.FAILURE)
     );
   }
@@ -0,0 +1,59 @@
+package uk.gov.caz.retrofit.dto;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import uk.gov.caz.retrofit.controller.exception.InvalidRequestPayloadException;
+
+class RetrofitStatusesRequestTest {
+
+  @Test
+  void shouldAcceptMaximumNumberOfVrns() {
+    // given
+    List<String> vrns = IntStream.range(0, RetrofitStatusesRequest.MAX_VRNS_COUNT)
+        .mapToObj(i -> "VRN" + i)
+        .collect(Collectors.toList());
+    RetrofitStatusesRequest request = new RetrofitStatusesRequest(vrns);
+
+    // then
+    assertThatCode(request::validate).doesNotThrowAnyException();
+  }
+
+  @Test
+  void shouldRejectMissingVrns() {
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> new RetrofitStatusesRequest(null).validate())
+        .withMessage("'vrns' cannot be empty");
+  }
+
+  @Test
+  void shouldRejectEmptyListOfVrns() {
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> new RetrofitStatusesRequest(Collections.emptyList()).validate())
+        .withMessage("'vrns' cannot be empty");
+  }
+
+  @Test
+  void shouldRejectTooManyVrns() {
+    // given
+    List<String> vrns = Collections.nCopies(RetrofitStatusesRequest.MAX_VRNS_COUNT + 1, "VRN");
+
+    // then
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> new RetrofitStatusesRequest(vrns).validate())
+        .withMessage("'vrns' cannot contain more than 5000 elements");
+  }
+
+  @Test
+  void shouldRejectEmptyVrn() {
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> new RetrofitStatusesRequest(Arrays.asList("CAS310", "")).validate())
+        .withMessage("'vrns' cannot contain empty elements");
+  }
+}
@@ -0,0 +1,114 @@
+package uk.gov.caz.retrofit.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.caz.retrofit.controller.exception.InvalidRequestPayloadException;
+
+class RetrofitVehicleHistoryPageTokenTest {
+
+  private static final RetrofitVehicleHistoryKey KEY = RetrofitVehicleHistoryKey.builder()
+      .actionTimestamp(Instant.parse("2020-07-27T18:36:25.175645Z"))
+      .id(42)
+      .build();
+
+  private static final RetrofitInfoHistoricalRequest REQUEST = RetrofitInfoHistoricalRequest
+      .builder()
+      .startDate(LocalDate.of(2020, 7, 1))
+      .endDate(LocalDate.of(2020, 7, 30))
+      .pageSize(10)
+      .build();
+
+  private static final String QUERY = RetrofitVehicleHistoryPageToken.query("JO32VXX", REQUEST);
+
+  @Test
+  void shouldDecodeEncodedToken() {
+    // given
+    RetrofitVehicleHistoryPageToken pageToken = new RetrofitVehicleHistoryPageToken(3, 120, KEY);
+
+    // when
+    RetrofitVehicleHistoryPageToken decoded = RetrofitVehicleHistoryPageToken
+        .decode(pageToken.encode(QUERY), QUERY);
+
+    // then
+    assertThat(decoded).isEqualTo(pageToken);
+  }
+
+  @Test
+  void shouldRejectTokenIssuedForDifferentQuery() {
+    // given
+    String token = new RetrofitVehicleHistoryPageToken(3, 120, KEY).encode(QUERY);
+    String otherVrnQuery = RetrofitVehicleHistoryPageToken.query("DS98UDG", REQUEST);
+    String otherPageSizeQuery = RetrofitVehicleHistoryPageToken.query("JO32VXX",
+        REQUEST.toBuilder().pageSize(11).build());
+    String otherDateRangeQuery = RetrofitVehicleHistoryPageToken.query("JO32VXX",
+        REQUEST.toBuilder().endDate(LocalDate.of(2020, 7, 31)).build());
+
+    // then
+    for (String query : new String[]{otherVrnQuery, otherPageSizeQuery, otherDateRangeQuery}) {
+      assertThatExceptionOfType(InvalidRequestPayloadException.class)
+          .isThrownBy(() -> RetrofitVehicleHistoryPageToken.decode(token, query))
+          .withMessage("'pageToken' is invalid");
+    }
+  }
+
+  @Test
+  void shouldRejectEditedToken() {
+    // given
+    String token = new String(Base64.getUrlDecoder().decode(
+        new RetrofitVehicleHistoryPageToken(3, 120, KEY).encode(QUERY)), StandardCharsets.UTF_8);
+    String editedToken = token.replaceFirst("^3\\|120\\|", "3|121|");
+
+    // then
+    assertThat(editedToken).isNotEqualTo(token);
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> RetrofitVehicleHistoryPageToken.decode(encode(editedToken), QUERY))
+        .withMessage("'pageToken' is invalid");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "not base64",
+      "1|10|2020-07-27T18:36:25.175645Z",
+      "1|10|2020-07-27T18:36:25.175645Z|42|1",
+      "0|10|2020-07-27T18:36:25.175645Z|42",
+      "a|10|2020-07-27T18:36:25.175645Z|42",
+      "1|-1|2020-07-27T18:36:25.175645Z|42",
+      "1|a|2020-07-27T18:36:25.175645Z|42",
+      "1|10|2020-07-27|42",
+      "1|10|2020-07-27T18:36:25.175645Z|id"
+  })
+  void shouldRejectMalformedToken(String content) {
+    assertThatExceptionOfType(InvalidRequestPayloadException.class)
+        .isThrownBy(() -> RetrofitVehicleHistoryPageToken.decode(withChecksum(content), QUERY))
+        .withMessage("'pageToken' is invalid");
+  }
+
+  /**
+   * Appends a valid checksum to {@code content}, so that the token is rejected only if the
+   * content is malformed.
+   */
+  private static String withChecksum(String content) {
+    if ("not base64".equals(content)) {
+      return content;
+    }
+    String checksum = Hashing.sha256()
+        .hashString(QUERY + "|" + content, StandardCharsets.UTF_8)
+        .toString()
+        .substring(0, 16);
+    return encode(content + "|" + checksum);
+  }
+
+  private static String encode(String token) {
+    return Base64.getUrlEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,49 @@
+package uk.gov.caz.retrofit.model;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+class RetrofittedVehicleTest {
+
+  private static final RetrofittedVehicle VEHICLE = RetrofittedVehicle.builder()
+      .vrn("8839GF")
+      .vehicleCategory("Military Vehicle")
+      .model("T-34/85 Rudy 102")
+      .dateOfRetrofitInstallation(LocalDate.parse("2007-12-03"))
+      .build();
+
+  @Test
+  public void shouldComputeMd5OfPipeSeparatedContent() {
+    // when
+    String contentHash = VEHICLE.contentHash();
+
+    // then
+    then(contentHash).isEqualTo("f901999f4973bcb47ae2df6dcceab079");
+  }
+
+  @Test
+  public void shouldTreatNullAttributesAsEmptyStrings() {
+    // given
+    RetrofittedVehicle vehicle = VEHICLE.toBuilder().vehicleCategory(null).model(null).build();
+
+    // when
+    String contentHash = vehicle.contentHash();
+
+    // then
+    then(contentHash).isEqualTo("b12dbe15d72c9b97e7aab133c8866bf7");
+  }
+
+  @Test
+  public void shouldChangeWhenAnyAttributeChanges() {
+    // given
+    RetrofittedVehicle vehicle = VEHICLE.toBuilder().model("T-34/85 Rudy 103").build();
+
+    // when
+    String contentHash = vehicle.contentHash();
+
+    // then
+    then(contentHash).isNotEqualTo(VEHICLE.contentHash());
+  }
+}
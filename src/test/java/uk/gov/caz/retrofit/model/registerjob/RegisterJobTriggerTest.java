@@ -28,6 +28,17 @@ class RegisterJobTriggerTest {
 
     assertThat(RegisterJobTrigger.from(CsvContentType.MOD_WHITE_LIST))
         .isEqualByComparingTo(RegisterJobTrigger.WHITE_MOD_CSV_FROM_S3);
+
+    assertThat(RegisterJobTrigger.from(CsvContentType.RETROFIT_DELTA_LIST))
+        .isEqualByComparingTo(RegisterJobTrigger.RETROFIT_DELTA_CSV_FROM_S3);
+  }
+
+  @Test
+  public void testThatOnlyDeltaTriggerIsDelta() {
+    for (RegisterJobTrigger trigger : RegisterJobTrigger.values()) {
+      assertThat(trigger.isDelta())
+          .isEqualTo(trigger == RegisterJobTrigger.RETROFIT_DELTA_CSV_FROM_S3);
+    }
   }
 
   @Test
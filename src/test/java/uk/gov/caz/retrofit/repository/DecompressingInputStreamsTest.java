@@ -0,0 +1,156 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.BDDAssertions.then;
+
+import com.github.luben.zstd.Zstd;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
+
+class DecompressingInputStreamsTest {
+
+  private static final byte[] CONTENT = "ZC62OMB,category-1,model-1,2019-04-30\n"
+      .getBytes(StandardCharsets.UTF_8);
+  private static final long NO_LIMIT = Long.MAX_VALUE;
+
+  @Test
+  public void shouldReturnPlainContentAsIs() throws IOException {
+    // given
+    InputStream inputStream = new ByteArrayInputStream(CONTENT);
+
+    // when
+    InputStream result = DecompressingInputStreams.decompressIfNeeded(inputStream, NO_LIMIT);
+
+    // then
+    then(result).isSameAs(inputStream);
+    then(ByteStreams.toByteArray(result)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void shouldReturnPlainContentOfStreamWhichDoesNotSupportMark() throws IOException {
+    // given
+    InputStream inputStream = withoutMarkSupport(new ByteArrayInputStream(CONTENT));
+
+    // when
+    InputStream result = DecompressingInputStreams.decompressIfNeeded(inputStream, NO_LIMIT);
+
+    // then
+    then(ByteStreams.toByteArray(result)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void shouldReturnContentShorterThanMagicBytesAsIs() throws IOException {
+    // given
+    byte[] content = {(byte) 0x1F, (byte) 0x8B};
+
+    // when
+    InputStream result = DecompressingInputStreams
+        .decompressIfNeeded(new ByteArrayInputStream(content), NO_LIMIT);
+
+    // then
+    then(ByteStreams.toByteArray(result)).isEqualTo(content);
+  }
+
+  @Test
+  public void shouldDecompressGzipContent() throws IOException {
+    // given
+    InputStream inputStream = withoutMarkSupport(new ByteArrayInputStream(gzip(CONTENT)));
+
+    // when
+    InputStream result = DecompressingInputStreams.decompressIfNeeded(inputStream, NO_LIMIT);
+
+    // then
+    then(ByteStreams.toByteArray(result)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void shouldDecompressZstdContent() throws IOException {
+    // given
+    InputStream inputStream = new ByteArrayInputStream(Zstd.compress(CONTENT));
+
+    // when
+    InputStream result = DecompressingInputStreams.decompressIfNeeded(inputStream, NO_LIMIT);
+
+    // then
+    then(ByteStreams.toByteArray(result)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void shouldReadDecompressedContentByteByByte() throws IOException {
+    // given
+    InputStream result = DecompressingInputStreams
+        .decompressIfNeeded(new ByteArrayInputStream(gzip(CONTENT)), CONTENT.length);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    int value;
+    while ((value = result.read()) != -1) {
+      output.write(value);
+    }
+
+    // then
+    then(output.toByteArray()).isEqualTo(CONTENT);
+    then(result.markSupported()).isFalse();
+  }
+
+  @Test
+  public void shouldThrowS3MaxFileSizeExceededExceptionWhenDecompressedContentIsTooBig()
+      throws IOException {
+    // given
+    InputStream result = DecompressingInputStreams
+        .decompressIfNeeded(new ByteArrayInputStream(gzip(CONTENT)), CONTENT.length - 1);
+
+    // then
+    assertThatExceptionOfType(S3MaxFileSizeExceededException.class)
+        .isThrownBy(() -> ByteStreams.toByteArray(result));
+  }
+
+  @Test
+  public void shouldThrowS3MaxFileSizeExceededExceptionWhenTooBigContentIsReadByteByByte()
+      throws IOException {
+    // given
+    InputStream result = DecompressingInputStreams
+        .decompressIfNeeded(new ByteArrayInputStream(Zstd.compress(CONTENT)), 1);
+    result.read();
+
+    // then
+    assertThatExceptionOfType(S3MaxFileSizeExceededException.class)
+        .isThrownBy(result::read);
+  }
+
+  @Test
+  public void shouldCountSkippedBytesTowardsTheLimit() throws IOException {
+    // given
+    InputStream result = DecompressingInputStreams
+        .decompressIfNeeded(new ByteArrayInputStream(gzip(CONTENT)), CONTENT.length - 1);
+
+    // then
+    assertThatExceptionOfType(S3MaxFileSizeExceededException.class)
+        .isThrownBy(() -> ByteStreams.skipFully(result, CONTENT.length));
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(output)) {
+      gzipOutputStream.write(content);
+    }
+    return output.toByteArray();
+  }
+
+  private static InputStream withoutMarkSupport(InputStream inputStream) {
+    return new FilterInputStream(inputStream) {
+      @Override
+      public boolean markSupported() {
+        return false;
+      }
+    };
+  }
+}
@@ -0,0 +1,207 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelRangedS3InputStreamTest {
+
+  private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+  private static final String ANY_BUCKET = "bucket-x";
+  private static final String ANY_FILE = "file-x";
+  private static final String ANY_ETAG = "\"etag\"";
+  private static final int PART_SIZE = 10;
+  private static final int BUFFER_COUNT = 3;
+
+  private static final byte[] CONTENT = ("ZC62OMB,category-1,model-1,2019-04-30\n"
+      + "OI64EFO,category-2,model-2,2019-05-30\n").getBytes();
+
+  @Mock
+  private S3Client s3Client;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setup() {
+    executor = Executors.newFixedThreadPool(BUFFER_COUNT);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldReturnWholeContentInOrder() throws IOException {
+    // given
+    mockRangedObjectContent(CONTENT);
+
+    // when
+    byte[] content;
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      content = ByteStreams.toByteArray(inputStream);
+    }
+
+    // then
+    then(content).isEqualTo(CONTENT);
+  }
+
+  @Test
+  void shouldReturnWholeContentReadByteByByte() throws IOException {
+    // given
+    mockRangedObjectContent(CONTENT);
+    byte[] content = new byte[CONTENT.length];
+
+    // when
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      for (int i = 0; i < content.length; i++) {
+        content[i] = (byte) inputStream.read();
+      }
+      then(inputStream.read()).isEqualTo(-1);
+    }
+
+    // then
+    then(content).isEqualTo(CONTENT);
+  }
+
+  @Test
+  void shouldRequestEveryPartOnceWithObjectETag() throws IOException {
+    // given
+    mockRangedObjectContent(CONTENT);
+
+    // when
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      ByteStreams.exhaust(inputStream);
+    }
+
+    // then
+    ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor
+        .forClass(GetObjectRequest.class);
+    verify(s3Client, times(8)).getObject(requestCaptor.capture());
+    List<GetObjectRequest> requests = requestCaptor.getAllValues();
+    then(requests).allMatch(request -> ANY_ETAG.equals(request.ifMatch()));
+    then(requests.stream().map(GetObjectRequest::range).collect(Collectors.toList()))
+        .containsExactlyInAnyOrder("bytes=0-9", "bytes=10-19", "bytes=20-29", "bytes=30-39",
+            "bytes=40-49", "bytes=50-59", "bytes=60-69", "bytes=70-75");
+  }
+
+  @Test
+  void shouldRethrowExceptionOfFailedPart() throws IOException {
+    // given
+    given(s3Client.getObject(any(GetObjectRequest.class)))
+        .willThrow(NoSuchKeyException.builder().build());
+
+    // when
+    Throwable throwable;
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      throwable = catchThrowable(inputStream::read);
+    }
+
+    // then
+    then(throwable).isInstanceOf(NoSuchKeyException.class);
+  }
+
+  @Test
+  void shouldThrowIoExceptionWhenPartIsTruncated() throws IOException {
+    // given
+    mockRangedObjectContent(Arrays.copyOf(CONTENT, CONTENT.length - 1));
+
+    // when
+    Throwable throwable;
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      throwable = catchThrowable(() -> ByteStreams.exhaust(inputStream));
+    }
+
+    // then
+    then(throwable).isInstanceOf(IOException.class)
+        .hasMessageContaining("Unexpected end of " + ANY_BUCKET + "/" + ANY_FILE);
+  }
+
+  @Test
+  void shouldNotReadAfterBeingClosed() throws IOException {
+    // given
+    mockRangedObjectContent(CONTENT);
+    InputStream inputStream = newInputStream(CONTENT.length);
+    inputStream.read();
+
+    // when
+    inputStream.close();
+    Throwable throwable = catchThrowable(inputStream::read);
+
+    // then
+    then(throwable).isInstanceOf(IOException.class).hasMessage("Stream closed");
+    then(inputStream.available()).isZero();
+  }
+
+  @Test
+  void shouldReportBytesAvailableInCurrentPart() throws IOException {
+    // given
+    mockRangedObjectContent(CONTENT);
+
+    // when
+    try (InputStream inputStream = newInputStream(CONTENT.length)) {
+      then(inputStream.available()).isZero();
+      then(inputStream.read(new byte[0], 0, 0)).isZero();
+      inputStream.read(new byte[3], 0, 3);
+
+      // then
+      then(inputStream.available()).isEqualTo(PART_SIZE - 3);
+    }
+  }
+
+  @Test
+  void shouldReturnEndOfStreamForEmptyObject() throws IOException {
+    // when
+    try (InputStream inputStream = newInputStream(0)) {
+      // then
+      then(inputStream.read(new byte[1], 0, 1)).isEqualTo(-1);
+    }
+  }
+
+  private InputStream newInputStream(long contentLength) {
+    return new ParallelRangedS3InputStream(s3Client, executor, ANY_BUCKET, ANY_FILE, ANY_ETAG,
+        contentLength, PART_SIZE, BUFFER_COUNT);
+  }
+
+  private void mockRangedObjectContent(byte[] content) {
+    given(s3Client.getObject(any(GetObjectRequest.class))).willAnswer(invocation -> {
+      GetObjectRequest request = invocation.getArgument(0);
+      Matcher matcher = RANGE.matcher(request.range());
+      then(matcher.matches()).isTrue();
+      int from = Math.min(Integer.parseInt(matcher.group(1)), content.length);
+      int to = Math.min(Integer.parseInt(matcher.group(2)) + 1, content.length);
+      return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+          AbortableInputStream.create(
+              new ByteArrayInputStream(Arrays.copyOfRange(content, from, to))));
+    });
+  }
+}
@@ -0,0 +1,107 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelRangedS3ObjectReaderTest {
+
+  private static final int PART_SIZE = 4;
+  private static final HeadObjectResponse SMALL_FILE = HeadObjectResponse.builder()
+      .contentLength((long) PART_SIZE)
+      .build();
+  private static final HeadObjectResponse LARGE_FILE = HeadObjectResponse.builder()
+      .contentLength(PART_SIZE + 1L)
+      .build();
+
+  @Mock
+  private S3Client s3Client;
+
+  @Test
+  void shouldRejectNonPositivePartSize() {
+    // when
+    Throwable throwable = catchThrowable(() -> new ParallelRangedS3ObjectReader(s3Client, 4, 0));
+
+    // then
+    then(throwable).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void shouldBeDisabledWhenParallelismIsNotGreaterThanOne() {
+    // given
+    ParallelRangedS3ObjectReader reader = new ParallelRangedS3ObjectReader(s3Client, 1,
+        PART_SIZE);
+
+    // then
+    then(reader.isEnabled()).isFalse();
+    then(reader.shouldReadInParts(LARGE_FILE)).isFalse();
+    then(catchThrowable(() -> reader.read("bucket", "file", LARGE_FILE)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void shouldReadInPartsOnlyFilesLargerThanPart() {
+    // given
+    ParallelRangedS3ObjectReader reader = new ParallelRangedS3ObjectReader(s3Client, 4,
+        PART_SIZE);
+
+    // then
+    then(reader.isEnabled()).isTrue();
+    then(reader.shouldReadInParts(LARGE_FILE)).isTrue();
+    then(reader.shouldReadInParts(SMALL_FILE)).isFalse();
+    then(reader.shouldReadInParts(HeadObjectResponse.builder().build())).isFalse();
+  }
+
+  @Test
+  void shouldBeDisabledAfterShutdown() {
+    // given
+    ParallelRangedS3ObjectReader reader = new ParallelRangedS3ObjectReader(s3Client, 4,
+        PART_SIZE);
+
+    // when
+    reader.shutdown();
+
+    // then
+    then(reader.isEnabled()).isFalse();
+    then(reader.shouldReadInParts(LARGE_FILE)).isFalse();
+  }
+
+  @Test
+  void shouldReadFileInParts() throws IOException {
+    // given
+    ParallelRangedS3ObjectReader reader = new ParallelRangedS3ObjectReader(s3Client, 4,
+        PART_SIZE);
+    given(s3Client.getObject(any(GetObjectRequest.class))).willAnswer(invocation -> {
+      GetObjectRequest request = invocation.getArgument(0);
+      String part = "bytes=0-3".equals(request.range()) ? "abcd" : "e";
+      return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+          AbortableInputStream.create(new ByteArrayInputStream(part.getBytes())));
+    });
+
+    // when
+    byte[] content;
+    try (InputStream inputStream = reader.read("bucket", "file", LARGE_FILE)) {
+      content = ByteStreams.toByteArray(inputStream);
+    }
+
+    // then
+    then(new String(content)).isEqualTo("abcde");
+  }
+}
@@ -0,0 +1,66 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
+
+@ExtendWith(MockitoExtension.class)
+class RegisterDataVersionRepositoryTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private RegisterDataVersionRepository registerDataVersionRepository;
+
+  @BeforeEach
+  void setup() {
+    registerDataVersionRepository = new RegisterDataVersionRepository(jdbcTemplate);
+  }
+
+  @Test
+  void shouldMapCurrentVersion() throws Exception {
+    // given
+    Instant lastModified = Instant.parse("2019-10-01T12:00:00Z");
+    ResultSet resultSet = mock(ResultSet.class);
+    given(resultSet.getLong("version")).willReturn(7L);
+    given(resultSet.getTimestamp("last_modified_timestmp"))
+        .willReturn(Timestamp.from(lastModified));
+    given(jdbcTemplate.queryForObject(eq(RegisterDataVersionRepository.SELECT_SQL),
+        any(RowMapper.class)))
+        .willAnswer(invocation -> invocation.<RowMapper<RegisterDataVersion>>getArgument(1)
+            .mapRow(resultSet, 0));
+
+    // when
+    RegisterDataVersion version = registerDataVersionRepository.find();
+
+    // then
+    then(version).isEqualTo(new RegisterDataVersion(7L, lastModified));
+  }
+
+  @Test
+  void shouldIncrementVersion() {
+    // given
+    given(jdbcTemplate.queryForObject(RegisterDataVersionRepository.INCREMENT_SQL, Long.class))
+        .willReturn(8L);
+
+    // when
+    long version = registerDataVersionRepository.increment();
+
+    // then
+    then(version).isEqualTo(8L);
+  }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.caz.retrofit.repository.RegisterJobRepository.COL_CONTENT_DIGEST;
 import static uk.gov.caz.retrofit.repository.RegisterJobRepository.COL_CORRELATION_ID;
 import static uk.gov.caz.retrofit.repository.RegisterJobRepository.COL_ERRORS;
 import static uk.gov.caz.retrofit.repository.RegisterJobRepository.COL_JOB_NAME;
@@ -36,6 +37,7 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -59,6 +61,49 @@ class RegisterJobRepositoryTest {
     registerJobRepository = new RegisterJobRepository(jdbcTemplate, objectMapper, MAX_ERRORS_COUNT);
   }
 
+  @Nested
+  class RegisteredContent {
+
+    @Test
+    public void shouldFindContentDigestOfCurrentData() {
+      // given
+      given(jdbcTemplate.queryForList(anyString(), eq(String.class),
+          eq(S3_RETROFIT_REGISTER_JOB_TRIGGER.name())))
+          .willReturn(Collections.singletonList("\"etag\""));
+
+      // when
+      Optional<String> contentDigest = registerJobRepository
+          .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER);
+
+      // then
+      then(contentDigest).contains("\"etag\"");
+    }
+
+    @Test
+    public void shouldNotFindContentDigestWhenCurrentDataHasNotBeenRegisteredByJob() {
+      // given
+      given(jdbcTemplate.queryForList(anyString(), eq(String.class),
+          eq(S3_RETROFIT_REGISTER_JOB_TRIGGER.name())))
+          .willReturn(Collections.emptyList());
+
+      // when
+      Optional<String> contentDigest = registerJobRepository
+          .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER);
+
+      // then
+      then(contentDigest).isEmpty();
+    }
+
+    @Test
+    public void shouldUpdateRegisterDataVersion() {
+      // when
+      registerJobRepository.updateRegisterDataVersion(S3_REGISTER_JOB_ID, 5L);
+
+      // then
+      verify(jdbcTemplate).update(anyString(), eq(5L), eq(S3_REGISTER_JOB_ID));
+    }
+  }
+
   @Nested
   class UpdateErrors {
 
@@ -303,6 +348,8 @@ class RegisterJobRepositoryTest {
             return errors;
           case COL_CORRELATION_ID:
             return TYPICAL_CORRELATION_ID;
+          case COL_CONTENT_DIGEST:
+            return null;
         }
         throw new RuntimeException("Value not stubbed!");
       });
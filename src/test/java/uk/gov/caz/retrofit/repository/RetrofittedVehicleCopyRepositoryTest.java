@@ -0,0 +1,77 @@
+package uk.gov.caz.retrofit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+
+@ExtendWith(MockitoExtension.class)
+class RetrofittedVehicleCopyRepositoryTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private RetrofittedVehicleCopyRepository copyRepository;
+
+  @BeforeEach
+  void setup() {
+    copyRepository = new RetrofittedVehicleCopyRepository(jdbcTemplate);
+  }
+
+  @Test
+  void shouldQuoteNonNullValuesInCopyRow() {
+    //given
+    RetrofittedVehicle vehicle = RetrofittedVehicle.builder()
+        .vrn("8839GF")
+        .vehicleCategory("Military, \"Heavy\"")
+        .model("T-34/85 Rudy 102")
+        .dateOfRetrofitInstallation(LocalDate.parse("2007-12-03"))
+        .build();
+
+    //when
+    String row = RetrofittedVehicleCopyRepository.toCopyRow(vehicle);
+
+    //then
+    assertThat(row).isEqualTo("\"8839GF\",\"Military, \"\"Heavy\"\"\",\"T-34/85 Rudy 102\","
+        + "2007-12-03," + vehicle.contentHash() + "\n");
+  }
+
+  @Test
+  void shouldMapNullValuesToUnquotedEmptyFieldsInCopyRow() {
+    //given
+    RetrofittedVehicle vehicle = RetrofittedVehicle.builder()
+        .vrn("8839GF")
+        .dateOfRetrofitInstallation(LocalDate.parse("2007-12-03"))
+        .build();
+
+    //when
+    String row = RetrofittedVehicleCopyRepository.toCopyRow(vehicle);
+
+    //then
+    assertThat(row).isEqualTo("\"8839GF\",,,2007-12-03," + vehicle.contentHash() + "\n");
+  }
+
+  @Test
+  void shouldDeleteMissingVehiclesBeforeUpsertingStagedOnes() {
+    //when
+    copyRepository.mergeStagingTable();
+
+    //then
+    InOrder inOrder = inOrder(jdbcTemplate);
+    inOrder.verify(jdbcTemplate)
+        .execute(eq(RetrofittedVehicleCopyRepository.ANALYZE_STAGING_TABLE_SQL));
+    inOrder.verify(jdbcTemplate)
+        .update(eq(RetrofittedVehicleCopyRepository.DELETE_MISSING_FROM_STAGING_TABLE_SQL));
+    inOrder.verify(jdbcTemplate)
+        .update(eq(RetrofittedVehicleCopyRepository.MERGE_STAGING_TABLE_SQL));
+  }
+}
@@ -4,20 +4,31 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
@@ -25,9 +36,13 @@ import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.CsvParseResult;
 import uk.gov.caz.retrofit.service.CsvObjectMapper;
+import uk.gov.caz.retrofit.service.exception.S3FileModifiedException;
 import uk.gov.caz.retrofit.service.exception.S3InvalidUploaderIdFormatException;
 import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
 import uk.gov.caz.retrofit.service.exception.S3MetadataException;
@@ -47,6 +62,11 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
       .build();
   private static final String ANY_BUCKET = "bucket-x";
   private static final String ANY_FILE = "file-x";
+  private static final String ANY_ETAG = "\"etag\"";
+  private static final CsvMetadata NO_CSV_METADATA = null;
+  private static final CsvMetadata VALID_CSV_METADATA = new CsvMetadata(UUID.randomUUID(),
+      CsvContentType.RETROFIT_LIST, RetrofittedVehicleDtoCsvRepository.MAX_FILE_SIZE_IN_BYTES - 1,
+      ANY_ETAG);
 
   @Mock
   private S3Client s3Client;
@@ -54,20 +74,23 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
   @Mock
   private CsvObjectMapper csvObjectMapper;
 
+  @Mock
+  private ParallelRangedS3ObjectReader parallelRangedS3ObjectReader;
+
   @InjectMocks
   private RetrofittedVehicleDtoCsvRepository csvRepository;
 
   @Test
   public void shouldThrowIllegalArgumentExceptionWhenFilenameOrBucketIsNullOrEmpty() {
     assertThatExceptionOfType(IllegalArgumentException.class)
-        .isThrownBy(() -> csvRepository.findAll(null, "file-x"));
+        .isThrownBy(() -> csvRepository.findAll(null, "file-x", NO_CSV_METADATA));
     assertThatExceptionOfType(IllegalArgumentException.class)
-        .isThrownBy(() -> csvRepository.findAll("", ANY_FILE));
+        .isThrownBy(() -> csvRepository.findAll("", ANY_FILE, NO_CSV_METADATA));
 
     assertThatExceptionOfType(IllegalArgumentException.class)
-        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, null));
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, null, NO_CSV_METADATA));
     assertThatExceptionOfType(IllegalArgumentException.class)
-        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ""));
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, "", NO_CSV_METADATA));
   }
 
   @Test
@@ -75,7 +98,7 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockExceptionWhenGettingS3HeadObject(NoSuchKeyException.builder().build());
 
     assertThatExceptionOfType(NoSuchKeyException.class)
-        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
   }
 
   @Test
@@ -86,7 +109,7 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
         .build());
 
     assertThatExceptionOfType(S3MetadataException.class)
-        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
   }
 
   @Test
@@ -95,7 +118,7 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockExceptionWhenGettingS3Object(NoSuchKeyException.builder().build());
 
     assertThatExceptionOfType(NoSuchKeyException.class).isThrownBy(() -> {
-      csvRepository.findAll(ANY_BUCKET, ANY_FILE);
+      csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA);
     });
   }
 
@@ -105,7 +128,7 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockExceptionWhenGettingS3Object(new IOException());
 
     assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> {
-      csvRepository.findAll(ANY_BUCKET, ANY_FILE);
+      csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA);
     }).withCauseInstanceOf(IOException.class);
   }
 
@@ -116,7 +139,8 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
         RetrofittedVehicleDtoCsvRepository.MAX_FILE_SIZE_IN_BYTES + 1);
 
     // when
-    Throwable throwable = catchThrowable(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+    Throwable throwable = catchThrowable(
+        () -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
 
     // then
     assertThat(throwable).isInstanceOf(S3MaxFileSizeExceededException.class);
@@ -128,7 +152,8 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockS3HeadObjectResponseWithContentSize(null);
 
     // when
-    Throwable throwable = catchThrowable(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+    Throwable throwable = catchThrowable(
+        () -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
 
     // then
     assertThat(throwable).isNotInstanceOf(S3MaxFileSizeExceededException.class);
@@ -140,7 +165,8 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockS3HeadObjectResponseWithUploaderId("NotUUID");
 
     // when
-    Throwable throwable = catchThrowable(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+    Throwable throwable = catchThrowable(
+        () -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
 
     // then
     assertThat(throwable).isInstanceOf(S3InvalidUploaderIdFormatException.class);
@@ -161,7 +187,7 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockExceptionWhenGettingS3Object(SdkException.builder().build());
 
     assertThatExceptionOfType(SdkException.class)
-        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE));
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA));
   }
 
   @Test
@@ -177,10 +203,202 @@ class RetrofittedVehicleDtoCsvRepositoryTest {
     mockValidS3HeadObjectResponse();
     mockValidFileReading(content, vehicles);
 
-    assertThat(csvRepository.findAll(ANY_BUCKET, ANY_FILE).getVehicles())
+    assertThat(csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA).getVehicles())
         .containsExactlyElementsOf(vehicles);
   }
 
+  @Test
+  public void shouldDownloadLargeFileInParts() throws IOException {
+    InputStream partsInputStream = new ByteArrayInputStream(new byte[0]);
+    mockValidS3HeadObjectResponse();
+    when(parallelRangedS3ObjectReader.shouldReadInParts(VALID_HEAD_OBJECT_RESPONSE))
+        .thenReturn(true);
+    when(parallelRangedS3ObjectReader.read(ANY_BUCKET, ANY_FILE, VALID_HEAD_OBJECT_RESPONSE))
+        .thenReturn(partsInputStream);
+    when(csvObjectMapper.read(partsInputStream))
+        .thenReturn(new CsvParseResult(Collections.emptyList(), Collections.emptyList()));
+
+    csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA);
+
+    verify(s3Client, never()).getObjectAsBytes(any(GetObjectRequest.class));
+  }
+
+  @Test
+  public void shouldFindValidMetadataWithSingleHeadRequest() {
+    mockS3HeadObjectResponse(VALID_HEAD_OBJECT_RESPONSE.toBuilder().eTag(ANY_ETAG).build());
+
+    CsvMetadata csvMetadata = csvRepository.findValidMetadata(ANY_BUCKET, ANY_FILE,
+        NO_CSV_METADATA);
+
+    assertThat(csvMetadata.getUploaderId().toString()).isEqualTo(VALID_HEAD_OBJECT_RESPONSE
+        .metadata().get(RetrofittedVehicleDtoCsvRepository.UPLOADER_ID_METADATA_KEY));
+    assertThat(csvMetadata.getFileSize()).isEqualTo(VALID_HEAD_OBJECT_RESPONSE.contentLength());
+    assertThat(csvMetadata.getFileETag()).isEqualTo(ANY_ETAG);
+    verify(s3Client).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  public void shouldReturnMetadataObtainedWhenJobStartedWithoutFetchingItAgain() {
+    CsvMetadata csvMetadata = csvRepository.findValidMetadata(ANY_BUCKET, ANY_FILE,
+        VALID_CSV_METADATA);
+
+    assertThat(csvMetadata).isEqualTo(VALID_CSV_METADATA);
+    verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  public void shouldStreamFetchedMetadataVersionOfFileWithoutFetchingMetadataAgain()
+      throws IOException {
+    ResponseInputStream<GetObjectResponse> inputStream = new ResponseInputStream<>(ANY_RESPONSE,
+        AbortableInputStream.create(new ByteArrayInputStream(new byte[0])));
+    mockS3HeadObjectResponse(VALID_HEAD_OBJECT_RESPONSE.toBuilder().eTag(ANY_ETAG).build());
+    when(s3Client.getObject(GetObjectRequest.builder()
+        .bucket(ANY_BUCKET)
+        .key(ANY_FILE)
+        .ifMatch(ANY_ETAG)
+        .build())).thenReturn(inputStream);
+    when(csvObjectMapper.read(eq(inputStream), any())).thenReturn(Collections.emptyList());
+
+    CsvMetadata csvMetadata = csvRepository.findValidMetadata(ANY_BUCKET, ANY_FILE,
+        NO_CSV_METADATA);
+    csvRepository.forEach(ANY_BUCKET, ANY_FILE, csvMetadata, vehicle -> {});
+
+    verify(s3Client).headObject(any(HeadObjectRequest.class));
+    verify(parallelRangedS3ObjectReader, never()).read(any(), any(), any());
+  }
+
+  @Test
+  public void shouldStreamLargeFileInPartsWithoutFetchingMetadataAgain() throws IOException {
+    InputStream partsInputStream = new ByteArrayInputStream(new byte[0]);
+    mockS3HeadObjectResponse(VALID_HEAD_OBJECT_RESPONSE.toBuilder().eTag(ANY_ETAG).build());
+    when(parallelRangedS3ObjectReader.shouldReadInParts(any())).thenReturn(true);
+    when(parallelRangedS3ObjectReader.read(eq(ANY_BUCKET), eq(ANY_FILE), any()))
+        .thenReturn(partsInputStream);
+    when(csvObjectMapper.read(eq(partsInputStream), any())).thenReturn(Collections.emptyList());
+
+    CsvMetadata csvMetadata = csvRepository.findValidMetadata(ANY_BUCKET, ANY_FILE,
+        NO_CSV_METADATA);
+    csvRepository.forEach(ANY_BUCKET, ANY_FILE, csvMetadata, vehicle -> {});
+
+    verify(s3Client).headObject(any(HeadObjectRequest.class));
+    verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+    verify(parallelRangedS3ObjectReader).read(eq(ANY_BUCKET), eq(ANY_FILE),
+        argThat(fileMetadata -> ANY_ETAG.equals(fileMetadata.eTag())));
+  }
+
+  @Test
+  public void shouldNotStreamFileWithoutValidatedMetadata() {
+    assertThatExceptionOfType(NullPointerException.class).isThrownBy(() ->
+        csvRepository.forEach(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA, vehicle -> {}));
+    verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  public void shouldReadFileWithMetadataObtainedWhenJobStartedWithoutFetchingItAgain()
+      throws IOException {
+    mockValidFileReading("", Collections.emptyList());
+
+    assertThat(csvRepository.findAll(ANY_BUCKET, ANY_FILE, VALID_CSV_METADATA).getUploaderId())
+        .isEqualTo(VALID_CSV_METADATA.getUploaderId());
+
+    verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+    verify(s3Client).getObjectAsBytes(GetObjectRequest.builder()
+        .bucket(ANY_BUCKET)
+        .key(ANY_FILE)
+        .ifMatch(ANY_ETAG)
+        .build());
+  }
+
+  @Test
+  public void shouldThrowS3MaxFileSizeExceededExceptionWhenFileFromMetadataIsTooBig() {
+    CsvMetadata csvMetadata = new CsvMetadata(UUID.randomUUID(), CsvContentType.RETROFIT_LIST,
+        RetrofittedVehicleDtoCsvRepository.MAX_FILE_SIZE_IN_BYTES + 1, ANY_ETAG);
+
+    assertThatExceptionOfType(S3MaxFileSizeExceededException.class)
+        .isThrownBy(() -> csvRepository.findDelta(ANY_BUCKET, ANY_FILE, csvMetadata));
+    verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  public void shouldThrowS3FileModifiedExceptionWhenFileHasBeenModified() {
+    mockExceptionWhenGettingS3Object(S3Exception.builder().statusCode(412).build());
+
+    assertThatExceptionOfType(S3FileModifiedException.class)
+        .isThrownBy(() -> csvRepository.findDelta(ANY_BUCKET, ANY_FILE, VALID_CSV_METADATA));
+  }
+
+  @Test
+  public void shouldRethrowOtherS3Exceptions() {
+    mockExceptionWhenGettingS3Object(S3Exception.builder().statusCode(403).build());
+
+    assertThatExceptionOfType(S3Exception.class)
+        .isThrownBy(() -> csvRepository.findAll(ANY_BUCKET, ANY_FILE, VALID_CSV_METADATA));
+  }
+
+  @Test
+  public void shouldStreamFileWithMetadataObtainedWhenJobStarted() throws IOException {
+    ResponseInputStream<GetObjectResponse> inputStream = new ResponseInputStream<>(ANY_RESPONSE,
+        AbortableInputStream.create(new ByteArrayInputStream(new byte[0])));
+    when(s3Client.getObject(GetObjectRequest.builder()
+        .bucket(ANY_BUCKET)
+        .key(ANY_FILE)
+        .ifMatch(ANY_ETAG)
+        .build())).thenReturn(inputStream);
+    when(csvObjectMapper.read(eq(inputStream), any())).thenReturn(Collections.emptyList());
+
+    csvRepository.forEach(ANY_BUCKET, ANY_FILE, VALID_CSV_METADATA, vehicle -> {});
+
+    verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  public void shouldStreamLargeFileWithMetadataObtainedWhenJobStartedInParts()
+      throws IOException {
+    InputStream partsInputStream = new ByteArrayInputStream(new byte[0]);
+    when(parallelRangedS3ObjectReader.shouldReadInParts(any())).thenReturn(true);
+    when(parallelRangedS3ObjectReader.read(eq(ANY_BUCKET), eq(ANY_FILE), any()))
+        .thenReturn(partsInputStream);
+    when(csvObjectMapper.read(eq(partsInputStream), any()))
+        .thenThrow(S3Exception.builder().statusCode(412).build());
+
+    assertThatExceptionOfType(S3FileModifiedException.class).isThrownBy(() ->
+        csvRepository.forEach(ANY_BUCKET, ANY_FILE, VALID_CSV_METADATA, vehicle -> {}));
+    verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  public void shouldDecompressGzippedFile() throws IOException {
+    byte[] content = "OI64EFO,category-1,model-1,2019-04-30".getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+      gzipOutputStream.write(content);
+    }
+    mockValidS3HeadObjectResponse();
+    when(s3Client.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(
+        ResponseBytes.fromByteArray(ANY_RESPONSE, compressed.toByteArray()));
+    when(csvObjectMapper.read(any(InputStream.class))).thenAnswer(invocation -> {
+      assertThat(ByteStreams.toByteArray(invocation.<InputStream>getArgument(0)))
+          .isEqualTo(content);
+      return new CsvParseResult(Collections.emptyList(), Collections.emptyList());
+    });
+
+    csvRepository.findAll(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA);
+
+    verify(csvObjectMapper).read(any(InputStream.class));
+  }
+
+  @Test
+  public void shouldThrowRuntimeExceptionWhenCompressedFileIsCorrupted() {
+    byte[] corruptedGzip = {(byte) 0x1F, (byte) 0x8B, 0, 0};
+    mockValidS3HeadObjectResponse();
+    when(s3Client.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(
+        ResponseBytes.fromByteArray(ANY_RESPONSE, corruptedGzip));
+
+    assertThatExceptionOfType(RuntimeException.class)
+        .isThrownBy(() -> csvRepository.findDelta(ANY_BUCKET, ANY_FILE, NO_CSV_METADATA))
+        .withCauseInstanceOf(IOException.class);
+  }
+
   @Test
   public void shouldReturnDeleteStatusAsFalseIfAnyExceptionWasThrownDuringDeletingObject() {
     mockExceptionWhenDeletingS3Object(new RuntimeException());
@@ -1,16 +1,27 @@
 package uk.gov.caz.retrofit.repository;
 
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.Sets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,13 +30,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import uk.gov.caz.retrofit.model.RetrofitStatus;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 
 @ExtendWith(MockitoExtension.class)
 class RetrofittedVehiclePostgresRepositoryTest {
 
   private static final int ANY_BATCH_SIZE = 1;
+  private static final int ANY_CHANGE_DETECTION_BATCH_SIZE = 5000;
 
   public static final RetrofittedVehicle MILITARY_VEHICLE_1 = RetrofittedVehicle.builder()
       .vrn("8839GF")
@@ -54,7 +71,7 @@ class RetrofittedVehiclePostgresRepositoryTest {
   @BeforeEach
   void setup() {
     retrofittedVehiclePostgresRepository = new RetrofittedVehiclePostgresRepository(
-        jdbcTemplate, ANY_BATCH_SIZE
+        jdbcTemplate, ANY_BATCH_SIZE, ANY_CHANGE_DETECTION_BATCH_SIZE
     );
   }
 
@@ -82,6 +99,91 @@ class RetrofittedVehiclePostgresRepositoryTest {
         .update(eq(RetrofittedVehiclePostgresRepository.DELETE_ALL_SQL));
   }
 
+  @Test
+  void shouldPassVrnsWithInsertTimestampsToConsumer() throws Exception {
+    // given
+    Timestamp insertTimestamp = Timestamp.valueOf("2019-10-01 12:34:56.123456");
+    ResultSet resultSet = mock(ResultSet.class);
+    given(resultSet.getString("vrn")).willReturn(MILITARY_VEHICLE_1.getVrn());
+    given(resultSet.getTimestamp("insert_timestmp")).willReturn(insertTimestamp);
+    willAnswer(invocation -> {
+      invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+      return null;
+    }).given(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    Map<String, Timestamp> insertTimestamps = new HashMap<>();
+
+    // when
+    retrofittedVehiclePostgresRepository.forEachVrnWithInsertTimestamp(insertTimestamps::put);
+
+    // then
+    then(insertTimestamps).containsOnly(entry(MILITARY_VEHICLE_1.getVrn(), insertTimestamp));
+  }
+
+  @Test
+  void shouldFindVrnInfoWithPointLookup() throws Exception {
+    // given
+    Timestamp insertTimestamp = Timestamp.valueOf("2019-10-01 12:34:56");
+    ResultSet resultSet = mock(ResultSet.class);
+    given(resultSet.next()).willReturn(true);
+    given(resultSet.getTimestamp("insert_timestmp")).willReturn(insertTimestamp);
+    mockVrnInfoQuery(resultSet);
+
+    // when
+    RetrofitStatus retrofitStatus = retrofittedVehiclePostgresRepository
+        .infoByVrn(MILITARY_VEHICLE_1.getVrn());
+
+    // then
+    then(retrofitStatus.exists()).isTrue();
+    then(retrofitStatus.getInsertTimestamp()).isEqualTo(insertTimestamp.toLocalDateTime());
+  }
+
+  @Test
+  void shouldReturnNotExistingStatusWhenVrnIsNotFound() throws Exception {
+    // given
+    ResultSet resultSet = mock(ResultSet.class);
+    given(resultSet.next()).willReturn(false);
+    mockVrnInfoQuery(resultSet);
+
+    // when
+    RetrofitStatus retrofitStatus = retrofittedVehiclePostgresRepository
+        .infoByVrn(MILITARY_VEHICLE_1.getVrn());
+
+    // then
+    then(retrofitStatus.exists()).isFalse();
+    then(retrofitStatus.getInsertTimestamp()).isNull();
+  }
+
+  private void mockVrnInfoQuery(ResultSet resultSet) {
+    given(jdbcTemplate.query(eq(RetrofittedVehiclePostgresRepository.VRN_INFO_SQL),
+        any(ResultSetExtractor.class), eq(MILITARY_VEHICLE_1.getVrn())))
+        .willAnswer(invocation -> invocation.<ResultSetExtractor<RetrofitStatus>>getArgument(1)
+            .extractData(resultSet));
+  }
+
+  @Test
+  void shouldFindManyVrnsWithSingleQuery() throws Exception {
+    // given
+    Timestamp insertTimestamp = Timestamp.valueOf("2019-10-01 12:34:56");
+    ResultSet resultSet = mock(ResultSet.class);
+    given(resultSet.getString("vrn")).willReturn(MILITARY_VEHICLE_1.getVrn());
+    given(resultSet.getTimestamp("insert_timestmp")).willReturn(insertTimestamp);
+    willAnswer(invocation -> {
+      invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+      return null;
+    }).given(jdbcTemplate)
+        .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    // when
+    Map<String, RetrofitStatus> statuses = retrofittedVehiclePostgresRepository
+        .infoByVrns(Sets.newHashSet(MILITARY_VEHICLE_1.getVrn(), NORMAL_VEHICLE_1.getVrn()));
+
+    // then
+    then(statuses).containsOnlyKeys(MILITARY_VEHICLE_1.getVrn());
+    then(statuses.get(MILITARY_VEHICLE_1.getVrn()).exists()).isTrue();
+    then(statuses.get(MILITARY_VEHICLE_1.getVrn()).getInsertTimestamp())
+        .isEqualTo(insertTimestamp.toLocalDateTime());
+  }
+
   @Test
   void shouldReturnWhenDeletingEmptySet() {
     // given
@@ -94,4 +196,81 @@ class RetrofittedVehiclePostgresRepositoryTest {
     verify(jdbcTemplate, never()).execute(anyString());
     verify(jdbcTemplate, never()).update(anyString());
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldStageVrnsToKeepAndDeleteTheRestWithAntiJoin() {
+    // given
+    Set<String> vrnsToKeep = Sets.newHashSet(MILITARY_VEHICLE_1.getVrn(),
+        NORMAL_VEHICLE_1.getVrn());
+
+    // when
+    retrofittedVehiclePostgresRepository.deleteAllExcept(vrnsToKeep);
+
+    // then
+    verify(jdbcTemplate)
+        .execute(RetrofittedVehiclePostgresRepository.CREATE_VRNS_TO_KEEP_TEMP_TABLE);
+    verify(jdbcTemplate, times(2)).batchUpdate(
+        eq(RetrofittedVehiclePostgresRepository.INSERT_VRNS_INTO_VRNS_TO_KEEP_TEMP_TABLE),
+        anyList());
+    verify(jdbcTemplate).update(
+        RetrofittedVehiclePostgresRepository.DELETE_VRNS_MISSING_FROM_VRNS_TO_KEEP_TEMP_TABLE);
+    verify(jdbcTemplate).execute(RetrofittedVehiclePostgresRepository.DROP_VRNS_TO_KEEP_TEMP_TABLE);
+    verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class));
+  }
+
+  @Test
+  void shouldSendOnlyChangedVehicles() {
+    // given
+    given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+        .willReturn(Collections.singletonList(NORMAL_VEHICLE_1.getVrn()));
+
+    // when
+    retrofittedVehiclePostgresRepository.insertOrUpdateChanged(RETROFITTED_VEHICLES);
+
+    // then
+    verify(jdbcTemplate)
+        .batchUpdate(eq(RetrofittedVehiclePostgresRepository.INSERT_SQL),
+            any(BatchPreparedStatementSetter.class));
+  }
+
+  @Test
+  void shouldNotSendAnythingWhenNoVehicleHasChanged() {
+    // given
+    given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+        .willReturn(Collections.emptyList());
+
+    // when
+    retrofittedVehiclePostgresRepository.insertOrUpdateChanged(RETROFITTED_VEHICLES);
+
+    // then
+    verify(jdbcTemplate, never())
+        .batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+  }
+
+  @Test
+  void shouldCompareContentHashesInBatchesOfConfiguredSize() {
+    // given
+    retrofittedVehiclePostgresRepository = new RetrofittedVehiclePostgresRepository(
+        jdbcTemplate, ANY_BATCH_SIZE, 1);
+    given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+        .willReturn(Collections.emptyList());
+
+    // when
+    retrofittedVehiclePostgresRepository.insertOrUpdateChanged(RETROFITTED_VEHICLES);
+
+    // then
+    verify(jdbcTemplate, times(RETROFITTED_VEHICLES.size()))
+        .query(any(PreparedStatementCreator.class), any(RowMapper.class));
+  }
+
+  @Test
+  void shouldNotAcceptNonPositiveChangeDetectionBatchSize() {
+    // when
+    Throwable throwable = catchThrowable(
+        () -> new RetrofittedVehiclePostgresRepository(jdbcTemplate, ANY_BATCH_SIZE, 0));
+
+    // then
+    then(throwable).isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Change detection batch size must be positive");
+  }
+}
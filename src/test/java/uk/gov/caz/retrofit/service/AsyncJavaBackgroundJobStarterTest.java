@@ -4,6 +4,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static uk.gov.caz.testutils.TestObjects.S3_REGISTER_JOB_ID;
 import static uk.gov.caz.testutils.TestObjects.TYPICAL_CORRELATION_ID;
+import static uk.gov.caz.testutils.TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID;
 
 import java.util.concurrent.TimeUnit;
 import org.awaitility.Awaitility;
@@ -12,12 +13,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 
 @ExtendWith(MockitoExtension.class)
 class AsyncJavaBackgroundJobStarterTest {
 
   private static final String S3_BUCKET = "s3Bucket";
   private static final String CSV_FILE = "fileName";
+  private static final CsvMetadata CSV_METADATA = new CsvMetadata(
+      TYPICAL_REGISTER_JOB_UPLOADER_ID, CsvContentType.RETROFIT_LIST, 1024L, "\"etag\"");
 
   @Mock
   private SourceAwareRegisterService mockedService;
@@ -32,7 +37,7 @@ class AsyncJavaBackgroundJobStarterTest {
     // when
     javaJobStarter
         .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, S3_BUCKET, CSV_FILE,
-            TYPICAL_CORRELATION_ID);
+            TYPICAL_CORRELATION_ID, CSV_METADATA);
 
     // then
     Awaitility
@@ -40,7 +45,8 @@ class AsyncJavaBackgroundJobStarterTest {
         .atMost(5, TimeUnit.SECONDS)
         .untilAsserted(
             () -> verify(mockedService)
-                .register(S3_BUCKET, CSV_FILE, S3_REGISTER_JOB_ID, TYPICAL_CORRELATION_ID));
+                .register(S3_BUCKET, CSV_FILE, S3_REGISTER_JOB_ID, TYPICAL_CORRELATION_ID,
+                    CSV_METADATA));
     verifyNoMoreInteractions(mockedService);
   }
 }
\ No newline at end of file
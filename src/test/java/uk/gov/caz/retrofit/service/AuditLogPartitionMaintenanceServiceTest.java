@@ -0,0 +1,105 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.caz.retrofit.repository.AuditLogPartitionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogPartitionMaintenanceServiceTest {
+
+  private static final YearMonth CURRENT_MONTH = YearMonth.of(2020, 7);
+
+  @Mock
+  private AuditLogPartitionRepository auditLogPartitionRepository;
+
+  @Test
+  void shouldCreatePartitionsOfCurrentAndFollowingMonths() {
+    // given
+    given(auditLogPartitionRepository.createPartition(any())).willReturn(true, false);
+    given(auditLogPartitionRepository.findPartitions()).willReturn(Collections.emptyList());
+    AuditLogPartitionMaintenanceService service = createService(2, 12, false);
+
+    // when
+    service.maintain(CURRENT_MONTH);
+
+    // then
+    verify(auditLogPartitionRepository).createPartition(YearMonth.of(2020, 7));
+    verify(auditLogPartitionRepository).createPartition(YearMonth.of(2020, 8));
+    verify(auditLogPartitionRepository).createPartition(YearMonth.of(2020, 9));
+    verify(auditLogPartitionRepository, never()).createPartition(YearMonth.of(2020, 10));
+  }
+
+  @Test
+  void shouldDetachOnlyPartitionsOlderThanRetentionPeriod() {
+    // given
+    given(auditLogPartitionRepository.findPartitions()).willReturn(Arrays.asList(
+        YearMonth.of(2019, 5), YearMonth.of(2019, 6), YearMonth.of(2019, 7),
+        YearMonth.of(2020, 7)));
+    AuditLogPartitionMaintenanceService service = createService(0, 12, false);
+
+    // when
+    service.maintain(CURRENT_MONTH);
+
+    // then
+    verify(auditLogPartitionRepository).detachPartition(YearMonth.of(2019, 5));
+    verify(auditLogPartitionRepository).detachPartition(YearMonth.of(2019, 6));
+    verify(auditLogPartitionRepository, never()).detachPartition(YearMonth.of(2019, 7));
+    verify(auditLogPartitionRepository, never()).detachPartition(YearMonth.of(2020, 7));
+    verify(auditLogPartitionRepository, never()).dropDetachedPartition(any());
+  }
+
+  @Test
+  void shouldDropExpiredPartitionsWhenEnabled() {
+    // given
+    given(auditLogPartitionRepository.findPartitions())
+        .willReturn(Collections.singletonList(YearMonth.of(2019, 6)));
+    AuditLogPartitionMaintenanceService service = createService(0, 12, true);
+
+    // when
+    service.maintain(CURRENT_MONTH);
+
+    // then
+    verify(auditLogPartitionRepository).detachPartition(YearMonth.of(2019, 6));
+    verify(auditLogPartitionRepository).dropDetachedPartition(YearMonth.of(2019, 6));
+  }
+
+  @Test
+  void shouldMaintainPartitionsRelativeToCurrentMonth() {
+    // given
+    given(auditLogPartitionRepository.findPartitions()).willReturn(Collections.emptyList());
+    AuditLogPartitionMaintenanceService service = createService(0, 12, false);
+
+    // when
+    service.maintain();
+
+    // then
+    verify(auditLogPartitionRepository).findPartitions();
+  }
+
+  @Test
+  void shouldRejectNegativeNumberOfMonthsAhead() {
+    assertThatIllegalArgumentException().isThrownBy(() -> createService(-1, 12, false));
+  }
+
+  @Test
+  void shouldRejectNegativeRetentionPeriod() {
+    assertThatIllegalArgumentException().isThrownBy(() -> createService(0, -1, false));
+  }
+
+  private AuditLogPartitionMaintenanceService createService(int monthsAhead,
+      int retentionMonths, boolean dropExpired) {
+    return new AuditLogPartitionMaintenanceService(auditLogPartitionRepository, monthsAhead,
+        retentionMonths, dropExpired);
+  }
+}
@@ -0,0 +1,104 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.repository.AuditOutboxRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuditOutboxDrainerTest {
+
+  private static final int BATCH_SIZE = 10;
+
+  @Mock
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setup() {
+    lenient().when(transactionManager.getTransaction(any()))
+        .thenReturn(new SimpleTransactionStatus());
+    transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Test
+  void shouldDrainBatchesUntilOutboxIsEmpty() {
+    // given
+    given(auditOutboxRepository.tryLockForDraining()).willReturn(true);
+    given(auditOutboxRepository.drain(BATCH_SIZE)).willReturn(10, 3, 0);
+    AuditOutboxDrainer drainer = createDrainer(100);
+
+    // when
+    int drainedEvents = drainer.drain();
+
+    // then
+    assertThat(drainedEvents).isEqualTo(13);
+    verify(auditOutboxRepository, times(3)).drain(BATCH_SIZE);
+    verify(transactionManager, times(3)).commit(any());
+  }
+
+  @Test
+  void shouldStopAfterMaximumNumberOfBatches() {
+    // given
+    given(auditOutboxRepository.tryLockForDraining()).willReturn(true);
+    given(auditOutboxRepository.drain(BATCH_SIZE)).willReturn(BATCH_SIZE);
+    AuditOutboxDrainer drainer = createDrainer(2);
+
+    // when
+    int drainedEvents = drainer.drain();
+
+    // then
+    assertThat(drainedEvents).isEqualTo(2 * BATCH_SIZE);
+    verify(auditOutboxRepository, times(2)).drain(BATCH_SIZE);
+  }
+
+  @Test
+  void shouldNotDrainOutboxLockedByAnotherDrainer() {
+    // given
+    given(auditOutboxRepository.tryLockForDraining()).willReturn(false);
+    AuditOutboxDrainer drainer = createDrainer(100);
+
+    // when
+    int drainedEvents = drainer.drain();
+
+    // then
+    assertThat(drainedEvents).isZero();
+    verify(auditOutboxRepository, never()).drain(anyInt());
+  }
+
+  @Test
+  void shouldRejectNonPositiveBatchSize() {
+    assertThatIllegalArgumentException().isThrownBy(
+        () -> new AuditOutboxDrainer(auditOutboxRepository, transactionTemplate, 0, 1));
+  }
+
+  @Test
+  void shouldRejectNonPositiveMaximumNumberOfBatches() {
+    assertThatIllegalArgumentException().isThrownBy(
+        () -> new AuditOutboxDrainer(auditOutboxRepository, transactionTemplate, 1, 0));
+  }
+
+  private AuditOutboxDrainer createDrainer(int maxBatches) {
+    return new AuditOutboxDrainer(auditOutboxRepository, transactionTemplate, BATCH_SIZE,
+        maxBatches);
+  }
+}
@@ -22,7 +22,7 @@ import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import uk.gov.caz.retrofit.model.CsvContentType;
-import uk.gov.caz.retrofit.service.CsvFileOnS3MetadataExtractor.CsvMetadata;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.service.exception.FatalErrorWithCsvFileMetadataException;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +30,8 @@ class CsvFileOnS3MetadataExtractorTest {
 
   private static final String S3_BUCKET = "s3Bucket";
   private static final String FILENAME = "filename";
+  private static final long FILE_SIZE = 1024L;
+  private static final String FILE_ETAG = "\"etag\"";
 
   @Mock
   private S3Client mockedS3Client;
@@ -50,6 +52,8 @@ class CsvFileOnS3MetadataExtractorTest {
     assertThat(csvMetadata).isNotNull();
     assertThat(csvMetadata.getUploaderId()).isEqualByComparingTo(TYPICAL_REGISTER_JOB_UPLOADER_ID);
     assertThat(csvMetadata.getCsvContentType()).isEqualByComparingTo(CsvContentType.RETROFIT_LIST);
+    assertThat(csvMetadata.getFileSize()).isEqualTo(FILE_SIZE);
+    assertThat(csvMetadata.getFileETag()).isEqualTo(FILE_ETAG);
   }
 
   @Test
@@ -153,6 +157,8 @@ class CsvFileOnS3MetadataExtractorTest {
             ImmutableMap
                 .of(UPLOADER_ID_METADATA_KEY, uploaderIdToReturn,
                     CSV_CONTENT_TYPE_METADATA_KEY, csvContentTypeToReturn))
+        .contentLength(FILE_SIZE)
+        .eTag(FILE_ETAG)
         .build();
     HeadObjectRequest request = HeadObjectRequest.builder()
         .bucket(S3_BUCKET)
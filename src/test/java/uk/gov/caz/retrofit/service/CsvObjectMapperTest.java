@@ -7,6 +7,8 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.assertj.core.api.iterable.Extractor;
@@ -16,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.CsvDeltaParseResult;
 import uk.gov.caz.retrofit.model.CsvParseResult;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.service.validation.CsvAwareValidationMessageModifier;
@@ -95,6 +98,29 @@ class CsvObjectMapperTest {
     ));
   }
 
+  @Test
+  public void shouldPassEveryParsedRowToConsumerWhenStreaming() throws IOException {
+    // given
+    String csvLines = "ZC62OMB,category-2,model-2,2019-05-17\n"
+        + "ZC62OMB,category-2,model-2,2019-05-17$\n"
+        + "ND84VSX,cat-3,model-3,2019-04-14";
+    List<RetrofittedVehicleDto> vehicles = new ArrayList<>();
+
+    // when
+    List<ValidationError> errors = csvObjectMapper.read(toInputStream(csvLines), vehicles::add);
+
+    // then
+    then(vehicles)
+        .extracting((Extractor<RetrofittedVehicleDto, String>) RetrofittedVehicleDto::getVrn)
+        .containsExactly("ZC62OMB", "ND84VSX");
+    then(vehicles)
+        .extracting(
+            (Extractor<RetrofittedVehicleDto, Integer>) RetrofittedVehicleDto::getLineNumber)
+        .containsExactly(1, 3);
+    then(errors).hasSize(1);
+    then(errors.get(0).getLineNumber()).contains(2);
+  }
+
   @Test
   public void shouldReadValidCsvData() throws IOException {
     // given
@@ -245,6 +271,76 @@ class CsvObjectMapperTest {
     );
   }
 
+  @Nested
+  class Delta {
+
+    @Test
+    public void shouldReadVehiclesToUpsertAndDelete() throws IOException {
+      // given
+      String csvLines = "U,ZC62OMB,category-2,model-2,2019-05-17\n"
+          + "D,ND84 VSX";
+
+      // when
+      CsvDeltaParseResult result = csvObjectMapper.readDelta(toInputStream(csvLines));
+
+      // then
+      then(result.getValidationErrors()).isEmpty();
+      then(result.getVehiclesToUpsert()).containsOnly(
+          RetrofittedVehicleDto.builder()
+              .vrn("ZC62OMB")
+              .vehicleCategory("category-2")
+              .model("model-2")
+              .dateOfRetrofitInstallation("2019-05-17")
+              .lineNumber(1)
+              .build()
+      );
+      then(result.getVehiclesToDelete()).containsOnly(
+          RetrofittedVehicleDto.builder()
+              .vrn("ND84VSX")
+              .lineNumber(2)
+              .build()
+      );
+    }
+
+    @Test
+    public void shouldIgnoreLinesWithInvalidActionOrFieldsCount() throws IOException {
+      // given
+      String csvLines = "D,ZC62OMC\n"
+          + "X,ZC62OMB,category-2,model-2,2019-05-17\n"
+          + "U,ND84VSX\n"
+          + "D,ND84VSX,category-2,model-2,2019-05-17";
+
+      // when
+      CsvDeltaParseResult result = csvObjectMapper.readDelta(toInputStream(csvLines));
+
+      // then
+      then(result.getVehiclesToUpsert()).isEmpty();
+      then(result.getVehiclesToDelete())
+          .extracting((Extractor<RetrofittedVehicleDto, String>) RetrofittedVehicleDto::getVrn)
+          .containsExactly("ZC62OMC");
+      List<ValidationError> errors = result.getValidationErrors();
+      then(errors).hasSize(3);
+      then(errors.get(0).getDetail()).contains("Line contains invalid action (actual value: 'X'");
+      then(errors.get(1).getDetail()).contains("(actual value: 2, allowable value: 5)");
+      then(errors.get(2).getDetail()).contains("(actual value: 5, allowable value: 2)");
+    }
+
+    @Test
+    public void shouldReturnErrorIfVrnIsBothUpsertedAndDeleted() throws IOException {
+      // given
+      String csvLines = "U,ND84VSX,cat-2,model-2,2019-05-17\n"
+          + "D,ND84VSX";
+
+      // when
+      CsvDeltaParseResult result = csvObjectMapper.readDelta(toInputStream(csvLines));
+
+      // then
+      assertThat(result.getValidationErrors()).containsExactly(ValidationError.valueError(
+          "There are multiple entries with the same VRN"
+      ));
+    }
+  }
+
   private ByteArrayInputStream toInputStream(String csvLine) {
     return new ByteArrayInputStream(csvLine.getBytes(Charsets.UTF_8));
   }
@@ -9,15 +9,21 @@ import uk.gov.caz.retrofit.service.exception.CsvInvalidCharacterParseException;
 import uk.gov.caz.retrofit.service.exception.CsvInvalidFieldsCountException;
 import uk.gov.caz.retrofit.service.exception.CsvMaxLineLengthExceededException;
 
+/**
+ * A parser of lines of the retrofit CSV format which validates a line with a regular expression
+ * before passing it to {@code delegate}. It is the reference implementation for {@link
+ * CsvRetrofittedVehicleTokenizer} which is used to parse uploaded files, hence it is only used by
+ * tests and benchmarks.
+ */
 public class CsvRetrofittedVehicleParser implements ICSVParser {
 
-  static final int MAX_LINE_LENGTH = 100;
-  static final int EXPECTED_FIELDS_CNT = 4;
+  private static final int MAX_LINE_LENGTH = CsvRetrofittedVehicleTokenizer.MAX_LINE_LENGTH;
+  private static final int EXPECTED_FIELDS_CNT = CsvRetrofittedVehicleTokenizer.EXPECTED_FIELDS_CNT;
 
   private static final String MAX_LENGTH_MESSAGE_TEMPLATE =
-      "Line is too long (max :" + CsvRetrofittedVehicleParser.MAX_LINE_LENGTH + ", current: %d).";
+      "Line is too long (max :" + MAX_LINE_LENGTH + ", current: %d).";
   private static final String LINE_INVALID_FIELDS_CNT_MESSAGE_TEMPLATE =
-      "Line contains %d fields whereas it should " + + EXPECTED_FIELDS_CNT + ".";
+      "Line contains %d fields whereas it should " + EXPECTED_FIELDS_CNT + ".";
 
   private static final String REGEX = "^[\\w &,'\"\\-().*/%!+:;=?@\\[\\]^{}~]+$";
   private static final Pattern ALLOWABLE_CHARACTERS = Pattern.compile(REGEX);
@@ -84,6 +90,7 @@ public class CsvRetrofittedVehicleParser implements ICSVParser {
     if (result.length != EXPECTED_FIELDS_CNT) {
       throw new CsvInvalidFieldsCountException(
           result.length,
+          EXPECTED_FIELDS_CNT,
           String.format(LINE_INVALID_FIELDS_CNT_MESSAGE_TEMPLATE, result.length)
       );
     }
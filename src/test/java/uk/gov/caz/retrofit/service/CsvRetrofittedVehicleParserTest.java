@@ -102,7 +102,7 @@ class CsvRetrofittedVehicleParserTest {
   @Test
   public void shouldRejectTooLongLine() {
     // given
-    String line = Strings.repeat("a", CsvRetrofittedVehicleParser.MAX_LINE_LENGTH + 1);
+    String line = Strings.repeat("a", CsvRetrofittedVehicleTokenizer.MAX_LINE_LENGTH + 1);
 
     // when
     Throwable throwable = catchThrowable(() -> parser.parseLineMulti(line));
@@ -0,0 +1,146 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+import com.google.common.base.Strings;
+import com.opencsv.CSVParser;
+import java.io.IOException;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.caz.retrofit.service.exception.CsvInvalidCharacterParseException;
+import uk.gov.caz.retrofit.service.exception.CsvInvalidFieldsCountException;
+import uk.gov.caz.retrofit.service.exception.CsvMaxLineLengthExceededException;
+
+class CsvRetrofittedVehicleTokenizerTest {
+
+  private final CsvRetrofittedVehicleTokenizer tokenizer = new CsvRetrofittedVehicleTokenizer();
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "ND84VSX,category-3,model-3,2019-04-14",
+      " ND84 VSX , category-3 ,model 3,  2019-04-14  ",
+      "ND84VSX,,,2019-04-14",
+      "ND84VSX,cat:egory-3,(model)_3 & [x]{y}~^!?@=+;%*/',2019-04-14",
+      "ND84VSX,\"category, with comma\",model-3,2019-04-14",
+      "ND84VSX,\"category \"\"quoted\"\"\",model-3,2019-04-14",
+      "  \"ND84VSX\",category-3,\"\",2019-04-14",
+      "ND84VSX,category-3,model-3",
+      "ND84VSX,category-3,model-3,2019-04-14,extra",
+      "ND84VSX,category-3,model-3,2019-04-14,",
+      "ND84VSX,category-3,model-3,2019-04-14,    ",
+      ",    ",
+      "      ",
+      "any input",
+      "ND84VSX,category-3,model-3,2019-04-14$",
+      "ND8£4VSX,category-3,model-3,2019-04-14",
+      "ND84VSX,category-3,model-3,\t2019-04-14",
+      "ND84VSX\\,category-3,model-3,2019-04-14",
+  })
+  public void shouldBehaveLikeReferenceParser(String line) {
+    // given
+    CsvRetrofittedVehicleParser referenceParser = new CsvRetrofittedVehicleParser(
+        new CSVParser());
+
+    // when
+    Outcome expected = Outcome.of(() -> referenceParser.parseLineMulti(line));
+    Outcome actual = Outcome.of(() -> tokenizer.parseLineMulti(line));
+
+    // then
+    then(actual.fields).isEqualTo(expected.fields);
+    then(actual.exceptionClass).isEqualTo(expected.exceptionClass);
+  }
+
+  @Test
+  public void shouldSplitLineIntoFields() throws IOException {
+    // given
+    String line = "ND84VSX,category-3,,2019-04-14";
+
+    // when
+    String[] result = tokenizer.parseLineMulti(line);
+
+    // then
+    then(result).containsExactly("ND84VSX", "category-3", "", "2019-04-14");
+  }
+
+  @Test
+  public void shouldRejectEmptyLine() {
+    // when
+    Throwable throwable = catchThrowable(() -> tokenizer.parseLineMulti(""));
+
+    // then
+    then(throwable).isInstanceOf(CsvInvalidCharacterParseException.class);
+  }
+
+  @Test
+  public void shouldRejectTooLongLine() {
+    // given
+    String line = Strings.repeat("a", CsvRetrofittedVehicleTokenizer.MAX_LINE_LENGTH + 1);
+
+    // when
+    Throwable throwable = catchThrowable(() -> tokenizer.parseLineMulti(line));
+
+    // then
+    then(throwable).isInstanceOf(CsvMaxLineLengthExceededException.class);
+    then(((CsvMaxLineLengthExceededException) throwable).getLineLength())
+        .isEqualTo(CsvRetrofittedVehicleTokenizer.MAX_LINE_LENGTH + 1);
+  }
+
+  @Test
+  public void shouldReportActualAndExpectedFieldsCount() {
+    // when
+    Throwable throwable = catchThrowable(() -> tokenizer.parseLineMulti("a,b"));
+
+    // then
+    then(throwable).isInstanceOf(CsvInvalidFieldsCountException.class);
+    CsvInvalidFieldsCountException exception = (CsvInvalidFieldsCountException) throwable;
+    then(exception.getFieldsCount()).isEqualTo(2);
+    then(exception.getExpectedFieldsCount())
+        .isEqualTo(CsvRetrofittedVehicleTokenizer.EXPECTED_FIELDS_CNT);
+  }
+
+  @Test
+  public void shouldUseDefaultOpenCsvSettings() throws IOException {
+    // given
+    CSVParser openCsvParser = new CSVParser();
+
+    // when
+    tokenizer.setErrorLocale(Locale.UK);
+
+    // then
+    then(tokenizer.getSeparator()).isEqualTo(openCsvParser.getSeparator());
+    then(tokenizer.getQuotechar()).isEqualTo(openCsvParser.getQuotechar());
+    then(tokenizer.nullFieldIndicator()).isEqualTo(openCsvParser.nullFieldIndicator());
+    then(tokenizer.isPending()).isFalse();
+    then(tokenizer.getPendingText()).isEmpty();
+    then(tokenizer.parseLine("a,b")).containsExactly("a", "b");
+    then(tokenizer.parseToLine(new String[]{"a", "b"}, false)).isEqualTo("a,b");
+  }
+
+  private static class Outcome {
+
+    private final String[] fields;
+    private final Class<?> exceptionClass;
+
+    private Outcome(String[] fields, Class<?> exceptionClass) {
+      this.fields = fields;
+      this.exceptionClass = exceptionClass;
+    }
+
+    private static Outcome of(LineParser lineParser) {
+      try {
+        return new Outcome(lineParser.parse(), null);
+      } catch (Exception e) {
+        return new Outcome(null, e.getClass());
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface LineParser {
+
+    String[] parse() throws IOException;
+  }
+}
@@ -0,0 +1,129 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
+import uk.gov.caz.retrofit.repository.RegisterDataVersionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RegisterDataVersionServiceTest {
+
+  private static final long LONG_CACHE_TTL = 60_000;
+
+  private static final RegisterDataVersion FIRST_VERSION = new RegisterDataVersion(1,
+      Instant.parse("2019-10-01T12:00:00Z"));
+
+  private static final RegisterDataVersion SECOND_VERSION = new RegisterDataVersion(2,
+      Instant.parse("2019-10-02T12:00:00Z"));
+
+  @Mock
+  private RegisterDataVersionRepository registerDataVersionRepository;
+
+  @Test
+  void shouldCacheCurrentVersion() {
+    // given
+    given(registerDataVersionRepository.find()).willReturn(FIRST_VERSION, SECOND_VERSION);
+    RegisterDataVersionService service = new RegisterDataVersionService(
+        registerDataVersionRepository, LONG_CACHE_TTL);
+
+    // when
+    service.current();
+    RegisterDataVersion version = service.current();
+
+    // then
+    then(version).isEqualTo(FIRST_VERSION);
+    verify(registerDataVersionRepository).find();
+  }
+
+  @Test
+  void shouldNotCacheCurrentVersionWhenCacheIsDisabled() {
+    // given
+    given(registerDataVersionRepository.find()).willReturn(FIRST_VERSION, SECOND_VERSION);
+    RegisterDataVersionService service = new RegisterDataVersionService(
+        registerDataVersionRepository, 0);
+
+    // when
+    service.current();
+    RegisterDataVersion version = service.current();
+
+    // then
+    then(version).isEqualTo(SECOND_VERSION);
+  }
+
+  @Test
+  void shouldNotIncrementVersionWithoutTransaction() {
+    // given
+    RegisterDataVersionService service = new RegisterDataVersionService(
+        registerDataVersionRepository, LONG_CACHE_TTL);
+
+    // when
+    Throwable throwable = catchThrowable(service::increment);
+
+    // then
+    then(throwable).isInstanceOf(IllegalStateException.class);
+    verify(registerDataVersionRepository, never()).increment();
+    then(service.takeVersionCommittedByCurrentThread()).isEmpty();
+  }
+
+  @Test
+  void shouldInvalidateCacheOnlyAfterTransactionCommits() {
+    // given
+    given(registerDataVersionRepository.find()).willReturn(FIRST_VERSION, SECOND_VERSION);
+    RegisterDataVersionService service = new RegisterDataVersionService(
+        registerDataVersionRepository, LONG_CACHE_TTL);
+    service.current();
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // when
+      service.increment();
+
+      // then
+      then(service.current()).isEqualTo(FIRST_VERSION);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      then(service.current()).isEqualTo(SECOND_VERSION);
+      verify(registerDataVersionRepository, times(2)).find();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldRememberVersionCommittedByCurrentThreadUntilItIsTaken() {
+    // given
+    given(registerDataVersionRepository.increment()).willReturn(3L);
+    RegisterDataVersionService service = new RegisterDataVersionService(
+        registerDataVersionRepository, LONG_CACHE_TTL);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // when
+      service.increment();
+
+      // then
+      then(service.takeVersionCommittedByCurrentThread()).isEmpty();
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      then(service.takeVersionCommittedByCurrentThread()).hasValue(3L);
+      then(service.takeVersionCommittedByCurrentThread()).isEmpty();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldQuoteVersionInEntityTag() {
+    then(FIRST_VERSION.toEntityTag()).isEqualTo("\"1\"");
+  }
+}
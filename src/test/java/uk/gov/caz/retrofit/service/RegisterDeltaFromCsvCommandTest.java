@@ -0,0 +1,162 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static uk.gov.caz.testutils.TestObjects.S3_REGISTER_JOB_ID;
+import static uk.gov.caz.testutils.TestObjects.TYPICAL_CORRELATION_ID;
+import static uk.gov.caz.testutils.TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID;
+
+import com.google.common.collect.Sets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.ConversionResult;
+import uk.gov.caz.retrofit.model.ConversionResults;
+import uk.gov.caz.retrofit.model.CsvContentType;
+import uk.gov.caz.retrofit.model.CsvDeltaFindResult;
+import uk.gov.caz.retrofit.model.CsvMetadata;
+import uk.gov.caz.retrofit.model.RetrofittedVehicle;
+import uk.gov.caz.retrofit.model.ValidationError;
+import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RegisterDeltaFromCsvCommandTest {
+
+  private static final int ANY_MAX_ERRORS_COUNT = 10;
+  private static final String BUCKET = "bucket";
+  private static final String FILENAME = "filename";
+  private static final CsvMetadata CSV_METADATA = new CsvMetadata(
+      TYPICAL_REGISTER_JOB_UPLOADER_ID, CsvContentType.RETROFIT_DELTA_LIST, 1024L, "\"etag\"");
+
+  private static final RetrofittedVehicleDto VEHICLE_TO_UPSERT_DTO = RetrofittedVehicleDto
+      .builder()
+      .vrn("ZC62OMB")
+      .vehicleCategory("category-1")
+      .model("model-1")
+      .dateOfRetrofitInstallation("2019-04-30")
+      .lineNumber(1)
+      .build();
+
+  private static final RetrofittedVehicle VEHICLE_TO_UPSERT = RetrofittedVehicle.builder()
+      .vrn("ZC62OMB")
+      .vehicleCategory("category-1")
+      .model("model-1")
+      .dateOfRetrofitInstallation(LocalDate.parse("2019-04-30"))
+      .build();
+
+  @Mock
+  private RetrofittedVehicleDtoCsvRepository csvRepository;
+
+  @Mock
+  private RegisterService registerService;
+
+  @Mock
+  private StreamingRegisterService streamingRegisterService;
+
+  @Mock
+  private RegisterJobSupervisor jobSupervisor;
+
+  @Mock
+  private RegisterFromCsvExceptionResolver exceptionResolver;
+
+  @Mock
+  private RetrofittedVehicleDtoToModelConverter converter;
+
+  private RegisterDeltaFromCsvCommand command;
+
+  @BeforeEach
+  public void setup() {
+    RegisterServicesContext context = new RegisterServicesContext(registerService,
+        streamingRegisterService, exceptionResolver, jobSupervisor, converter, csvRepository,
+        ANY_MAX_ERRORS_COUNT, true);
+    command = new RegisterDeltaFromCsvCommand(context, S3_REGISTER_JOB_ID,
+        TYPICAL_CORRELATION_ID, BUCKET, FILENAME, CSV_METADATA);
+  }
+
+  @Test
+  public void shouldUpsertAndDeleteVehiclesFromDelta() {
+    // given
+    List<RetrofittedVehicleDto> vehiclesToUpsert = Collections.singletonList(
+        VEHICLE_TO_UPSERT_DTO);
+    mockDelta(vehiclesToUpsert, vehicleToDelete("ND84VSX"));
+    given(converter.convert(eq(vehiclesToUpsert), eq(ANY_MAX_ERRORS_COUNT)))
+        .willReturn(ConversionResults.from(
+            Collections.singletonList(ConversionResult.success(VEHICLE_TO_UPSERT))));
+    given(registerService.registerDelta(any(), any(), any()))
+        .willReturn(RegisterResult.success());
+
+    // when
+    RegisterResult result = command.execute();
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verify(registerService).registerDelta(Sets.newHashSet(VEHICLE_TO_UPSERT),
+        Sets.newHashSet("ND84VSX"), TYPICAL_REGISTER_JOB_UPLOADER_ID);
+    verify(registerService, never()).register(any(), any());
+    verify(streamingRegisterService, never()).register(any(), any(), anyInt());
+    verify(jobSupervisor).markSuccess(S3_REGISTER_JOB_ID);
+  }
+
+  @Test
+  public void shouldMarkJobFailedWhenVrnToDeleteIsInvalid() {
+    // given
+    mockDelta(Collections.emptyList(), vehicleToDelete("TOOLONGVRN"));
+    given(converter.convert(eq(Collections.emptyList()), eq(ANY_MAX_ERRORS_COUNT)))
+        .willReturn(ConversionResults.from(Collections.emptyList()));
+    given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(true);
+
+    // when
+    RegisterResult result = command.execute();
+
+    // then
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.getValidationErrors()).hasSize(1);
+    verify(registerService, never()).registerDelta(any(), any(), any());
+    verify(jobSupervisor).markFailureWithValidationErrors(eq(S3_REGISTER_JOB_ID),
+        eq(RegisterJobStatus.FINISHED_FAILURE_VALIDATION_ERRORS), anyList());
+  }
+
+  @Test
+  public void shouldPassVehiclesToUpsertWhenStreamedByDefault() {
+    // given
+    mockDelta(Collections.singletonList(VEHICLE_TO_UPSERT_DTO), vehicleToDelete("ND84VSX"));
+    command.beforeExecute();
+    List<RetrofittedVehicleDto> streamedVehicles = new ArrayList<>();
+
+    // when
+    List<ValidationError> parseErrors = command.streamVehiclesToRegister(streamedVehicles::add);
+
+    // then
+    assertThat(streamedVehicles).containsExactly(VEHICLE_TO_UPSERT_DTO);
+    assertThat(parseErrors).isEmpty();
+  }
+
+  private void mockDelta(List<RetrofittedVehicleDto> vehiclesToUpsert,
+      RetrofittedVehicleDto vehicleToDelete) {
+    CsvDeltaFindResult csvDeltaFindResult = new CsvDeltaFindResult(
+        TYPICAL_REGISTER_JOB_UPLOADER_ID, vehiclesToUpsert,
+        Collections.singletonList(vehicleToDelete), Collections.emptyList());
+    given(csvRepository.findDelta(BUCKET, FILENAME, CSV_METADATA)).willReturn(csvDeltaFindResult);
+  }
+
+  private RetrofittedVehicleDto vehicleToDelete(String vrn) {
+    return RetrofittedVehicleDto.builder()
+        .vrn(vrn)
+        .lineNumber(2)
+        .build();
+  }
+}
@@ -16,6 +16,7 @@ import static uk.gov.caz.testutils.TestObjects.TYPICAL_CORRELATION_ID;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.assertj.core.api.BDDAssertions;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,7 +26,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
 import uk.gov.caz.retrofit.model.ConversionResults;
+import uk.gov.caz.retrofit.model.CsvContentType;
 import uk.gov.caz.retrofit.model.CsvFindResult;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.ValidationError;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
 import uk.gov.caz.retrofit.repository.AuditingRepository;
@@ -38,6 +41,9 @@ class RegisterFromCsvCommandTest {
   private static final int ANY_MAX_ERRORS_COUNT = 10;
   public static final String BUCKET = "bucket";
   public static final String FILENAME = "filename";
+  private static final CsvMetadata CSV_METADATA = new CsvMetadata(
+      TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID, CsvContentType.RETROFIT_LIST, 1024L,
+      "\"etag\"");
 
   @Mock
   private RetrofittedVehicleDtoCsvRepository csvRepository;
@@ -48,6 +54,9 @@ class RegisterFromCsvCommandTest {
   @Mock
   private RegisterService registerService;
 
+  @Mock
+  private StreamingRegisterService streamingRegisterService;
+
   @Mock
   private RegisterJobSupervisor jobSupervisor;
 
@@ -61,10 +70,15 @@ class RegisterFromCsvCommandTest {
 
   @BeforeEach
   public void setup() {
+    registerFromCsvCommand = createCommand(false);
+  }
+
+  private RegisterFromCsvCommand createCommand(boolean streamingRegisterEnabled) {
     RegisterServicesContext context = new RegisterServicesContext(registerService,
-        exceptionResolver, jobSupervisor, converter, csvRepository, ANY_MAX_ERRORS_COUNT);
-    registerFromCsvCommand = new RegisterFromCsvCommand(context, S3_REGISTER_JOB_ID, TYPICAL_CORRELATION_ID,
-        BUCKET, FILENAME);
+        streamingRegisterService, exceptionResolver, jobSupervisor, converter, csvRepository,
+        ANY_MAX_ERRORS_COUNT, streamingRegisterEnabled);
+    return new RegisterFromCsvCommand(context, S3_REGISTER_JOB_ID, TYPICAL_CORRELATION_ID,
+        BUCKET, FILENAME, CSV_METADATA);
   }
 
   @Test
@@ -76,7 +90,7 @@ class RegisterFromCsvCommandTest {
     List<ValidationError> validationErrors = MODIFIED_REGISTER_JOB_VALIDATION_ERRORS;
     CsvFindResult csvFindResult = new CsvFindResult(uploaderId, vehicles, validationErrors);
 
-    given(csvRepository.findAll(any(), any())).willReturn(csvFindResult);
+    given(csvRepository.findAll(any(), any(), any())).willReturn(csvFindResult);
 
     //when
     registerFromCsvCommand.beforeExecute();
@@ -90,7 +104,7 @@ class RegisterFromCsvCommandTest {
   @Test
   public void shouldThrowExceptionIfCsvFindResultIsNull() {
     //given
-    given(csvRepository.findAll(any(), any())).willReturn(null);
+    given(csvRepository.findAll(any(), any(), any())).willReturn(null);
 
     //when
     registerFromCsvCommand.beforeExecute();
@@ -105,7 +119,7 @@ class RegisterFromCsvCommandTest {
   public void shouldMarkJobFailedWhenExceptionOccursDuringExecution() {
     // given
     RuntimeException exception = new RuntimeException();
-    given(csvRepository.findAll(any(), any())).willThrow(exception);
+    given(csvRepository.findAll(any(), any(), any())).willThrow(exception);
     given(exceptionResolver.resolve(exception)).willReturn(RegisterResult.failure(Collections.emptyList()));
     given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(true);
 
@@ -125,8 +139,9 @@ class RegisterFromCsvCommandTest {
     CsvFindResult csvFindResult = new CsvFindResult(
         TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID, vehicles, Collections.singletonList(parseValidationError)
     );
-    given(csvRepository.findAll(any(), any())).willReturn(csvFindResult);
-    given(converter.convert(eq(vehicles))).willReturn(ConversionResults.from(Collections.emptyList()));
+    given(csvRepository.findAll(any(), any(), any())).willReturn(csvFindResult);
+    given(converter.convert(eq(vehicles), eq(ANY_MAX_ERRORS_COUNT)))
+        .willReturn(ConversionResults.from(Collections.emptyList()));
     given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(true);
 
     // when
@@ -143,8 +158,8 @@ class RegisterFromCsvCommandTest {
     List<RetrofittedVehicleDto> vehicles = Collections.singletonList(RetrofittedVehicleDto.builder().vrn("abc").build());
     CsvFindResult csvFindResult = new CsvFindResult(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID, vehicles, Collections.emptyList());
     ConversionResults conversionResults = ConversionResults.from(Collections.emptyList());
-    given(csvRepository.findAll(any(), any())).willReturn(csvFindResult);
-    given(converter.convert(eq(vehicles))).willReturn(conversionResults);
+    given(csvRepository.findAll(any(), any(), any())).willReturn(csvFindResult);
+    given(converter.convert(eq(vehicles), eq(ANY_MAX_ERRORS_COUNT))).willReturn(conversionResults);
     given(registerService.register(conversionResults.getRetrofittedVehicles(), TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID)).willReturn(RegisterResult.failure(Collections.emptyList()));
     given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(true);
 
@@ -163,8 +178,8 @@ class RegisterFromCsvCommandTest {
     CsvFindResult csvFindResult = new CsvFindResult(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID,
         vehicles, Collections.emptyList());
     ConversionResults conversionResults = ConversionResults.from(Collections.emptyList());
-    given(csvRepository.findAll(any(), any())).willReturn(csvFindResult);
-    given(converter.convert(eq(vehicles))).willReturn(conversionResults);
+    given(csvRepository.findAll(any(), any(), any())).willReturn(csvFindResult);
+    given(converter.convert(eq(vehicles), eq(ANY_MAX_ERRORS_COUNT))).willReturn(conversionResults);
     given(registerService.register(conversionResults.getRetrofittedVehicles(), TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID))
         .willReturn(RegisterResult.failure(Collections.emptyList()));
     given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(false);
@@ -176,4 +191,86 @@ class RegisterFromCsvCommandTest {
     BDDAssertions.then(result.isSuccess()).isFalse();
     verify(jobSupervisor, never()).markFailureWithValidationErrors(anyInt(), any(), anyList());
   }
+
+  @Test
+  public void shouldOnlyFetchMetadataBeforeStreamingRegistration() {
+    // given
+    registerFromCsvCommand = createCommand(true);
+    given(csvRepository.findValidMetadata(BUCKET, FILENAME, CSV_METADATA))
+        .willReturn(CSV_METADATA);
+
+    // when
+    registerFromCsvCommand.beforeExecute();
+
+    // then
+    assertThat(registerFromCsvCommand.getUploaderId())
+        .isEqualTo(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID);
+    verify(csvRepository, never()).findAll(any(), any(), any());
+  }
+
+  @Test
+  public void shouldStreamVehiclesWithMetadataValidatedBeforeExecution() {
+    // given
+    registerFromCsvCommand = createCommand(true);
+    Consumer<RetrofittedVehicleDto> vehicleConsumer = vehicle -> {};
+    List<ValidationError> parseErrors = Collections
+        .singletonList(ValidationError.valueError("parse", 1));
+    CsvMetadata fetchedMetadata = new CsvMetadata(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID,
+        null, 2048L, "\"fetched-etag\"");
+    given(csvRepository.findValidMetadata(BUCKET, FILENAME, CSV_METADATA))
+        .willReturn(fetchedMetadata);
+    given(csvRepository.forEach(BUCKET, FILENAME, fetchedMetadata, vehicleConsumer))
+        .willReturn(parseErrors);
+    registerFromCsvCommand.beforeExecute();
+
+    // when
+    List<ValidationError> result = registerFromCsvCommand
+        .streamVehiclesToRegister(vehicleConsumer);
+
+    // then
+    assertThat(result).isEqualTo(parseErrors);
+  }
+
+  @Test
+  public void shouldMarkJobFinishedWhenStreamingRegistrationSucceeds() {
+    // given
+    registerFromCsvCommand = createCommand(true);
+    given(csvRepository.findValidMetadata(BUCKET, FILENAME, CSV_METADATA))
+        .willReturn(CSV_METADATA);
+    given(streamingRegisterService.register(eq(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID), any(),
+        eq(ANY_MAX_ERRORS_COUNT)))
+        .willReturn(new StreamingRegisterResult(Collections.emptyList(), Collections.emptyList()));
+
+    // when
+    RegisterResult result = registerFromCsvCommand.execute();
+
+    // then
+    BDDAssertions.then(result.isSuccess()).isTrue();
+    verify(jobSupervisor).markSuccess(S3_REGISTER_JOB_ID);
+    verify(registerService, never()).register(any(), any());
+  }
+
+  @Test
+  public void shouldMarkJobFailedWhenStreamingRegistrationReturnsValidationErrors() {
+    // given
+    registerFromCsvCommand = createCommand(true);
+    ValidationError businessError = ValidationError.valueError("business", 2);
+    ValidationError parseError = ValidationError.valueError("parse", 1);
+    given(csvRepository.findValidMetadata(BUCKET, FILENAME, CSV_METADATA))
+        .willReturn(CSV_METADATA);
+    given(streamingRegisterService.register(eq(TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID), any(),
+        eq(ANY_MAX_ERRORS_COUNT)))
+        .willReturn(new StreamingRegisterResult(Collections.singletonList(businessError),
+            Collections.singletonList(parseError)));
+    given(csvRepository.purgeFile(BUCKET, FILENAME)).willReturn(true);
+
+    // when
+    RegisterResult result = registerFromCsvCommand.execute();
+
+    // then
+    BDDAssertions.then(result.isSuccess()).isFalse();
+    BDDAssertions.then(result.getValidationErrors()).containsExactly(parseError, businessError);
+    verify(jobSupervisor).markFailureWithValidationErrors(anyInt(),
+        eq(RegisterJobStatus.FINISHED_FAILURE_VALIDATION_ERRORS), anyList());
+  }
 }
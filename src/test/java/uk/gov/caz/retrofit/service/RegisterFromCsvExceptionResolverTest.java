@@ -9,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobStatus;
 import uk.gov.caz.retrofit.repository.RetrofittedVehicleDtoCsvRepository;
+import uk.gov.caz.retrofit.service.exception.S3FileModifiedException;
 import uk.gov.caz.retrofit.service.exception.S3InvalidUploaderIdFormatException;
 import uk.gov.caz.retrofit.service.exception.S3MaxFileSizeExceededException;
 import uk.gov.caz.retrofit.service.exception.S3MetadataException;
@@ -95,6 +96,25 @@ class RegisterFromCsvExceptionResolverTest {
     assertThat(status).isEqualByComparingTo(RegisterJobStatus.STARTUP_FAILURE_TOO_LARGE_FILE);
   }
 
+  @Test
+  public void shouldResolveS3FileModifiedValidationError() {
+    // given
+    Exception input = new S3FileModifiedException();
+
+    // when
+    RegisterResult result = resolver.resolve(input);
+    RegisterJobStatus status = resolver.resolveToRegisterJobFailureStatus(input);
+
+    //then
+    then(result.getValidationErrors()).hasOnlyOneElementSatisfying(validationError -> {
+      assertThat(validationError.getVrn()).isNull();
+      assertThat(validationError.getTitle()).isEqualTo("S3 error");
+      assertThat(validationError.getDetail())
+          .isEqualTo("Uploaded file has been modified after the register job started");
+    });
+    assertThat(status).isEqualByComparingTo(RegisterJobStatus.STARTUP_FAILURE_MODIFIED_FILE);
+  }
+
   @Test
   public void shouldResolveUnknownException() {
     // given
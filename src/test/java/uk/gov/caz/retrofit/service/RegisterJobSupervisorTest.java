@@ -1,7 +1,10 @@
 package uk.gov.caz.retrofit.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static uk.gov.caz.testutils.NtrAssertions.assertThat;
 import static uk.gov.caz.testutils.TestObjects.MODIFIED_REGISTER_JOB_ERRORS;
@@ -14,6 +17,8 @@ import static uk.gov.caz.testutils.TestObjects.TYPICAL_REGISTER_JOB_UPLOADER_ID;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -39,6 +44,8 @@ import uk.gov.caz.retrofit.service.RegisterJobSupervisor.StartParams;
 class RegisterJobSupervisorTest {
 
   private static final String CSV_FILE = "csv-file";
+  private static final String CONTENT_DIGEST = "\"9b2cf535f27731c974343645a3985328\"";
+  private static final String OTHER_CONTENT_DIGEST = "\"6f5902ac237024bdd0c176cb93063dc4\"";
 
   @Mock
   private RegisterJobRepository mockedRegisterJobRepository;
@@ -46,6 +53,9 @@ class RegisterJobSupervisorTest {
   @Mock
   private RegisterJobNameGenerator mockedRegisterJobNameGenerator;
 
+  @Mock
+  private RegisterDataVersionService mockedRegisterDataVersionService;
+
   @InjectMocks
   private RegisterJobSupervisor registerJobSupervisor;
 
@@ -74,6 +84,87 @@ class RegisterJobSupervisorTest {
         .matchesAttributesOfTypicalStartingRegisterJob();
   }
 
+  @Test
+  public void shouldInvokeJobWhoseContentDiffersFromContentOfCurrentData() {
+    // given
+    prepareMocksForNameGenerationAndRegisterJobInsertion();
+    given(mockedRegisterJobRepository
+        .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER))
+        .willReturn(Optional.of(OTHER_CONTENT_DIGEST));
+    AtomicBoolean capturedJobStarted = new AtomicBoolean(false);
+    StartParams startParams = prepareStartParams(capturedJobStarted, new AtomicInteger())
+        .toBuilder()
+        .contentDigest(CONTENT_DIGEST)
+        .build();
+
+    // when
+    registerJobSupervisor.start(startParams);
+
+    // then
+    assertThat(capturedJobStarted).isTrue();
+    RegisterJob capturedRegisterJob =
+        verifyThatNewRegisterJobWasInsertedIntoRepositoryAndCaptureIt();
+    assertThat(capturedRegisterJob)
+        .isInStatus(RegisterJobStatus.STARTING)
+        .hasContentDigest(CONTENT_DIGEST);
+  }
+
+  @Test
+  public void shouldFinishJobWithoutInvokingItWhenItsContentIsAlreadyRegistered() {
+    // given
+    prepareMocksForNameGenerationAndRegisterJobInsertion();
+    given(mockedRegisterJobRepository
+        .findContentDigestOfCurrentData(S3_RETROFIT_REGISTER_JOB_TRIGGER))
+        .willReturn(Optional.of(CONTENT_DIGEST));
+    AtomicBoolean capturedJobStarted = new AtomicBoolean(false);
+    StartParams startParams = prepareStartParams(capturedJobStarted, new AtomicInteger())
+        .toBuilder()
+        .contentDigest(CONTENT_DIGEST)
+        .build();
+
+    // when
+    RegisterJobName registerJobName = registerJobSupervisor.start(startParams);
+
+    // then
+    assertThat(registerJobName.getValue()).isEqualTo(S3_REGISTER_JOB_NAME);
+    assertThat(capturedJobStarted).isFalse();
+    RegisterJob capturedRegisterJob =
+        verifyThatNewRegisterJobWasInsertedIntoRepositoryAndCaptureIt();
+    assertThat(capturedRegisterJob)
+        .isInStatus(RegisterJobStatus.FINISHED_SUCCESS)
+        .hasContentDigest(CONTENT_DIGEST);
+  }
+
+  @Test
+  public void shouldRecordCommittedRegisterDataVersionWhenMarkingSuccess() {
+    // given
+    given(mockedRegisterDataVersionService.takeVersionCommittedByCurrentThread())
+        .willReturn(OptionalLong.of(5L));
+
+    // when
+    registerJobSupervisor.markSuccess(S3_REGISTER_JOB_ID);
+
+    // then
+    verify(mockedRegisterJobRepository)
+        .updateStatus(S3_REGISTER_JOB_ID, RegisterJobStatus.FINISHED_SUCCESS);
+    verify(mockedRegisterJobRepository).updateRegisterDataVersion(S3_REGISTER_JOB_ID, 5L);
+  }
+
+  @Test
+  public void shouldNotRecordRegisterDataVersionWhenNothingHasBeenCommitted() {
+    // given
+    given(mockedRegisterDataVersionService.takeVersionCommittedByCurrentThread())
+        .willReturn(OptionalLong.empty());
+
+    // when
+    registerJobSupervisor.markSuccess(S3_REGISTER_JOB_ID);
+
+    // then
+    verify(mockedRegisterJobRepository)
+        .updateStatus(S3_REGISTER_JOB_ID, RegisterJobStatus.FINISHED_SUCCESS);
+    verify(mockedRegisterJobRepository, never()).updateRegisterDataVersion(anyInt(), anyLong());
+  }
+
   @Test
   public void testUpdateStatus() {
     // when
@@ -2,6 +2,8 @@ package uk.gov.caz.retrofit.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.Sets;
 import java.sql.Timestamp;
@@ -21,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.caz.retrofit.model.RetrofitStatus;
 import uk.gov.caz.retrofit.model.RetrofittedVehicle;
 import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,10 +60,21 @@ class RegisterServiceTest {
   @Mock
   private AuditingRepository auditingRepository;
 
+  @Mock
+  private RetrofittedVehicleCopyRepository copyRepository;
+
+  @Mock
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Mock
+  private RegisterDataVersionService registerDataVersionService;
+
   @BeforeEach
   void setup() {
     retrofittedRepository = new InMemoryRetrofittedRepository();
-    registerService = new RegisterService(retrofittedRepository, auditingRepository);
+    registerService = new RegisterService(retrofittedRepository, copyRepository,
+        auditingRepository, RegisterLoadStrategy.BATCH, retrofitStatusIndex,
+        registerDataVersionService);
   }
 
   @Test
@@ -86,6 +100,8 @@ class RegisterServiceTest {
     //then
     assertThat(retrofittedRepository.findAll())
         .containsExactlyInAnyOrder(MILITARY_VEHICLE_1, NORMAL_VEHICLE_1);
+    verify(registerDataVersionService).increment();
+    verify(retrofitStatusIndex).refreshAfterCommit();
   }
 
   @Test
@@ -104,6 +120,44 @@ class RegisterServiceTest {
         .containsExactlyInAnyOrder(NORMAL_VEHICLE_2);
   }
 
+  @Test
+  void shouldReplaceAllVehiclesWithCopyRepositoryWhenCopyLoadStrategyIsUsed() {
+    //given
+    registerService = new RegisterService(retrofittedRepository, copyRepository,
+        auditingRepository, RegisterLoadStrategy.COPY, retrofitStatusIndex,
+        registerDataVersionService);
+    Set<RetrofittedVehicle> vehiclesToPersist = Sets
+        .newHashSet(MILITARY_VEHICLE_1, NORMAL_VEHICLE_1);
+
+    //when
+    registerService.register(vehiclesToPersist, ANY_UPLOADER_ID);
+
+    //then
+    verify(auditingRepository).tagModificationsInCurrentTransactionBy(ANY_UPLOADER_ID);
+    verify(copyRepository).replaceAll(vehiclesToPersist);
+    assertThat(retrofittedRepository.findAll()).isEmpty();
+  }
+
+  @Test
+  void shouldUpsertAndDeleteOnlyVehiclesFromDelta() {
+    //given
+    registerService.register(Sets.newHashSet(MILITARY_VEHICLE_1, NORMAL_VEHICLE_1),
+        ANY_UPLOADER_ID);
+    RetrofittedVehicle updatedNormalVehicle1 = NORMAL_VEHICLE_1.toBuilder()
+        .model("Skoda Superb")
+        .build();
+
+    //when
+    registerService.registerDelta(Sets.newHashSet(updatedNormalVehicle1, NORMAL_VEHICLE_2),
+        Sets.newHashSet(MILITARY_VEHICLE_1.getVrn()), ANY_UPLOADER_ID);
+
+    //then
+    assertThat(retrofittedRepository.findAll())
+        .containsExactlyInAnyOrder(updatedNormalVehicle1, NORMAL_VEHICLE_2);
+    verify(registerDataVersionService, times(2)).increment();
+    verify(retrofitStatusIndex, times(2)).refreshAfterCommit();
+  }
+
   private static class InMemoryRetrofittedRepository extends
       RetrofittedVehiclePostgresRepository {
 
@@ -118,6 +172,14 @@ class RegisterServiceTest {
       this.retrofittedVehicles.addAll(retrofittedVehicles);
     }
 
+    @Override
+    public void insertOrUpdateChanged(Set<RetrofittedVehicle> retrofittedVehicles) {
+      Set<String> vrns = retrofittedVehicles.stream().map(RetrofittedVehicle::getVrn)
+          .collect(Collectors.toSet());
+      this.retrofittedVehicles.removeIf(vehicle -> vrns.contains(vehicle.getVrn()));
+      this.retrofittedVehicles.addAll(retrofittedVehicles);
+    }
+
     @Override
     public void deleteAll() {
       this.retrofittedVehicles.clear();
@@ -135,6 +197,13 @@ class RegisterServiceTest {
           .collect(Collectors.toSet());
     }
 
+    @Override
+    public void deleteAllExcept(Set<String> vrnsToKeep) {
+      retrofittedVehicles = retrofittedVehicles.stream()
+          .filter(vehicle -> vrnsToKeep.contains(vehicle.getVrn()))
+          .collect(Collectors.toSet());
+    }
+
     @Override
     public RetrofitStatus infoByVrn(String vrn) {
       return RetrofitStatus.builder()
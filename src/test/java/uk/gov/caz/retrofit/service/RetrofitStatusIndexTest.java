@@ -0,0 +1,268 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.caz.retrofit.model.RegisterDataVersion;
+import uk.gov.caz.retrofit.model.RetrofitStatus;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RetrofitStatusIndexTest {
+
+  private static final Timestamp INSERT_TIMESTAMP = Timestamp
+      .valueOf("2019-10-01 12:34:56.123456");
+
+  @Mock
+  private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
+
+  @Mock
+  private RegisterDataVersionService registerDataVersionService;
+
+  @Mock
+  private ExecutorService reloadExecutor;
+
+  @BeforeEach
+  void setup() {
+    lenient().when(registerDataVersionService.current()).thenReturn(version(1));
+  }
+
+  @Test
+  void shouldNotLoadAnythingWhenDisabled() {
+    // given
+    RetrofitStatusIndex index = createIndex(false);
+
+    // when
+    index.onApplicationReady();
+    index.refreshAfterCommit();
+
+    // then
+    then(index.infoByVrn("ZC62OMB")).isEmpty();
+    verifyNoInteractions(retrofittedVehiclePostgresRepository);
+  }
+
+  @Test
+  void shouldReturnNothingBeforeBeingLoaded() {
+    // given
+    RetrofitStatusIndex index = createIndex(true);
+
+    // when
+    Optional<RetrofitStatus> retrofitStatus = index.infoByVrn("ZC62OMB");
+
+    // then
+    then(retrofitStatus).isEmpty();
+  }
+
+  @Test
+  void shouldFindIndexedVehiclesOnceApplicationIsReady() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+
+    // when
+    index.onApplicationReady();
+
+    // then
+    RetrofitStatus existing = index.infoByVrn("ZC62OMB").get();
+    then(existing.exists()).isTrue();
+    then(existing.getInsertTimestamp()).isEqualTo(INSERT_TIMESTAMP.toLocalDateTime());
+    RetrofitStatus withoutTimestamp = index.infoByVrn("AB12CDE").get();
+    then(withoutTimestamp.exists()).isTrue();
+    then(withoutTimestamp.getInsertTimestamp()).isNull();
+    then(index.infoByVrn("ZZ99ZZZ").get().exists()).isFalse();
+  }
+
+  @Test
+  void shouldFindManyVrnsInRequestedOrder() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+    index.refresh();
+
+    // when
+    Map<String, RetrofitStatus> statuses = index
+        .infoByVrns(Arrays.asList("ZZ99ZZZ", "ZC62OMB")).get();
+
+    // then
+    then(statuses.keySet()).containsExactly("ZZ99ZZZ", "ZC62OMB");
+    then(statuses.get("ZZ99ZZZ").exists()).isFalse();
+    then(statuses.get("ZC62OMB").exists()).isTrue();
+  }
+
+  @Test
+  void shouldReturnNothingForManyVrnsBeforeBeingLoaded() {
+    // given
+    RetrofitStatusIndex index = createIndex(true);
+
+    // when
+    Optional<Map<String, RetrofitStatus>> statuses = index
+        .infoByVrns(Collections.singletonList("ZC62OMB"));
+
+    // then
+    then(statuses).isEmpty();
+  }
+
+  @Test
+  void shouldRefreshImmediatelyWhenThereIsNoTransaction() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+
+    // when
+    index.refreshAfterCommit();
+
+    // then
+    then(index.infoByVrn("ZC62OMB").get().exists()).isTrue();
+  }
+
+  @Test
+  void shouldRefreshOnlyAfterTransactionCommits() {
+    // given
+    RetrofitStatusIndex index = createIndex(true);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // when
+      index.refreshAfterCommit();
+
+      // then
+      verify(retrofittedVehiclePostgresRepository, never()).forEachVrnWithInsertTimestamp(any());
+      mockStoredVehicles();
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      then(index.infoByVrn("ZC62OMB").get().exists()).isTrue();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldFallBackToDatabaseWhenRefreshFails() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+    index.refresh();
+    willThrow(new IllegalStateException("connection lost"))
+        .given(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+
+    // when
+    index.refresh();
+
+    // then
+    then(index.infoByVrn("ZC62OMB")).isEmpty();
+  }
+
+  @Test
+  void shouldReloadWhenRegisterWasModifiedByAnotherProcess() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+    index.onApplicationReady();
+    then(index.infoByVrn("NEW1AB").get().exists()).isFalse();
+    willAnswer(invocation -> {
+      BiConsumer<String, Timestamp> consumer = invocation.getArgument(0);
+      consumer.accept("NEW1AB", INSERT_TIMESTAMP);
+      return null;
+    }).given(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+    given(registerDataVersionService.current()).willReturn(version(2));
+
+    // when
+    Optional<RetrofitStatus> retrofitStatus = index.infoByVrn("NEW1AB");
+
+    // then
+    then(retrofitStatus.get().exists()).isTrue();
+    then(index.infoByVrn("ZC62OMB").get().exists()).isFalse();
+    verify(retrofittedVehiclePostgresRepository, times(2)).forEachVrnWithInsertTimestamp(any());
+  }
+
+  @Test
+  void shouldNotReloadWhenRegisterWasNotModified() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = createIndex(true);
+    index.onApplicationReady();
+
+    // when
+    index.infoByVrn("ZC62OMB");
+    index.infoByVrns(Collections.singletonList("ZC62OMB"));
+
+    // then
+    verify(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+  }
+
+  @Test
+  void shouldFallBackToDatabaseWhileReloadingInBackground() {
+    // given
+    mockStoredVehicles();
+    RetrofitStatusIndex index = new RetrofitStatusIndex(retrofittedVehiclePostgresRepository,
+        registerDataVersionService, true, reloadExecutor);
+    index.onApplicationReady();
+    willAnswer(invocation -> {
+      BiConsumer<String, Timestamp> consumer = invocation.getArgument(0);
+      consumer.accept("NEW1AB", INSERT_TIMESTAMP);
+      return null;
+    }).given(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+    given(registerDataVersionService.current()).willReturn(version(2));
+
+    // when
+    Optional<RetrofitStatus> retrofitStatus = index.infoByVrn("NEW1AB");
+    Optional<Map<String, RetrofitStatus>> statuses = index
+        .infoByVrns(Collections.singletonList("NEW1AB"));
+
+    // then
+    then(retrofitStatus).isEmpty();
+    then(statuses).isEmpty();
+    ArgumentCaptor<Runnable> reload = ArgumentCaptor.forClass(Runnable.class);
+    verify(reloadExecutor).execute(reload.capture());
+    verify(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+
+    // when
+    reload.getValue().run();
+
+    // then
+    then(index.infoByVrn("NEW1AB").get().exists()).isTrue();
+    then(index.infoByVrn("ZC62OMB").get().exists()).isFalse();
+  }
+
+  private RetrofitStatusIndex createIndex(boolean enabled) {
+    return new RetrofitStatusIndex(retrofittedVehiclePostgresRepository,
+        registerDataVersionService, enabled, MoreExecutors.newDirectExecutorService());
+  }
+
+  private static RegisterDataVersion version(long version) {
+    return new RegisterDataVersion(version, Instant.parse("2019-10-01T12:00:00Z"));
+  }
+
+  private void mockStoredVehicles() {
+    willAnswer(invocation -> {
+      BiConsumer<String, Timestamp> consumer = invocation.getArgument(0);
+      consumer.accept("ZC62OMB", INSERT_TIMESTAMP);
+      consumer.accept("AB12CDE", null);
+      return null;
+    }).given(retrofittedVehiclePostgresRepository).forEachVrnWithInsertTimestamp(any());
+  }
+}
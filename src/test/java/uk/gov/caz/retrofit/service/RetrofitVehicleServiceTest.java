@@ -1,13 +1,23 @@
 package uk.gov.caz.retrofit.service;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import com.google.common.collect.Sets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
 import org.assertj.core.api.ThrowableAssertAlternative;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.caz.retrofit.model.RetrofitStatus;
 import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,9 +26,83 @@ class RetrofitVehicleServiceTest {
   @Mock
   private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
 
+  @Mock
+  private RetrofitStatusIndex retrofitStatusIndex;
+
   @InjectMocks
   private RetrofitVehicleService retrofitVehicleService;
 
+  @Test
+  void shouldUseIndexWhenItIsLoaded() {
+    // given
+    RetrofitStatus indexedStatus = RetrofitStatus.builder().rowCount(1).build();
+    given(retrofitStatusIndex.infoByVrn("ZC62OMB")).willReturn(Optional.of(indexedStatus));
+
+    // when
+    RetrofitStatus retrofitStatus = retrofitVehicleService.infoByVrn("ZC62OMB");
+
+    // then
+    then(retrofitStatus).isSameAs(indexedStatus);
+    verifyNoInteractions(retrofittedVehiclePostgresRepository);
+  }
+
+  @Test
+  void shouldFallBackToDatabaseWhenIndexIsNotLoaded() {
+    // given
+    RetrofitStatus storedStatus = RetrofitStatus.builder().rowCount(1).build();
+    given(retrofitStatusIndex.infoByVrn("ZC62OMB")).willReturn(Optional.empty());
+    given(retrofittedVehiclePostgresRepository.infoByVrn("ZC62OMB")).willReturn(storedStatus);
+
+    // when
+    RetrofitStatus retrofitStatus = retrofitVehicleService.infoByVrn("ZC62OMB");
+
+    // then
+    then(retrofitStatus).isSameAs(storedStatus);
+  }
+
+  @Test
+  void shouldUseIndexForManyVrnsWhenItIsLoaded() {
+    // given
+    Map<String, RetrofitStatus> indexedStatuses = Collections.singletonMap("ZC62OMB",
+        RetrofitStatus.builder().rowCount(1).build());
+    given(retrofitStatusIndex.infoByVrns(Collections.singleton("ZC62OMB")))
+        .willReturn(Optional.of(indexedStatuses));
+
+    // when
+    Map<String, RetrofitStatus> statuses = retrofitVehicleService
+        .infoByVrns(Collections.singleton("ZC62OMB"));
+
+    // then
+    then(statuses).isSameAs(indexedStatuses);
+    verifyNoInteractions(retrofittedVehiclePostgresRepository);
+  }
+
+  @Test
+  void shouldFindManyVrnsInDatabaseInRequestedOrderWhenIndexIsNotLoaded() {
+    // given
+    LinkedHashSet<String> vrns = Sets.newLinkedHashSet(Arrays.asList("ZC62OMB", "CAS310"));
+    RetrofitStatus storedStatus = RetrofitStatus.builder().rowCount(1).build();
+    given(retrofitStatusIndex.infoByVrns(vrns)).willReturn(Optional.empty());
+    given(retrofittedVehiclePostgresRepository.infoByVrns(vrns))
+        .willReturn(Collections.singletonMap("CAS310", storedStatus));
+
+    // when
+    Map<String, RetrofitStatus> statuses = retrofitVehicleService.infoByVrns(vrns);
+
+    // then
+    then(statuses).containsOnlyKeys("ZC62OMB", "CAS310");
+    then(statuses.keySet()).containsExactly("ZC62OMB", "CAS310");
+    then(statuses.get("ZC62OMB").exists()).isFalse();
+    then(statuses.get("CAS310")).isSameAs(storedStatus);
+  }
+
+  @Test
+  void shouldThrowAnExceptionWhenOneOfVrnsIsEmpty() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> retrofitVehicleService.infoByVrns(Sets.newHashSet("ZC62OMB", "")))
+        .withMessage("VRN cannot be empty");
+  }
+
   @Test
   void shouldThrowAnExceptionWhenVrnIsEmpty() {
     assertExceptionThrownForVrn("");
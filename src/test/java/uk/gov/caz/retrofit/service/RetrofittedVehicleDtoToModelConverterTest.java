@@ -5,6 +5,8 @@ import static org.assertj.core.api.BDDAssertions.then;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
 import uk.gov.caz.retrofit.model.ConversionResult;
 import uk.gov.caz.retrofit.model.ConversionResults;
+import uk.gov.caz.retrofit.model.ValidationError;
 
 @ExtendWith(MockitoExtension.class)
 class RetrofittedVehicleDtoToModelConverterTest {
@@ -101,6 +104,111 @@ class RetrofittedVehicleDtoToModelConverterTest {
       then(conversionResults.getRetrofittedVehicles()).isEmpty();
     }
 
+    @Test
+    public void shouldReturnTheSameResultsInTheSameOrderWhenConvertingInParallel() {
+      // given
+      RetrofittedVehicleDtoToModelConverter parallelConverter =
+          new RetrofittedVehicleDtoToModelConverter(4, 3);
+      List<RetrofittedVehicleDto> retrofittedVehicleDtos = IntStream.rangeClosed(1, 50)
+          .mapToObj(lineNumber -> (lineNumber % 3 == 0
+              ? createInvalidRetrofittedVehicleWithTwoAttributes()
+              : createValidRetrofittedVehicle().toBuilder()
+                  .vrn(String.format("AA%02dAAA", lineNumber))
+                  .build()).toBuilder()
+              .lineNumber(lineNumber)
+              .build())
+          .collect(Collectors.toList());
+
+      // when
+      ConversionResults sequentialResults = converter.convert(retrofittedVehicleDtos);
+      ConversionResults parallelResults = parallelConverter.convert(retrofittedVehicleDtos);
+
+      // then
+      then(parallelResults.getValidationErrors())
+          .isNotEmpty()
+          .containsExactlyElementsOf(sequentialResults.getValidationErrors());
+      then(parallelResults.getRetrofittedVehicles())
+          .hasSize(34)
+          .isEqualTo(sequentialResults.getRetrofittedVehicles());
+    }
+
+    @Test
+    public void shouldStopConvertingWhenMaxValidationErrorCountIsReached() {
+      // given
+      List<RetrofittedVehicleDto> retrofittedVehicleDtos = Arrays.asList(
+          createInvalidRetrofittedVehicleWithTwoAttributes(),
+          createInvalidRetrofittedVehicleWithThreeAttributes(),
+          createValidRetrofittedVehicle()
+      );
+
+      // when
+      ConversionResults conversionResults = converter.convert(retrofittedVehicleDtos, 4);
+
+      // then
+      then(conversionResults.getValidationErrors()).hasSize(5);
+      then(conversionResults.getRetrofittedVehicles()).isEmpty();
+    }
+
+    @Test
+    public void shouldConvertAllVehiclesWhenMaxValidationErrorCountIsNotPositive() {
+      // given
+      List<RetrofittedVehicleDto> retrofittedVehicleDtos = Arrays.asList(
+          createInvalidRetrofittedVehicleWithTwoAttributes(),
+          createValidRetrofittedVehicle()
+      );
+
+      // when
+      ConversionResults conversionResults = converter.convert(retrofittedVehicleDtos, 0);
+
+      // then
+      then(conversionResults.getValidationErrors()).hasSize(2);
+      then(conversionResults.getRetrofittedVehicles()).hasSize(1);
+    }
+
+    @Test
+    public void shouldReturnTheFirstValidationErrorsWhenConvertingInParallelWithLimit() {
+      // given
+      int maxValidationErrorCount = 5;
+      RetrofittedVehicleDtoToModelConverter parallelConverter =
+          new RetrofittedVehicleDtoToModelConverter(4, 10);
+      List<RetrofittedVehicleDto> retrofittedVehicleDtos = IntStream.rangeClosed(1, 50)
+          .mapToObj(lineNumber -> createInvalidRetrofittedVehicle().toBuilder()
+              .lineNumber(lineNumber)
+              .build())
+          .collect(Collectors.toList());
+
+      // when
+      ConversionResults allResults = converter.convert(retrofittedVehicleDtos,
+          UNLIMITED_ERROR_COUNT);
+      ConversionResults parallelResults = parallelConverter.convert(retrofittedVehicleDtos,
+          maxValidationErrorCount);
+
+      // then
+      then(parallelResults.getValidationErrors())
+          .hasSizeGreaterThanOrEqualTo(maxValidationErrorCount)
+          .hasSizeLessThan(allResults.getValidationErrors().size())
+          .startsWith(allResults.getValidationErrors().subList(0, maxValidationErrorCount)
+              .toArray(new ValidationError[0]));
+    }
+
+    @Test
+    public void shouldConvertSequentiallyAfterShutdown() {
+      // given
+      RetrofittedVehicleDtoToModelConverter parallelConverter =
+          new RetrofittedVehicleDtoToModelConverter(4, 1);
+      List<RetrofittedVehicleDto> retrofittedVehicleDtos = Arrays.asList(
+          createValidRetrofittedVehicle(),
+          createValidRetrofittedVehicle().toBuilder().vrn("BBB999B").build()
+      );
+      parallelConverter.shutdown();
+
+      // when
+      ConversionResults conversionResults = parallelConverter.convert(retrofittedVehicleDtos);
+
+      // then
+      then(conversionResults.hasValidationErrors()).isFalse();
+      then(conversionResults.getRetrofittedVehicles()).hasSize(2);
+    }
   }
 
   private RetrofittedVehicleDto createValidRetrofittedVehicle() {
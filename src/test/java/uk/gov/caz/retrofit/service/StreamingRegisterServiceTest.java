@@ -0,0 +1,232 @@
+package uk.gov.caz.retrofit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.caz.retrofit.dto.RetrofittedVehicleDto;
+import uk.gov.caz.retrofit.model.ValidationError;
+import uk.gov.caz.retrofit.repository.AuditingRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehicleCopyRepository;
+import uk.gov.caz.retrofit.repository.RetrofittedVehiclePostgresRepository;
+import uk.gov.caz.retrofit.service.StreamingRegisterService.VehicleSource;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingRegisterServiceTest {
+
+  private static final int BATCH_SIZE = 2;
+  private static final int MAX_ERRORS_COUNT = 10;
+  private static final UUID ANY_UPLOADER_ID = UUID
+      .fromString("c5052136-46b9-4a07-8051-7da01b5c84c5");
+
+  @Mock
+  private RetrofittedVehiclePostgresRepository retrofittedVehiclePostgresRepository;
+
+  @Mock
+  private RetrofittedVehicleCopyRepository retrofittedVehicleCopyRepository;
+
+  @Mock
+  private AuditingRepository auditingRepository;
+
+  @Mock
+  private RegisterService registerService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private RetrofitStatusIndex retrofitStatusIndex;
+
+  @Mock
+  private RegisterDataVersionService registerDataVersionService;
+
+  private TransactionStatus transactionStatus;
+
+  private StreamingRegisterService streamingRegisterService;
+
+  @BeforeEach
+  void setup() {
+    transactionStatus = new SimpleTransactionStatus();
+    lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    streamingRegisterService = new StreamingRegisterService(retrofittedVehiclePostgresRepository,
+        retrofittedVehicleCopyRepository, auditingRepository, registerService,
+        new RetrofittedVehicleDtoToModelConverter(), new TransactionTemplate(transactionManager),
+        retrofitStatusIndex, registerDataVersionService, BATCH_SIZE);
+  }
+
+  @Test
+  void shouldRejectNullUploaderId() {
+    assertThatExceptionOfType(NullPointerException.class)
+        .isThrownBy(() -> streamingRegisterService.register(null, sourceOf(),
+            MAX_ERRORS_COUNT))
+        .withMessage("uploaderId cannot be null");
+  }
+
+  @Test
+  void shouldWriteVehiclesInBatchesAndDeleteMissingOnes() {
+    // given
+    VehicleSource source = sourceOf(validVehicle("ZC62OMA", 1), validVehicle("ZC62OMB", 2),
+        validVehicle("ZC62OMC", 3));
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        MAX_ERRORS_COUNT);
+
+    // then
+    assertThat(result.hasValidationErrors()).isFalse();
+    assertThat(transactionStatus.isRollbackOnly()).isFalse();
+    verify(auditingRepository).tagModificationsInCurrentTransactionBy(ANY_UPLOADER_ID);
+    verify(retrofittedVehiclePostgresRepository, times(2)).insertOrUpdateChanged(anySet());
+    verify(retrofittedVehiclePostgresRepository).createUploadedVrnsTable();
+    verify(retrofittedVehiclePostgresRepository, times(2)).addUploadedVrns(anyCollection());
+    verify(retrofittedVehiclePostgresRepository).deleteAllNotUploaded();
+    verify(registerDataVersionService).increment();
+    verify(retrofitStatusIndex).refreshAfterCommit();
+  }
+
+  @Test
+  void shouldCopyBatchesToStagingTableAndMergeItWhenCopyLoadStrategyIsUsed() {
+    // given
+    given(registerService.getLoadStrategy()).willReturn(RegisterLoadStrategy.COPY);
+    VehicleSource source = sourceOf(validVehicle("ZC62OMA", 1), validVehicle("ZC62OMB", 2),
+        validVehicle("ZC62OMC", 3));
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        MAX_ERRORS_COUNT);
+
+    // then
+    assertThat(result.hasValidationErrors()).isFalse();
+    verify(retrofittedVehicleCopyRepository).createStagingTable();
+    verify(retrofittedVehicleCopyRepository, times(2)).copyToStagingTable(anySet());
+    verify(retrofittedVehicleCopyRepository).mergeStagingTable();
+    verify(retrofittedVehiclePostgresRepository, never()).insertOrUpdateChanged(anySet());
+    verify(retrofittedVehiclePostgresRepository, never()).deleteAllNotUploaded();
+  }
+
+  @Test
+  void shouldRollbackAndStopWritingWhenThereAreBusinessErrors() {
+    // given
+    VehicleSource source = sourceOf(invalidVehicle("ZC62OMA", 1), validVehicle("ZC62OMB", 2),
+        validVehicle("ZC62OMC", 3));
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        MAX_ERRORS_COUNT);
+
+    // then
+    assertThat(result.getBusinessErrors()).isNotEmpty();
+    assertThat(result.getParseErrors()).isEmpty();
+    assertThat(transactionStatus.isRollbackOnly()).isTrue();
+    verify(retrofittedVehiclePostgresRepository, never()).insertOrUpdateChanged(anySet());
+    verify(retrofittedVehiclePostgresRepository, never()).deleteAllNotUploaded();
+    verify(registerDataVersionService, never()).increment();
+    verify(retrofitStatusIndex, never()).refreshAfterCommit();
+  }
+
+  @Test
+  void shouldStopConvertingOnceMaximumNumberOfErrorsIsReached() {
+    // given
+    RetrofittedVehicleDtoToModelConverter converter = spy(
+        new RetrofittedVehicleDtoToModelConverter());
+    streamingRegisterService = new StreamingRegisterService(retrofittedVehiclePostgresRepository,
+        retrofittedVehicleCopyRepository, auditingRepository, registerService, converter,
+        new TransactionTemplate(transactionManager), retrofitStatusIndex,
+        registerDataVersionService, BATCH_SIZE);
+    VehicleSource source = sourceOf(invalidVehicle("ZC62OMA", 1), invalidVehicle("ZC62OMB", 2),
+        invalidVehicle("ZC62OMC", 3), invalidVehicle("ZC62OMD", 4), validVehicle("ZC62OME", 5));
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        2);
+
+    // then
+    assertThat(result.getBusinessErrors()).hasSize(2);
+    assertThat(transactionStatus.isRollbackOnly()).isTrue();
+    verify(converter, times(2)).toRetrofittedVehicle(any());
+    verify(retrofittedVehiclePostgresRepository, times(3)).addUploadedVrns(anyCollection());
+    verify(retrofittedVehiclePostgresRepository, never()).insertOrUpdateChanged(anySet());
+  }
+
+  @Test
+  void shouldRollbackWhenThereAreParseErrors() {
+    // given
+    ValidationError parseError = ValidationError.valueError("parse error", 2);
+    VehicleSource source = consumer -> {
+      consumer.accept(validVehicle("ZC62OMA", 1));
+      return Collections.singletonList(parseError);
+    };
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        MAX_ERRORS_COUNT);
+
+    // then
+    assertThat(result.getParseErrors()).containsExactly(parseError);
+    assertThat(transactionStatus.isRollbackOnly()).isTrue();
+    verify(retrofittedVehiclePostgresRepository, never()).deleteAllNotUploaded();
+  }
+
+  @Test
+  void shouldReturnErrorIfThereIsDuplicatedVrn() {
+    // given
+    VehicleSource source = sourceOf(validVehicle("ND84VSX", 1), validVehicle("ND84VSX", 2));
+    given(retrofittedVehiclePostgresRepository.hasDuplicatedUploadedVrns()).willReturn(true);
+
+    // when
+    StreamingRegisterResult result = streamingRegisterService.register(ANY_UPLOADER_ID, source,
+        MAX_ERRORS_COUNT);
+
+    // then
+    assertThat(result.getParseErrors()).containsExactly(
+        ValidationError.valueError("There are multiple entries with the same VRN"));
+    assertThat(transactionStatus.isRollbackOnly()).isTrue();
+    verify(retrofittedVehiclePostgresRepository).addUploadedVrns(anyCollection());
+    verify(retrofittedVehiclePostgresRepository, never()).deleteAllNotUploaded();
+  }
+
+  private VehicleSource sourceOf(RetrofittedVehicleDto... vehicles) {
+    List<RetrofittedVehicleDto> vehicleList = Arrays.asList(vehicles);
+    return consumer -> {
+      vehicleList.forEach(consumer);
+      return Collections.emptyList();
+    };
+  }
+
+  private RetrofittedVehicleDto validVehicle(String vrn, int lineNumber) {
+    return RetrofittedVehicleDto.builder()
+        .vrn(vrn)
+        .vehicleCategory("category-1")
+        .model("model-1")
+        .dateOfRetrofitInstallation("2019-04-30")
+        .lineNumber(lineNumber)
+        .build();
+  }
+
+  private RetrofittedVehicleDto invalidVehicle(String vrn, int lineNumber) {
+    return validVehicle(vrn, lineNumber).toBuilder()
+        .dateOfRetrofitInstallation("not-a-date")
+        .build();
+  }
+}
@@ -0,0 +1,76 @@
+package uk.gov.caz.retrofit.service.validation;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import uk.gov.caz.retrofit.model.ValidationError;
+
+class FirstValidationErrorsTest {
+
+  @Test
+  public void shouldRejectNegativeLimit() {
+    // when
+    Throwable throwable = catchThrowable(() -> new FirstValidationErrors(-1));
+
+    // then
+    then(throwable).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldKeepNothingWhenLimitIsZero() {
+    // given
+    FirstValidationErrors firstErrors = new FirstValidationErrors(0);
+
+    // when
+    firstErrors.add(ValidationError.valueError("detail", 1));
+
+    // then
+    then(firstErrors.toList()).isEmpty();
+  }
+
+  @Test
+  public void shouldKeepErrorsWithLowestLineNumbersSortedByLineNumber() {
+    // given
+    FirstValidationErrors firstErrors = new FirstValidationErrors(3);
+    ValidationError withoutLineNumber = ValidationError.valueError("no line");
+    ValidationError second = ValidationError.valueError("second", 2);
+    ValidationError fifth = ValidationError.valueError("fifth", 5);
+
+    // when
+    firstErrors.addAll(Arrays.asList(
+        ValidationError.valueError("seventh", 7),
+        fifth,
+        ValidationError.valueError("ninth", 9),
+        withoutLineNumber,
+        second
+    ));
+
+    // then
+    then(firstErrors.toList()).containsExactly(withoutLineNumber, second, fifth);
+  }
+
+  @Test
+  public void shouldReturnTheSameErrorsAsStableSortFollowedByLimit() {
+    // given
+    int limit = 10;
+    FirstValidationErrors firstErrors = new FirstValidationErrors(limit);
+    List<ValidationError> errors = IntStream.range(0, 100)
+        .mapToObj(i -> ValidationError.valueError("error " + i, (i * 37) % 20 + 1))
+        .collect(Collectors.toList());
+
+    // when
+    firstErrors.addAll(errors);
+
+    // then
+    then(firstErrors.toList()).containsExactlyElementsOf(errors.stream()
+        .sorted(Comparator.comparing(error -> error.getLineNumber().orElse(0)))
+        .limit(limit)
+        .collect(Collectors.toList()));
+  }
+}
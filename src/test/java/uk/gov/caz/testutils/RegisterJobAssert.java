@@ -64,6 +64,11 @@ public class RegisterJobAssert extends AbstractAssert<RegisterJobAssert, Registe
     return this;
   }
 
+  public RegisterJobAssert hasContentDigest(String expectedContentDigest) {
+    Assertions.assertThat(actual.getContentDigest()).isEqualTo(expectedContentDigest);
+    return this;
+  }
+
   public RegisterJobAssert matchesAttributesOfTypicalRunningRegisterJob() {
     hasId(S3_REGISTER_JOB_ID);
     hasName(S3_REGISTER_JOB_NAME);
@@ -8,6 +8,7 @@ import static uk.gov.caz.testutils.TestObjects.TYPICAL_CORRELATION_ID;
 import java.util.UUID;
 import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assertions;
+import uk.gov.caz.retrofit.model.CsvMetadata;
 import uk.gov.caz.retrofit.model.registerjob.RegisterJobTrigger;
 import uk.gov.caz.retrofit.service.AsyncBackgroundJobStarter;
 import uk.gov.caz.retrofit.service.RegisterJobSupervisor;
@@ -44,15 +45,20 @@ public class RegisterJobSupervisorStartParamsAssert extends
     return this;
   }
 
+  public RegisterJobSupervisorStartParamsAssert hasContentDigest(String expectedContentDigest) {
+    Assertions.assertThat(actual.getContentDigest()).isEqualTo(expectedContentDigest);
+    return this;
+  }
+
   public RegisterJobSupervisorStartParamsAssert invokedJob(
       AsyncBackgroundJobStarter mockedAsyncBackgroundJobStarter, String expectedS3Bucket,
-      String expectedFilename) {
+      String expectedFilename, CsvMetadata expectedCsvMetadata) {
     RegisterJobSupervisor.RegisterJobInvoker invoker = actual.getRegisterJobInvoker();
     Assertions.assertThat(invoker).isNotNull();
     invoker.invoke(S3_REGISTER_JOB_ID);
     verify(mockedAsyncBackgroundJobStarter)
         .fireAndForgetRegisterCsvFromS3Job(S3_REGISTER_JOB_ID, expectedS3Bucket,
-            expectedFilename, TYPICAL_CORRELATION_ID);
+            expectedFilename, TYPICAL_CORRELATION_ID, expectedCsvMetadata);
     verifyNoMoreInteractions(mockedAsyncBackgroundJobStarter);
     return this;
   }